@@ -1,5 +1,12 @@
 package data;
 
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
@@ -10,12 +17,19 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.function.Function;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -29,7 +43,7 @@ import java.util.stream.Stream;
  *  The main categories of functions are:
  *  - Data generation functions.
  *  - Data array manipulation functions.
- *  - I/O functions.
+ *  - I/O functions, in plain text and in a compact binary format.
  *  - Helper / analysis functions.
  *
  *  Further, there is a file I/O read-write test function.
@@ -71,6 +85,7 @@ public class Handler {
 
     /** Generates a sorted array of elements from the supplier function
      * Useful for making lists of random or constant elements.
+     * Sorting takes O(n log n); for sorted random numbers {@link #sortedRandomInts} takes O(n).
      * @param n the number of elements.
      * @param supplier a supplier function.
      * @param <T> Must be comparable, as the array is sorted before being returned.
@@ -98,6 +113,95 @@ public class Handler {
     /** Creates a random alphanumeric string of the specified length */
     public static String randomString(int length) { return randomString(length, RANDOM); }
 
+    // ----------------------- Parallel, splittable generation
+    // The index range is cut into blocks of BLOCK elements, and block b draws from a SplittableRandom of its own,
+    // seeded by the b-th long of a SplittableRandom of the given seed. The output therefore depends on the seed only,
+    // whatever the number of threads the blocks are spread across.
+
+    private static final int BLOCK = 1 << 16;
+
+    /** The number of buckets of a parallel shuffle, see {@link #shuffle(Object[], long)}. */
+    private static final int BUCKETS = 256;
+
+    /** A generator of the element at an index, from a source of randomness. */
+    @FunctionalInterface
+    public interface Seeded<T> { T apply(int i, RandomGenerator r); }
+
+    private static int blocks(int n) { return Math.max(1, Math.ceilDiv(n, BLOCK)); }
+
+    private static long[] blockSeeds(int count, long seed) { return new SplittableRandom(seed).longs(count).toArray(); }
+
+    /** Generates an array of elements from the generator function, in parallel.
+     * The output is the same for the same seed, regardless of the number of threads.
+     * @param n the number of elements.
+     * @param seed the seed of the randomness given to the generator.
+     * @param generator a function of the index and a source of randomness, called once per index.
+     * @return an array of elements, of the class of the element at index 0.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T[] generate(int n, long seed, Seeded<T> generator) {
+        long[] seeds = blockSeeds(blocks(n), seed);
+        Object[] first = new Object[Math.min(n, BLOCK)];            // Block 0 first, to find the class of the array
+        RandomGenerator r0 = new SplittableRandom(seeds[0]);
+        for (int i = 0; i < first.length; i++) first[i] = generator.apply(i, r0);
+        Class<?> c = (n > 0 ? first[0] : generator.apply(0, new SplittableRandom(seeds[0]))).getClass();
+        T[] x = (T[]) Array.newInstance(c, n);
+        System.arraycopy(first, 0, x, 0, first.length);
+        IntStream.range(1, seeds.length).parallel().forEach(b -> {
+            RandomGenerator r = new SplittableRandom(seeds[b]);
+            for (int i = b * BLOCK, end = Math.min(n, i + BLOCK); i < end; i++) x[i] = generator.apply(i, r);
+        });
+        return x;
+    }
+
+    /** Generates uniformly random ints, in parallel. The output is the same for the same seed, see {@link #generate(int, long, Seeded)}. */
+    public static int[] randomInts(int n, long seed) {
+        long[] seeds = blockSeeds(blocks(n), seed);
+        int[] x      = new int[n];
+        IntStream.range(0, seeds.length).parallel().forEach(b -> {
+            SplittableRandom r = new SplittableRandom(seeds[b]);
+            for (int i = b * BLOCK, end = Math.min(n, i + BLOCK); i < end; i++) x[i] = r.nextInt();
+        });
+        return x;
+    }
+
+    /** Generates n uniformly random doubles in [0, 1), in ascending order, in O(n) time and in parallel.
+     * Instead of sorting, the gaps between consecutive values are drawn: the k-th smallest of n uniforms is distributed as
+     * the sum of the first k of n + 1 exponential variables, divided by the sum of all of them.
+     * The output is the same for the same seed, see {@link #generate(int, long, Seeded)}. */
+    public static double[] sortedRandomDoubles(int n, long seed) {
+        int blocks   = blocks(n);
+        long[] seeds = blockSeeds(blocks + 1, seed);
+        double[] x   = new double[n];
+        double[] sum = new double[blocks + 1];                      // Sum of the gaps of each block
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            SplittableRandom r = new SplittableRandom(seeds[b]);
+            double s = 0;
+            for (int i = b * BLOCK, end = Math.min(n, i + BLOCK); i < end; i++) x[i] = s += -Math.log(1 - r.nextDouble());
+            sum[b] = s;
+        });
+        sum[blocks] = -Math.log(1 - new SplittableRandom(seeds[blocks]).nextDouble()); // The gap after the largest
+        double[] offset = new double[blocks];
+        double total    = 0;
+        for (int b = 0; b < blocks; b++) { offset[b] = total; total += sum[b]; }
+        final double all = total + sum[blocks];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            for (int i = b * BLOCK, end = Math.min(n, i + BLOCK); i < end; i++)
+                x[i] = Math.min(Math.nextDown(1.0), (offset[b] + x[i]) / all);
+        });
+        return x;
+    }
+
+    /** Generates n uniformly random ints in [0, bound), in ascending order, in O(n) time and in parallel.
+     * See {@link #sortedRandomDoubles(int, long)}. */
+    public static int[] sortedRandomInts(int n, int bound, long seed) {
+        if (bound < 1) throw new IllegalArgumentException("Bound must be at least 1");
+        double[] u = sortedRandomDoubles(n, seed);
+        int[] x    = new int[n];
+        IntStream.range(0, n).parallel().forEach(i -> x[i] = (int) (u[i] * bound));
+        return x;
+    }
+
 
     // ============================= Data array manipulation ====================================
 
@@ -188,6 +292,112 @@ public class Handler {
         
     }
 
+    /** Returns a new, shuffled copy of the input array, shuffled in parallel.
+     * All permutations are equally likely, and the output is the same for the same seed, regardless of the number of
+     * threads, see {@link #generate(int, long, Seeded)}.
+     * @param data The array to produce a shuffled copy of.
+     * @param seed the seed of the shuffle.
+     */
+    public static <T> T[] shuffle(T[] data, long seed) {
+        int[] p = permutation(data.length, seed);
+        T[] x   = data.clone();
+        IntStream.range(0, x.length).parallel().forEach(i -> x[i] = data[p[i]]);
+        return x;
+    }
+
+    /** Primitive version of {@link #shuffle(Object[], long)}. */
+    public static int[] shuffle(int[] data, long seed) {
+        int[] p = permutation(data.length, seed);
+        int[] x = new int[data.length];
+        IntStream.range(0, x.length).parallel().forEach(i -> x[i] = data[p[i]]);
+        return x;
+    }
+
+    /** Shuffles the array in place, partly in parallel. All permutations are equally likely, and the output is the same
+     * for the same seed, regardless of the number of threads, though not the same as that of
+     * {@link #shuffle(Object[], long)}. Besides the array, it only needs a byte per element.
+     * Each element is sent to one of BUCKETS random buckets, the elements are moved to their buckets in place, as in
+     * an American flag sort, and each bucket is then shuffled with Fisher-Yates. */
+    public static <T> void inPlaceShuffle(T[] x, long seed) {
+        int n          = x.length;
+        int blocks     = blocks(n);
+        long[] seeds   = blockSeeds(blocks + BUCKETS, seed);
+        byte[] bucket  = new byte[n];
+        int[][] counts = new int[blocks][BUCKETS];                  // counts[b][k]: elements of block b sent to bucket k
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            SplittableRandom r = new SplittableRandom(seeds[b]);
+            for (int i = b * BLOCK, end = Math.min(n, i + BLOCK); i < end; i++) {
+                int k     = r.nextInt(BUCKETS);
+                bucket[i] = (byte) k;
+                counts[b][k]++;
+            }
+        });
+
+        int[] start = new int[BUCKETS + 1];                         // Start of each bucket
+        for (int k = 0; k < BUCKETS; k++) {
+            start[k + 1] = start[k];
+            for (int b = 0; b < blocks; b++) start[k + 1] += counts[b][k];
+        }
+        int[] next = Arrays.copyOf(start, BUCKETS);                 // The first position of each bucket not yet filled
+        for (int k = 0; k < BUCKETS; k++) {                         // Swap each element into its bucket, with its label
+            while (next[k] < start[k + 1]) {
+                int i = next[k], to = bucket[i] & 0xFF;
+                if (to == k) { next[k]++; continue; }
+                int j = next[to]++;
+                T t    = x[i];      x[i]      = x[j];      x[j]      = t;
+                byte l = bucket[i]; bucket[i] = bucket[j]; bucket[j] = l;
+            }
+        }
+
+        IntStream.range(0, BUCKETS).parallel().forEach(k -> {       // Fisher-Yates within each bucket
+            SplittableRandom r = new SplittableRandom(seeds[blocks + k]);
+            for (int i = start[k + 1] - 1; i > start[k]; i--) {
+                int j = start[k] + r.nextInt(i - start[k] + 1);
+                T t   = x[i]; x[i] = x[j]; x[j] = t;
+            }
+        });
+    }
+
+    /** Shuffles the array in place, in parallel, with the default seed, see {@link #shuffle(Object[], long)}. */
+    public static <T> void inPlaceShuffle(T[] x) { inPlaceShuffle(x, DEFAULT_SEED); }
+
+    // A uniformly random permutation of [0 .. n), such that element i of a shuffle is element p[i] of the input.
+    // Each block sends each of its indices to one of BUCKETS random buckets. The buckets are laid out one after the
+    // other, each filled block by block, and are then shuffled independently. Any permutation is as likely as any other.
+    // The number of buckets is fixed, so the tables of the blocks grow linearly with n, and the output only depends on
+    // the seed.
+    private static int[] permutation(int n, long seed) {
+        int blocks     = blocks(n);
+        long[] seeds   = blockSeeds(blocks + BUCKETS, seed);
+        int[] bucket   = new int[n];
+        int[][] counts = new int[blocks][BUCKETS];                  // counts[b][k]: indices of block b sent to bucket k
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            SplittableRandom r = new SplittableRandom(seeds[b]);
+            for (int i = b * BLOCK, end = Math.min(n, i + BLOCK); i < end; i++) counts[b][bucket[i] = r.nextInt(BUCKETS)]++;
+        });
+
+        int[] start  = new int[BUCKETS + 1];                        // Start of each bucket
+        int[][] next = new int[blocks][BUCKETS];                    // Next position of block b in bucket k
+        for (int k = 0, pos = 0; k < BUCKETS; k++) {
+            start[k] = pos;
+            for (int b = 0; b < blocks; b++) { next[b][k] = pos; pos += counts[b][k]; }
+        }
+        start[BUCKETS] = n;
+
+        int[] p = new int[n];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            for (int i = b * BLOCK, end = Math.min(n, i + BLOCK); i < end; i++) p[next[b][bucket[i]]++] = i;
+        });
+        IntStream.range(0, BUCKETS).parallel().forEach(k -> {       // Fisher-Yates within each bucket
+            SplittableRandom r = new SplittableRandom(seeds[blocks + k]);
+            for (int i = start[k + 1] - 1; i > start[k]; i--) {
+                int j = start[k] + r.nextInt(i - start[k] + 1);
+                int t = p[i]; p[i] = p[j]; p[j] = t;
+            }
+        });
+        return p;
+    }
+
     public static <T> T[] invert(T[] data) {
         T[] x = data.clone();
         int n = data.length - 1;
@@ -331,6 +541,187 @@ public class Handler {
         return l.toArray((T[]) Array.newInstance(l.getFirst().getClass(), l.size()));
     }
 
+    // ============================== Binary I/O ===================================
+    // A compact format for large inputs, loaded by memory mapping rather than parsing text.
+    // Layout, little-endian: the magic "AASD", a version byte, the type ordinal byte, the length of the generator name
+    // as a short, the count and the seed as longs, the generator name in UTF-8, padded with zeros to a multiple of 8 bytes.
+    // Then count fixed-width records: an int per Integer, and the id and value ints per TestData.
+
+    private static final int MAGIC      = 0x44534141; // "AASD" read little-endian
+    private static final byte VERSION   = 1;
+    private static final int FIXED      = 24;         // Bytes of the header before the generator name
+    private static final long WINDOW    = 1L << 30;   // Bytes mapped at a time, a multiple of every record width
+
+    /** The types of records of the binary format, with their width in bytes. */
+    public enum Type {
+        INTEGER(4), TESTDATA(8);
+        public final int width;
+        Type(int width) { this.width = width; }
+    }
+
+    /** The header of a binary data file.
+     * @param type the type of the records.
+     * @param count the number of records.
+     * @param seed the seed the data was generated from, 0 if unknown.
+     * @param generator a description of how the data was generated. */
+    public record Header(Type type, long count, long seed, String generator) {
+        /** The size of the header in bytes, which is the offset of the first record. */
+        public int size() { return FIXED + (generator.getBytes(UTF_8).length + 7) / 8 * 8; }
+    }
+
+    /** Writes the integers to a binary data file, see {@link #readInts(Path)}.
+     * @param file the file to write; it is replaced if it exists.
+     * @param data the integers to write.
+     * @param seed the seed the data was generated from, 0 if unknown.
+     * @param generator a description of how the data was generated.
+     * @throws IOException if the file cannot be written. */
+    public static void writeBinary(Path file, int[] data, long seed, String generator) throws IOException {
+        writeBinary(file, new Header(Type.INTEGER, data.length, seed, generator), data);
+    }
+
+    /** Writes the integers to a binary data file, see {@link #writeBinary(Path, int[], long, String)}. */
+    public static void writeBinary(Path file, Integer[] data, long seed, String generator) throws IOException {
+        int[] ints = new int[data.length];
+        for (int i = 0; i < data.length; i++) ints[i] = data[i];
+        writeBinary(file, ints, seed, generator);
+    }
+
+    /** Writes the TestData to a binary data file, see {@link #writeBinary(Path, int[], long, String)}. */
+    public static void writeBinary(Path file, TestData[] data, long seed, String generator) throws IOException {
+        int[] ints = new int[2 * data.length];
+        for (int i = 0; i < data.length; i++) { ints[2*i] = data[i].id(); ints[2*i + 1] = data[i].value(); }
+        writeBinary(file, new Header(Type.TESTDATA, data.length, seed, generator), ints);
+    }
+
+    // Writes the header and then the records as ints, through a direct buffer in large sequential writes
+    private static void writeBinary(Path file, Header header, int[] ints) throws IOException {
+        byte[] name = header.generator().getBytes(UTF_8);
+        if (name.length > Short.MAX_VALUE) throw new IllegalArgumentException("Generator name is too long.");
+        try (FileChannel ch = FileChannel.open(file, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            ByteBuffer head = ByteBuffer.allocate(header.size()).order(LITTLE_ENDIAN);
+            head.putInt(MAGIC).put(VERSION).put((byte) header.type().ordinal()).putShort((short) name.length)
+                .putLong(header.count()).putLong(header.seed()).put(name);
+            writeFully(ch, head.clear());
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(LITTLE_ENDIAN);
+            for (int i = 0; i < ints.length; ) {
+                int len = Math.min(ints.length - i, buffer.capacity() / 4);
+                buffer.clear().asIntBuffer().put(ints, i, len);
+                writeFully(ch, buffer.limit(4 * len));
+                i += len;
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer b) throws IOException { while (b.hasRemaining()) ch.write(b); }
+
+    /** Reads the header of a binary data file, and checks that the file holds exactly the records it counts.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file is not in the binary format, or is truncated. */
+    public static Header readHeader(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, READ)) { return readHeader(ch); }
+    }
+
+    private static Header readHeader(FileChannel ch) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(FIXED).order(LITTLE_ENDIAN);
+        while (b.hasRemaining()) if (ch.read(b, b.position()) < 0) throw new IllegalArgumentException("Not a binary data file.");
+        b.flip();
+        if (b.getInt() != MAGIC)   throw new IllegalArgumentException("Not a binary data file.");
+        if (b.get() != VERSION)    throw new IllegalArgumentException("Unsupported version of the binary format.");
+        int type   = b.get(), length = b.getShort();
+        if (type < 0 || type >= Type.values().length) throw new IllegalArgumentException("Unknown type of data in the binary file.");
+        if (length < 0)                                 throw new IllegalArgumentException("Corrupt generator name in the binary file.");
+        long count = b.getLong(), seed = b.getLong();
+        if (count < 0)                                  throw new IllegalArgumentException("Corrupt record count in the binary file.");
+        ByteBuffer name = ByteBuffer.allocate(length);
+        while (name.hasRemaining())
+            if (ch.read(name, FIXED + name.position()) < 0) throw new IllegalArgumentException("Truncated binary data file.");
+        Header header = new Header(Type.values()[type], count, seed, new String(name.array(), UTF_8));
+        long bytes;
+        try { bytes = Math.multiplyExact(count, header.type().width); }
+        catch (ArithmeticException e) { throw new IllegalArgumentException("Truncated binary data file."); }
+        if (header.size() + bytes != ch.size()) throw new IllegalArgumentException("Truncated binary data file.");
+        return header;
+    }
+
+    /** Loads an Integer data file into an int array, in bulk through a memory mapping.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file is not an Integer data file, or too large for an array. */
+    public static int[] readInts(Path file) throws IOException { return readInts(file, Type.INTEGER); }
+
+    /** Loads an Integer data file, see {@link #readInts(Path)}. */
+    public static Integer[] readIntegers(Path file) throws IOException {
+        int[] ints     = readInts(file);
+        Integer[] data = new Integer[ints.length];
+        for (int i = 0; i < ints.length; i++) data[i] = ints[i];
+        return data;
+    }
+
+    /** Loads a TestData data file, see {@link #readInts(Path)}. */
+    public static TestData[] readTestData(Path file) throws IOException {
+        int[] ints      = readInts(file, Type.TESTDATA);
+        TestData[] data = new TestData[ints.length / 2];
+        for (int i = 0; i < data.length; i++) data[i] = new TestData(ints[2*i], ints[2*i + 1]);
+        return data;
+    }
+
+    // Copies the records of the file into an int array, one mapped window at a time
+    private static int[] readInts(Path file, Type expected) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, READ)) {
+            Header header = readHeader(ch);
+            if (header.type() != expected) throw new IllegalArgumentException("Expected a " + expected + " data file.");
+            long bytes = header.count() * header.type().width;
+            if (bytes / 4 > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("The file is too large for an array.");
+            int[] ints = new int[(int) (bytes / 4)];
+            for (long offset = 0; offset < bytes; offset += WINDOW) {
+                long size = Math.min(WINDOW, bytes - offset);
+                ch.map(MapMode.READ_ONLY, header.size() + offset, size).order(LITTLE_ENDIAN)
+                  .asIntBuffer().get(ints, (int) (offset / 4), (int) (size / 4));
+            }
+            return ints;
+        }
+    }
+
+    /** Exposes the records of a binary data file without copying, as ints backed by a read-only memory mapping.
+     * An Integer record is one int, and a TestData record two: the id followed by the value.
+     * The mapping stays valid after this returns, until the buffer is garbage collected.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file is not in the binary format, or larger than a single mapping. */
+    public static IntBuffer mapInts(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, READ)) {
+            Header header = readHeader(ch);
+            long bytes = header.count() * header.type().width;
+            if (bytes > Integer.MAX_VALUE) throw new IllegalArgumentException("The file is too large for a single mapping.");
+            return ch.map(MapMode.READ_ONLY, header.size(), bytes).order(LITTLE_ENDIAN).asIntBuffer();
+        }
+    }
+
+    /** Converts a plain text data file in the data folder, e.g. an {@code .in} or {@code .out} file, to the binary format.
+     * @param filename the text file to be read from the data folder.
+     * @param type the type of the elements in the file.
+     * @param binary the binary file to write.
+     * @throws IOException if either file cannot be read or written. */
+    public static void textToBinary(String filename, Type type, Path binary) throws IOException {
+        InputStream stream = streamFile(filename);
+        if (stream == null) throw new FileNotFoundException(filename);
+        try (stream) {
+            String generator = "text:" + filename;
+            switch (type) {
+                case INTEGER  -> writeBinary(binary, Handler.<Integer>readData(stream, Integer::valueOf), 0, generator);
+                case TESTDATA -> writeBinary(binary, Handler.<TestData>readData(stream, TestData::from), 0, generator);
+            }
+        }
+    }
+
+    /** Converts a binary data file back to a plain text file in the data folder, see {@link #writeToFile(String, Object[])}.
+     * @return if there was no errors writing the data to file. */
+    public static boolean binaryToText(Path binary, String filename) throws IOException {
+        return switch (readHeader(binary).type()) {
+            case INTEGER  -> writeToFile(filename, readIntegers(binary));
+            case TESTDATA -> writeToFile(filename, readTestData(binary));
+        };
+    }
+
     // ======================= Analysis ===========================
 
     /** Counts the number of different index values in the two arrays */
@@ -0,0 +1,236 @@
+package data;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+import sorting.Util;
+
+/** Measures of how sorted an array is, and generators of inputs with a requested amount of disorder.
+ *
+ *  The measures are:
+ *  - runs: the number of maximal ascending runs, i.e. one more than the number of descents.
+ *  - explored runs: the number of runs found by {@link Util#exploreRun}, which also counts strictly descending runs,
+ *    as seen by the adaptive sorts.
+ *  - inversions: the number of pairs out of order.
+ *  - maximum displacement: the largest distance of an element from its position in the stably sorted array.
+ *  - run-length entropy: the entropy in bits of the lengths of the ascending runs, relative to n.
+ *
+ *  The generators take a sorted array, and return a reordered copy. They are deterministic for a given seed.
+ *  Inputs with duplicates may measure less disorder than requested, as equal neighbours do not descend.
+ */
+public class Presortedness {
+    private Presortedness() {}
+
+    /** Below this many elements, the parallel measures run sequentially */
+    private static final int SEQUENTIAL = 1 << 13;
+
+    /** The measures of disorder of an array, see {@link Presortedness}. */
+    public record Measures(int runs, int exploredRuns, long inversions, int maxDisplacement, double runEntropy) {}
+
+    /** Computes all the measures of disorder of the array, which is not modified. */
+    public static <T extends Comparable<? super T>> Measures measure(T[] a) {
+        return new Measures(runs(a), exploredRuns(a), inversions(a), maxDisplacement(a), runEntropy(a));
+    }
+
+    // ============================== Measures ===================================
+
+    /** Counts the maximal ascending runs of the array, in parallel; 0 for an empty array. */
+    public static <T extends Comparable<? super T>> int runs(T[] a) {
+        if (a.length == 0) return 0;
+        return 1 + (int) range(1, a.length).filter(i -> a[i].compareTo(a[i-1]) < 0).count();
+    }
+
+    /** Counts the runs as {@link Util#exploreRun} finds them, from left to right, on a copy of the array. */
+    public static <T extends Comparable<? super T>> int exploredRuns(T[] a) {
+        T[] x    = a.clone();
+        int runs = 0;
+        for (int next = 0; next < x.length; next = Util.exploreRun(x, next) + 1) runs++;
+        return runs;
+    }
+
+    /** Counts the inversions of the array in O(n log n), inside a merge sort of a copy, in parallel for large arrays. */
+    public static <T extends Comparable<? super T>> long inversions(T[] a) {
+        if (a.length < 2) return 0;
+        return new InversionTask<>(a.clone(), a.clone(), 0, a.length - 1).invoke();
+    }
+
+    /** Computes the largest distance between the position of an element and its position in the stably sorted array. */
+    public static <T extends Comparable<? super T>> int maxDisplacement(T[] a) {
+        Integer[] rank = IntStream.range(0, a.length).boxed().toArray(Integer[]::new);
+        Arrays.parallelSort(rank, (i, j) -> a[i].compareTo(a[j]));  // Stable, so equal elements keep their order
+        return range(0, a.length).map(p -> Math.abs(p - rank[p])).max().orElse(0);
+    }
+
+    /** Computes the entropy in bits of the lengths of the ascending runs: the sum over runs of -(l/n) log2(l/n).
+     * It is 0 for a sorted array, and log2(k) for k runs of equal length. */
+    public static <T extends Comparable<? super T>> double runEntropy(T[] a) {
+        int n = a.length;
+        double h = 0;
+        for (int lo = 0, hi = 1; lo < n; lo = hi++) {
+            while (hi < n && a[hi].compareTo(a[hi-1]) >= 0) hi++;
+            double p = (hi - lo) / (double) n;
+            h -= p * Math.log(p) / Math.log(2);
+        }
+        return h;
+    }
+
+    private static IntStream range(int from, int to) {
+        IntStream s = IntStream.range(from, to);
+        return (to - from < SEQUENTIAL) ? s : s.parallel();
+    }
+
+    // Merge sorts src[lo .. hi] into dst, counting for each element of the right half the elements of the left half
+    // greater than it. Precondition: src[lo .. hi] and dst[lo .. hi] hold the same elements.
+    private static class InversionTask<T extends Comparable<? super T>> extends RecursiveTask<Long> {
+        private final T[] src, dst;
+        private final int lo, hi;
+
+        InversionTask(T[] src, T[] dst, int lo, int hi) { this.src = src; this.dst = dst; this.lo = lo; this.hi = hi; }
+
+        @Override protected Long compute() {
+            if (hi <= lo) return 0L;
+            int mid = lo + (hi - lo) / 2;
+            InversionTask<T> left  = new InversionTask<>(dst, src, lo, mid);
+            InversionTask<T> right = new InversionTask<>(dst, src, mid + 1, hi);
+            long inversions;
+            if (hi - lo < SEQUENTIAL) inversions = left.compute() + right.compute();
+            else { left.fork(); inversions = right.compute() + left.join(); }
+
+            int i = lo, j = mid + 1;
+            for (int k = lo; k <= hi; k++) {
+                if      (i > mid)                          dst[k] = src[j++];
+                else if (j > hi)                           dst[k] = src[i++];
+                else if (src[j].compareTo(src[i]) < 0) { dst[k] = src[j++]; inversions += mid - i + 1; }
+                else                                       dst[k] = src[i++];
+            }
+            return inversions;
+        }
+    }
+
+    // ============================== Generators ===================================
+
+    /** Returns a copy of the sorted array with the requested number of ascending runs, of random lengths.
+     * The array is cut into runs at random positions, and the runs are laid out in reverse order.
+     * @param sorted a sorted array.
+     * @param runs the number of runs, between 1 and n (or 0 for an empty array).
+     * @param seed the seed of the cuts. */
+    public static <T> T[] withRuns(T[] sorted, int runs, long seed) {
+        int n = sorted.length;
+        if (runs < Math.min(1, n) || runs > n) throw new IllegalArgumentException("Runs must be between 1 and n");
+        int[] cuts = (runs < 2) ? new int[0]
+                   : new SplittableRandom(seed).ints(1, n).distinct().limit(runs - 1).sorted().toArray();
+        int[] lengths = new int[runs];
+        for (int r = 0, prev = 0; r < runs; r++) {
+            int cut    = (r < runs - 1) ? cuts[r] : n;
+            lengths[r] = cut - prev;
+            prev       = cut;
+        }
+        return withRunLengths(sorted, lengths);
+    }
+
+    /** Returns a copy of the sorted array with ascending runs of the given lengths, from left to right.
+     * The run with the smallest elements is placed last, and so on, so every boundary between runs is a descent.
+     * @throws IllegalArgumentException if the lengths are not positive, or do not add up to n. */
+    public static <T> T[] withRunLengths(T[] sorted, int[] lengths) {
+        if (Arrays.stream(lengths).anyMatch(l -> l < 1) || Arrays.stream(lengths).asLongStream().sum() != sorted.length)
+            throw new IllegalArgumentException("Run lengths must be positive and add up to n");
+        T[] x = sorted.clone();
+        for (int r = 0, pos = 0, from = sorted.length; r < lengths.length; r++) {
+            from -= lengths[r];
+            System.arraycopy(sorted, from, x, pos, lengths[r]);
+            pos  += lengths[r];
+        }
+        return x;
+    }
+
+    /** Returns a copy of the sorted array with approximately the requested run-length entropy, in bits.
+     * Uses k = ceil(2^h) runs: one long run, and k - 1 equal shorter ones, with the long run sized to meet h.
+     * @param entropy between 0 and log2(n). */
+    public static <T> T[] withRunEntropy(T[] sorted, double entropy) {
+        int n = sorted.length;
+        if (entropy < 0 || (n > 0 && entropy > Math.log(n) / Math.log(2) + 1e-9))
+            throw new IllegalArgumentException("Entropy must be between 0 and log2(n)");
+        int k = (int) Math.min(n, Math.ceil(Math.pow(2, entropy) - 1e-9));
+        if (k <= 1) return sorted.clone();
+        double lo = 1.0 / k, hi = 1.0;                              // Share of the long run; the entropy falls as it grows
+        for (int i = 0; i < 60; i++) {
+            double p = (lo + hi) / 2;
+            if (twoSizeEntropy(p, k) > entropy) lo = p; else hi = p;
+        }
+        int rest      = (int) Math.round(n * (1 - lo) / (k - 1));
+        rest          = Math.max(1, Math.min(rest, (n - 1) / (k - 1)));
+        int[] lengths = new int[k];
+        Arrays.fill(lengths, rest);
+        lengths[0]    = n - rest * (k - 1);
+        return withRunLengths(sorted, lengths);
+    }
+
+    private static double twoSizeEntropy(double p, int k) {
+        double q = (1 - p) / (k - 1);
+        return -(p * Math.log(p) + (k - 1) * (q > 0 ? q * Math.log(q) : 0)) / Math.log(2);
+    }
+
+    /** Returns a copy of the sorted array with exactly the requested number of inversions.
+     * Draws a random Lehmer code: the number of larger elements before each element, within what the remaining
+     * positions can hold, and decodes it with a Fenwick tree in O(n log n).
+     * @param inversions between 0 and n(n-1)/2.
+     * @param seed the seed of the code. */
+    public static <T> T[] withInversions(T[] sorted, long inversions, long seed) {
+        int n = sorted.length;
+        if (inversions < 0 || inversions > (long) n * (n - 1) / 2)
+            throw new IllegalArgumentException("Inversions must be between 0 and n(n-1)/2");
+        SplittableRandom r = new SplittableRandom(seed);
+        long remaining     = inversions;
+        int[] fenwick      = new int[n + 1];                        // 1 for every element not yet placed
+        for (int i = 1; i <= n; i++) { fenwick[i]++; if (i + (i & -i) <= n) fenwick[i + (i & -i)] += fenwick[i]; }
+        T[] x = sorted.clone();
+        for (int i = 0; i < n; i++) {
+            long free = n - 1 - i;                                  // Inversions position i can still add
+            long rest = free * (free - 1) / 2;                      // ... and the positions after it, together
+            long min  = Math.max(0, remaining - rest), max = Math.min(remaining, free);
+            long c    = (min == max) ? min : min + r.nextLong(max - min + 1);
+            remaining -= c;
+            x[i]       = sorted[select(fenwick, (int) c)];          // The element with c smaller ones left
+        }
+        return x;
+    }
+
+    // Finds and removes the (c+1)-th remaining element, where remaining elements are marked in the Fenwick tree
+    private static int select(int[] fenwick, int c) {
+        int pos = 0, n = fenwick.length - 1;
+        for (int step = Integer.highestOneBit(Math.max(1, n)); step > 0; step >>= 1)
+            if (pos + step <= n && fenwick[pos + step] <= c) { pos += step; c -= fenwick[pos]; }
+        for (int i = pos + 1; i <= n; i += i & -i) fenwick[i]--;
+        return pos;
+    }
+
+    /** Returns a copy of the sorted array where the largest displacement of an element is exactly d, if d < n.
+     * The array is cut into windows of d + 1 elements, which are shuffled independently, in parallel,
+     * so no element leaves its window. Then the first element of the first window is moved to its end.
+     * @param d at least 0.
+     * @param seed the seed of the shuffles. */
+    public static <T> T[] withMaxDisplacement(T[] sorted, int d, long seed) {
+        if (d < 0) throw new IllegalArgumentException("Displacement must be at least 0");
+        int n         = sorted.length;
+        int w         = (int) Math.min(n, d + 1L);
+        T[] x         = sorted.clone();
+        if (w < 2) return x;
+        long[] seeds  = new SplittableRandom(seed).longs(Math.ceilDiv(n, w)).toArray();
+        range(0, seeds.length).forEach(b -> {
+            SplittableRandom r = new SplittableRandom(seeds[b]);
+            int lo = b * w, hi = Math.min(n, lo + w) - 1;
+            for (int i = hi; i > lo; i--) {
+                int j = lo + r.nextInt(i - lo + 1);
+                T t = x[i]; x[i] = x[j]; x[j] = t;
+            }
+        });
+        if (d < n) {                                    // Move sorted[0] to position d, swapping out what is there
+            int at = 0;
+            while (x[at] != sorted[0]) at++;
+            T t = x[d]; x[d] = x[at]; x[at] = t;
+        }
+        return x;
+    }
+}
@@ -1,7 +1,7 @@
 package experiments;
 
 import java.util.function.IntFunction;
-import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import java.util.function.UnaryOperator;
 
 /** <p>An experiment is a collection of input, a run function, and a setup function.</p>
@@ -12,16 +12,19 @@ import java.util.function.UnaryOperator;
  * that makes use of the integer input, to avoid the compiler caching the result of the experiment.
  * Input is by default a generator, such that it takes the repetition counter as input (from 0 .. repetitions)</p>
  *
+ * <p>The run function returns a long, such as the compares of a sort, so results beyond 2^31 do not wrap.
+ * Functions returning an int can be given as they are.</p>
+ *
  * <p>Overloaded constructors create identity functions to simplify experiment definition code.</p>
  */
-public record Experiment<T>(IntFunction<T> inputGen, ToIntFunction<T> runFun, UnaryOperator<T> setupFun) { 
-    public T input(int i)   { return inputGen.apply(i); }
-    public T input()        { return inputGen.apply(0); }
-    public T setup(T input) { return setupFun.apply(input);}
-    public int run(T input) { return runFun.applyAsInt(input); }
+public record Experiment<T>(IntFunction<T> inputGen, ToLongFunction<T> runFun, UnaryOperator<T> setupFun) { 
+    public T input(int i)    { return inputGen.apply(i); }
+    public T input()         { return inputGen.apply(0); }
+    public T setup(T input)  { return setupFun.apply(input);}
+    public long run(T input) { return runFun.applyAsLong(input); }
 
-    public Experiment(T input, ToIntFunction<T> runFun, UnaryOperator<T> setupFun) { this(i -> input, runFun, setupFun); }
-    public Experiment(T input, ToIntFunction<T> runFun)                            { this(i -> input, runFun, t -> t); }
-    public Experiment(IntFunction<T> inputGen, ToIntFunction<T> runFun)            { this(inputGen, runFun, t -> t); }
+    public Experiment(T input, ToLongFunction<T> runFun, UnaryOperator<T> setupFun) { this(i -> input, runFun, setupFun); }
+    public Experiment(T input, ToLongFunction<T> runFun)                            { this(i -> input, runFun, t -> t); }
+    public Experiment(IntFunction<T> inputGen, ToLongFunction<T> runFun)            { this(inputGen, runFun, t -> t); }
 
     }
@@ -13,6 +13,9 @@ import java.util.function.IntFunction;
  * Experiments are modelled as a simple collection of some data, a function on that data that produces an integer result,
  * and a setup function, if needed.
  * A parameterized experiment is a function that takes a specific integer parameter and returns an {@code Experiment}.</p>
+ *
+ * <p>Measurements run in the calling JVM, so they can be affected by what ran before them.
+ * To run each parameter point in a fresh JVM instead, see {@link Forked}.</p>
  * 
  * <h2>========= Credits =========</h2>
  * <p> Much of this code is inspired by code written by Peter Sestoft for the lecture note
@@ -37,12 +40,37 @@ public class Experiments {
     /** Perform a dynamic single run experiment.
      * Dynamically find a proportional amount repetitions and measure an experiment
      * @param ex The Experiment to measure
-     * @param timeLimit Find the repetitions by doubling from 2 until the total running
-     *                  time exceeds this value in seconds.
+     * @param timeLimit Observe repetitions until the mean time is known within 1% at 95%
+     *                  confidence, or the total running time exceeds this value in seconds.
      */
     public static <T> Measurement measure(Experiment<T> ex, double timeLimit) { 
         return new SingleRunMeasurement(ex, timeLimit); }
 
+    /** Perform a static single run measurement, after a warmup as specified,
+     * e.g. {@link Warmup#NONE} to observe from the very first repetition.
+     * By default, measurements warm up with {@link Warmup#DEFAULT}.
+     * @param ex The Experiment to measure
+     * @param repetitions the amount of times to run and observe the experiment
+     * @param warmup when to consider the experiment warmed up */
+    public static <T> Measurement measure(Experiment<T> ex, int repetitions, Warmup warmup) { 
+        return new SingleRunMeasurement(ex, repetitions, warmup); }
+
+    /** Perform a dynamic single run experiment, after a warmup as specified.
+     * @param ex The Experiment to measure
+     * @param timeLimit Observe repetitions until the mean time is known within 1% at 95%
+     *                  confidence, or the total running time exceeds this value in seconds.
+     * @param warmup when to consider the experiment warmed up */
+    public static <T> Measurement measure(Experiment<T> ex, double timeLimit, Warmup warmup) { 
+        return new SingleRunMeasurement(ex, timeLimit, warmup); }
+
+    /** Perform an adaptive single run experiment, after a warmup as specified.
+     * Every repetition is observed and kept until the sampling rule is met.
+     * @param ex The Experiment to measure
+     * @param sampling when the mean time is precise enough, or the time budget is spent
+     * @param warmup when to consider the experiment warmed up */
+    public static <T> Measurement measure(Experiment<T> ex, Sampling sampling, Warmup warmup) { 
+        return new SingleRunMeasurement(ex, sampling, warmup); }
+
     /** Perform a static multi run experiment.
      * Measure an experiment a specific amount of times, average the results, and 
      * repeat for a specific amount of runs. The results reflect the average of 
@@ -62,8 +90,8 @@ public class Experiments {
      *             across all the repetitions of that run. Useful for very short operations with large
      *             variations in running time.
      * @param ex The Experiment to measure
-     * @param timeLimit Find the repetitions by doubling from 2 until the total running
-     *                  time exceeds this value in seconds.
+     * @param timeLimit Observe repetitions until the mean time is known within 1% at 95%
+     *                  confidence, or the total running time exceeds this value in seconds.
      */
     public static <T> Measurement measure(int runs, Experiment<T> ex, double timeLimit) { 
         return new MultiRunMeasurement(runs, ex, timeLimit); }
@@ -71,8 +99,8 @@ public class Experiments {
     /** Perform a parameterized single run experiment.
      * This is a version where the parameter grows by a scaling factor.
      * @param ex A function that generates Experiments from parameter values
-     * @param timeLimit Find the repetitions by doubling from 2 until the total running
-     *                  time exceeds this value in seconds.
+     * @param timeLimit Observe repetitions until the mean time is known within 1% at 95%
+     *                  confidence, or the total running time exceeds this value in seconds.
      * @param pMin The minimum value of the parameter.
      * @param pMax The maximim value of the parameter.
      * @param pScale The factor to scale the parameter value.
@@ -88,8 +116,8 @@ public class Experiments {
      *             across all the repetitions of that run. Useful for very short operations with large
      *             variations in running time.
      * @param ex A function that generates Experiments from parameter values
-     * @param timeLimit Find the repetitions by doubling from 2 until the total running
-     *                  time exceeds this value in seconds.
+     * @param timeLimit Observe repetitions until the mean time is known within 1% at 95%
+     *                  confidence, or the total running time exceeds this value in seconds.
      * @param pMin The minimum value of the parameter.
      * @param pMax The maximim value of the parameter.
      * @param pScale The factor to scale the parameter value.
@@ -102,8 +130,8 @@ public class Experiments {
     /** Perform a parameterized single run experiment.
      * This is a version where the parameter value sequencially increases.
      * @param ex A function that generates Experiments from parameter values
-     * @param timeLimit Find the repetitions by doubling from 2 until the total running
-     *                  time exceeds this value in seconds.
+     * @param timeLimit Observe repetitions until the mean time is known within 1% at 95%
+     *                  confidence, or the total running time exceeds this value in seconds.
      * @param pMax The maximim value of the parameter. The parameter values will be the 
      *             sequence 1 ... pMax including.
      */
@@ -120,8 +148,8 @@ public class Experiments {
      *             across all the repetitions of that run. Useful for very short operations with large
      *             variations in running time.
      * @param ex A function that generates Experiments from parameter values
-     * @param timeLimit Find the repetitions by doubling from 2 until the total running
-     *                  time exceeds this value in seconds.
+     * @param timeLimit Observe repetitions until the mean time is known within 1% at 95%
+     *                  confidence, or the total running time exceeds this value in seconds.
      * @param pMax The maximim value of the parameter.
      */
     public static <T> Measurement measure(
@@ -132,8 +160,8 @@ public class Experiments {
      * This is a version where the parameter values will be the sequence
      * pMin ... pMax inclusive.
      * @param ex A function that generates Experiments from parameter values
-     * @param timeLimit Find the repetitions by doubling from 2 until the total running
-     *                  time exceeds this value in seconds.
+     * @param timeLimit Observe repetitions until the mean time is known within 1% at 95%
+     *                  confidence, or the total running time exceeds this value in seconds.
      * @param pMin The minimum value of the parameter.
      * @param pMax The maximim value of the parameter.
      */
@@ -151,8 +179,8 @@ public class Experiments {
      *             across all the repetitions of that run. Useful for very short operations with large
      *             variations in running time.
      * @param ex A function that generates Experiments from parameter values
-     * @param timeLimit Find the repetitions by doubling from 2 until the total running
-     *                  time exceeds this value in seconds.
+     * @param timeLimit Observe repetitions until the mean time is known within 1% at 95%
+     *                  confidence, or the total running time exceeds this value in seconds.
      * @param pMin The minimum value of the parameter.
      * @param pMax The maximim value of the parameter.
      */
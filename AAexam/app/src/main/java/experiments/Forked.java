@@ -0,0 +1,143 @@
+package experiments;
+
+import static experiments.Result.Key;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/** <p>Runs measurements in freshly forked JVMs, so they do not depend on what ran before them in the same JVM:
+ * neither on JIT profiles, such as megamorphic call sites and inlining decisions, nor on the state of the heap.</p>
+ *
+ * <p>A {@code Job} is a serializable function producing a result. It is written to the standard input of a child JVM
+ * with the same class path, which runs it and streams the result back as CSV lines over its standard output.
+ * Anything else the job prints is passed through. Lambdas are serializable when their target type is, so jobs
+ * and experiment factories can be written as lambdas, as long as what they capture is serializable too:
+ * {@code Forked.measure(p -> new Experiment<>(...), 0.5, 100, 1_000_000, 2.0, "title", Options.DEFAULT)}.
+ * The experiment itself is created in the child.</p>
+ */
+public class Forked {
+    private Forked() {}
+
+    /** Marks the lines of the child's standard output that carry the result */
+    private static final String MARKER = "#forked-result ";
+
+    /** The options of the child JVMs.
+     * @param jvmArgs the arguments of each child JVM, e.g. {@code -Xmx4g} or {@code -XX:+UseParallelGC}. */
+    public record Options(List<String> jvmArgs) {
+        /** No extra JVM arguments: the defaults of the JVM. */
+        public static final Options DEFAULT = new Options(List.of());
+
+        public Options { jvmArgs = List.copyOf(jvmArgs); }
+
+        /** Options with a fixed heap of the given size, e.g. {@code "2g"}. */
+        public static Options heap(String size) { return new Options(List.of("-Xms" + size, "-Xmx" + size)); }
+
+        /** These options, followed by more JVM arguments. */
+        public Options with(String... args) {
+            return new Options(Stream.concat(jvmArgs.stream(), Arrays.stream(args)).toList());
+        }
+    }
+
+    /** A measurement to run in a child JVM, returning its result. */
+    @FunctionalInterface
+    public interface Job extends Serializable { Result run(); }
+
+    /** A function from parameter values to experiments, which can be sent to a child JVM. */
+    @FunctionalInterface
+    public interface ExperimentFactory<T> extends IntFunction<Experiment<T>>, Serializable { }
+
+    /** Runs the job in a fresh JVM, and returns its result.
+     * @throws IllegalStateException if the child exits abnormally, or returns no result. */
+    public static Result run(Job job, Options options) {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(options.jvmArgs());
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), Forked.class.getName()));
+        try {
+            Process child = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            try (ObjectOutputStream out = new ObjectOutputStream(child.getOutputStream())) { out.writeObject(job); }
+            List<String> csv = new ArrayList<>();
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(child.getInputStream()))) {
+                for (String line = in.readLine(); line != null; line = in.readLine()) {
+                    if (line.startsWith(MARKER)) csv.add(line.substring(MARKER.length()));
+                    else                         System.out.println(line);
+                }
+            }
+            int exit = child.waitFor();
+            if (exit != 0 || csv.size() < 2)
+                throw new IllegalStateException("Forked measurement failed with exit code " + exit);
+            return fromCSV(csv);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a forked measurement", e);
+        }
+    }
+
+    /** Runs a dynamic single run measurement of each parameter point in a JVM of its own,
+     * see {@link Experiments#measure(IntFunction, double, int, int, double)}. */
+    public static <T> Result measure(ExperimentFactory<T> exGen, double timeLimit,
+                                     int pMin, int pMax, double pScale, String title, Options options) {
+        List<SingleResult> x = new ArrayList<>();
+        for (int param : Measurement.points(pMin, pMax, pScale)) {
+            x.add((SingleResult) run(() -> new SingleRunMeasurement(exGen.apply(param), timeLimit).analyze(title)
+                                           .put(Key.PARAMETER, (double) param), options));
+        }
+        return new MultiResult(title, x);
+    }
+
+    /** Runs a dynamic multi run measurement of each parameter point in a JVM of its own,
+     * see {@link Experiments#measure(int, IntFunction, double, int, int, double)}. */
+    public static <T> Result measure(int runs, ExperimentFactory<T> exGen, double timeLimit,
+                                     int pMin, int pMax, double pScale, String title, Options options) {
+        List<SingleResult> x = new ArrayList<>();
+        for (int param : Measurement.points(pMin, pMax, pScale)) {
+            x.add((SingleResult) run(() -> new MultiRunMeasurement(runs, exGen.apply(param), timeLimit).analyze(title)
+                                           .put(Key.PARAMETER, (double) param), options));
+        }
+        return new MultiResult(title, x);
+    }
+
+    /** Runs a dynamic single run measurement of the experiment in a JVM of its own, see
+     * {@link Experiments#measure(Experiment, double)}. The factory is applied to 0. */
+    public static <T> Result measure(ExperimentFactory<T> ex, double timeLimit, String title, Options options) {
+        return run(() -> new SingleRunMeasurement(ex.apply(0), timeLimit).analyze(title), options);
+    }
+
+    /** The entry point of a child JVM: reads a job from standard input, runs it, and writes its result. */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        Job job;
+        try (ObjectInputStream in = new ObjectInputStream(System.in)) { job = (Job) in.readObject(); }
+        List<String> csv = job.run().toCSV();
+        for (String line : csv) System.out.println(MARKER + line);
+        System.out.flush();
+    }
+
+    // Parses the CSV of a single or multi result back into a result. The first line is the header.
+    // The title is written unquoted, and may hold commas, so the values are taken from the end of each line:
+    // they are numbers, and the keys of the header are names, neither of which holds a comma.
+    static Result fromCSV(List<String> csv) {
+        String[] header = csv.getFirst().split(",");
+        List<SingleResult> rows = new ArrayList<>();
+        for (String line : csv.subList(1, csv.size())) {
+            String[] cells = line.split(",", -1);
+            int first      = cells.length - (header.length - 1); // The cell of the first value
+            SingleResult r = new SingleResult(String.join(",", Arrays.copyOf(cells, first)));
+            for (int i = 1; i < header.length; i++) r.put(Key.valueOf(header[i]), Double.parseDouble(cells[first + i - 1]));
+            rows.add(r);
+        }
+        return (rows.size() == 1) ? rows.getFirst() : new MultiResult(rows.getFirst().getTitle(), rows);
+    }
+}
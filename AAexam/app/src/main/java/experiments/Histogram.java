@@ -0,0 +1,77 @@
+package experiments;
+
+import java.util.Arrays;
+
+/** <p>A histogram of non-negative long values, such as running times in nanoseconds, in bounded memory.</p>
+ *
+ * <p>Values are counted in logarithmic buckets, as in an HDR histogram: every power of two is split into
+ * {@value #SUB} buckets of equal width, so a bucket is at most 1/{@value #SUB} of its values wide, and values
+ * below {@code 2 * SUB} are counted exactly. A quantile is reported as the middle of its bucket, within 0.4% of the
+ * true value. The memory is {@value #SUB} buckets per power of two up to the largest value, at most 58 KB,
+ * regardless of the number of values. The minimum and maximum are kept exactly.</p>
+ */
+public final class Histogram {
+    /** The number of buckets per power of two */
+    static final int SUB = 128;
+    private static final int SUB_BITS = Integer.numberOfTrailingZeros(SUB);
+
+    private long[] counts = new long[2 * SUB];
+    private long count, min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+
+    public Histogram() { }
+
+    /** Counts a value.
+     * @throws IllegalArgumentException if the value is negative. */
+    public void record(long value) {
+        if (value < 0) throw new IllegalArgumentException("Histogram values must be non-negative");
+        int i = index(value);
+        if (i >= counts.length) counts = Arrays.copyOf(counts, Math.max(i + 1, counts.length + SUB));
+        counts[i]++;
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /** Adds all the values of another histogram to this one, and returns this one. */
+    public Histogram add(Histogram other) {
+        if (other.counts.length > counts.length) counts = Arrays.copyOf(counts, other.counts.length);
+        for (int i = 0; i < other.counts.length; i++) counts[i] += other.counts[i];
+        count += other.count;
+        min    = Math.min(min, other.min);
+        max    = Math.max(max, other.max);
+        return this;
+    }
+
+    public long count() { return count; }
+    public long min()   { return count == 0 ? 0 : min; }
+    public long max()   { return count == 0 ? 0 : max; }
+
+    /** The value at the given quantile, between 0 and 1: the smallest value at least that share of the values is at
+     * most, to within the width of its bucket. The quantiles 0 and 1 are the exact minimum and maximum.
+     * @return the quantile, or 0 if the histogram is empty. */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        if (count == 0) return 0;
+        if (q == 0)     return min;
+        if (q == 1)     return max;
+        long rank = Math.max(1, (long) Math.ceil(q * count)), seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.clamp(middle(i), min, max);
+        }
+        return max;
+    }
+
+    // The bucket of a value: the value itself below 2 * SUB, and above, SUB buckets per power of two
+    static int index(long value) {
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BITS);
+        return shift * SUB + (int) (value >>> shift);
+    }
+
+    // The middle of the values of a bucket
+    static double middle(int index) {
+        int shift  = Math.max(0, index / SUB - 1);
+        long lower = (long) (index - shift * SUB) << shift;
+        return lower + ((1L << shift) - 1) / 2.0;
+    }
+}
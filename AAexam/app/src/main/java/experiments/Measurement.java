@@ -2,12 +2,17 @@ package experiments;
 
 import static experiments.Result.Key;
 
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.function.IntFunction;
 
+import com.sun.management.OperatingSystemMXBean;
+import com.sun.management.ThreadMXBean;
+
 /** <p>A measurement is a collection of observations of time and experimental results.
  * There are four types of measurements:</p>
  * <ol>
@@ -18,8 +23,12 @@ import java.util.function.IntFunction;
  * </ol>
  * Measurements are created through the {@code Experiments} factory method {@code measure}.
  * The only public method os an {@code Measurement} is {@code analyze()}, which produces a result.
+ * Every measurement is preceded by a {@link Warmup}, so only steady state repetitions are observed. A multi-run
+ * measurement only warms up before its first run, as the later runs find the JVM warm already.
+ * The warmup repetitions and time are reported alongside the observations.
  *
- * Measurement also contains the {@code Timer} class, which is used for basic timekeeping.
+ * Measurement also contains the {@code Timer} class, which is used for basic timekeeping,
+ * and the {@code Probe} class, which reads the memory, CPU and garbage collection used by each observation.
  */
 public abstract sealed class Measurement {
 
@@ -31,77 +40,170 @@ public abstract sealed class Measurement {
         public void play()    { start  = System.nanoTime(); }
     }
 
+    /** Reads the resources used by the whole JVM between {@code start} and {@code stop}: bytes allocated by all
+     * threads, CPU time of the process in nanoseconds, and the number and milliseconds of collections.
+     * So the threads of a parallel experiment are counted too, as are those of the JIT compiler and the garbage
+     * collector, and those of anything else running in the JVM meanwhile.
+     * A reading the JVM does not support is -1. */
+    public static class Probe {
+        private static final ThreadMXBean THREADS = threads();
+        private static final OperatingSystemMXBean OS =
+            (ManagementFactory.getOperatingSystemMXBean() instanceof OperatingSystemMXBean os) ? os : null;
+        private static final GarbageCollectorMXBean[] GCS =
+            ManagementFactory.getGarbageCollectorMXBeans().toArray(GarbageCollectorMXBean[]::new);
+        private long allocated, cpuTime, gcCount, gcTime;
+        public Probe()              { }
+        public long allocated()     { return allocated; }
+        public long cpuTime()       { return cpuTime; }
+        public long gcCount()       { return gcCount; }
+        public long gcTime()        { return gcTime; }
+        public void start()         { allocated = bytes(); cpuTime = cpu(); gcCount = collections(); gcTime = collectionTime(); }
+        public void stop()          {
+            long bytes = bytes(), cpu = cpu();
+            allocated  = (bytes < 0) ? -1 : bytes - allocated;
+            cpuTime    = (cpu < 0)   ? -1 : cpu - cpuTime;
+            gcCount    = collections() - gcCount;
+            gcTime     = collectionTime() - gcTime;
+        }
+
+        private static long bytes() { return (THREADS != null) ? THREADS.getTotalThreadAllocatedBytes() : -1; }
+        private static long cpu()   { return (OS != null) ? OS.getProcessCpuTime() : -1; }
+        private static long collections() {
+            long count = 0;
+            for (GarbageCollectorMXBean gc : GCS) count += Math.max(0, gc.getCollectionCount());
+            return count;
+        }
+        private static long collectionTime() {
+            long time = 0;
+            for (GarbageCollectorMXBean gc : GCS) time += Math.max(0, gc.getCollectionTime());
+            return time;
+        }
+
+        private static ThreadMXBean threads() {
+            if (!(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean t)) return null;
+            if (!t.isThreadAllocatedMemorySupported()) return null;
+            t.setThreadAllocatedMemoryEnabled(true);
+            return t;
+        }
+    }
+
     abstract public Result analyze(String withTitle);
+
+    // The parameter points of a scaled sweep: pMin, then each scaled by pScale, while below pMax. The scaling is done in
+    // a double, so no step is truncated, and a point truncating to the same int as the one before it is skipped.
+    static List<Integer> points(int pMin, int pMax, double pScale) {
+        if (pScale <= 1) throw new IllegalArgumentException("Scale must be greater than 1.");
+        List<Integer> points = new ArrayList<>();
+        for (double p = pMin; p < pMax; p *= pScale)
+            if (points.isEmpty() || (int) p != points.getLast()) points.add((int) p);
+        return points;
+    }
+
+    // Puts the percentiles and the maximum of the times
+    static void putQuantiles(SingleResult r, Histogram h) {
+        r.put(Key.P50, h.quantile(0.5));               r.put(Key.P90, h.quantile(0.9));
+        r.put(Key.P99, h.quantile(0.99));              r.put(Key.P999, h.quantile(0.999));
+        r.put(Key.MAXTIME, (double) h.max());
+    }
+
+    // Puts the average resource usage per observation, leaving out what the probe does not support
+    static void putUsage(SingleResult r, double allocated, double cpuTime, double gcCount, double gcTime) {
+        if (allocated >= 0) r.put(Key.ALLOCATED, allocated);
+        if (cpuTime >= 0)   r.put(Key.CPUTIME, cpuTime);
+        r.put(Key.GCCOUNT, gcCount);
+        r.put(Key.GCTIME, gcTime);
+    }
 }
 
 final class SingleRunMeasurement extends Measurement {
-    private int[] results;
-    private long[] times;
-    private final long runningTime;
-    private final double averageTime,averageResult;
-    private final int observations;
-
-    <T> SingleRunMeasurement(Experiment<T> ex, int repetitions) {
-        Timer t              = new Timer();
-        long runningTime     = 0; 
-        double averageResult = 0;
-        results              = new int[repetitions];
-        times                = new long[repetitions];
-        for (int i = 0; i < repetitions; i++) {
-            T in           = ex.setup(ex.input(i));
-            t.play();
-            int result     = ex.run(in);
-            long time      = t.check();
-            results[i]     = result;
-            times[i]       = time;
-            runningTime   += time;
-            averageResult += result / (double) repetitions;
-        }
-        averageTime = runningTime / (double) repetitions;
-        this.runningTime = runningTime;
-        this.averageResult = averageResult;
-        this.observations = repetitions;
-    }
-
-    public <T> SingleRunMeasurement(Experiment<T> ex, double timeLimit) {
-        int count = 1, countLimit = Integer.MAX_VALUE / 2;
-        SingleRunMeasurement obs;
-        do { count *= 2;
-             obs = new SingleRunMeasurement(ex, count);
-        } while (obs.runningTime < timeLimit*1e9 && count < countLimit);
-        this.averageResult = obs.averageResult;
-        this.averageTime   = obs.averageTime;
-        this.runningTime   = obs.runningTime;
-        this.times         = obs.times;
-        this.results       = obs.results;
-        this.observations  = obs.observations;
-    }
-
-    public long runningTime()     { return runningTime; }
-    public double averageResult() { return averageResult; }
-    public double averageTime()   { return averageTime; }
-    public int observations()     { return observations; }
+    // Observations are not stored, but summarized online: Welford's moments of the results and times, a histogram of
+    // the times, and sums of the resource usage. So the memory is bounded, however many repetitions are observed.
+    // https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance
+    private final Histogram histogram = new Histogram();
+    private double meanResult, m2Result, meanTime, m2Time;
+    private long runningTime, allocated, cpuTime, gcCount, gcTime;
+    private int observations;
+    private final Warmup.Done warmup;
 
-    public SingleResult analyze(String withTitle) {
+    <T> SingleRunMeasurement(Experiment<T> ex, int repetitions) { this(ex, repetitions, Warmup.DEFAULT); }
 
-        // Try to implement Welford's algorithm
-        // https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance
-        int count = 0;
-        double meanResult = 0.0, m2Result = 0.0, meanTime = 0.0, m2Time = 0.0, sdResult, sdTime;
-        for (int i = 0; i < observations; i++) {
-            count++;
-            int result      = results[i];          long time     = times[i];
-            double d1Result = result - meanResult; double d1Time = time - meanTime;
-            meanResult     += d1Result / count;    meanTime     += d1Time / count;
-            double d2Result = result - meanResult; double d2Time = time - meanTime;
-            m2Result       += d1Result * d2Result; m2Time       += d1Time * d2Time;
-        }
-        sdResult  = Math.sqrt(m2Result/(count-1));     sdTime = Math.sqrt(m2Time/(count-1));
+    /** Warms up the experiment as specified, and then observes the given number of repetitions. */
+    <T> SingleRunMeasurement(Experiment<T> ex, int repetitions, Warmup warmup) { this(ex, repetitions, warmup.run(ex)); }
+
+    // Observes the repetitions of an experiment that has already been warmed up
+    private <T> SingleRunMeasurement(Experiment<T> ex, int repetitions, Warmup.Done warmup) {
+        Timer t = new Timer();
+        Probe p = new Probe();
+        for (int i = 0; i < repetitions; i++) observe(ex, t, p);
+        this.warmup = warmup;
+    }
+
+    public <T> SingleRunMeasurement(Experiment<T> ex, double timeLimit) { this(ex, timeLimit, Warmup.DEFAULT); }
+
+    /** Warms up the experiment, and then samples it until the mean time is precise, or the time limit in seconds is spent,
+     * see {@link Sampling#within}. */
+    public <T> SingleRunMeasurement(Experiment<T> ex, double timeLimit, Warmup warmup) {
+        this(ex, Sampling.within(timeLimit), warmup);
+    }
+
+    /** Warms up the experiment as specified, and then observes repetitions until the sampling rule is met.
+     * Every observation counts, so no repetition is wasted. */
+    public <T> SingleRunMeasurement(Experiment<T> ex, Sampling sampling, Warmup warmup) {
+        this.warmup    = warmup.run(ex);
+        Timer t        = new Timer();
+        Probe p        = new Probe();
+        int countLimit = Integer.MAX_VALUE / 2;
+        do { observe(ex, t, p);
+        } while (!sampling.done(observations, meanTime, m2Time, runningTime) && observations < countLimit);
+    }
+
+    // Sets up and runs the next repetition, and adds its result, time and resource usage to the summary.
+    // The probe is read outside of the timed region, so it does not add to the time.
+    private <T> void observe(Experiment<T> ex, Timer t, Probe p) {
+        T in            = ex.setup(ex.input(observations));
+        p.start();
+        t.play();
+        long result     = ex.run(in);
+        long time       = t.check();
+        p.stop();
+        observations++;
+        double d1Result = result - meanResult; double d1Time = time - meanTime;
+        meanResult     += d1Result / observations; meanTime += d1Time / observations;
+        double d2Result = result - meanResult; double d2Time = time - meanTime;
+        m2Result       += d1Result * d2Result; m2Time       += d1Time * d2Time;
+        runningTime    += time;
+        histogram.record(time);
+        allocated       = (allocated < 0 || p.allocated() < 0) ? -1 : allocated + p.allocated();
+        cpuTime         = (cpuTime < 0 || p.cpuTime() < 0)     ? -1 : cpuTime + p.cpuTime();
+        gcCount        += p.gcCount();
+        gcTime         += p.gcTime();
+    }
+
+    public long runningTime()        { return runningTime; }
+    public double averageResult()    { return meanResult; }
+    public double averageTime()      { return meanTime; }
+    public int observations()        { return observations; }
+    public Warmup.Done warmup()      { return warmup; }
+    public Histogram histogram()     { return histogram; }
+    public double averageAllocated() { return average(allocated); }
+    public double averageCpuTime()   { return average(cpuTime); }
+    public double averageGcCount()   { return average(gcCount); }
+    public double averageGcTime()    { return average(gcTime); }
+
+    // The average per observation, or -1 if the probe does not support the reading
+    private double average(long sum) { return (sum < 0) ? -1 : sum / (double) observations; }
+
+    public SingleResult analyze(String withTitle) {
+        double sdResult = Math.sqrt(m2Result/(observations-1)), sdTime = Math.sqrt(m2Time/(observations-1));
 
         SingleResult r = new SingleResult(withTitle);
         r.put(Key.MEANRESULT, meanResult);             r.put(Key.MEANTIME, meanTime);
         r.put(Key.SDEVRESULT, sdResult);               r.put(Key.SDEVTIME, sdTime);
-        r.put(Key.REPETITIONS, (double) count);
+        r.put(Key.REPETITIONS, (double) observations);
+        r.put(Key.WARMUPS, (double) warmup.iterations());
+        r.put(Key.WARMUPTIME, (double) warmup.time());
+        putUsage(r, averageAllocated(), averageCpuTime(), averageGcCount(), averageGcTime());
+        putQuantiles(r, histogram);
         return r;
     }
 }
@@ -110,16 +212,31 @@ final class MultiRunMeasurement extends Measurement {
     List<SingleRunMeasurement> obs;
     int runs, repetitions;
 
-    <T> MultiRunMeasurement(int runs, Experiment<T> ex, int repetitions) {
+    <T> MultiRunMeasurement(int runs, Experiment<T> ex, int repetitions) { this(runs, ex, repetitions, Warmup.DEFAULT); }
+
+    /** Warms up the experiment as specified before the first run, and observes each run with the given number of
+     * repetitions. */
+    <T> MultiRunMeasurement(int runs, Experiment<T> ex, int repetitions, Warmup warmup) {
         this.runs = runs; this.repetitions = repetitions;
         List<SingleRunMeasurement> x = new ArrayList<>();
         for (int i = 0; i < runs; i++) {
-            x.add(new SingleRunMeasurement(ex, repetitions));
+            x.add(new SingleRunMeasurement(ex, repetitions, (i == 0) ? warmup : Warmup.NONE));
         } obs = x;
     }
 
+    /** Samples the first run until it is precise or the time limit is spent, see {@link Sampling#within},
+     * and observes the remaining runs with as many repetitions. Only the first run is warmed up.
+     * @throws IllegalArgumentException if {@code runs} is less than 1, before measuring anything. */
     <T> MultiRunMeasurement(int runs, Experiment<T> ex, double timeLimit) {
-        this(runs, ex, new SingleRunMeasurement(ex, timeLimit).observations()); }
+        if (runs < 1) throw new IllegalArgumentException("A measurement needs at least 1 run.");
+        SingleRunMeasurement first = new SingleRunMeasurement(ex, timeLimit);
+        this.runs = runs; this.repetitions = first.observations();
+        List<SingleRunMeasurement> x = new ArrayList<>();
+        x.add(first);
+        for (int i = 1; i < runs; i++) {
+            x.add(new SingleRunMeasurement(ex, repetitions, Warmup.NONE));
+        } obs = x;
+    }
 
     public SingleResult analyze(String withTitle) {
         int count = 0;
@@ -139,6 +256,16 @@ final class MultiRunMeasurement extends Measurement {
         r.put(Key.SDEVRESULT, sdResult);               r.put(Key.SDEVTIME, sdTime);
         r.put(Key.RUNS, (double) count);
         r.put(Key.REPETITIONS, (double) repetitions);
+        r.put(Key.WARMUPS, (double) obs.stream().mapToInt(o -> o.warmup().iterations()).sum());
+        r.put(Key.WARMUPTIME, (double) obs.stream().mapToLong(o -> o.warmup().time()).sum());
+        putUsage(r,
+            obs.stream().mapToDouble(SingleRunMeasurement::averageAllocated).average().orElse(-1),
+            obs.stream().mapToDouble(SingleRunMeasurement::averageCpuTime).average().orElse(-1),
+            obs.stream().mapToDouble(SingleRunMeasurement::averageGcCount).average().orElse(-1),
+            obs.stream().mapToDouble(SingleRunMeasurement::averageGcTime).average().orElse(-1));
+        Histogram times = new Histogram();
+        for (SingleRunMeasurement o : obs) times.add(o.histogram());
+        putQuantiles(r, times);
         return r;
     }
 }
@@ -165,9 +292,8 @@ final class ParameterizedSingleRunMeasurement extends Measurement {
         IntFunction<Experiment<T>> exGen, double timeLimit,
         int pMin, int pMax, double pScale
     ) {
-        int limit = (int) (Integer.MAX_VALUE / pScale);
         Map<Integer, SingleRunMeasurement> results = new TreeMap<>();
-        for (int p = pMin; p < limit && p < pMax; p *= pScale ) {
+        for (int p : points(pMin, pMax, pScale)) {
             Experiment<T> ex = exGen.apply(p);
             results.put(p, new SingleRunMeasurement(ex, timeLimit));
         }
@@ -199,9 +325,7 @@ final class ParameterizedMultiRunMeasurement extends Measurement {
 
         for (int p = pMin; p <= pMax; p++) {
             Experiment<T> ex = exGen.apply(p);
-            results.put(p, new MultiRunMeasurement(
-                runs, ex, new SingleRunMeasurement(ex, timeLimit).observations())
-            );
+            results.put(p, new MultiRunMeasurement(runs, ex, timeLimit));
         }
         obs = results;
     }
@@ -210,14 +334,10 @@ final class ParameterizedMultiRunMeasurement extends Measurement {
         int runs,IntFunction<Experiment<T>> exGen, double timeLimit, 
         int pMin, int pMax, double pScale
     ) {
-        int limit = (int) (Integer.MAX_VALUE / pScale);
         Map<Integer, MultiRunMeasurement> results = new TreeMap<>();
-        for (int p = pMin; p < limit && p < pMax; p *= pScale ) {
+        for (int p : points(pMin, pMax, pScale)) {
             Experiment<T> ex = exGen.apply(p);
-            results.put(p, 
-                new MultiRunMeasurement(
-                    runs, ex, new SingleRunMeasurement(ex, timeLimit).observations())
-            );
+            results.put(p, new MultiRunMeasurement(runs, ex, timeLimit));
         }
         obs = results;
     }
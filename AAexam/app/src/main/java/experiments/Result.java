@@ -20,7 +20,16 @@ public abstract sealed class Result {
     public static final String PRINTFORMAT = "%-18s%10s%5s%10s%20s%16s%13s%13s";
     private String title;
 
-    public enum Key { PARAMETER, RUNS, REPETITIONS, MEANTIME, SDEVTIME, MEANRESULT, SDEVRESULT; }
+    /** Keys of a result. WARMUPS and WARMUPTIME are the repetitions and nanoseconds spent in warmup before measuring.
+     * ALLOCATED, CPUTIME, GCCOUNT and GCTIME are the average bytes allocated by all threads and nanoseconds of CPU time
+     * of the process per observation, and the average number and milliseconds of garbage collections per observation.
+     * P50, P90, P99, P999 and MAXTIME are percentiles and the maximum of the times of the observations.
+     * EXPLORETIME, PADTIME and MERGETIME are the nanoseconds per sort spent in each phase of a run-stack sort,
+     * NATURALRUNS the natural runs it found per sort, and MEANRUNLENGTH and MEANMERGESIZE the mean length of those
+     * runs and the mean size of its merges. */
+    public enum Key { PARAMETER, RUNS, REPETITIONS, MEANTIME, SDEVTIME, MEANRESULT, SDEVRESULT, WARMUPS, WARMUPTIME,
+                      ALLOCATED, CPUTIME, GCCOUNT, GCTIME, P50, P90, P99, P999, MAXTIME,
+                      EXPLORETIME, PADTIME, MERGETIME, NATURALRUNS, MEANRUNLENGTH, MEANMERGESIZE; }
 
     public abstract Result removeKeys(Collection<Key> ks);
     public abstract Result removeKey(Key ks);
@@ -0,0 +1,38 @@
+package experiments;
+
+/** <p>A stopping rule for observing an experiment an adaptive number of times.</p>
+ *
+ * <p>Repetitions are observed one at a time, and every observation counts towards the result. Sampling stops as soon
+ * as the confidence interval of the mean running time, {@code z * sd / sqrt(n)} to either side, is within
+ * {@code relativeError} of the mean, after at least {@code minRepetitions} observations. It also stops once the total running time of the
+ * observations exceeds {@code maxSeconds}, so an experiment that never settles is still measured within budget.</p>
+ *
+ * @param relativeError the largest half-width of the confidence interval, relative to the mean; above 0.
+ * @param z the standard normal quantile of the confidence level, e.g. 1.96 for 95%; above 0.
+ * @param minRepetitions the fewest observations to estimate the deviation from; at least 2.
+ * @param maxSeconds the time budget, in seconds of total running time.
+ */
+public record Sampling(double relativeError, double z, int minRepetitions, double maxSeconds) {
+    /** The quantile of a 95% confidence level. */
+    public static final double Z95 = 1.96;
+
+    public Sampling {
+        if (relativeError <= 0 || z <= 0) throw new IllegalArgumentException("Relative error and z must be positive");
+        if (minRepetitions < 2)           throw new IllegalArgumentException("Sampling needs at least 2 repetitions");
+        if (maxSeconds < 0)               throw new IllegalArgumentException("Time budget must be non-negative");
+    }
+
+    /** Samples until the mean is known within 1% at 95% confidence, for at most the given seconds. */
+    public static Sampling within(double maxSeconds) { return new Sampling(0.01, Z95, 10, maxSeconds); }
+
+    /** Whether the observations so far are enough.
+     * @param n the number of observations
+     * @param mean the mean of their running times
+     * @param m2 the sum of squared differences from the mean, as in Welford's algorithm
+     * @param runningTime the total running time of the observations, in nanoseconds */
+    boolean done(int n, double mean, double m2, long runningTime) {
+        if (runningTime >= maxSeconds * 1e9) return true;
+        if (n < minRepetitions)              return false;
+        return z * Math.sqrt(m2 / (n - 1) / n) <= relativeError * mean;
+    }
+}
@@ -0,0 +1,74 @@
+package experiments;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+
+/** <p>A policy for warming up an experiment before it is measured, so that the measurement reflects JIT-compiled code.</p>
+ *
+ * <p>The experiment is repeated until it reaches a steady state: the JIT compiler has not been working during the last
+ * {@code window} repetitions, and the coefficient of variation (standard deviation over mean) of their running times
+ * is at most {@code maxCv}. Compilation time is read from the {@code CompilationMXBean}; on a JVM that does not
+ * monitor it, only the running times decide. Warmup also stops after {@code maxIterations} repetitions, or once it has
+ * taken {@code maxSeconds}, whichever comes first, so a noisy or slow experiment is still measured.</p>
+ *
+ * @param window the number of most recent repetitions that must be steady; at least 1, or 0 for no warmup.
+ * @param maxCv the largest coefficient of variation of the window that counts as steady.
+ * @param maxIterations the largest number of warmup repetitions.
+ * @param maxSeconds the longest time to spend warming up, in seconds.
+ */
+public record Warmup(int window, double maxCv, int maxIterations, double maxSeconds) {
+    /** Steady over 5 repetitions within 5% of each other, for at most 1000 repetitions or 5 seconds. */
+    public static final Warmup DEFAULT = new Warmup(5, 0.05, 1_000, 5.0);
+    /** No warmup: measure from the very first repetition. */
+    public static final Warmup NONE    = new Warmup(0, 0.0, 0, 0.0);
+
+    public Warmup {
+        if (window < 0 || maxIterations < 0 || maxSeconds < 0 || maxCv < 0)
+            throw new IllegalArgumentException("Warmup parameters must be non-negative");
+    }
+
+    /** The outcome of a warmup: the repetitions it took, and their total time in nanoseconds. */
+    public record Done(int iterations, long time) { }
+
+    private static final CompilationMXBean JIT = ManagementFactory.getCompilationMXBean();
+    private static volatile long sink; // Consumes results, so the runs cannot be optimized away
+
+    /** Repeats the experiment until it is steady, see {@link Warmup}. */
+    public <T> Done run(Experiment<T> ex) {
+        if (window == 0 || maxIterations == 0) return new Done(0, 0);
+        long[] times     = new long[window];
+        long start       = System.nanoTime(), limit = (long) (maxSeconds * 1e9);
+        long compiled    = compilationTime();
+        int quiet        = 0, i = 0;
+        long result      = 0;
+        while (i < maxIterations && System.nanoTime() - start < limit) {
+            T in           = ex.setup(ex.input(i));
+            long t         = System.nanoTime();
+            result        += ex.run(in);
+            times[i++ % window] = System.nanoTime() - t;
+            long now       = compilationTime();
+            quiet          = (now == compiled) ? quiet + 1 : 0;
+            compiled       = now;
+            if (i >= window && quiet >= window && cv(times) <= maxCv) break;
+        }
+        sink = result;
+        return new Done(i, System.nanoTime() - start);
+    }
+
+    // Total milliseconds spent compiling so far, or 0 if that is not monitored
+    private static long compilationTime() {
+        return (JIT != null && JIT.isCompilationTimeMonitoringSupported()) ? JIT.getTotalCompilationTime() : 0;
+    }
+
+    // Coefficient of variation of the times
+    static double cv(long[] times) {
+        double mean = 0, m2 = 0;
+        for (int i = 0; i < times.length; i++) {
+            double d = times[i] - mean;
+            mean    += d / (i + 1);
+            m2      += d * (times[i] - mean);
+        }
+        if (times.length < 2 || mean == 0) return 0;
+        return Math.sqrt(m2 / (times.length - 1)) / mean;
+    }
+}
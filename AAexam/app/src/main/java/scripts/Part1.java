@@ -77,7 +77,7 @@ public class Part1 {
             "Precondition failed: Input data is already sorted!");
 
         // TopDownMergeSort is our classic recursive mergesort implementation.
-        int comparisons = TopDownMergeSort.sort(actual);
+        long comparisons = TopDownMergeSort.sort(actual);
 
         if (!Util.isSorted(actual)) throw new AssertionError(
             "Postcondition failed: Returned data is not sorted!");
@@ -408,7 +408,7 @@ public class Part1 {
             "Precondition failed: Input data is already sorted!");
 
         // TopDownMergeSortCutoff is our implementation.
-        int comparisons = TopDownMergeSortCutoff.sort(actual, 4);
+        long comparisons = TopDownMergeSortCutoff.sort(actual, 4);
 
         if (!Util.isSorted(actual)) throw new AssertionError(
             "Postcondition failed: Returned data is not sorted!");
@@ -524,7 +524,7 @@ public class Part1 {
             "Precondition failed: Input data is already sorted!");
 
         // BottomUpMergeSort is our iterative mergesort implementation.
-        int comparisons = BottomUpMergeSort.sort(actual);
+        long comparisons = BottomUpMergeSort.sort(actual);
 
         if (!Util.isSorted(actual)) throw new AssertionError(
             "Postcondition failed: Returned data is not sorted!");
@@ -550,7 +550,7 @@ public class Part1 {
         Integer[] actual   = Handler.randomize(expected);
 
         // BottomUpMergeSortCutoff is our iterative mergesort with run creation implementation.
-        int comparisons = BottomUpMergeSortCutoff.sort(actual, 5);
+        long comparisons = BottomUpMergeSortCutoff.sort(actual, 5);
 
         if (!Util.isSorted(actual)) throw new AssertionError(
             "Postcondition failed: Returned data is not sorted!");
@@ -8,11 +8,14 @@ import data.Handler;
 import experiments.Experiment;
 import experiments.Experiments;
 import experiments.Result;
+import experiments.Result.Key;
 import sorting.BinomialSort;
 import sorting.BinomialSortAdaptive;
 import sorting.InsertionSort;
 import sorting.LevelSort;
 import sorting.LevelSortAdaptive;
+import sorting.Merge;
+import sorting.SortStats;
 import sorting.TopDownMergeSort;
 import sorting.Util;
 
@@ -31,6 +34,7 @@ public class Part2 {
         task8();
         task9();
         task10();
+        phases("phases", 1_000_000, 10);
     }
 
     //==============================================
@@ -57,7 +61,7 @@ public class Part2 {
 
         
         // Using LevelSort non-adaptive on array.
-        int comparisons = LevelSort.sort(actualLvlNonAdaptive, 5);
+        long comparisons = LevelSort.sort(actualLvlNonAdaptive, 5);
 
         if (!Util.isSorted(actualLvlNonAdaptive)) throw new AssertionError(
             "Postcondition failed: Returned data is not sorted!");
@@ -501,4 +505,50 @@ public class Part2 {
             Experiments.measure(plainmergeSort, time, pMin, pMax, pScale).analyze(title + 4).saveAsCSV().print();
         }
     }
+
+    //==============================================
+    //PHASES
+    //==============================================
+
+    /** Measures the adaptive sorts on arrays of n elements split into a growing number of runs,
+     * and adds how their time divides between exploring runs, padding them, and merging. */
+    public static void phases(String title, int n, int c) {
+        print("Where the adaptive sorts spend their time, for arrays of " + n + " elements with a number of runs:");
+        Integer[] a = new Integer[n];
+        int[] runs  = {1, 4, 16, 64, 256};
+        print(String.format("%-18s%8s%14s%14s%14s%12s%14s%14s", "# title", "runs", "explore (ns)", "pad (ns)",
+                            "merge (ns)", "natural", "mean run", "mean merge"));
+        for (int r : runs) {
+            SortStats lvl = new SortStats(), binom = new SortStats();
+            Experiment<Integer[]> lvlEx = new Experiment<>(
+                a.clone(), i -> LevelSortAdaptive.sort(i, c, Merge.Mode.COPY, lvl), data -> createRunsArray(data, r));
+            Experiment<Integer[]> binomEx = new Experiment<>(
+                a.clone(), i -> BinomialSortAdaptive.sort(i, c, Merge.Mode.COPY, binom), data -> createRunsArray(data, r));
+            putStats(Experiments.measure(lvlEx, SHORTTIME).analyze(title + "_level_" + r), lvl).saveAsCSV();
+            printPhases("level", r, lvl);
+            putStats(Experiments.measure(binomEx, SHORTTIME).analyze(title + "_binomial_" + r), binom).saveAsCSV();
+            printPhases("binomial", r, binom);
+        }
+        print();
+    }
+
+    /** Adds the phase times, natural runs and mean run and merge sizes per sort of the stats to the result. */
+    public static Result putStats(Result r, SortStats stats) {
+        double sorts = Math.max(1, stats.sorts());
+        r.put(Key.EXPLORETIME,   stats.nanos(SortStats.Phase.EXPLORE) / sorts);
+        r.put(Key.PADTIME,       stats.nanos(SortStats.Phase.PAD) / sorts);
+        r.put(Key.MERGETIME,     stats.nanos(SortStats.Phase.MERGE) / sorts);
+        r.put(Key.NATURALRUNS,   stats.runs() / sorts);
+        r.put(Key.MEANRUNLENGTH, stats.meanRunLength());
+        r.put(Key.MEANMERGESIZE, stats.meanMergeSize());
+        return r;
+    }
+
+    private static void printPhases(String title, int runs, SortStats stats) {
+        double sorts = Math.max(1, stats.sorts());
+        print(String.format("%-18s%8d%14.0f%14.0f%14.0f%12.1f%14.1f%14.1f", title, runs,
+                            stats.nanos(SortStats.Phase.EXPLORE) / sorts, stats.nanos(SortStats.Phase.PAD) / sorts,
+                            stats.nanos(SortStats.Phase.MERGE) / sorts, stats.runs() / sorts,
+                            stats.meanRunLength(), stats.meanMergeSize()));
+    }
 }
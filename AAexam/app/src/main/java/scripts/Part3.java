@@ -1,16 +1,22 @@
 package scripts;
 
 import sorting.RecursiveMergeSortParallel;
+import sorting.SortContext;
+import sorting.LazyFunnelSort;
 import sorting.TopDownMergeSort;
+import sorting.TopDownMergeSortCutoff;
+import sorting.Tracer;
+import sorting.WorkSpan;
 
 import static data.Handler.generate;
 import static data.Handler.randomize;
-import static data.Handler.inPlaceRandomize;
+import static data.Handler.inPlaceShuffle;
 import static sorting.Util.isSorted;
 import static experiments.Experiments.measure;
 import static experiments.Result.resultHeaders;
 import static experiments.Result.Key;
 
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.concurrent.ForkJoinPool;
 import java.util.function.IntFunction;
@@ -42,6 +48,7 @@ public class Part3 {
         task15();
         task16();
         task17();
+        task18();
     }
 
     // ==================================================================
@@ -56,11 +63,11 @@ public class Part3 {
 
         int n = 16_000_000, c = 1_000_000;
         Integer[] pInput = generate(n, i -> i);
-        inPlaceRandomize(pInput);
+        inPlaceShuffle(pInput);
         Integer[] sInput = pInput.clone();
         Timer t = new Timer();
         t.play();
-        int pComparisons = RecursiveMergeSortParallel.sort(pInput, c);
+        long pComparisons = RecursiveMergeSortParallel.sort(pInput, c);
         long pTime = t.check();
         System.out.printf(
             "Parallel sort %,d size array in %,5.2f seconds, and with %,d comparisons - cutoff %,d%n",
@@ -69,7 +76,7 @@ public class Part3 {
             "Postcondition failed: Returned data is not sorted!");
 
         t.play();
-        int sComparisons = TopDownMergeSort.sort(sInput);
+        long sComparisons = TopDownMergeSort.sort(sInput);
         long sTime = t.check();
         System.out.printf(
             "Sequential sort %,d size array in %,5.2f seconds, and with %,d comparisons%n",
@@ -184,9 +191,9 @@ public class Part3 {
         print("=====================================================================");
         print();
 
-        print("We have implemented a parallel version of merge using twoSequenceSelect to");
-        print("split the input merge sequence into p parts.");
-        print("The parts are created with as even size as possible, by rounding increment value");
+        print("We have implemented a parallel version of merge, which splits the merge recursively");
+        print("on the median of the larger run, binary searched in the other run, and forks both halves");
+        print("until no part holds more than n/p elements.");
 
         Integer[] a = new Integer[]{7,2,3,5,7,10,4,5,5,6,5,4,3,2,1};
         Integer[] aux = a.clone();
@@ -215,11 +222,11 @@ public class Part3 {
 
         int n = 16_000_000, c = 1_000_000;
         Integer[] pInput = generate(n, i -> i);
-        inPlaceRandomize(pInput);
+        inPlaceShuffle(pInput);
         Integer[] sInput = pInput.clone();
         Timer t = new Timer();
         t.play();
-        int pComparisons = RecursiveMergeSortParallel.sort(pInput, c, 8); // 8 is p
+        long pComparisons = RecursiveMergeSortParallel.sort(pInput, c, 8); // 8 is p
         long pTime = t.check();
         System.out.printf(
             "Parallel sort %,d size array in %,5.2f seconds, and with %,d comparisons - cutoff %,d%n",
@@ -228,7 +235,7 @@ public class Part3 {
             "Postcondition failed: Returned data is not sorted!");
 
         t.play();
-        int sComparisons = TopDownMergeSort.sort(sInput);
+        long sComparisons = TopDownMergeSort.sort(sInput);
         long sTime = t.check();
         System.out.printf(
             "Sequential sort %,d size array in %,5.2f seconds, and with %,d comparisons%n",
@@ -261,11 +268,16 @@ public class Part3 {
         int n = 4_000_000;
         Integer[] in = generate(n, i -> i);
 
-        IntFunction<Experiment<Integer[]>> ex1 = parameterValue -> new Experiment<>(
-            in,
-            d ->   RecursiveMergeSortParallel.sort(d, n/availableProcs, availableProcs),
-            a -> { RecursiveMergeSortParallel.setPool(new ForkJoinPool(parameterValue));
-                   return Handler.randomize(a);});
+        // The points are measured one after the other, so the pool of a point is shut down when the next is created
+        ForkJoinPool[] pool = new ForkJoinPool[1];
+        IntFunction<Experiment<Integer[]>> ex1 = parameterValue -> {
+            if (pool[0] != null) pool[0].shutdown();
+            pool[0]         = new ForkJoinPool(parameterValue);
+            SortContext ctx = new SortContext(pool[0], n/availableProcs, availableProcs);
+            return new Experiment<>(
+                in,
+                d -> RecursiveMergeSortParallel.sort(d, ctx),
+                Handler::randomize); };
 
         Experiment<Integer[]> ex2 = new Experiment<>(
             in.clone(),
@@ -275,6 +287,7 @@ public class Part3 {
         print(Result.resultHeaders());
         Experiments.measure(ex2, LONGTIME).analyze("t16_e1_control").saveAsCSV().print();
         Experiments.measure(ex1, LONGTIME, 1, 16).analyze("t16_e1_recursive").saveAsCSV().print();
+        pool[0].shutdown();
 
     }
 
@@ -285,25 +298,101 @@ public class Part3 {
 
     public static void task17() {
         print("=====================================================================");
-        print("Task 17: ");
+        print("Task 17: Work, span and the predicted speedup of the parallel merge sort");
         print("=====================================================================");
         print();
 
-        print("We have implemented the functionality for calculating the span.");
-        print("But we ran out of time while designing the experiment.");
-        print();
         print("Here is a test case showing that the correct span is returned:");
 
         Integer[] a = {4,2,3,1,5,6,7};
         Integer[] aux = a.clone();
-        int span = RecursiveMergeSortParallel.sort(a, 4, 0, true);
-        int lc = TopDownMergeSort.sort(new Integer[]{4,2,3,1});
-        int rc = TopDownMergeSort.sort(new Integer[]{5,6,7});
+        long span = RecursiveMergeSortParallel.sort(a, 4, 0, true);
+        long lc = TopDownMergeSort.sort(new Integer[]{4,2,3,1});
+        long rc = TopDownMergeSort.sort(new Integer[]{5,6,7});
         int mc = Merge.merge(a, aux, 0, 3, 6);
-        int expectedcmp = Math.max(lc, rc) + mc;
+        long expectedcmp = Math.max(lc, rc) + mc;
         System.out.printf("Spans: left sort: %d Right sort: %d Merge: %d%nExpected span: %d, actual span returned: %d%n",
                             lc,rc,mc,expectedcmp,span);
+        print();
+
+        print("Each sort records the compares, element moves and running time of every task, and of its critical path.");
+        print("The profile is taken in a pool of one thread, so the times of the tasks are not inflated by contention.");
+        print("From work W and span S, Brent's theorem predicts a speedup of at least W / ((W - S)/p + S) on p threads,");
+        print("and the work and span laws at most min(p, W/S). The measured speedup is against the same sort on 1 thread.");
+        print("A measured speedup far below Brent's prediction points at overheads outside the tasks, such as memory");
+        print("bandwidth or forking, and suggests a larger cutoff. A low parallelism W/S points at the merges instead.");
+        print();
+
+        int n = 4_000_000, c = 50_000, reps = 5;
+        int procs = Runtime.getRuntime().availableProcessors();
+        Integer[] in = generate(n, i -> i);
+        System.out.printf("%4s%14s%14s%12s%12s%12s%12s%12s%n",
+            "p", "work (ms)", "span (ms)", "W/S", "moves/n", "max", "brent", "measured");
+        double base = 0;
+        for (int p = 1; p <= procs; p *= 2) {
+            SortContext profiler = new SortContext(new ForkJoinPool(1), c, p);
+            SortContext timed    = new SortContext(new ForkJoinPool(p), c, p);
+            long time = Long.MAX_VALUE;
+            for (int r = 0; r < reps; r++) {                 // Keep the last profile, and the fastest time
+                profiler.reset();
+                RecursiveMergeSortParallel.sort(randomize(in), profiler);
+                Integer[] x = randomize(in);
+                Timer t = new Timer();
+                t.play();
+                RecursiveMergeSortParallel.sort(x, timed);
+                time = Math.min(time, t.check());
+            }
+            if (p == 1) base = time;
+            WorkSpan ws = profiler.profile();
+            System.out.printf("%4d%,14.1f%,14.1f%12.1f%12.2f%12.2f%12.2f%12.2f%n", p, ws.nanos() / 1e6,
+                ws.nanoSpan() / 1e6, ws.parallelism(), ws.moves() / (double) n, ws.maxSpeedup(p),
+                ws.brentSpeedup(p), base / time);
+            profiler.pool().shutdown();
+            timed.pool().shutdown();
+        }
+        print();
 
+        print("To see where the time goes, one sort on all threads is traced. The timeline of its tasks is saved as");
+        print("data/results/t17_trace.json, to be opened in ui.perfetto.dev or chrome://tracing.");
+        Tracer tracer   = new Tracer();
+        SortContext ctx = new SortContext(new ForkJoinPool(procs), c, procs).trace(tracer);
+        RecursiveMergeSortParallel.sort(randomize(in), ctx);
+        tracer.writeJson(Path.of("data/results/t17_trace.json"));
+        System.out.print(tracer.summary());
+        ctx.pool().shutdown();
     }
 
+    // ==================================================================
+    // Task 18
+    // ==================================================================
+
+    public static void task18() {
+        print("=====================================================================");
+        print("Task 18: A cache-oblivious lazy funnelsort against the binary merges of TopDownMergeSortCutoff");
+        print("=====================================================================");
+        print();
+        print("The array sizes grow by a factor 4 from 2^10 elements, within L1, to 2^24 = 16,777,216, far beyond the");
+        print("last-level cache. Binary merges stream every element through memory once per level beyond the cache,");
+        print("the funnels once per n^(1/3) levels, so the time of TopDownMergeSortCutoff per n lg n should rise past the");
+        print("cache sizes while that of LazyFunnelSort stays flatter. Neither is tuned to the machine beyond the cutoff");
+        print("of 25 found in task 12.");
+        print();
+
+        IntFunction<Experiment<Integer[]>> funnel = n -> new Experiment<>(
+            generate(n, i -> i),
+            LazyFunnelSort::sort,
+            Handler::randomize
+        );
+        IntFunction<Experiment<Integer[]>> binary = n -> new Experiment<>(
+            generate(n, i -> i),
+            d -> TopDownMergeSortCutoff.sort(d, 25),
+            Handler::randomize
+        );
+
+        print("With param being the length of the array");
+        print(resultHeaders());
+        measure(funnel, MEDIUMTIME, 1_024, 16_777_217, 4.0).analyze("t18funnel").saveAsCSV().print();
+        measure(binary, MEDIUMTIME, 1_024, 16_777_217, 4.0).analyze("t18binary").saveAsCSV().print();
+        print();
+    }
 }
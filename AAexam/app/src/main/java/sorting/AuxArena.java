@@ -0,0 +1,99 @@
+package sorting;
+
+import java.lang.reflect.Array;
+
+/** Reusable auxiliary arrays for the sorting engines, so that a sort in steady state allocates nothing.
+ * {@link #local()} gives each thread its own arena. The buffers only grow, geometrically, so a thread sorting
+ * arrays of up to n elements reallocates O(log n) times in total. The half length buffers of
+ * {@link Merge.Mode#HALF} are the exception, and are allocated at exactly the length needed. A buffer for objects is reused for arrays
+ * of the same type only, and starts over at the needed size when the type changes. The buffers keep references to the elements of the last sort until they are overwritten,
+ * or the arena is {@link #release() released}.
+ * An arena must not be used by two sorts at the same time.
+ */
+public final class AuxArena {
+    /** Capacity of the run stacks, enough for the levels of any array indexed by int. */
+    static final int STACK = 64;
+    private static final ThreadLocal<AuxArena> LOCAL = ThreadLocal.withInitial(AuxArena::new);
+
+    private Object[] objects   = new Comparable<?>[0];
+    private int[] ints         = new int[0];
+    private long[] longs       = new long[0];
+    private double[] doubles   = new double[0];
+
+    // Run stacks for the stack based engines. Entries are always written before they are read.
+    final int[] starts      = new int[STACK];
+    final int[] ends        = new int[STACK];
+    final int[] lengths     = new int[STACK];
+    final boolean[] inAux   = new boolean[STACK];
+
+    /** The arena of the current thread. */
+    public static AuxArena local() { return LOCAL.get(); }
+
+    /** Drops the buffers, e.g. after a single sort of a huge array. */
+    public void release() {
+        objects = new Comparable<?>[0]; ints = new int[0]; longs = new long[0]; doubles = new double[0];
+    }
+
+    /** Returns a buffer of at least {@code a.length} elements, of the same array type as {@code a}.
+     * Its contents are unspecified. */
+    <T> T[] scratch(T[] a) { return scratch(a, a.length); }
+
+    /** Returns a buffer of at least {@code length} elements, of the same array type as {@code a}, such as the half
+     * length buffer of {@link Merge.Mode#HALF}. Its contents are unspecified.
+     * A buffer shorter than {@code a} is allocated at exactly the length asked for, not grown geometrically, so the
+     * arena keeps no more than half of the array for a {@code HALF} sort. */
+    @SuppressWarnings("unchecked")
+    <T> T[] scratch(T[] a, int length) {
+        if (objects.getClass() != a.getClass())
+            objects = (Object[]) Array.newInstance(a.getClass().getComponentType(), length);
+        else if (objects.length < length)
+            objects = (Object[]) Array.newInstance(a.getClass().getComponentType(),
+                                                   (length < a.length) ? length : grow(objects.length, length));
+        return (T[]) objects;
+    }
+
+    /** Returns a buffer as {@link #scratch(Object[])}, with a copy of {@code a} in its first {@code a.length} elements. */
+    <T> T[] copyOf(T[] a) {
+        T[] aux = scratch(a);
+        System.arraycopy(a, 0, aux, 0, a.length);
+        return aux;
+    }
+
+    int[] scratch(int[] a) {
+        if (ints.length < a.length) ints = new int[grow(ints.length, a.length)];
+        return ints;
+    }
+
+    long[] scratch(long[] a) {
+        if (longs.length < a.length) longs = new long[grow(longs.length, a.length)];
+        return longs;
+    }
+
+    double[] scratch(double[] a) {
+        if (doubles.length < a.length) doubles = new double[grow(doubles.length, a.length)];
+        return doubles;
+    }
+
+    int[] copyOf(int[] a) {
+        int[] aux = scratch(a);
+        System.arraycopy(a, 0, aux, 0, a.length);
+        return aux;
+    }
+
+    long[] copyOf(long[] a) {
+        long[] aux = scratch(a);
+        System.arraycopy(a, 0, aux, 0, a.length);
+        return aux;
+    }
+
+    double[] copyOf(double[] a) {
+        double[] aux = scratch(a);
+        System.arraycopy(a, 0, aux, 0, a.length);
+        return aux;
+    }
+
+    // At least double the capacity, so n elements are reached in O(log n) reallocations
+    private static int grow(int capacity, int needed) {
+        return (int) Math.min(Integer.MAX_VALUE - 8, Math.max((long) needed, 2L * capacity));
+    }
+}
@@ -0,0 +1,96 @@
+package sorting;
+
+import java.util.function.IntFunction;
+import java.util.function.LongFunction;
+
+/** An array of comparable objects indexed by long, for more elements than a Java array can hold.
+ * The elements are kept in segments of 2^24 elements each, plain arrays that {@link BigMergeSort} sorts with the
+ * in-memory engines before merging them across segment boundaries. Only the last segment may be shorter, so the
+ * memory is the length of the array, plus one array header per segment.
+ * An element is found by shifting and masking its index, with no bounds check beyond that of the segment.
+ */
+public final class BigArray<T extends Comparable<? super T>> {
+    /** log2 of the segment length: 2^24 elements, well within the length of a Java array. */
+    static final int SHIFT = 24;
+
+    private final Comparable<?>[][] segments;
+    private final long length;
+    private final int shift;
+    private final long mask;
+
+    /** An array of the given length, with all elements null.
+     * @throws IllegalArgumentException if the length is negative. */
+    public BigArray(long length) { this(length, SHIFT); }
+
+    // An array with segments of 2^shift elements, so tests can cross segment boundaries with small arrays
+    BigArray(long length, int shift) {
+        if (length < 0) throw new IllegalArgumentException("Length must be non-negative.");
+        if (shift < 1 || shift > 30) throw new IllegalArgumentException("Segment shift must be between 1 and 30.");
+        this.length = length;
+        this.shift  = shift;
+        this.mask   = (1L << shift) - 1;
+        int count   = (int) ((length + mask) >>> shift);
+        segments    = new Comparable<?>[count][];
+        for (int s = 0; s < count; s++)
+            segments[s] = new Comparable<?>[(int) Math.min(1L << shift, length - ((long) s << shift))];
+    }
+
+    /** An array of n elements, the i'th being {@code f.apply(i)}. */
+    public static <T extends Comparable<? super T>> BigArray<T> generate(long n, LongFunction<T> f) {
+        BigArray<T> a = new BigArray<>(n);
+        for (long i = 0; i < n; i++) a.set(i, f.apply(i));
+        return a;
+    }
+
+    /** An array with the elements of {@code a}. */
+    public static <T extends Comparable<? super T>> BigArray<T> of(T[] a) {
+        BigArray<T> b = new BigArray<>(a.length);
+        for (int s = 0, from = 0; s < b.segments.length; from += b.segments[s++].length)
+            System.arraycopy(a, from, b.segments[s], 0, b.segments[s].length);
+        return b;
+    }
+
+    public long length() { return length; }
+
+    @SuppressWarnings("unchecked")
+    public T get(long i)          { return (T) segments[(int) (i >>> shift)][(int) (i & mask)]; }
+    public void set(long i, T x)  { segments[(int) (i >>> shift)][(int) (i & mask)] = x; }
+
+    /** The number of segments. */
+    int segments() { return segments.length; }
+
+    /** The length of the segments, but the last. */
+    long segmentLength() { return 1L << shift; }
+
+    /** The elements of segment s: the elements from {@code s * segmentLength()}, in an array of their runtime type
+     * Comparable[], which the generic engines can sort in place. */
+    @SuppressWarnings("unchecked")
+    T[] segment(int s) { return (T[]) segments[s]; }
+
+    /** An empty array of the same length and segments, e.g. the auxiliary array of a sort. */
+    BigArray<T> like() { return like(length); }
+
+    /** An empty array of the given length, with segments of the same length, e.g. the half length auxiliary array
+     * of {@link BigMergeSort}. */
+    BigArray<T> like(long length) { return new BigArray<>(length, shift); }
+
+    /** Copies the elements from[lo .. hi] to the same positions of {@code to}, which has the same segments. */
+    static void copy(BigArray<?> from, BigArray<?> to, long lo, long hi) {
+        while (lo <= hi) {
+            int s   = (int) (lo >>> from.shift), i = (int) (lo & from.mask);
+            int len = (int) Math.min(hi - lo + 1, from.segments[s].length - i);
+            System.arraycopy(from.segments[s], i, to.segments[s], i, len);
+            lo     += len;
+        }
+    }
+
+    /** Copies the elements to an array, as {@link java.util.Collection#toArray(IntFunction)}.
+     * @throws IllegalStateException if there are more elements than an array can hold. */
+    public T[] toArray(IntFunction<T[]> generator) {
+        if (length > Integer.MAX_VALUE - 8) throw new IllegalStateException("Too many elements for an array: " + length);
+        T[] a = generator.apply((int) length);
+        for (int s = 0, to = 0; s < segments.length; to += segments[s++].length)
+            System.arraycopy(segments[s], 0, a, to, segments[s].length);
+        return a;
+    }
+}
@@ -0,0 +1,65 @@
+package sorting;
+
+/** Sorts a {@link BigArray}, which may hold more than {@code Integer.MAX_VALUE} elements.
+ * Each segment is sorted in place with {@link LevelSortAdaptive}, and the sorted segments are then merged bottom-up,
+ * doubling the width of the sorted runs each pass. Both are merged as {@link Merge.Mode#HALF}: only the shorter
+ * of two runs is copied out, so the auxiliary array needs half the length of the array, with the same segments.
+ * Indices and compares are counted in longs, so nothing wraps however many elements are sorted.
+ * The sort is stable, and needs half the memory of the array more for the auxiliary array.
+ */
+public class BigMergeSort {
+    private BigMergeSort() {}
+
+    /** The cutoff of the sort of each segment */
+    private static final int CUTOFF = 16;
+
+    /** Rearranges the array in ascending order, using the natural order.
+     * @return the number of compares performed */
+    public static <T extends Comparable<? super T>> long sort(BigArray<T> a) { return sort(a, a.like(a.length() / 2)); }
+
+    /** Rearranges the array in ascending order as {@link #sort(BigArray)}, without allocating.
+     * @param aux an auxiliary array of at least half the length of {@code a}, with the same segments.
+     *            Its contents are overwritten.
+     * @throws IllegalArgumentException if {@code aux} is too short, or segmented differently from {@code a} */
+    public static <T extends Comparable<? super T>> long sort(BigArray<T> a, BigArray<T> aux) {
+        if (aux.length() < a.length() / 2 || aux.segmentLength() != a.segmentLength())
+            throw new IllegalArgumentException("Auxiliary array must have half the length and the segments of the array.");
+        long n        = a.length();
+        long compares = 0;
+        if (n < 2) return 0;
+        // The first segment of aux holds half of any segment of a, as aux is at least half as long as a
+        for (int s = 0; s < a.segments(); s++)
+            compares += LevelSortAdaptive.sort(a.segment(s), aux.segment(0), CUTOFF, Merge.Mode.HALF);
+
+        for (long w = a.segmentLength(); w < n; w *= 2)
+            for (long lo = 0; lo < n - w; lo += 2 * w) compares += merge(a, aux, lo, lo + w - 1, Math.min(lo + 2 * w - 1, n - 1));
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    // Merges a[lo .. mid] and a[mid+1 .. hi] in place, as Merge.halfMerge, and returns the compares.
+    // The shorter run is copied to the start of aux, and merged forward if it is the left one, backward otherwise.
+    private static <T extends Comparable<? super T>> long merge(BigArray<T> a, BigArray<T> aux, long lo, long mid, long hi) {
+        long left = mid - lo + 1, right = hi - mid, compares = 0;
+        if (left <= right) {
+            for (long i = 0; i < left; i++) aux.set(i, a.get(lo + i));
+            long i = 0, j = mid + 1, k = lo;
+            while (i < left && j <= hi) {
+                compares++;
+                if (a.get(j).compareTo(aux.get(i)) < 0) a.set(k++, a.get(j++));
+                else                                    a.set(k++, aux.get(i++));
+            }
+            while (i < left) a.set(k++, aux.get(i++)); // The rest of the right run is already in place
+        } else {
+            for (long j = 0; j < right; j++) aux.set(j, a.get(mid + 1 + j));
+            long i = mid, j = right - 1, k = hi;
+            while (i >= lo && j >= 0) {
+                compares++;
+                if (aux.get(j).compareTo(a.get(i)) < 0) a.set(k--, a.get(i--));
+                else                                    a.set(k--, aux.get(j--));
+            }
+            while (j >= 0) a.set(k--, aux.get(j--));   // The rest of the left run is already in place
+        }
+        return compares;
+    }
+}
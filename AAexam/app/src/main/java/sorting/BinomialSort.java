@@ -8,17 +8,32 @@ import static sorting.Util.isSorted;
 public class BinomialSort {
     private BinomialSort() {}
     
-    public static <T extends Comparable<? super T>> int sort(T[] a, int c) {
-        final int n  = a.length;
-        int compares = 0;
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c) { return sort(a, c, Merge.Mode.COPY); }
+
+    /** Sorts with the given merge mode. In ping-pong mode each run on the stack
+     * remembers which of {@code a} and {@code aux} it lives in. */
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c, Merge.Mode mode) {
+        return sort(a, AuxArena.local().scratch(a, Merge.auxLength(a.length, mode)), c, mode);
+    }
+
+    /** Sorts as {@link #sort(Comparable[], int, Merge.Mode)}, without allocating.
+     * @param aux auxiliary array of at least {@link Merge#auxLength} elements, provided by the caller instead of allocating one.
+     *            Its contents do not matter, and are overwritten. */
+    public static <T extends Comparable<? super T>> long sort(T[] a, T[] aux, int c, Merge.Mode mode) {
+        final int n   = a.length;
+        long compares = 0;
 
         if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        if (aux.length < Merge.auxLength(n, mode)) throw new IllegalArgumentException("Auxiliary array must be at least as long as the array, or half as long merging HALF.");
         if (n < 2) return 0;
 
-        final T[] aux       = a.clone();
-        final byte stackmax = (byte) (32 - Integer.numberOfLeadingZeros(n) + 1); // |1|
-        final int[] starts  = new int[stackmax];    // Setup stack
-        final int[] lengths = new int[stackmax];
+        final AuxArena arena   = AuxArena.local();
+        final byte stackmax    = (byte) (32 - Integer.numberOfLeadingZeros(n) + 1); // |1|
+        assert stackmax <= AuxArena.STACK;
+        final int[] starts     = arena.starts;    // Setup stack, reused from the arena
+        final int[] lengths    = arena.lengths;
+        final boolean pingPong = mode == Merge.Mode.PINGPONG;
+        final boolean[] inAux  = arena.inAux;     // Which buffer each run lives in (ping-pong mode)
         byte top            = 0;
         lengths[0]          = Integer.MAX_VALUE;    // index 0 is a guard value
 
@@ -27,21 +42,168 @@ public class BinomialSort {
             final int end = min(next + c, n) - 1;
             int length    = end - next + 1;
             compares     += InsertionSort.sort(a, next, end);
+            boolean runInAux = false;
 
             while (lengths[top] < length * 2) {     // Peek into the stack
                 int mid   = start - 1;              // Merge next run with top of stack
                 start     = starts[top];
                 length   += lengths[top];
-                compares += merge(a, aux, start, mid, end); 
+                if (pingPong) { compares += merge(a, aux, start, mid, end, inAux[top], runInAux);
+                                runInAux  = !inAux[top]; }
+                else            compares += merge(a, aux, start, mid, end, mode);
                 top--;                              // Pop the stack
             }
             top++;
             starts[top]  = start;
             lengths[top] = length;
+            inAux[top]   = runInAux;
         }
 
-        final int hi = n-1;
+        final int hi     = n-1;
+        boolean runInAux = inAux[top];
         while (top > 1) {                           // Final merge
+            int mid = starts[top] - 1;
+            top--;
+            int lo  = starts[top];
+            if (pingPong) { compares += merge(a, aux, lo, mid, hi, inAux[top], runInAux);
+                            runInAux  = !inAux[top]; }
+            else            compares += merge(a, aux, lo, mid, hi, mode);
+        }
+        if (runInAux) System.arraycopy(aux, 0, a, 0, n); // Final copy back, only when parity requires it
+
+        assert isSorted(a);
+        return compares;
+    }
+
+    // ============================== Primitive specializations ==============================
+    // int[], long[] and double[] overloads mirroring the generic versions above, compare for compare.
+    // double[] uses the total order of Double.compare, matching the boxed Double.compareTo.
+
+    /** Primitive version of {@link #sort(Comparable[], int)}. */
+    public static long sort(int[] a, int c) {
+        final int n   = a.length;
+        long compares = 0;
+
+        if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        if (n < 2) return 0;
+
+        final AuxArena arena = AuxArena.local();
+        final int[] aux     = arena.scratch(a);
+        final int[] starts  = arena.starts;
+        final int[] lengths = arena.lengths;
+        byte top            = 0;
+        lengths[0]          = Integer.MAX_VALUE;
+
+        for (int next = 0; next < n; next += c) {
+            int start     = next;
+            final int end = min(next + c, n) - 1;
+            int length    = end - next + 1;
+            compares     += InsertionSort.sort(a, next, end);
+
+            while (lengths[top] < length * 2) {
+                int mid   = start - 1;
+                start     = starts[top];
+                length   += lengths[top];
+                compares += merge(a, aux, start, mid, end);
+                top--;
+            }
+            top++;
+            starts[top]  = start;
+            lengths[top] = length;
+        }
+
+        final int hi = n-1;
+        while (top > 1) {
+            int mid = starts[top] - 1;
+            top--;
+            int lo  = starts[top];
+            compares += merge(a, aux, lo, mid, hi);
+        }
+
+        assert isSorted(a);
+        return compares;
+    }
+
+    /** Primitive version of {@link #sort(Comparable[], int)}. */
+    public static long sort(long[] a, int c) {
+        final int n   = a.length;
+        long compares = 0;
+
+        if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        if (n < 2) return 0;
+
+        final AuxArena arena = AuxArena.local();
+        final long[] aux    = arena.scratch(a);
+        final int[] starts  = arena.starts;
+        final int[] lengths = arena.lengths;
+        byte top            = 0;
+        lengths[0]          = Integer.MAX_VALUE;
+
+        for (int next = 0; next < n; next += c) {
+            int start     = next;
+            final int end = min(next + c, n) - 1;
+            int length    = end - next + 1;
+            compares     += InsertionSort.sort(a, next, end);
+
+            while (lengths[top] < length * 2) {
+                int mid   = start - 1;
+                start     = starts[top];
+                length   += lengths[top];
+                compares += merge(a, aux, start, mid, end);
+                top--;
+            }
+            top++;
+            starts[top]  = start;
+            lengths[top] = length;
+        }
+
+        final int hi = n-1;
+        while (top > 1) {
+            int mid = starts[top] - 1;
+            top--;
+            int lo  = starts[top];
+            compares += merge(a, aux, lo, mid, hi);
+        }
+
+        assert isSorted(a);
+        return compares;
+    }
+
+    /** Primitive version of {@link #sort(Comparable[], int)}. */
+    public static long sort(double[] a, int c) {
+        final int n   = a.length;
+        long compares = 0;
+
+        if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        if (n < 2) return 0;
+
+        final AuxArena arena = AuxArena.local();
+        final double[] aux  = arena.scratch(a);
+        final int[] starts  = arena.starts;
+        final int[] lengths = arena.lengths;
+        byte top            = 0;
+        lengths[0]          = Integer.MAX_VALUE;
+
+        for (int next = 0; next < n; next += c) {
+            int start     = next;
+            final int end = min(next + c, n) - 1;
+            int length    = end - next + 1;
+            compares     += InsertionSort.sort(a, next, end);
+
+            while (lengths[top] < length * 2) {
+                int mid   = start - 1;
+                start     = starts[top];
+                length   += lengths[top];
+                compares += merge(a, aux, start, mid, end);
+                top--;
+            }
+            top++;
+            starts[top]  = start;
+            lengths[top] = length;
+        }
+
+        final int hi = n-1;
+        while (top > 1) {
             int mid = starts[top] - 1;
             top--;
             int lo  = starts[top];
@@ -0,0 +1,132 @@
+package sorting;
+
+import static java.lang.Math.min;
+import static sorting.Merge.merge;
+import static sorting.Util.exploreRun;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/** {@link BinomialSortAdaptive} in two stages on two threads: the same runs, merges and count of compares.
+ * A producer thread explores the runs, reversing descending ones and padding short ones with insertion sort, and
+ * hands them to the calling thread through a bounded queue. The calling thread keeps the binomial run stack and does
+ * the merges. A run only touches the elements after the runs before it, and a merge only the elements of runs already
+ * formed, so the two never touch the same elements, and the producer runs ahead of the merges by up to
+ * {@code ahead} runs. While the calling thread is busy with a deep merge, the producer carries on with the scan.
+ * The queue orders the writes of the producer before the merges that read them.
+ * Arrays of fewer than {@value #MIN_PIPELINED} elements are not worth a thread, and are sorted by
+ * {@link BinomialSortAdaptive} on the calling thread.
+ */
+public class BinomialSortPipelined {
+    private BinomialSortPipelined() {}
+
+    /** The number of runs the producer may form ahead of the merges by default */
+    public static final int AHEAD = 64;
+
+    /** The least length of array sorted on two threads */
+    public static final int MIN_PIPELINED = 1 << 12;
+
+    // A run formed by the producer, and the compares of exploring and padding it. END closes the queue.
+    private record Run(int start, int end, long compares) { }
+    private static final Run END = new Run(-1, -1, 0);
+
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c) { return sort(a, c, Merge.Mode.COPY, AHEAD); }
+
+    /** Rearranges the array in ascending order, using the natural order, see {@link BinomialSortAdaptive#sort(Comparable[], int)}.
+     * @param a the array to be sorted
+     * @param c the least length of runs to merge, when enough left; must be at least 1
+     * @param mode how elements are moved between {@code a} and the auxiliary array when merging
+     * @param ahead the capacity of the queue between the threads, in runs; must be at least 1
+     * @return the number of compares performed during the sort
+     * @throws IllegalArgumentException if {@code c} or {@code ahead} is less than 1
+     * @throws IllegalStateException if the calling thread is interrupted while waiting for a run */
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c, Merge.Mode mode, int ahead) {
+        if (c < 1)     throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        if (ahead < 1) throw new IllegalArgumentException("The producer must be allowed at least 1 run ahead.");
+        final int n = a.length;
+        if (n < MIN_PIPELINED) return BinomialSortAdaptive.sort(a, c, mode);
+
+        final AuxArena arena   = AuxArena.local();
+        final T[] aux          = arena.scratch(a, Merge.auxLength(n, mode));
+        final int[] starts     = arena.starts;    // Setup stack, reused from the arena
+        final int[] lengths    = arena.lengths;
+        final boolean pingPong = mode == Merge.Mode.PINGPONG;
+        final boolean[] inAux  = arena.inAux;     // Which buffer each run lives in (ping-pong mode)
+        byte top               = 0;               // The position of the top of the stack (& the size!)
+        lengths[0]             = Integer.MAX_VALUE; // index 0 is a guard value
+        long compares          = 0;
+
+        BlockingQueue<Run> queue   = new ArrayBlockingQueue<>(ahead);
+        Throwable[] failure        = new Throwable[1];
+        Thread producer = Thread.ofPlatform().daemon().name("binomial-runs").start(() -> produce(a, c, queue, failure));
+        try {
+            for (Run run = queue.take(); run != END; run = queue.take()) {
+                compares += run.compares();
+                int start  = run.start(), end = run.end();
+                int length = end - start + 1;
+                boolean runInAux = false;
+                while (lengths[top] < length * 2) {     // Peek into the stack
+                    int mid   = start - 1;              // Merge next run with top of stack
+                    start     = starts[top];
+                    length   += lengths[top];
+                    if (pingPong) { compares += merge(a, aux, start, mid, end, inAux[top], runInAux);
+                                    runInAux  = !inAux[top]; }
+                    else            compares += merge(a, aux, start, mid, end, mode);
+                    top--;                              // Pop the stack
+                }
+                top++;
+                starts[top]  = start;
+                lengths[top] = length;
+                inAux[top]   = runInAux;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for runs.", e);
+        } finally {
+            producer.interrupt(); // Stops the producer if the merges failed, and is harmless once it is done
+        }
+        if (failure[0] instanceof RuntimeException e) throw e;
+        if (failure[0] instanceof Error e)            throw e;
+
+        final int hi     = n-1;
+        boolean runInAux = inAux[top];
+        while (top > 1) {                           // Final merge
+            int mid = starts[top] - 1;
+            top--;
+            int lo  = starts[top];
+            if (pingPong) { compares += merge(a, aux, lo, mid, hi, inAux[top], runInAux);
+                            runInAux  = !inAux[top]; }
+            else            compares += merge(a, aux, lo, mid, hi, mode);
+        }
+        if (runInAux) System.arraycopy(aux, 0, a, 0, n); // Final copy back, only when parity requires it
+
+        assert Util.isSorted(a);
+        return compares - 1; // The final exploreRun() call will return one too much.
+    }
+
+    // Forms the runs from left to right into the queue, and closes it, also when failing.
+    // Any failure, errors too, is handed to the calling thread through the array, which the queue publishes.
+    // Once interrupted the calling thread is gone, and nothing more is put.
+    private static <T extends Comparable<? super T>> void produce(T[] a, int c, BlockingQueue<Run> queue,
+                                                                  Throwable[] failure) {
+        final int n = a.length;
+        try {
+            int increment;
+            for (int next = 0; next < n; next += increment) {
+                int end       = exploreRun(a, next);
+                increment     = (end - next) + 1;
+                long compares = increment;
+                if (increment <= c) { end       = min(next + c, n) - 1;
+                                      compares += InsertionSort.sort(a, next, end);
+                                      increment = (end - next) + 1; }
+                queue.put(new Run(next, end, compares));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            failure[0] = e;
+        } finally {
+            try { queue.put(END); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+    }
+}
@@ -15,18 +15,33 @@ public class BottomUpMergeSort {
      * @param a the array to be sorted
      * @return the number of compares performed during the sort
      */
-    public static <T extends Comparable<? super T>> int sort(T[] a) {
-        T[] aux = a.clone();
-        //int compares = sort(a, aux);
-        int compares = msort(a, aux);
+    public static <T extends Comparable<? super T>> long sort(T[] a) { return sort(a, Merge.Mode.COPY); }
+
+    /** Rearranges the array in ascending order, using the natural order, see {@link #sort(Comparable[])}.
+     * @param a the array to be sorted
+     * @param mode how elements are moved between {@code a} and the auxiliary array when merging
+     * @return the number of compares performed during the sort */
+    public static <T extends Comparable<? super T>> long sort(T[] a, Merge.Mode mode) {
+        return sort(a, AuxArena.local().scratch(a, Merge.auxLength(a.length, mode)), mode);
+    }
+
+    /** Rearranges the array in ascending order as {@link #sort(Comparable[], Merge.Mode)}, without allocating.
+     * @param aux auxiliary array of at least {@link Merge#auxLength} elements, provided by the caller instead of allocating one.
+     *            Its contents do not matter, and are overwritten.
+     * @throws IllegalArgumentException if {@code aux} is shorter than {@link Merge#auxLength} */
+    public static <T extends Comparable<? super T>> long sort(T[] a, T[] aux, Merge.Mode mode) {
+        if (aux.length < Merge.auxLength(a.length, mode)) throw new IllegalArgumentException("Auxiliary array must be at least as long as the array, or half as long merging HALF.");
+        //long compares = sort(a, aux);
+        long compares = msort(a, aux, mode);
         assert Util.isSorted(a);
         return compares;
     }
 
 
     /** By the book implementation */
-    public static <T extends Comparable<? super T>> int bottomupsort(T[] a, T[] aux) {
-        int compares = 0, n = a.length;
+    public static <T extends Comparable<? super T>> long bottomupsort(T[] a, T[] aux) {
+        int n         = a.length;
+        long compares = 0;
         if(n <= 1) return compares;
 
         // Represents the stack of runs as an int, with a set bit corresponding to the length of a run.
@@ -66,10 +81,16 @@ public class BottomUpMergeSort {
     }
 
     /** A slightly more efficient implementation of classicBottomUpSort. */
-    public static <T extends Comparable<? super T>> int msort(T[] a, T[] aux) {
+    public static <T extends Comparable<? super T>> long msort(T[] a, T[] aux) { return msort(a, aux, Merge.Mode.COPY); }
+
+    /** msort with a selectable merge mode.
+     * In ping-pong mode a run of length 2^k is the result of exactly k merges,
+     * so its location ({@code a} or {@code aux}) follows from its length alone. */
+    public static <T extends Comparable<? super T>> long msort(T[] a, T[] aux, Merge.Mode mode) {
         final int n = a.length;
         if (n <= 1) return 0;
-        int compares = 0;
+        final boolean pingPong = mode == Merge.Mode.PINGPONG;
+        long compares = 0;
         for (int i = 1; i < n; i += 2) {
             //if (i >= n) i = n-1;      // TODO: Check if this is necessary, find a breaking test
             int stack = i;
@@ -77,28 +98,38 @@ public class BottomUpMergeSort {
                 int lo    = stack - length;
                 int mid   = stack - 1;
                 int hi    = stack + length - 1;
-                compares += Merge.merge(a, aux, lo, mid, hi);
+                if (pingPong) { boolean inAux = inAux(length);
+                                compares += Merge.merge(a, aux, lo, mid, hi, inAux, inAux); }
+                else            compares += Merge.merge(a, aux, lo, mid, hi, mode);
                 stack     = stack - length;
             }
         }
 
-        int length = Integer.lowestOneBit(n);
-        int hi     = n - 1;
+        int length         = Integer.lowestOneBit(n);
+        int hi             = n - 1;
+        boolean rightInAux = pingPong && inAux(length);
         
         for (int stack = n - length; stack != 0; stack -= length) {
             length    = Integer.lowestOneBit(stack);
             int lo    = stack - length;
             int mid   = stack - 1;
-            compares += Merge.merge(a, aux, lo, mid, hi);
+            if (pingPong) { boolean leftInAux = inAux(length);
+                            compares  += Merge.merge(a, aux, lo, mid, hi, leftInAux, rightInAux);
+                            rightInAux = !leftInAux; }
+            else            compares  += Merge.merge(a, aux, lo, mid, hi, mode);
         }
+        if (rightInAux) System.arraycopy(aux, 0, a, 0, n); // Final copy back, only when parity requires it
         return compares;
     }
+
+    // In ping-pong mode a run of length 2^k has been merged k times, so it lives in aux when k is odd
+    private static boolean inAux(int length) { return (Integer.numberOfTrailingZeros(length) & 1) == 1; }
     
     /** Alternative, even more iterative variation */
-    public static <T extends Comparable<? super T>> int itersort(T[] a, T[] aux) {
+    public static <T extends Comparable<? super T>> long itersort(T[] a, T[] aux) {
         final int n = a.length;
         if (n <= 1) return 0;
-        int compares = 0;
+        long compares = 0;
 
         for (int i = 2; i <= n; i *= 2 ) {
             System.out.println(i);
@@ -122,13 +153,128 @@ public class BottomUpMergeSort {
         return compares;
     }
 
+    // ============================== Primitive specializations ==============================
+    // int[], long[] and double[] overloads mirroring the generic versions above, compare for compare.
+    // double[] uses the total order of Double.compare, matching the boxed Double.compareTo.
+
+    /** Rearranges the array in ascending order. Primitive version of {@link #sort(Comparable[])}.
+     * @return the number of compares performed during the sort */
+    public static long sort(int[] a) {
+        int[] aux = AuxArena.local().scratch(a);
+        long compares = msort(a, aux);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    /** Primitive version of {@link #msort(Comparable[], Comparable[])}. */
+    public static long msort(int[] a, int[] aux) {
+        final int n = a.length;
+        if (n <= 1) return 0;
+        long compares = 0;
+        for (int i = 1; i < n; i += 2) {
+            int stack = i;
+            for (int length = 1; (length & stack) != 0; length *= 2) {
+                int lo    = stack - length;
+                int mid   = stack - 1;
+                int hi    = stack + length - 1;
+                compares += Merge.merge(a, aux, lo, mid, hi);
+                stack     = stack - length;
+            }
+        }
+
+        int length = Integer.lowestOneBit(n);
+        int hi     = n - 1;
+
+        for (int stack = n - length; stack != 0; stack -= length) {
+            length    = Integer.lowestOneBit(stack);
+            int lo    = stack - length;
+            int mid   = stack - 1;
+            compares += Merge.merge(a, aux, lo, mid, hi);
+        }
+        return compares;
+    }
+
+    /** Rearranges the array in ascending order. Primitive version of {@link #sort(Comparable[])}.
+     * @return the number of compares performed during the sort */
+    public static long sort(long[] a) {
+        long[] aux = AuxArena.local().scratch(a);
+        long compares = msort(a, aux);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    /** Primitive version of {@link #msort(Comparable[], Comparable[])}. */
+    public static long msort(long[] a, long[] aux) {
+        final int n = a.length;
+        if (n <= 1) return 0;
+        long compares = 0;
+        for (int i = 1; i < n; i += 2) {
+            int stack = i;
+            for (int length = 1; (length & stack) != 0; length *= 2) {
+                int lo    = stack - length;
+                int mid   = stack - 1;
+                int hi    = stack + length - 1;
+                compares += Merge.merge(a, aux, lo, mid, hi);
+                stack     = stack - length;
+            }
+        }
+
+        int length = Integer.lowestOneBit(n);
+        int hi     = n - 1;
+
+        for (int stack = n - length; stack != 0; stack -= length) {
+            length    = Integer.lowestOneBit(stack);
+            int lo    = stack - length;
+            int mid   = stack - 1;
+            compares += Merge.merge(a, aux, lo, mid, hi);
+        }
+        return compares;
+    }
+
+    /** Rearranges the array in ascending order. Primitive version of {@link #sort(Comparable[])}.
+     * @return the number of compares performed during the sort */
+    public static long sort(double[] a) {
+        double[] aux  = AuxArena.local().scratch(a);
+        long compares = msort(a, aux);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    /** Primitive version of {@link #msort(Comparable[], Comparable[])}. */
+    public static long msort(double[] a, double[] aux) {
+        final int n = a.length;
+        if (n <= 1) return 0;
+        long compares = 0;
+        for (int i = 1; i < n; i += 2) {
+            int stack = i;
+            for (int length = 1; (length & stack) != 0; length *= 2) {
+                int lo    = stack - length;
+                int mid   = stack - 1;
+                int hi    = stack + length - 1;
+                compares += Merge.merge(a, aux, lo, mid, hi);
+                stack     = stack - length;
+            }
+        }
+
+        int length = Integer.lowestOneBit(n);
+        int hi     = n - 1;
+
+        for (int stack = n - length; stack != 0; stack -= length) {
+            length    = Integer.lowestOneBit(stack);
+            int lo    = stack - length;
+            int mid   = stack - 1;
+            compares += Merge.merge(a, aux, lo, mid, hi);
+        }
+        return compares;
+    }
+
 //------------------------------------------------------------------------------------------
 //------------------------------------------------------------------------------------------
 
 /* NONFUNCTIONAL!
     //Version of sort that uses a stack data-structure, rather than a binary number
     //Have only been checked by a few tests
-    public  static <T extends Comparable<? super T>> int _TESTINGsortStack(T[] a, T[] aux) {
+    public  static <T extends Comparable<? super T>> long _TESTINGsortStack(T[] a, T[] aux) {
         // Creates empty stack for runs
         // For now runs are length 2 int-arrays where int[0] is the leftmost index in array a,
         // and int[1] is the length of the run
@@ -12,16 +12,33 @@ public class BottomUpMergeSortCutoff {
      * @return the number of compares performed during the sort
      * @throws IllegalArgumentException if {@code c} is less than 1
      */
-    public static <T extends Comparable<? super T>> int sort(T[] a, int c) {
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c) { return sort(a, c, Merge.Mode.COPY); }
+
+    /** Rearranges the array in ascending order, using the natural order, see {@link #sort(Comparable[], int)}.
+     * @param a the array to be sorted
+     * @param c the initial length of runs to merge, when enough left; must be at least 1
+     * @param mode how elements are moved between {@code a} and the auxiliary array when merging
+     * @return the number of compares performed during the sort
+     * @throws IllegalArgumentException if {@code c} is less than 1 */
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c, Merge.Mode mode) {
+        return sort(a, AuxArena.local().scratch(a, Merge.auxLength(a.length, mode)), c, mode);
+    }
+
+    /** Rearranges the array in ascending order as {@link #sort(Comparable[], int, Merge.Mode)}, without allocating.
+     * @param aux auxiliary array of at least {@link Merge#auxLength} elements, provided by the caller instead of allocating one.
+     *            Its contents do not matter, and are overwritten.
+     * @throws IllegalArgumentException if {@code c} is less than 1, or {@code aux} is shorter than {@link Merge#auxLength} */
+    public static <T extends Comparable<? super T>> long sort(T[] a, T[] aux, int c, Merge.Mode mode) {
         if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
-        T[] aux = a.clone();
-        int compares = sort(a, aux, c);
+        if (aux.length < Merge.auxLength(a.length, mode)) throw new IllegalArgumentException("Auxiliary array must be at least as long as the array, or half as long merging HALF.");
+        long compares = sortRuns(a, aux, c, mode);
         assert Util.isSorted(a);
         return compares;
     }
 
-    private static <T extends Comparable<? super T>> int sort(T[] a, T[] aux, int c) {
-        int compares = 0;
+    private static <T extends Comparable<? super T>> long sortRuns(T[] a, T[] aux, int c, Merge.Mode mode) {
+        final boolean pingPong = mode == Merge.Mode.PINGPONG;
+        long compares = 0;
         int n = a.length;
         if(n<=1) return compares;
         int runStack = 0;
@@ -39,7 +56,9 @@ public class BottomUpMergeSortCutoff {
                 int mid = c*(runStack) - 1;
                 int hi = c*(runStack + runLength) - 1;
                 //System.out.println("Now merging: a[" + lo + " .. " + mid + "] + a [" + mid + " + 1 .. " + hi + "]");
-                compares += Merge.merge(a, aux, lo, mid, hi);
+                if (pingPong) { boolean inAux = inAux(runLength);
+                                compares += Merge.merge(a, aux, lo, mid, hi, inAux, inAux); }
+                else            compares += Merge.merge(a, aux, lo, mid, hi, mode);
                 runStack = runStack & (~runLength);
                 runLength = runLength << 1;
             }
@@ -50,15 +69,172 @@ public class BottomUpMergeSortCutoff {
         assert(c*runStack + c > n);
         int runLength = Integer.lowestOneBit(runStack); //go to top run on stack
         int hi = n - 1;
+        boolean rightInAux = false; // The location of the accumulated right run in ping-pong mode
         //Sort any remaining elements not in the stack (upscaled by c):
         if (c * runStack < n) compares += InsertionSort.sort(a, c * runStack, hi); 
-        else runStack = runStack & (~runLength); //Else, If all elements already in stack of runs, remove top run
+        else { runStack   = runStack & (~runLength); //Else, If all elements already in stack of runs, remove top run
+               rightInAux = pingPong && inAux(runLength); }
             
         while(runStack != 0) {
             runLength = Integer.lowestOneBit(runStack); //go to next run in stack
             int lo    = c*(runStack - runLength);       // define indexes for merge, scaled by c, and merge
             int mid   = c*(runStack) - 1;
             //System.out.println("Now merging: a[" + lo + " .. " + mid + "] + a [" + mid + " + 1 .. " + hi + "]");
+            if (pingPong) { boolean leftInAux = inAux(runLength);
+                            compares  += Merge.merge(a, aux, lo, mid, hi, leftInAux, rightInAux);
+                            rightInAux = !leftInAux; }
+            else            compares  += Merge.merge(a, aux, lo, mid, hi, mode);
+            runStack  = runStack & (~runLength);
+        }
+        if (rightInAux) System.arraycopy(aux, 0, a, 0, n); // Final copy back, only when parity requires it
+        return compares;
+    }
+
+    // In ping-pong mode a run of c * 2^k elements has been merged k times, so it lives in aux when k is odd
+    private static boolean inAux(int runLength) { return (Integer.numberOfTrailingZeros(runLength) & 1) == 1; }
+
+    // ============================== Primitive specializations ==============================
+    // int[], long[] and double[] overloads mirroring the generic versions above, compare for compare.
+    // double[] uses the total order of Double.compare, matching the boxed Double.compareTo.
+
+    /** Rearranges the array in ascending order, starting from insertion sorted runs of length {@code c}.
+     * Primitive version of {@link #sort(Comparable[], int)}.
+     * @throws IllegalArgumentException if {@code c} is less than 1 */
+    public static long sort(int[] a, int c) {
+        if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        int[] aux = AuxArena.local().scratch(a);
+        long compares = sort(a, aux, c);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    private static long sort(int[] a, int[] aux, int c) {
+        long compares = 0;
+        int n = a.length;
+        if(n<=1) return compares;
+        int runStack = 0;
+
+        for(int i=0; i+c-1<n; i+=c) {
+            int runLength = 1;
+            compares += InsertionSort.sort(a, i, i+c-1);
+
+            while((runStack & runLength) != 0) {
+                int lo = c*(runStack - runLength);
+                int mid = c*(runStack) - 1;
+                int hi = c*(runStack + runLength) - 1;
+                compares += Merge.merge(a, aux, lo, mid, hi);
+                runStack = runStack & (~runLength);
+                runLength = runLength << 1;
+            }
+            runStack = runStack | runLength;
+        }
+
+        assert(c*runStack + c > n);
+        int runLength = Integer.lowestOneBit(runStack);
+        int hi = n - 1;
+        if (c * runStack < n) compares += InsertionSort.sort(a, c * runStack, hi);
+        else runStack = runStack & (~runLength);
+
+        while(runStack != 0) {
+            runLength = Integer.lowestOneBit(runStack);
+            int lo    = c*(runStack - runLength);
+            int mid   = c*(runStack) - 1;
+            compares += Merge.merge(a, aux, lo, mid, hi);
+            runStack  = runStack & (~runLength);
+        }
+        return compares;
+    }
+
+    /** Rearranges the array in ascending order, starting from insertion sorted runs of length {@code c}.
+     * Primitive version of {@link #sort(Comparable[], int)}.
+     * @throws IllegalArgumentException if {@code c} is less than 1 */
+    public static long sort(long[] a, int c) {
+        if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        long[] aux = AuxArena.local().scratch(a);
+        long compares = sort(a, aux, c);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    private static long sort(long[] a, long[] aux, int c) {
+        long compares = 0;
+        int n = a.length;
+        if(n<=1) return compares;
+        int runStack = 0;
+
+        for(int i=0; i+c-1<n; i+=c) {
+            int runLength = 1;
+            compares += InsertionSort.sort(a, i, i+c-1);
+
+            while((runStack & runLength) != 0) {
+                int lo = c*(runStack - runLength);
+                int mid = c*(runStack) - 1;
+                int hi = c*(runStack + runLength) - 1;
+                compares += Merge.merge(a, aux, lo, mid, hi);
+                runStack = runStack & (~runLength);
+                runLength = runLength << 1;
+            }
+            runStack = runStack | runLength;
+        }
+
+        assert(c*runStack + c > n);
+        int runLength = Integer.lowestOneBit(runStack);
+        int hi = n - 1;
+        if (c * runStack < n) compares += InsertionSort.sort(a, c * runStack, hi);
+        else runStack = runStack & (~runLength);
+
+        while(runStack != 0) {
+            runLength = Integer.lowestOneBit(runStack);
+            int lo    = c*(runStack - runLength);
+            int mid   = c*(runStack) - 1;
+            compares += Merge.merge(a, aux, lo, mid, hi);
+            runStack  = runStack & (~runLength);
+        }
+        return compares;
+    }
+
+    /** Rearranges the array in ascending order, starting from insertion sorted runs of length {@code c}.
+     * Primitive version of {@link #sort(Comparable[], int)}.
+     * @throws IllegalArgumentException if {@code c} is less than 1 */
+    public static long sort(double[] a, int c) {
+        if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        double[] aux  = AuxArena.local().scratch(a);
+        long compares = sort(a, aux, c);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    private static long sort(double[] a, double[] aux, int c) {
+        long compares = 0;
+        int n = a.length;
+        if(n<=1) return compares;
+        int runStack = 0;
+
+        for(int i=0; i+c-1<n; i+=c) {
+            int runLength = 1;
+            compares += InsertionSort.sort(a, i, i+c-1);
+
+            while((runStack & runLength) != 0) {
+                int lo = c*(runStack - runLength);
+                int mid = c*(runStack) - 1;
+                int hi = c*(runStack + runLength) - 1;
+                compares += Merge.merge(a, aux, lo, mid, hi);
+                runStack = runStack & (~runLength);
+                runLength = runLength << 1;
+            }
+            runStack = runStack | runLength;
+        }
+
+        assert(c*runStack + c > n);
+        int runLength = Integer.lowestOneBit(runStack);
+        int hi = n - 1;
+        if (c * runStack < n) compares += InsertionSort.sort(a, c * runStack, hi);
+        else runStack = runStack & (~runLength);
+
+        while(runStack != 0) {
+            runLength = Integer.lowestOneBit(runStack);
+            int lo    = c*(runStack - runLength);
+            int mid   = c*(runStack) - 1;
             compares += Merge.merge(a, aux, lo, mid, hi);
             runStack  = runStack & (~runLength);
         }
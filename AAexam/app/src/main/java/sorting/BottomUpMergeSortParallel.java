@@ -0,0 +1,115 @@
+package sorting;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/** A parallel bottom-up merge sort, merging level by level instead of depth first like {@link BottomUpMergeSortCutoff}.
+ * All blocks of {@code c} elements are insertion sorted in parallel. Then each pass merges the neighbouring pairs of
+ * runs of the previous one, from {@code a} into {@code aux} and back, as a parallel loop over the pairs. A run left
+ * without a partner at the end of the array is copied over to the next pass as it is. Once there are fewer pairs than
+ * the {@code p} of the context, each pair is merged by a {@link MergeParallel.MergeAction} of {@code p / pairs} tasks.
+ * The loops over the pairs are split down to ranges covering about {@code max(c, GRAIN)} elements, run by one task
+ * each, so a small {@code c} does not give a task per block.
+ *
+ * Unlike {@link RecursiveMergeSortParallel}, nothing recurses: every pass waits for the previous one, and the runs
+ * of a pass only depend on n and c. So the merges, and the compares, are the same in every pool.
+ */
+public class BottomUpMergeSortParallel {
+    private BottomUpMergeSortParallel() {}
+
+    /** The least number of elements of the pairs run by one task of a pass */
+    static final int GRAIN = 1 << 13;
+
+    /** Rearranges the array in ascending order, using the natural order, in the pool of the context.
+     * The work and span of the sort are added to the totals of the context.
+     * @param a the array to be sorted
+     * @param ctx the pool, the length {@code c} of the insertion sorted blocks as its cutoff, and the number of tasks
+     *            {@code p} to spread the merges of a pass across
+     * @return the number of compares performed for the sort */
+    public static <T extends Comparable<? super T>> long sort(T[] a, SortContext ctx) {
+        int n = a.length, c = ctx.cutoff();
+        if (n <= 1) return 0;
+        T[] src = a, dst = ctx.aux(a);
+
+        int grain      = Math.max(c, GRAIN);
+        Pass<T> blocks = new Pass<>(a, null, c, 0, (n + c - 1) / c, Math.max(1, grain / c), 1);
+        ctx.pool().invoke(blocks);
+        long work = blocks.work, span = blocks.span;
+
+        for (int w = c; w < n; w = (w > n / 2) ? n : 2 * w) {
+            int pairs = (int) ((n + 2L * w - 1) / (2L * w));
+            int per   = (int) Math.max(1, grain / (2L * w));
+            Pass<T> pass = new Pass<>(src, dst, w, 0, pairs, per, (ctx.p() > pairs) ? ctx.p() / pairs : 1);
+            ctx.pool().invoke(pass);
+            work += pass.work;
+            span += pass.span;
+            T[] t = src; src = dst; dst = t;
+        }
+        if (src != a) System.arraycopy(src, 0, a, 0, n); // Final copy back, only when the passes were odd
+        ctx.record(work, span);
+        assert Util.isSorted(a);
+        return work;
+    }
+
+    /** Sorts in the common pool with a context of its own, see {@link #sort(Comparable[], SortContext)}.
+     * @param c the length of the insertion sorted blocks; must be at least 1
+     * @param p the number of tasks to spread the merges of a pass across */
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c, int p) {
+        return sort(a, SortContext.common(c, p)); }
+
+    /** Sorts in the common pool, spreading the merges of a pass across as many tasks as it has workers. */
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c) {
+        return sort(a, SortContext.common(c, ForkJoinPool.commonPool().getParallelism())); }
+
+    // Runs the pairs [lo, hi) of a pass over runs of width w, splitting the range in halves down to ranges of at most
+    // per pairs, which are run one after the other. Without dst, the pairs are the blocks of w elements, insertion
+    // sorted in place. With it, pair i merges src[2iw .. (2i+1)w - 1] with the run after it into dst, by p tasks.
+    // After completion, work holds the compares of the pairs, and span the most compares along the chain of any one
+    // range of pairs
+    private static final class Pass<T extends Comparable<? super T>> extends RecursiveAction {
+        private final T[] src, dst;
+        private final int w, lo, hi, per, p;
+        long work, span;
+
+        Pass(T[] src, T[] dst, int w, int lo, int hi, int per, int p) {
+            this.src = src; this.dst = dst; this.w = w; this.lo = lo; this.hi = hi; this.per = per; this.p = p;
+        }
+
+        @Override protected void compute() {
+            if (hi - lo > per) {
+                int mid = (lo + hi) >>> 1;
+                Pass<T> left = new Pass<>(src, dst, w, lo, mid, per, p), right = new Pass<>(src, dst, w, mid, hi, per, p);
+                invokeAll(left, right);
+                work = left.work + right.work;
+                span = Math.max(left.span, right.span);
+                return;
+            }
+            for (int i = lo; i < hi; i++) pair(i);
+        }
+
+        // Runs pair i, adding its compares to work, and those along its chain to span
+        private void pair(int i) {
+            int n = src.length;
+            if (dst == null) {
+                int first    = i * w;
+                long compares = InsertionSort.sort(src, first, (int) Math.min((long) first + w, n) - 1);
+                work += compares; span += compares;
+                return;
+            }
+            int first = (int) (2L * i * w), mid = (int) Math.min((long) first + w, n) - 1;
+            int last  = (int) Math.min((long) first + 2L * w, n) - 1;
+            if (mid == last) {                        // Unpaired: carried over to the next pass
+                System.arraycopy(src, first, dst, first, last - first + 1);
+            } else if (p > 1) {
+                MergeParallel.MergeAction<T> action = new MergeParallel.MergeAction<>(
+                    src, dst, first, mid, mid + 1, last, first, MergeParallel.grain(last - first + 1, p), false);
+                action.invoke();
+                work += action.profile().compares();
+                span += action.profile().compareSpan();
+            } else {
+                long compares = Merge.mergeInto(src, dst, first, mid, last);
+                work += compares; span += compares;
+            }
+        }
+    }
+}
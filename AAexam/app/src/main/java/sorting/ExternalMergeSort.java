@@ -0,0 +1,174 @@
+package sorting;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Array;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/** Sorts files too large for the heap, in the line format of {@link data.Handler#writeToFile}.
+ * The input is read in chunks of a bounded number of elements. Each chunk is sorted with {@link LevelSortAdaptive}
+ * and spilled to a temporary directory as a sorted run. The runs are then merged k at a time, through large buffered
+ * sequential reads and writes, until one run is left, which is written to the output.
+ * At most {@code 1.5 * chunkSize} elements are on the heap at once: the chunk, and its auxiliary array of half the
+ * length, as the chunks are merged {@link Merge.Mode#HALF}.
+ * The sort is stable. Equal elements of different runs are ordered by run, and the runs by their position in the input.
+ */
+public class ExternalMergeSort {
+    private ExternalMergeSort() {}
+
+    /** The cutoff of the in-memory sort of each chunk */
+    private static final int CUTOFF = 16;
+
+    /** The resources of an external sort.
+     * @param chunkSize the number of elements sorted in memory at a time, i.e. the memory budget; must be at least 1
+     * @param fanIn the number of runs merged at a time; must be at least 2
+     * @param tempDir the directory the runs are spilled to, in a temporary subdirectory deleted after the sort
+     * @param bufferSize the size in chars of the buffer of each open file; must be at least 1 */
+    public record Config(int chunkSize, int fanIn, Path tempDir, int bufferSize) {
+        public Config {
+            if (chunkSize < 1)  throw new IllegalArgumentException("Chunk size must be at least 1.");
+            if (fanIn < 2)      throw new IllegalArgumentException("Fan-in must be at least 2.");
+            if (bufferSize < 1) throw new IllegalArgumentException("Buffer size must be at least 1.");
+        }
+
+        /** A configuration spilling to the default temporary directory, merging 64 runs at a time with 64K buffers. */
+        public Config(int chunkSize) { this(chunkSize, 64, Path.of(System.getProperty("java.io.tmpdir")), 1 << 16); }
+    }
+
+    /** Sorts the elements of a file into another file, using the natural order.
+     * @param in the file to sort, with one element per line
+     * @param out the file to write the sorted elements to, one per line; it is replaced if it exists
+     * @param reader a function that creates a data object from a line
+     * @param writer a function that creates a line from a data object
+     * @param config the memory budget, fan-in, temporary directory and buffer size of the sort
+     * @return the number of compares performed for the sort, in memory and in the merges
+     * @throws IOException if reading, writing or deleting any of the files fails */
+    public static <T extends Comparable<? super T>> long sort(Path in, Path out, Function<String, T> reader,
+                                                              Function<T, String> writer, Config config) throws IOException {
+        Path dir = Files.createTempDirectory(config.tempDir(), "runs");
+        try {
+            long[] compares = new long[1];
+            List<Path> runs = spill(in, dir, reader, writer, config, compares);
+            int pass        = 0;
+            while (runs.size() > config.fanIn()) {              // Intermediate passes, merging groups of fanIn runs
+                List<Path> merged = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += config.fanIn()) {
+                    List<Path> group = runs.subList(i, Math.min(i + config.fanIn(), runs.size()));
+                    Path run = dir.resolve("pass" + pass + "-" + merged.size());
+                    compares[0] += merge(group, run, reader, writer, config.bufferSize());
+                    for (Path p : group) Files.delete(p);
+                    merged.add(run);
+                }
+                runs = merged;
+                pass++;
+            }
+            compares[0] += merge(runs, out, reader, writer, config.bufferSize()); // Final pass into the output
+            for (Path p : runs) Files.delete(p);
+            return compares[0];
+        } finally {
+            try (var leftovers = Files.list(dir)) { for (Path p : leftovers.toList()) Files.deleteIfExists(p); }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    /** Sorts with the default configuration for the given chunk size, see {@link #sort(Path, Path, Function, Function, Config)}. */
+    public static <T extends Comparable<? super T>> long sort(Path in, Path out, Function<String, T> reader,
+                                                              Function<T, String> writer, int chunkSize) throws IOException {
+        return sort(in, out, reader, writer, new Config(chunkSize));
+    }
+
+    /** Sorts files written with {@code toString}, see {@link #sort(Path, Path, Function, Function, Config)}. */
+    public static <T extends Comparable<? super T>> long sort(Path in, Path out, Function<String, T> reader,
+                                                              Config config) throws IOException {
+        return sort(in, out, reader, T::toString, config);
+    }
+
+    // Reads the input chunk by chunk, and writes each chunk sorted to a run file of its own.
+    // The chunk and auxiliary arrays are allocated once, of the class of the first element, like Handler.readData.
+    @SuppressWarnings("unchecked")
+    private static <T extends Comparable<? super T>> List<Path> spill(Path in, Path dir, Function<String, T> reader,
+                                                                      Function<T, String> writer, Config config,
+                                                                      long[] compares) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        T[] chunk = null, aux = null;
+        try (BufferedReader r = open(in, config.bufferSize())) {
+            String line = r.readLine();
+            while (line != null) {
+                int size = 0;
+                for (; line != null && size < config.chunkSize(); line = r.readLine()) {
+                    T e = reader.apply(line);
+                    if (chunk == null) {
+                        chunk = (T[]) Array.newInstance(e.getClass(), config.chunkSize());
+                        aux   = (T[]) Array.newInstance(e.getClass(), Merge.auxLength(config.chunkSize(), Merge.Mode.HALF));
+                    }
+                    chunk[size++] = e;
+                }
+                compares[0]  += LevelSortAdaptive.sort(chunk, size, aux, CUTOFF, Merge.Mode.HALF); // The last may be partial
+                Path file     = dir.resolve("run" + runs.size());
+                try (BufferedWriter w = create(file, config.bufferSize())) {
+                    for (int i = 0; i < size; i++) { w.write(writer.apply(chunk[i])); w.newLine(); }
+                }
+                runs.add(file);
+            }
+        }
+        return runs;
+    }
+
+    // k-way merge of the runs into the output, through a heap of the head of each run.
+    // Ties are broken by the index of the run, which keeps the merge stable.
+    private static <T extends Comparable<? super T>> long merge(List<Path> runs, Path out, Function<String, T> reader,
+                                                                Function<T, String> writer, int bufferSize) throws IOException {
+        long[] compares = new long[1];
+        PriorityQueue<Head<T>> heap = new PriorityQueue<>(Math.max(1, runs.size()), (x, y) -> {
+            compares[0]++;
+            int cmp = x.value.compareTo(y.value);
+            return (cmp != 0) ? cmp : Integer.compare(x.run, y.run);
+        });
+        List<BufferedReader> readers = new ArrayList<>(runs.size());
+        try (BufferedWriter w = create(out, bufferSize)) {
+            for (Path run : runs) {
+                BufferedReader r = open(run, bufferSize);
+                readers.add(r);
+                String line = r.readLine();
+                if (line != null) heap.add(new Head<>(reader.apply(line), readers.size() - 1, r));
+            }
+            while (!heap.isEmpty()) {
+                Head<T> head = heap.poll();
+                w.write(writer.apply(head.value));
+                w.newLine();
+                String line = head.in.readLine();
+                if (line != null) { head.value = reader.apply(line); heap.add(head); }
+            }
+        } finally {
+            for (BufferedReader r : readers) r.close();
+        }
+        return compares[0];
+    }
+
+    // The current element of a run, and where to read the next one
+    private static final class Head<T> {
+        T value;
+        final int run;
+        final BufferedReader in;
+
+        Head(T value, int run, BufferedReader in) { this.value = value; this.run = run; this.in = in; }
+    }
+
+    private static BufferedReader open(Path file, int bufferSize) throws IOException {
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(file), UTF_8), bufferSize);
+    }
+
+    private static BufferedWriter create(Path file, int bufferSize) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), UTF_8), bufferSize);
+    }
+}
@@ -6,8 +6,8 @@ public class InsertionSort {
     /** Rearranges the array in ascending order, using the natural order.
      * @param a the array to be sorted
      * @return the number of compares performed */
-    public static <T extends Comparable<? super T>> int sort(T[] a) {
-        int compares = sort(a, 0, a.length - 1);
+    public static <T extends Comparable<? super T>> long sort(T[] a) {
+        long compares = sort(a, 0, a.length - 1);
         assert Util.isSorted(a);
         return compares;
     }
@@ -16,8 +16,8 @@ public class InsertionSort {
      * @param a the array to be sorted
      * @param lo left endpoint (inclusive)
      * @param hi right endpoint (inclusive) */
-    public static <T extends Comparable<? super T>> int sort(T[] a, int lo, int hi) {
-        int compares = 0;
+    public static <T extends Comparable<? super T>> long sort(T[] a, int lo, int hi) {
+        long compares = 0;
         for (int i = lo + 1; i <= hi; i++) {
             for (int j = i; j > lo; j--) {
                 compares++;
@@ -41,4 +41,104 @@ public class InsertionSort {
         a[i] = a[j];
         a[j] = swap;
     }
+
+    // ============================== Primitive specializations ==============================
+    // int[], long[] and double[] overloads mirroring the generic versions above, compare for compare.
+    // double[] uses the total order of Double.compare, matching the boxed Double.compareTo.
+
+    /** Rearranges the array in ascending order.
+     * Primitive version of {@link #sort(Comparable[])}.
+     * @return the number of compares performed */
+    public static long sort(int[] a) {
+        long compares = sort(a, 0, a.length - 1);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    /** Rearranges the subarray a[lo..hi] in ascending order.
+     * Primitive version of {@link #sort(Comparable[], int, int)}. */
+    public static long sort(int[] a, int lo, int hi) {
+        long compares = 0;
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo; j--) {
+                compares++;
+                if(a[j] < a[j-1])
+                    exch(a, j, j-1);
+                else
+                    break;
+            }
+        }
+        assert Util.isSorted(a, lo, hi);
+        return compares;
+    }
+
+    private static void exch(int[] a, int i, int j) {
+        int swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+    /** Rearranges the array in ascending order.
+     * Primitive version of {@link #sort(Comparable[])}.
+     * @return the number of compares performed */
+    public static long sort(long[] a) {
+        long compares = sort(a, 0, a.length - 1);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    /** Rearranges the subarray a[lo..hi] in ascending order.
+     * Primitive version of {@link #sort(Comparable[], int, int)}. */
+    public static long sort(long[] a, int lo, int hi) {
+        long compares = 0;
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo; j--) {
+                compares++;
+                if(a[j] < a[j-1])
+                    exch(a, j, j-1);
+                else
+                    break;
+            }
+        }
+        assert Util.isSorted(a, lo, hi);
+        return compares;
+    }
+
+    private static void exch(long[] a, int i, int j) {
+        long swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+    /** Rearranges the array in ascending order.
+     * Primitive version of {@link #sort(Comparable[])}.
+     * @return the number of compares performed */
+    public static long sort(double[] a) {
+        long compares = sort(a, 0, a.length - 1);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    /** Rearranges the subarray a[lo..hi] in ascending order.
+     * Primitive version of {@link #sort(Comparable[], int, int)}. */
+    public static long sort(double[] a, int lo, int hi) {
+        long compares = 0;
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo; j--) {
+                compares++;
+                if(Double.compare(a[j], a[j-1]) < 0)
+                    exch(a, j, j-1);
+                else
+                    break;
+            }
+        }
+        assert Util.isSorted(a, lo, hi);
+        return compares;
+    }
+
+    private static void exch(double[] a, int i, int j) {
+        double swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
 }
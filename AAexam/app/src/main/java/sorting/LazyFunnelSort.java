@@ -0,0 +1,151 @@
+package sorting;
+
+/** A cache-oblivious merge sort: lazy funnelsort, after Brodal and Fagerberg.
+ *
+ * An array of n elements is split into k = n^(1/3) segments of n^(2/3) elements, each is sorted recursively, and the
+ * k sorted segments are merged at once by a k-funnel. Arrays of at most {@value #BASE} elements are insertion sorted.
+ *
+ * A k-funnel is a complete binary tree of merges with the segments at its leaves. Each edge has a buffer, filled
+ * lazily: a node merges from the buffers of its children until its own is full, and refills a child's buffer only once
+ * it is empty. The buffers are sized recursively: the tree is cut at half its height, the edges between the top tree
+ * and the bottom trees get buffers of (2^h)^(3/2) elements for a tree of height h, and the top and bottom trees are
+ * sized the same way. The buffers are laid out in one array in the same recursive order, van Emde Boas order,
+ * so every subtree of merges works on a contiguous part of memory.
+ *
+ * Without knowing the cache sizes, it moves O((n/B) log_(M/B)(n/B)) blocks of B elements through any cache of M
+ * elements, where binary merges move O((n/B) log(n/M)), so it needs no cutoff tuned to the machine.
+ * The merges are stable, like {@link Merge#merge}, and count a compare while both inputs have elements left.
+ * The buffers of a funnel take O(k^2) = O(n^(2/3)) elements besides the auxiliary array.
+ * The auxiliary array has the full length of the array: there is no {@link Merge.Mode#HALF} variant, as a funnel
+ * merges k segments at once and writes all n elements into it before they are copied back.
+ */
+public class LazyFunnelSort {
+    private LazyFunnelSort() {}
+
+    /** The largest array sorted with insertion sort */
+    static final int BASE = 16;
+
+    /** Rearranges the array in ascending order, using the natural order.
+     * @param a the array to be sorted
+     * @return the number of compares performed */
+    public static <T extends Comparable<? super T>> long sort(T[] a) {
+        long compares = sort(a, AuxArena.local().scratch(a), 0, a.length - 1);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    // Sorts a[lo .. hi], merging through aux[lo .. hi]
+    private static <T extends Comparable<? super T>> long sort(T[] a, T[] aux, int lo, int hi) {
+        int n = hi - lo + 1;
+        if (n <= BASE) return InsertionSort.sort(a, lo, hi);
+        int s         = (int) Math.ceil(n / Math.ceil(Math.cbrt(n)));   // Segments of about n^(2/3) elements
+        int k         = (n + s - 1) / s;
+        int[] starts  = new int[k + 1];
+        long compares = 0;
+        for (int i = 0; i < k; i++) {
+            starts[i] = lo + i * s;
+            compares += sort(a, aux, starts[i], Math.min(starts[i] + s, hi + 1) - 1);
+        }
+        starts[k] = hi + 1;
+        compares += new Funnel<>(a, starts, k).merge(aux, lo);
+        System.arraycopy(aux, lo, a, lo, n);
+        return compares;
+    }
+
+    // A k-funnel over sorted segments of src. The nodes are numbered as a heap: the root is 1, the children of node j
+    // are 2j and 2j + 1, and the leaves K .. 2K - 1 read segments, K being k rounded up to a power of two.
+    // Every other node but the root has a buffer buf[off[j] .. off[j] + cap[j]), holding its output at [head, tail).
+    private static final class Funnel<T extends Comparable<? super T>> {
+        private final T[] src, buf;
+        private final int leaves, height;
+        private final int[] pos, end;            // The unread part of each segment
+        private final int[] off, cap, head, tail;
+        private final boolean[] done;            // Whether a node has merged all of its input
+        private T[] out;
+        private int outOff, outCap;              // The output of the root
+        private long compares;                   // The compares of all nodes
+
+        @SuppressWarnings("unchecked")
+        Funnel(T[] src, int[] starts, int k) {
+            this.src = src;
+            height   = 32 - Integer.numberOfLeadingZeros(k - 1);
+            leaves   = 1 << height;
+            pos      = new int[leaves]; end = new int[leaves];
+            for (int i = 0; i < k; i++) { pos[i] = starts[i]; end[i] = starts[i + 1]; }
+            off  = new int[leaves]; cap  = new int[leaves];
+            head = new int[leaves]; tail = new int[leaves];
+            done = new boolean[leaves];
+            for (int j = 2; j < leaves; j++) cap[j] = capacity(depth(j), height);
+            int[] next = new int[1];
+            layout(1, height, next);
+            buf = (T[]) new Comparable<?>[next[0]];
+        }
+
+        // Merges all segments into dst[at ..], and returns the compares
+        long merge(T[] dst, int at) {
+            out = dst; outOff = at; outCap = Integer.MAX_VALUE; // The root is filled once, until its children run dry
+            fill(1);
+            return compares;
+        }
+
+        private static int depth(int j) { return 31 - Integer.numberOfLeadingZeros(j); }
+
+        // The buffer above a node at depth d of a tree of height h: the size for the edges where it is cut in two,
+        // else the size it has in the top or bottom tree it falls in
+        private static int capacity(int d, int h) {
+            int top = (h - 1) / 2;
+            if (d == top + 1) return (int) Math.ceil(Math.pow(2, 1.5 * h));
+            return (d <= top) ? capacity(d, top) : capacity(d - top - 1, h - top - 1);
+        }
+
+        // Places the buffers of the subtree of height h at node r in van Emde Boas order: the top tree, then the
+        // bottom trees from left to right
+        private void layout(int r, int h, int[] next) {
+            if (h == 0) {
+                if (r >= 2 && r < leaves) { off[r] = next[0]; next[0] += cap[r]; }
+                return;
+            }
+            int top = (h - 1) / 2, bottom = top + 1;
+            layout(r, top, next);
+            for (int b = r << bottom; b < (r + 1) << bottom; b++) layout(b, h - bottom, next);
+        }
+
+        // The output of node j waiting to be read is from(j)[at(j) .. until(j)), a segment for a leaf, else its buffer
+        private T[] from(int j)          { return (j >= leaves) ? src : buf; }
+        private int at(int j)            { return (j >= leaves) ? pos[j - leaves] : off[j] + head[j]; }
+        private int until(int j)         { return (j >= leaves) ? end[j - leaves] : off[j] + tail[j]; }
+        private void moveTo(int j, int i) { if (j >= leaves) pos[j - leaves] = i; else head[j] = i - off[j]; }
+        private boolean isDry(int j)     { return j >= leaves || done[j]; }
+
+        // Merges the children of node j into its empty buffer, until it is full or they run dry.
+        // Between refills of the children, the merge runs on local indices, and block copies once one side is empty
+        private void fill(int j) {
+            T[] dst   = (j == 1) ? out : buf;
+            int base  = (j == 1) ? outOff : off[j];
+            int limit = (j == 1) ? outCap : cap[j];
+            int l = 2 * j, r = l + 1, t = 0;
+            while (t < limit) {
+                if (at(l) == until(l) && !isDry(l)) fill(l);
+                if (at(r) == until(r) && !isDry(r)) fill(r);
+                T[] la = from(l), ra = from(r);
+                int li = at(l), lEnd = until(l), ri = at(r), rEnd = until(r);
+                if (li == lEnd && ri == rEnd) { done[j] = true; break; }
+                if (li == lEnd || ri == rEnd) {  // One side is empty, and dry: copy from the other
+                    T[] from = (li == lEnd) ? ra : la;
+                    int i    = (li == lEnd) ? ri : li, len = Math.min(limit - t, ((li == lEnd) ? rEnd : lEnd) - i);
+                    System.arraycopy(from, i, dst, base + t, len);
+                    t += len;
+                    moveTo((li == lEnd) ? r : l, i + len);
+                    continue;
+                }
+                while (t < limit && li < lEnd && ri < rEnd) {
+                    compares++;
+                    if (ra[ri].compareTo(la[li]) < 0) dst[base + t++] = ra[ri++];
+                    else                              dst[base + t++] = la[li++];
+                }
+                moveTo(l, li); moveTo(r, ri);
+            }
+            head[j] = 0; tail[j] = t;
+        }
+    }
+}
@@ -12,26 +12,48 @@ public class LevelSort {
      * @param c the initial length of runs to merge, when enough left; must be at least 1
      * @return the number of compares performed during the sort
      * @throws IllegalArgumentException if {@code c} is less than 1 */
-    public static <T extends Comparable<? super T>> int sort(T[] a, int c) {
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c) { return sort(a, c, Merge.Mode.COPY); }
+
+    /** Rearranges the array in ascending order, using the natural order, see {@link #sort(Comparable[], int)}.
+     * @param a the array to be sorted
+     * @param c the least length of runs to merge, when enough left; must be at least 1
+     * @param mode how elements are moved between {@code a} and the auxiliary array when merging
+     * @return the number of compares performed during the sort
+     * @throws IllegalArgumentException if {@code c} is less than 1 */
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c, Merge.Mode mode) {
+        return sort(a, AuxArena.local().scratch(a, Merge.auxLength(a.length, mode)), c, mode);
+    }
+
+    /** Rearranges the array in ascending order as {@link #sort(Comparable[], int, Merge.Mode)}, without allocating.
+     * @param aux auxiliary array of at least {@link Merge#auxLength} elements, provided by the caller instead of allocating one.
+     *            Its contents do not matter, and are overwritten.
+     * @throws IllegalArgumentException if {@code c} is less than 1, or {@code aux} is shorter than {@link Merge#auxLength} */
+    public static <T extends Comparable<? super T>> long sort(T[] a, T[] aux, int c, Merge.Mode mode) {
         if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
-        T[] aux = a.clone();
-        int compares = sort(a, aux, c);
+        if (aux.length < Merge.auxLength(a.length, mode)) throw new IllegalArgumentException("Auxiliary array must be at least as long as the array, or half as long merging HALF.");
+        long compares = sortRuns(a, aux, c, mode);
         assert Util.isSorted(a);
         return compares;
     }
 
     /** Non-adaptive version - always creates runs of length c by insertionsorting*/
-    private static <T extends Comparable<? super T>> int sort(T[] a, T[] aux, int c) {
-        int compares = 0, n = a.length;
+    private static <T extends Comparable<? super T>> long sortRuns(T[] a, T[] aux, int c, Merge.Mode mode) {
+        final boolean pingPong = mode == Merge.Mode.PINGPONG;
+        int n         = a.length;
+        long compares = 0;
         if(n<=1) return compares;
 
         //define capacity for stacks of runs, indexed by level
         //Can't exceed the position of the most significant bit of the sum of n and n - 1 (max level) +1
         int stackCapacity = 64 - Long.numberOfLeadingZeros(((long) n + (long) (n - 1))) + 1;
 
-        int[] runStart = new int[stackCapacity];
-        int[] runEnd   = new int[stackCapacity];
+        AuxArena arena = AuxArena.local();
+        assert stackCapacity <= AuxArena.STACK;
+        int[] runStart = arena.starts;
+        int[] runEnd   = arena.ends;
         int levelStack = 0; //stack maintaining levels
+        boolean[] runInAux = arena.inAux; // ping-pong mode: which buffer each run lives in
+        boolean inAuxL     = false;
 
         //create initial run from 0 of length c (or lesser if constrained by array size)
         //This is our first merging candidate (L), which will immediately be put in stack
@@ -64,7 +86,9 @@ public class LevelSort {
                 int lo      = runStart[topLevel];
                 int mid     = runEnd[topLevel];
                 int hi      = endL;
-                compares   += Merge.merge(a, aux, lo, mid, hi);
+                if (pingPong) { compares += Merge.merge(a, aux, lo, mid, hi, runInAux[topLevel], inAuxL);
+                                inAuxL    = !runInAux[topLevel]; }
+                else            compares += Merge.merge(a, aux, lo, mid, hi, mode);
                 levelStack &= ~(1 << (topLevel - 1)); //remove the (now merged) top run from the levelStack
                 topLevel    = Integer.numberOfTrailingZeros(levelStack) + 1;
                 startL      = lo; //update starting-point of L (according to merge)
@@ -74,8 +98,10 @@ public class LevelSort {
             //Update start of run in stack with the level of L (only one with this level pr. stack property)
             levelStack            |= 1 << (currentLevel - 1);
             runStart[currentLevel] = startL;
+            runInAux[currentLevel] = inAuxL;
             startL                 = startN; //Set N as the new L
             endL                   = endN;
+            inAuxL                 = false;
         }
 
         int hi = endL; //set endpoint for finishing merges (will just be right end of array)
@@ -84,13 +110,203 @@ public class LevelSort {
             int topLevel = Integer.numberOfTrailingZeros(levelStack) + 1;
             int lo       = runStart[topLevel];
             int mid      = runEnd[topLevel];
-            compares    += Merge.merge(a, aux, lo, mid, hi);
+            if (pingPong) { compares += Merge.merge(a, aux, lo, mid, hi, runInAux[topLevel], inAuxL);
+                            inAuxL    = !runInAux[topLevel]; }
+            else            compares += Merge.merge(a, aux, lo, mid, hi, mode);
             levelStack  &= ~(1 << (topLevel - 1));
         }
+        if (inAuxL) System.arraycopy(aux, 0, a, 0, n); // Final copy back, only when parity requires it
         return compares;
     }
 
     public static int level(int startL, int endL, int startN, int endN) {
         return 64 - Long.numberOfLeadingZeros(((long) startL + (long) (endL + 1))^((long) startN+ (long) (endN + 1)));
     }
+
+    // ============================== Primitive specializations ==============================
+    // int[], long[] and double[] overloads mirroring the generic versions above, compare for compare.
+    // double[] uses the total order of Double.compare, matching the boxed Double.compareTo.
+
+    /** Rearranges the array in ascending order, merging insertion sorted runs of length {@code c}.
+     * Primitive version of {@link #sort(Comparable[], int)}.
+     * @throws IllegalArgumentException if {@code c} is less than 1 */
+    public static long sort(int[] a, int c) {
+        if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        int[] aux = AuxArena.local().scratch(a);
+        long compares = sort(a, aux, c);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    private static long sort(int[] a, int[] aux, int c) {
+        int n         = a.length;
+        long compares = 0;
+        if(n<=1) return compares;
+
+        int stackCapacity = 64 - Long.numberOfLeadingZeros(((long) n + (long) (n - 1))) + 1;
+        AuxArena arena = AuxArena.local();
+        assert stackCapacity <= AuxArena.STACK;
+        int[] runStart = arena.starts;
+        int[] runEnd   = arena.ends;
+        int levelStack = 0;
+
+        int startL = 0;
+        int endL = Math.min(startL+c-1, n-1);
+        compares += InsertionSort.sort(a, startL,endL);
+
+        while(endL < n - 1) {
+            int startN = endL + 1;
+            int endN = Math.min(startN+c-1, n - 1);
+            compares += InsertionSort.sort(a,startN,endN);
+
+            int currentLevel =  level(startL, endL, startN, endN);
+            runEnd[currentLevel] = endL;
+            int topLevel = Integer.numberOfTrailingZeros(levelStack) + 1;
+            while (levelStack != 0 && currentLevel > topLevel) {
+                int lo      = runStart[topLevel];
+                int mid     = runEnd[topLevel];
+                int hi      = endL;
+                compares   += Merge.merge(a, aux, lo, mid, hi);
+                levelStack &= ~(1 << (topLevel - 1));
+                topLevel    = Integer.numberOfTrailingZeros(levelStack) + 1;
+                startL      = lo;
+            }
+            levelStack            |= 1 << (currentLevel - 1);
+            runStart[currentLevel] = startL;
+            startL                 = startN;
+            endL                   = endN;
+        }
+
+        int hi = endL;
+        while(levelStack !=0) {
+            int topLevel = Integer.numberOfTrailingZeros(levelStack) + 1;
+            int lo       = runStart[topLevel];
+            int mid      = runEnd[topLevel];
+            compares    += Merge.merge(a, aux, lo, mid, hi);
+            levelStack  &= ~(1 << (topLevel - 1));
+        }
+        return compares;
+    }
+
+    /** Rearranges the array in ascending order, merging insertion sorted runs of length {@code c}.
+     * Primitive version of {@link #sort(Comparable[], int)}.
+     * @throws IllegalArgumentException if {@code c} is less than 1 */
+    public static long sort(long[] a, int c) {
+        if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        long[] aux = AuxArena.local().scratch(a);
+        long compares = sort(a, aux, c);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    private static long sort(long[] a, long[] aux, int c) {
+        int n         = a.length;
+        long compares = 0;
+        if(n<=1) return compares;
+
+        int stackCapacity = 64 - Long.numberOfLeadingZeros(((long) n + (long) (n - 1))) + 1;
+        AuxArena arena = AuxArena.local();
+        assert stackCapacity <= AuxArena.STACK;
+        int[] runStart = arena.starts;
+        int[] runEnd   = arena.ends;
+        int levelStack = 0;
+
+        int startL = 0;
+        int endL = Math.min(startL+c-1, n-1);
+        compares += InsertionSort.sort(a, startL,endL);
+
+        while(endL < n - 1) {
+            int startN = endL + 1;
+            int endN = Math.min(startN+c-1, n - 1);
+            compares += InsertionSort.sort(a,startN,endN);
+
+            int currentLevel =  level(startL, endL, startN, endN);
+            runEnd[currentLevel] = endL;
+            int topLevel = Integer.numberOfTrailingZeros(levelStack) + 1;
+            while (levelStack != 0 && currentLevel > topLevel) {
+                int lo      = runStart[topLevel];
+                int mid     = runEnd[topLevel];
+                int hi      = endL;
+                compares   += Merge.merge(a, aux, lo, mid, hi);
+                levelStack &= ~(1 << (topLevel - 1));
+                topLevel    = Integer.numberOfTrailingZeros(levelStack) + 1;
+                startL      = lo;
+            }
+            levelStack            |= 1 << (currentLevel - 1);
+            runStart[currentLevel] = startL;
+            startL                 = startN;
+            endL                   = endN;
+        }
+
+        int hi = endL;
+        while(levelStack !=0) {
+            int topLevel = Integer.numberOfTrailingZeros(levelStack) + 1;
+            int lo       = runStart[topLevel];
+            int mid      = runEnd[topLevel];
+            compares    += Merge.merge(a, aux, lo, mid, hi);
+            levelStack  &= ~(1 << (topLevel - 1));
+        }
+        return compares;
+    }
+
+    /** Rearranges the array in ascending order, merging insertion sorted runs of length {@code c}.
+     * Primitive version of {@link #sort(Comparable[], int)}.
+     * @throws IllegalArgumentException if {@code c} is less than 1 */
+    public static long sort(double[] a, int c) {
+        if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        double[] aux  = AuxArena.local().scratch(a);
+        long compares = sort(a, aux, c);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    private static long sort(double[] a, double[] aux, int c) {
+        int n         = a.length;
+        long compares = 0;
+        if(n<=1) return compares;
+
+        int stackCapacity = 64 - Long.numberOfLeadingZeros(((long) n + (long) (n - 1))) + 1;
+        AuxArena arena = AuxArena.local();
+        assert stackCapacity <= AuxArena.STACK;
+        int[] runStart = arena.starts;
+        int[] runEnd   = arena.ends;
+        int levelStack = 0;
+
+        int startL = 0;
+        int endL = Math.min(startL+c-1, n-1);
+        compares += InsertionSort.sort(a, startL,endL);
+
+        while(endL < n - 1) {
+            int startN = endL + 1;
+            int endN = Math.min(startN+c-1, n - 1);
+            compares += InsertionSort.sort(a,startN,endN);
+
+            int currentLevel =  level(startL, endL, startN, endN);
+            runEnd[currentLevel] = endL;
+            int topLevel = Integer.numberOfTrailingZeros(levelStack) + 1;
+            while (levelStack != 0 && currentLevel > topLevel) {
+                int lo      = runStart[topLevel];
+                int mid     = runEnd[topLevel];
+                int hi      = endL;
+                compares   += Merge.merge(a, aux, lo, mid, hi);
+                levelStack &= ~(1 << (topLevel - 1));
+                topLevel    = Integer.numberOfTrailingZeros(levelStack) + 1;
+                startL      = lo;
+            }
+            levelStack            |= 1 << (currentLevel - 1);
+            runStart[currentLevel] = startL;
+            startL                 = startN;
+            endL                   = endN;
+        }
+
+        int hi = endL;
+        while(levelStack !=0) {
+            int topLevel = Integer.numberOfTrailingZeros(levelStack) + 1;
+            int lo       = runStart[topLevel];
+            int mid      = runEnd[topLevel];
+            compares    += Merge.merge(a, aux, lo, mid, hi);
+            levelStack  &= ~(1 << (topLevel - 1));
+        }
+        return compares;
+    }
 }
@@ -13,45 +13,92 @@ public class LevelSortAdaptive {
      * @param c the least length of runs to merge, when enough left; must be at least 1
      * @return the number of compares performed during the sort
      * @throws IllegalArgumentException if {@code c} is less than 1 */
-    public static <T extends Comparable<? super T>> int sort(T[] a, int c) {
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c) { return sort(a, c, Merge.Mode.COPY); }
+
+    /** Rearranges the array in ascending order, using the natural order, see {@link #sort(Comparable[], int)}.
+     * @param a the array to be sorted
+     * @param c the least length of runs to merge, when enough left; must be at least 1
+     * @param mode how elements are moved between {@code a} and the auxiliary array when merging
+     * @return the number of compares performed during the sort
+     * @throws IllegalArgumentException if {@code c} is less than 1 */
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c, Merge.Mode mode) {
+        return sort(a, AuxArena.local().scratch(a, Merge.auxLength(a.length, mode)), c, mode);
+    }
+
+    /** Rearranges the array in ascending order as {@link #sort(Comparable[], int, Merge.Mode)}, without allocating.
+     * @param aux auxiliary array of at least {@link Merge#auxLength} elements, provided by the caller instead of allocating one.
+     *            Its contents do not matter, and are overwritten.
+     * @throws IllegalArgumentException if {@code c} is less than 1, or {@code aux} is shorter than {@link Merge#auxLength} */
+    public static <T extends Comparable<? super T>> long sort(T[] a, T[] aux, int c, Merge.Mode mode) {
+        return sort(a, aux, c, mode, null);
+    }
+
+    /** Rearranges the array in ascending order as {@link #sort(Comparable[], Comparable[], int, Merge.Mode, SortStats)}, with an auxiliary array from the thread's arena. */
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c, Merge.Mode mode, SortStats stats) {
+        return sort(a, AuxArena.local().scratch(a, Merge.auxLength(a.length, mode)), c, mode, stats);
+    }
+
+    /** Rearranges the array in ascending order as {@link #sort(Comparable[], Comparable[], int, Merge.Mode)},
+     * recording the time, compares and moves of each phase into the stats.
+     * @param stats the sink to add to, or null to record nothing */
+    public static <T extends Comparable<? super T>> long sort(T[] a, T[] aux, int c, Merge.Mode mode, SortStats stats) {
         if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
-        T[] aux = a.clone();
-        int compares = sort(a, aux, c);
+        if (aux.length < Merge.auxLength(a.length, mode)) throw new IllegalArgumentException("Auxiliary array must be at least as long as the array, or half as long merging HALF.");
+        long compares = sortRuns(a, a.length, aux, c, mode, stats);
         assert Util.isSorted(a);
         return compares;
     }
-    
-    //adaptive variant
-    private static <T extends Comparable<? super T>> int sort(T[] a, T[] aux, int c) {
-        int compares = 0, n = a.length;
+
+    /** Rearranges the first {@code n} elements of the array in ascending order, as {@link #sort(Comparable[], Comparable[], int, Merge.Mode)}
+     * sorts an array of length {@code n}, leaving the elements after them untouched. For buffers only partly filled.
+     * @param n the number of elements to sort; at most {@code a.length}
+     * @param aux auxiliary array of at least {@link Merge#auxLength} of {@code n} elements
+     * @throws IllegalArgumentException if {@code c} is less than 1, {@code n} is out of range, or {@code aux} is too short */
+    public static <T extends Comparable<? super T>> long sort(T[] a, int n, T[] aux, int c, Merge.Mode mode) {
+        if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        if (n < 0 || n > a.length) throw new IllegalArgumentException("The number of elements to sort must be within the array.");
+        if (aux.length < Merge.auxLength(n, mode)) throw new IllegalArgumentException("Auxiliary array must be at least as long as the array, or half as long merging HALF.");
+        long compares = sortRuns(a, n, aux, c, mode, null);
+        assert Util.isSorted(a, 0, n - 1);
+        return compares;
+    }
+
+    //adaptive variant, sorting a[0 .. n-1]
+    private static <T extends Comparable<? super T>> long sortRuns(T[] a, int n, T[] aux, int c, Merge.Mode mode, SortStats stats) {
+        final boolean pingPong = mode == Merge.Mode.PINGPONG;
+        long compares = 0;
         if(n<=1) return compares;
 
         //define capacity for stacks of runs, indexed by level
         int stackCapacity = 64 - Long.numberOfLeadingZeros(((long) n + (long) (n - 1))) + 1;
         //create stacks for determining start and ends of runs, depending on their power
         //Should work as level-stack is increasing monotonically and no consecutive runs are equal
-        int[] runStart    = new int[stackCapacity];
-        int[] runEnd      = new int[stackCapacity];
+        AuxArena arena = AuxArena.local();
+        assert stackCapacity <= AuxArena.STACK;
+        int[] runStart    = arena.starts;
+        int[] runEnd      = arena.ends;
         int levelStack    = 0;
+        boolean[] runInAux = arena.inAux; // ping-pong mode: which buffer each run lives in
+        boolean inAuxL     = false;
         int startL        = 0; //This is our first merging candidate (L), which will immediately be put in stack
-        int endL          = Util.exploreRun(a, startL); //find last index of next run
+        int endL          = SortStats.explore(a, startL, n, stats); //find last index of next run
         assert (endL >= startL);
 
         int lengthL = endL - startL + 1; // add length of run to compares
         compares   += lengthL;
         if (lengthL <= c) { //If next run not longer than c, compute run of length c with insertion sort
             endL      = Math.min(startL+c-1, n-1);
-            compares += InsertionSort.sort(a, startL,endL);
+            compares += SortStats.pad(a, startL, endL, stats);
         }
         
         //starting from the end of first run iterates through array in intervals of length c, run by run
         while (endL < n - 1) {
             int startN  = endL + 1;
-            int endN    = Util.exploreRun(a, startN); //find new run N of length c or more: 
+            int endN    = SortStats.explore(a, startN, n, stats); //find new run N of length c or more: 
             int lengthN = endN - startN + 1;
             compares   += lengthN;
             if(lengthN <= c) { endN      = Math.min(startN+c-1, n-1);
-                               compares += InsertionSort.sort(a, startN,endN); }
+                               compares += SortStats.pad(a, startN, endN, stats); }
 
             int currentLevel = level(startL, endL, startN, endN); //compute level of boundary between run L and run N
 
@@ -71,7 +118,13 @@ public class LevelSortAdaptive {
                 int lo      = runStart[topLevel];
                 int mid     = runEnd[topLevel];
                 int hi      = endL;
-                compares   += Merge.merge(a, aux, lo, mid, hi);
+                long time   = SortStats.start(stats);
+                int merged;
+                if (pingPong) { merged    = Merge.merge(a, aux, lo, mid, hi, runInAux[topLevel], inAuxL);
+                                inAuxL    = !runInAux[topLevel]; }
+                else            merged    = Merge.merge(a, aux, lo, mid, hi, mode);
+                compares   += merged;
+                if (stats != null) stats.merged(time, merged, hi - lo + 1, Math.min(mid - lo + 1, hi - mid), topLevel, mode);
                 levelStack &= ~(1 << (topLevel - 1)); // remove the (now merged) top run from the levelStack
                 topLevel    = Integer.numberOfTrailingZeros(levelStack) + 1; //Update level of top run:
                 startL      = lo; //update starting-point of L (according to merge)
@@ -80,8 +133,10 @@ public class LevelSortAdaptive {
             //When l > currentLevel, put L on stack, and set start of run (updated in loop if entered):
             levelStack            |= 1 << (currentLevel - 1);
             runStart[currentLevel] = startL; //Update start of run in stack with the level of L 
+            runInAux[currentLevel] = inAuxL;
             startL                 = startN; //Set N as the new L
             endL                   = endN;
+            inAuxL                 = false;
         }
 
         int hi = endL; //set endpoint for finishing merges (will just be right end of array)
@@ -89,13 +144,232 @@ public class LevelSortAdaptive {
             int topLevel = Integer.numberOfTrailingZeros(levelStack) + 1;
             int lo = runStart[topLevel];
             int mid = runEnd[topLevel];
-            compares += Merge.merge(a, aux, lo, mid, hi);
+            long time = SortStats.start(stats);
+            int merged;
+            if (pingPong) { merged    = Merge.merge(a, aux, lo, mid, hi, runInAux[topLevel], inAuxL);
+                            inAuxL    = !runInAux[topLevel]; }
+            else            merged    = Merge.merge(a, aux, lo, mid, hi, mode);
+            compares += merged;
+            if (stats != null) stats.merged(time, merged, hi - lo + 1, Math.min(mid - lo + 1, hi - mid), topLevel, mode);
             levelStack &= ~(1 << (topLevel - 1)); // remove the run from the levelStack
         }
+        if (inAuxL) System.arraycopy(aux, 0, a, 0, n); // Final copy back, only when parity requires it
+        if (stats != null) stats.sorted();
         return compares - 1; // deduct 1 from compares to account for one less compare when exploring last run in array
     }
 
     public static int level(int startL, int endL, int startN, int endN) {
         return 64 - Long.numberOfLeadingZeros(((long) startL + (long) (endL + 1))^((long) startN+ (long) (endN + 1)));
     }
+
+    // ============================== Primitive specializations ==============================
+    // int[], long[] and double[] overloads mirroring the generic versions above, compare for compare.
+    // double[] uses the total order of Double.compare, matching the boxed Double.compareTo.
+
+    /** Rearranges the array in ascending order, merging natural runs (padded to length {@code c}).
+     * Primitive version of {@link #sort(Comparable[], int)}.
+     * @throws IllegalArgumentException if {@code c} is less than 1 */
+    public static long sort(int[] a, int c) {
+        if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        int[] aux = AuxArena.local().scratch(a);
+        long compares = sort(a, aux, c);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    private static long sort(int[] a, int[] aux, int c) {
+        int n         = a.length;
+        long compares = 0;
+        if(n<=1) return compares;
+
+        int stackCapacity = 64 - Long.numberOfLeadingZeros(((long) n + (long) (n - 1))) + 1;
+        AuxArena arena = AuxArena.local();
+        assert stackCapacity <= AuxArena.STACK;
+        int[] runStart    = arena.starts;
+        int[] runEnd      = arena.ends;
+        int levelStack    = 0;
+        int startL        = 0;
+        int endL          = Util.exploreRun(a, startL);
+
+        int lengthL = endL - startL + 1;
+        compares   += lengthL;
+        if (lengthL <= c) {
+            endL      = Math.min(startL+c-1, n-1);
+            compares += InsertionSort.sort(a, startL,endL);
+        }
+
+        while (endL < n - 1) {
+            int startN  = endL + 1;
+            int endN    = Util.exploreRun(a, startN);
+            int lengthN = endN - startN + 1;
+            compares   += lengthN;
+            if(lengthN <= c) { endN      = Math.min(startN+c-1, n-1);
+                               compares += InsertionSort.sort(a, startN,endN); }
+
+            int currentLevel = level(startL, endL, startN, endN);
+            runEnd[currentLevel] = endL;
+            int topLevel = Integer.numberOfTrailingZeros(levelStack) + 1;
+            while (levelStack != 0 && currentLevel > topLevel) {
+                int lo      = runStart[topLevel];
+                int mid     = runEnd[topLevel];
+                int hi      = endL;
+                compares   += Merge.merge(a, aux, lo, mid, hi);
+                levelStack &= ~(1 << (topLevel - 1));
+                topLevel    = Integer.numberOfTrailingZeros(levelStack) + 1;
+                startL      = lo;
+            }
+            levelStack            |= 1 << (currentLevel - 1);
+            runStart[currentLevel] = startL;
+            startL                 = startN;
+            endL                   = endN;
+        }
+
+        int hi = endL;
+        while(levelStack !=0) {
+            int topLevel = Integer.numberOfTrailingZeros(levelStack) + 1;
+            int lo = runStart[topLevel];
+            int mid = runEnd[topLevel];
+            compares += Merge.merge(a, aux, lo, mid, hi);
+            levelStack &= ~(1 << (topLevel - 1));
+        }
+        return compares - 1; // one less compare when exploring the last run in the array
+    }
+
+    /** Rearranges the array in ascending order, merging natural runs (padded to length {@code c}).
+     * Primitive version of {@link #sort(Comparable[], int)}.
+     * @throws IllegalArgumentException if {@code c} is less than 1 */
+    public static long sort(long[] a, int c) {
+        if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        long[] aux = AuxArena.local().scratch(a);
+        long compares = sort(a, aux, c);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    private static long sort(long[] a, long[] aux, int c) {
+        int n         = a.length;
+        long compares = 0;
+        if(n<=1) return compares;
+
+        int stackCapacity = 64 - Long.numberOfLeadingZeros(((long) n + (long) (n - 1))) + 1;
+        AuxArena arena = AuxArena.local();
+        assert stackCapacity <= AuxArena.STACK;
+        int[] runStart    = arena.starts;
+        int[] runEnd      = arena.ends;
+        int levelStack    = 0;
+        int startL        = 0;
+        int endL          = Util.exploreRun(a, startL);
+
+        int lengthL = endL - startL + 1;
+        compares   += lengthL;
+        if (lengthL <= c) {
+            endL      = Math.min(startL+c-1, n-1);
+            compares += InsertionSort.sort(a, startL,endL);
+        }
+
+        while (endL < n - 1) {
+            int startN  = endL + 1;
+            int endN    = Util.exploreRun(a, startN);
+            int lengthN = endN - startN + 1;
+            compares   += lengthN;
+            if(lengthN <= c) { endN      = Math.min(startN+c-1, n-1);
+                               compares += InsertionSort.sort(a, startN,endN); }
+
+            int currentLevel = level(startL, endL, startN, endN);
+            runEnd[currentLevel] = endL;
+            int topLevel = Integer.numberOfTrailingZeros(levelStack) + 1;
+            while (levelStack != 0 && currentLevel > topLevel) {
+                int lo      = runStart[topLevel];
+                int mid     = runEnd[topLevel];
+                int hi      = endL;
+                compares   += Merge.merge(a, aux, lo, mid, hi);
+                levelStack &= ~(1 << (topLevel - 1));
+                topLevel    = Integer.numberOfTrailingZeros(levelStack) + 1;
+                startL      = lo;
+            }
+            levelStack            |= 1 << (currentLevel - 1);
+            runStart[currentLevel] = startL;
+            startL                 = startN;
+            endL                   = endN;
+        }
+
+        int hi = endL;
+        while(levelStack !=0) {
+            int topLevel = Integer.numberOfTrailingZeros(levelStack) + 1;
+            int lo = runStart[topLevel];
+            int mid = runEnd[topLevel];
+            compares += Merge.merge(a, aux, lo, mid, hi);
+            levelStack &= ~(1 << (topLevel - 1));
+        }
+        return compares - 1; // one less compare when exploring the last run in the array
+    }
+
+    /** Rearranges the array in ascending order, merging natural runs (padded to length {@code c}).
+     * Primitive version of {@link #sort(Comparable[], int)}.
+     * @throws IllegalArgumentException if {@code c} is less than 1 */
+    public static long sort(double[] a, int c) {
+        if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        double[] aux = AuxArena.local().scratch(a);
+        long compares = sort(a, aux, c);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    private static long sort(double[] a, double[] aux, int c) {
+        int n         = a.length;
+        long compares = 0;
+        if(n<=1) return compares;
+
+        int stackCapacity = 64 - Long.numberOfLeadingZeros(((long) n + (long) (n - 1))) + 1;
+        AuxArena arena = AuxArena.local();
+        assert stackCapacity <= AuxArena.STACK;
+        int[] runStart    = arena.starts;
+        int[] runEnd      = arena.ends;
+        int levelStack    = 0;
+        int startL        = 0;
+        int endL          = Util.exploreRun(a, startL);
+
+        int lengthL = endL - startL + 1;
+        compares   += lengthL;
+        if (lengthL <= c) {
+            endL      = Math.min(startL+c-1, n-1);
+            compares += InsertionSort.sort(a, startL,endL);
+        }
+
+        while (endL < n - 1) {
+            int startN  = endL + 1;
+            int endN    = Util.exploreRun(a, startN);
+            int lengthN = endN - startN + 1;
+            compares   += lengthN;
+            if(lengthN <= c) { endN      = Math.min(startN+c-1, n-1);
+                               compares += InsertionSort.sort(a, startN,endN); }
+
+            int currentLevel = level(startL, endL, startN, endN);
+            runEnd[currentLevel] = endL;
+            int topLevel = Integer.numberOfTrailingZeros(levelStack) + 1;
+            while (levelStack != 0 && currentLevel > topLevel) {
+                int lo      = runStart[topLevel];
+                int mid     = runEnd[topLevel];
+                int hi      = endL;
+                compares   += Merge.merge(a, aux, lo, mid, hi);
+                levelStack &= ~(1 << (topLevel - 1));
+                topLevel    = Integer.numberOfTrailingZeros(levelStack) + 1;
+                startL      = lo;
+            }
+            levelStack            |= 1 << (currentLevel - 1);
+            runStart[currentLevel] = startL;
+            startL                 = startN;
+            endL                   = endN;
+        }
+
+        int hi = endL;
+        while(levelStack !=0) {
+            int topLevel = Integer.numberOfTrailingZeros(levelStack) + 1;
+            int lo = runStart[topLevel];
+            int mid = runEnd[topLevel];
+            compares += Merge.merge(a, aux, lo, mid, hi);
+            levelStack &= ~(1 << (topLevel - 1));
+        }
+        return compares - 1; // one less compare when exploring the last run in the array
+    }
 }
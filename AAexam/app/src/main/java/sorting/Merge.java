@@ -3,6 +3,44 @@ package sorting;
 public class Merge {
     private Merge() {}
 
+    /** The ways the engines can move elements between {@code a} and {@code aux} when merging.
+     * <ul>
+     * <li>{@code COPY} copies both runs to {@code aux} before every merge, and merges back into {@code a}.</li>
+     * <li>{@code PINGPONG} merges directly from one buffer into the other, alternating the roles of
+     *     {@code a} and {@code aux} between levels. Elements are only copied back to {@code a} once,
+     *     at the end of the sort, if the final run ended up in {@code aux}.</li>
+     * <li>{@code GALLOP} trims the prefix and suffix that are already in place, and switches to exponential
+     *     search once one run wins {@code MIN_GALLOP} times in a row, block copying the winning stretch.
+     *     Uses fewer comparisons on skewed and presorted runs, at the cost of a few more on random runs.</li>
+     * <li>{@code HALF} copies only the shorter run to the start of {@code aux}, and merges forward when it is the left
+     *     run and backward when it is the right one. So {@code aux} needs only half the length of {@code a},
+     *     see {@link #auxLength}, and each merge moves the shorter run once less.</li>
+     * </ul>
+     * {@code COPY} and {@code PINGPONG} perform exactly the same comparisons. So does {@code HALF} when the left
+     * run is not the longer, merging backward it may use a few more or less. */
+    public enum Mode { COPY, PINGPONG, GALLOP, HALF }
+
+    /** The least length of the auxiliary array for sorting n elements in the given mode:
+     * n / 2 for {@code HALF}, else n. */
+    public static int auxLength(int n, Mode mode) { return (mode == Mode.HALF) ? n / 2 : n; }
+
+    /** The initial number of consecutive wins by one run before galloping starts. Adapted during the merge. */
+    public static final int MIN_GALLOP = 7;
+
+    /** Merge a[lo .. mid] with a[mid+1 .. hi] as specified by the mode, using aux[lo .. hi].
+     * @param mode either {@code COPY}, {@code GALLOP} or {@code HALF}. {@code PINGPONG} merges need to know where the runs live,
+     *             see {@link #merge(Comparable[], Comparable[], int, int, int, boolean, boolean)}.
+     * @return the number of compares used for the merge.
+     * @throws IllegalArgumentException if mode is {@code PINGPONG}. */
+    public static <T extends Comparable<? super T>> int merge(T[] a, T[] aux, int lo, int mid, int hi, Mode mode) {
+        switch (mode) {
+            case COPY:   return merge(a, aux, lo, mid, hi);
+            case GALLOP: return gallopMerge(a, aux, lo, mid, hi);
+            case HALF:   return halfMerge(a, aux, lo, mid, hi);
+            default:     throw new IllegalArgumentException("Ping-pong merges need the location of the runs.");
+        }
+    }
+
     /** Stably merge a[lo .. mid] with a[mid+1 ..hi] using aux[lo .. hi].
      * Is stable since element from left half is inserted in case of tiebreak.
      * The two subarrays must already be sorted.
@@ -31,4 +69,344 @@ public class Merge {
         assert Util.isSorted(a, lo, hi); // postcondition: a[lo .. hi] is sorted
         return compares;
     }
+
+    /** Stably merge a[lo .. mid] with a[mid+1 .. hi], buffering only the shorter run in aux[0 .. shorter - 1].
+     * If the left run is not the longer, it is copied out and merged forward, with the same compares as {@code merge}.
+     * Otherwise the right run is copied out and merged backward from hi, taking the right element on ties, so
+     * it stays stable. Either way the merge writes behind the elements of a it has yet to read.
+     * @param a the array, from which subarrays will be merged.
+     * @param aux auxilliary array used for merging, of at least the length of the shorter run. Must be of same type as a.
+     * @return the number of compares used for the merge. */
+    public static <T extends Comparable<? super T>> int halfMerge(T[] a, T[] aux, int lo, int mid, int hi) {
+        assert Util.isSorted(a, lo, mid);
+        assert Util.isSorted(a, mid+1, hi);
+        int compares = 0;
+        int left = mid - lo + 1, right = hi - mid;
+        if (left <= right) {
+            System.arraycopy(a, lo, aux, 0, left);
+            int i = 0, j = mid+1, k = lo;
+            while (i < left && j <= hi) {
+                compares++;
+                if (a[j].compareTo(aux[i]) < 0) a[k++] = a[j++];
+                else                            a[k++] = aux[i++];
+            }
+            System.arraycopy(aux, i, a, k, left - i); // The rest of the right run is already in place
+        } else {
+            System.arraycopy(a, mid+1, aux, 0, right);
+            int i = mid, j = right-1, k = hi;
+            while (i >= lo && j >= 0) {
+                compares++;
+                if (aux[j].compareTo(a[i]) < 0) a[k--] = a[i--];
+                else                            a[k--] = aux[j--];
+            }
+            System.arraycopy(aux, 0, a, lo, j + 1);   // The rest of the left run is already in place
+        }
+        assert Util.isSorted(a, lo, hi);
+        return compares;
+    }
+
+    /** Stably merge src[lo .. mid] with src[mid+1 .. hi] into dst[lo .. hi].
+     * Unlike {@code merge}, nothing is copied up front, as the input and output are different arrays.
+     * The contents of src[lo .. hi] are left untouched.
+     * @param src the array holding the two sorted subarrays.
+     * @param dst the array to place the merged subarray in. Must be of same type as src.
+     * @return the number of compares used for the merge. */
+    public static <T extends Comparable<? super T>> int mergeInto(T[] src, T[] dst, int lo, int mid, int hi) {
+        assert Util.isSorted(src, lo, mid);
+        assert Util.isSorted(src, mid+1, hi);
+        int compares = 0;
+        int left = lo, right = mid+1;
+        for (int k = lo; k <= hi; k++) {
+            if      (left > mid)                             dst[k] = src[right++];
+            else if (right > hi)                             dst[k] = src[left++];
+            else if (src[right].compareTo(src[left]) < 0)   {dst[k] = src[right++]; compares++;}
+            else                                            {dst[k] = src[left++]; compares++;}
+        }
+        assert Util.isSorted(dst, lo, hi);
+        return compares;
+    }
+
+    /** Ping-pong merge of the run [lo .. mid] with the run [mid+1 .. hi], where each run may live
+     * in either {@code a} or {@code aux}, as given by the two flags.
+     * The merged run is placed in the buffer the left run does NOT live in,
+     * i.e. in {@code a} if {@code leftInAux} and in {@code aux} otherwise.
+     * If the runs live in different buffers, the right run is first copied next to the left run.
+     * This is meant for the stack based engines, where the right run is the most recent and shortest one.
+     * @param leftInAux whether the run [lo .. mid] currently lives in {@code aux}.
+     * @param rightInAux whether the run [mid+1 .. hi] currently lives in {@code aux}.
+     * @return the number of compares used for the merge. */
+    public static <T extends Comparable<? super T>> int merge(T[] a, T[] aux, int lo, int mid, int hi,
+                                                              boolean leftInAux, boolean rightInAux) {
+        T[] src = leftInAux ? aux : a, dst = leftInAux ? a : aux;
+        if (leftInAux != rightInAux) System.arraycopy(dst, mid+1, src, mid+1, hi - mid);
+        return mergeInto(src, dst, lo, mid, hi);
+    }
+
+    /** Stably merge a[lo .. mid] with a[mid+1 .. hi] using aux, galloping when one run keeps winning.
+     * First the prefix of the left run that is not greater than the first element of the right run,
+     * and the suffix of the right run that is not less than the last element of the left run, are located by
+     * exponential search. These are already in place, so only the remaining middle part is copied and merged.
+     * The merge itself starts out comparing element by element, but after {@code MIN_GALLOP} consecutive wins
+     * by one run, it searches exponentially for the end of the winning stretch and block copies it.
+     * The threshold is lowered while galloping pays off and raised when it stops paying off.
+     * Is stable, as ties always favour the left run.
+     * @param a the array, from which subarrays will be merged.
+     * @param aux auxilliary array used for merging. Must be of same type as a.
+     * @param lo the initial index to merge from (inclusive).
+     * @param mid the final index of the left subarray (inclusive).
+     * @param hi the final index to merge to (inclusive).
+     * @return the number of compares used for the merge, including those of the searches. */
+    public static <T extends Comparable<? super T>> int gallopMerge(T[] a, T[] aux, int lo, int mid, int hi) {
+        assert Util.isSorted(a, lo, mid);
+        assert Util.isSorted(a, mid+1, hi);
+        if (lo > mid || mid >= hi) return 0;
+        Gallop g = new Gallop();
+
+        // Trim the prefix of the left run that is already in place
+        lo += g.right(a[mid+1], a, lo, mid - lo + 1, 0);
+        if (lo > mid) return g.compares;
+        // Trim the suffix of the right run that is already in place
+        hi  = mid + g.left(a[mid], a, mid+1, hi - mid, hi - mid - 1);
+        if (hi <= mid) return g.compares;
+
+        for (int k = lo; k <= hi; k++) aux[k] = a[k];
+        g.into(aux, lo, mid, mid+1, hi, a, lo);
+        assert Util.isSorted(a, lo, hi);
+        return g.compares;
+    }
+
+    /** Galloping merge of src[i .. iEnd] and src[j .. jEnd] into dst, starting at index k.
+     * The two runs must not overlap the output range in dst.
+     * @return the number of compares used for the merge. */
+    static <T extends Comparable<? super T>> int gallopInto(T[] src, int i, int iEnd, int j, int jEnd, T[] dst, int k) {
+        Gallop g = new Gallop();
+        g.into(src, i, iEnd, j, jEnd, dst, k);
+        return g.compares;
+    }
+
+    /** The state of a single galloping merge: the adaptive threshold and the compares used so far.
+     * The searches are ported from {@code java.util.TimSort}, with compare counting added. */
+    private static final class Gallop {
+        int compares  = 0;
+        int minGallop = MIN_GALLOP;
+
+        <T extends Comparable<? super T>> void into(T[] src, int i, int iEnd, int j, int jEnd, T[] dst, int k) {
+            outer:
+            while (i <= iEnd && j <= jEnd) {
+                int winsL = 0, winsR = 0;
+                do {                                            // One element at a time
+                    compares++;
+                    if (src[j].compareTo(src[i]) < 0) { dst[k++] = src[j++]; winsR++; winsL = 0; if (j > jEnd) break outer; }
+                    else                              { dst[k++] = src[i++]; winsL++; winsR = 0; if (i > iEnd) break outer; }
+                } while ((winsL | winsR) < minGallop);
+
+                do {                                            // Galloping
+                    winsL = right(src[j], src, i, iEnd - i + 1, 0);
+                    if (winsL != 0) { System.arraycopy(src, i, dst, k, winsL); k += winsL; i += winsL;
+                                      if (i > iEnd) break outer; }
+                    dst[k++] = src[j++];                        // src[j] < src[i] is known from the search
+                    if (j > jEnd) break outer;
+
+                    winsR = left(src[i], src, j, jEnd - j + 1, 0);
+                    if (winsR != 0) { System.arraycopy(src, j, dst, k, winsR); k += winsR; j += winsR;
+                                      if (j > jEnd) break outer; }
+                    dst[k++] = src[i++];                        // src[i] <= src[j] is known from the search
+                    if (i > iEnd) break outer;
+                    minGallop--;
+                } while (winsL >= MIN_GALLOP || winsR >= MIN_GALLOP);
+                if (minGallop < 0) minGallop = 0;
+                minGallop += 2;                                 // Penalize leaving gallop mode
+            }
+            if      (i <= iEnd) System.arraycopy(src, i, dst, k, iEnd - i + 1);
+            else if (j <= jEnd) System.arraycopy(src, j, dst, k, jEnd - j + 1);
+        }
+
+        /** Returns the number of elements in x[base .. base+len-1] that are less than key,
+         * searching exponentially outwards from x[base+hint]. */
+        <T extends Comparable<? super T>> int left(T key, T[] x, int base, int len, int hint) {
+            int lastOfs = 0, ofs = 1;
+            compares++;
+            if (key.compareTo(x[base + hint]) > 0) {
+                int maxOfs = len - hint;
+                while (ofs < maxOfs && cmp(key, x[base + hint + ofs]) > 0) {
+                    lastOfs = ofs;
+                    ofs     = (ofs << 1) + 1;
+                    if (ofs <= 0) ofs = maxOfs;                 // int overflow
+                }
+                if (ofs > maxOfs) ofs = maxOfs;
+                lastOfs += hint; ofs += hint;
+            } else {
+                int maxOfs = hint + 1;
+                while (ofs < maxOfs && cmp(key, x[base + hint - ofs]) <= 0) {
+                    lastOfs = ofs;
+                    ofs     = (ofs << 1) + 1;
+                    if (ofs <= 0) ofs = maxOfs;
+                }
+                if (ofs > maxOfs) ofs = maxOfs;
+                int tmp = lastOfs;
+                lastOfs = hint - ofs; ofs = hint - tmp;
+            }
+            lastOfs++;                                          // x[base+lastOfs-1] < key <= x[base+ofs]
+            while (lastOfs < ofs) {
+                int m = lastOfs + ((ofs - lastOfs) >>> 1);
+                if (cmp(key, x[base + m]) > 0) lastOfs = m + 1;
+                else                           ofs     = m;
+            }
+            return ofs;
+        }
+
+        /** Returns the number of elements in x[base .. base+len-1] that are less than or equal to key,
+         * searching exponentially outwards from x[base+hint]. */
+        <T extends Comparable<? super T>> int right(T key, T[] x, int base, int len, int hint) {
+            int lastOfs = 0, ofs = 1;
+            compares++;
+            if (key.compareTo(x[base + hint]) < 0) {
+                int maxOfs = hint + 1;
+                while (ofs < maxOfs && cmp(key, x[base + hint - ofs]) < 0) {
+                    lastOfs = ofs;
+                    ofs     = (ofs << 1) + 1;
+                    if (ofs <= 0) ofs = maxOfs;
+                }
+                if (ofs > maxOfs) ofs = maxOfs;
+                int tmp = lastOfs;
+                lastOfs = hint - ofs; ofs = hint - tmp;
+            } else {
+                int maxOfs = len - hint;
+                while (ofs < maxOfs && cmp(key, x[base + hint + ofs]) >= 0) {
+                    lastOfs = ofs;
+                    ofs     = (ofs << 1) + 1;
+                    if (ofs <= 0) ofs = maxOfs;
+                }
+                if (ofs > maxOfs) ofs = maxOfs;
+                lastOfs += hint; ofs += hint;
+            }
+            lastOfs++;                                          // x[base+lastOfs-1] <= key < x[base+ofs]
+            while (lastOfs < ofs) {
+                int m = lastOfs + ((ofs - lastOfs) >>> 1);
+                if (cmp(key, x[base + m]) < 0) ofs     = m;
+                else                           lastOfs = m + 1;
+            }
+            return ofs;
+        }
+
+        private <T extends Comparable<? super T>> int cmp(T x, T y) { compares++; return x.compareTo(y); }
+    }
+
+    // ============================== Primitive specializations ==============================
+    // int[], long[] and double[] overloads mirroring the generic versions above, compare for compare.
+    // double[] uses the total order of Double.compare, matching the boxed Double.compareTo.
+
+    /** Stably merge a[lo .. mid] with a[mid+1 ..hi] using aux[lo .. hi].
+     * Primitive version of {@link #merge(Comparable[], Comparable[], int, int, int)}.
+     * @return the number of compares used for the merge. */
+    public static int merge(int[] a, int[] aux, int lo, int mid, int hi) {
+        assert Util.isSorted(a, lo, mid);
+        assert Util.isSorted(a, mid+1, hi);
+        int compares = 0;
+        for (int k = lo; k <= hi; k++) aux[k] = a[k];
+
+        int left = lo, right = mid+1;
+        for (int k = lo; k <= hi; k++) {
+            if      (left > mid)              a[k] = aux[right++];
+            else if (right > hi)              a[k] = aux[left++];
+            else if (aux[right] < aux[left]) {a[k] = aux[right++]; compares++;}
+            else                             {a[k] = aux[left++]; compares++;}
+        }
+
+        assert Util.isSorted(a, lo, hi);
+        return compares;
+    }
+
+    /** Primitive version of {@link #mergeInto(Comparable[], Comparable[], int, int, int)}.
+     * @return the number of compares used for the merge. */
+    public static int mergeInto(int[] src, int[] dst, int lo, int mid, int hi) {
+        assert Util.isSorted(src, lo, mid);
+        assert Util.isSorted(src, mid+1, hi);
+        int compares = 0;
+        int left = lo, right = mid+1;
+        for (int k = lo; k <= hi; k++) {
+            if      (left > mid)              dst[k] = src[right++];
+            else if (right > hi)              dst[k] = src[left++];
+            else if (src[right] < src[left]) {dst[k] = src[right++]; compares++;}
+            else                             {dst[k] = src[left++]; compares++;}
+        }
+        assert Util.isSorted(dst, lo, hi);
+        return compares;
+    }
+
+    /** Stably merge a[lo .. mid] with a[mid+1 ..hi] using aux[lo .. hi].
+     * Primitive version of {@link #merge(Comparable[], Comparable[], int, int, int)}.
+     * @return the number of compares used for the merge. */
+    public static int merge(long[] a, long[] aux, int lo, int mid, int hi) {
+        assert Util.isSorted(a, lo, mid);
+        assert Util.isSorted(a, mid+1, hi);
+        int compares = 0;
+        for (int k = lo; k <= hi; k++) aux[k] = a[k];
+
+        int left = lo, right = mid+1;
+        for (int k = lo; k <= hi; k++) {
+            if      (left > mid)              a[k] = aux[right++];
+            else if (right > hi)              a[k] = aux[left++];
+            else if (aux[right] < aux[left]) {a[k] = aux[right++]; compares++;}
+            else                             {a[k] = aux[left++]; compares++;}
+        }
+
+        assert Util.isSorted(a, lo, hi);
+        return compares;
+    }
+
+    /** Primitive version of {@link #mergeInto(Comparable[], Comparable[], int, int, int)}.
+     * @return the number of compares used for the merge. */
+    public static int mergeInto(long[] src, long[] dst, int lo, int mid, int hi) {
+        assert Util.isSorted(src, lo, mid);
+        assert Util.isSorted(src, mid+1, hi);
+        int compares = 0;
+        int left = lo, right = mid+1;
+        for (int k = lo; k <= hi; k++) {
+            if      (left > mid)              dst[k] = src[right++];
+            else if (right > hi)              dst[k] = src[left++];
+            else if (src[right] < src[left]) {dst[k] = src[right++]; compares++;}
+            else                             {dst[k] = src[left++]; compares++;}
+        }
+        assert Util.isSorted(dst, lo, hi);
+        return compares;
+    }
+
+    /** Stably merge a[lo .. mid] with a[mid+1 ..hi] using aux[lo .. hi].
+     * Primitive version of {@link #merge(Comparable[], Comparable[], int, int, int)}.
+     * @return the number of compares used for the merge. */
+    public static int merge(double[] a, double[] aux, int lo, int mid, int hi) {
+        assert Util.isSorted(a, lo, mid);
+        assert Util.isSorted(a, mid+1, hi);
+        int compares = 0;
+        for (int k = lo; k <= hi; k++) aux[k] = a[k];
+
+        int left = lo, right = mid+1;
+        for (int k = lo; k <= hi; k++) {
+            if      (left > mid)                                 a[k] = aux[right++];
+            else if (right > hi)                                 a[k] = aux[left++];
+            else if (Double.compare(aux[right], aux[left]) < 0) {a[k] = aux[right++]; compares++;}
+            else                                                {a[k] = aux[left++]; compares++;}
+        }
+
+        assert Util.isSorted(a, lo, hi);
+        return compares;
+    }
+
+    /** Primitive version of {@link #mergeInto(Comparable[], Comparable[], int, int, int)}.
+     * @return the number of compares used for the merge. */
+    public static int mergeInto(double[] src, double[] dst, int lo, int mid, int hi) {
+        assert Util.isSorted(src, lo, mid);
+        assert Util.isSorted(src, mid+1, hi);
+        int compares = 0;
+        int left = lo, right = mid+1;
+        for (int k = lo; k <= hi; k++) {
+            if      (left > mid)                                 dst[k] = src[right++];
+            else if (right > hi)                                 dst[k] = src[left++];
+            else if (Double.compare(src[right], src[left]) < 0) {dst[k] = src[right++]; compares++;}
+            else                                                {dst[k] = src[left++]; compares++;}
+        }
+        assert Util.isSorted(dst, lo, hi);
+        return compares;
+    }
 }
@@ -1,15 +1,11 @@
 package sorting;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.Future;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 public class MergeParallel {
     private MergeParallel() { }
-    private static ForkJoinPool ex = new ForkJoinPool();
     
     /** Generic inner utility data structure */
     public record IntPair(int a, int b) { }
@@ -22,12 +18,26 @@ public class MergeParallel {
      * @param hi The final index of the second sorted sequence.
      * @param p The number of parallel tasks to spread the work across evenly. If 1
      * @param pool a pool for the tasks to avoid creating many competing pools when called by a recursive merge sorting algorithm.
+     *             Only used for this call.
      * @param measureSpan a flag if the returned value should reflect the span of comparisons rather than the sum. 
      *                    That means that the highest comparison count returned by one of the tasks will chosen.
      */
     public static <T extends Comparable<? super T>> int merge(T[] a, T[] aux, int lo, int mid, int hi, int p, 
                                                               ForkJoinPool pool, boolean measureSpan) {
-        ex = pool; return merge(a, aux, lo, mid, hi, p, measureSpan); }
+        return merge(a, aux, lo, mid, hi, p, pool, measureSpan, Merge.Mode.COPY); }
+
+    /** Merge two sorted neighboring sequences in the array in parallel, with the pool and parallelism of the context.
+     * The work and span of the merge are added to the totals of the context.
+     * @param ctx the pool and parallelism {@code p} of the merge. A {@code p} of 0 merges sequentially.
+     * @return the number of compares performed. */
+    public static <T extends Comparable<? super T>> int merge(T[] a, T[] aux, int lo, int mid, int hi, SortContext ctx) {
+        System.arraycopy(a, lo, aux, lo, hi - lo + 1);
+        MergeAction<T> task = new MergeAction<>(aux, a, lo, mid, mid+1, hi, lo, grain(hi - lo + 1, Math.max(1, ctx.p())), false);
+        task.trace(ctx.tracer(), 0);
+        run(task, ctx.pool());
+        ctx.record(task.profile());
+        return task.compares;
+    }
 
     /** Merge two sorted neighboring sequences in the array in parallel. 
      * @param a The array to be modified
@@ -52,67 +62,171 @@ public class MergeParallel {
      */
     public static <T extends Comparable<? super T>> int merge(T[] a, T[] aux, int lo, int mid, int hi, int p, 
                                                               boolean measureSpan) {
+        return merge(a, aux, lo, mid, hi, p, measureSpan, Merge.Mode.COPY); }
+
+    /** Merge two sorted neighboring sequences in the array in parallel, see {@link #merge(Comparable[], Comparable[], int, int, int, int, boolean, Merge.Mode)}.
+     * @param p The number of parallel tasks to spread the work across evenly.
+     * @param mode either {@code COPY} or {@code GALLOP}.
+     */
+    public static <T extends Comparable<? super T>> int merge(T[] a, T[] aux, int lo, int mid, int hi, int p,
+                                                              Merge.Mode mode) {
+        return merge(a, aux, lo, mid, hi, p, false, mode); }
+
+    /** Merge two sorted neighboring sequences in the array in parallel. 
+     * The sequences are copied to aux and merged back into a by a {@link MergeAction},
+     * which splits the merge recursively until no part holds more than {@code ceil(n/p)} elements.
+     * @param a The array to be modified
+     * @param aux An auxillary array. Its contents do not matter.
+     * @param lo The first index of the first sorted sequence.
+     * @param mid The final index of the first sorted sequence. {@code mid + 1} is the first index of the second sorted sequence.
+     * @param hi The final index of the second sorted sequence.
+     * @param p The number of parallel tasks to spread the work across evenly.
+     * @param measureSpan a flag if the returned value should reflect the span of comparisons rather than the sum. 
+     *                    That means that the comparisons along the longest chain of dependent tasks are returned.
+     * @param mode {@code COPY} merges the parts element by element, {@code GALLOP} merges them with 
+     *             {@link Merge#gallopInto}, so parts lying mostly in one sequence are block copied.
+     * @throws IllegalArgumentException if {@code p} is less than 1, or mode is {@code PINGPONG} or {@code HALF}.
+     */
+    public static <T extends Comparable<? super T>> int merge(T[] a, T[] aux, int lo, int mid, int hi, int p, 
+                                                              boolean measureSpan, Merge.Mode mode) {
+        return merge(a, aux, lo, mid, hi, p, currentPool(), measureSpan, mode); }
+
+    /** Merge two sorted neighboring sequences in the array in parallel, in the given pool,
+     * see {@link #merge(Comparable[], Comparable[], int, int, int, int, boolean, Merge.Mode)}. */
+    public static <T extends Comparable<? super T>> int merge(T[] a, T[] aux, int lo, int mid, int hi, int p,
+                                                              ForkJoinPool pool, boolean measureSpan, Merge.Mode mode) {
         if (p < 1) throw new IllegalArgumentException("p must be > 0");
-        int n = hi - lo + 1, compares = 0;                  // Setup
-        double increment = n / (double) p;
-        for (int k = lo; k <= hi; k++) { aux[k] = a[k]; }
-
-        List<Callable<Integer>> tasks = new ArrayList<>(); // Create tasks
-        tasks.add(() -> { return mergeTask(a, aux, lo, mid+1, lo, (int) increment); });
-        for (int i = 1; i < p; i++) {
-            int k = (int)(i*increment);
-            IntPair is = twoSequenceSelect(a, lo, mid, hi, k);
-            compares += is.b;
-            int i_a = lo + is.a;
-            int i_b = mid + 1 + (k - is.a);
-            int i_o = lo + k;
-            int length = (int)((i+1)*increment)-k;    // The final task needs guards to avoid indexing out of bounds.
-            if (i < p-1) tasks.add(() -> { return mergeTask(a, aux, i_a, i_b, i_o, length); });
-            else         tasks.add(() -> { return mergeEndTask(a, aux, i_a, i_b, i_o, length, mid, hi); });
-        }
-
-        // Collect results
-        int maxCmp = 0; // For span calculation
-        try {
-            for (Future<Integer> fut : ex.invokeAll(tasks)) {
-                int cmp = fut.get(); 
-                if (measureSpan && cmp > maxCmp) maxCmp = cmp;  // Span
-                else compares += fut.get();                     // Sum
-            }
-        } catch (InterruptedException e) { System.out.println("Interrupted: " + e);
-        } catch (ExecutionException e)   { throw new RuntimeException(e.getCause()); }
-        return (measureSpan) ? compares + maxCmp : compares;
+        if (mode == Merge.Mode.PINGPONG) throw new IllegalArgumentException("Ping-pong merges need the location of the runs.");
+        if (mode == Merge.Mode.HALF)     throw new IllegalArgumentException("Parallel merges split both runs, so need all of aux.");
+        System.arraycopy(a, lo, aux, lo, hi - lo + 1);
+        MergeAction<T> task = new MergeAction<>(aux, a, lo, mid, mid+1, hi, lo, grain(hi - lo + 1, p), mode == Merge.Mode.GALLOP);
+        run(task, pool);
+        return (measureSpan) ? task.span : task.compares;
     }
-    
-    /** Merges {@code length} elements from the output index {@code i_o}.
-     * @param i_a the starting position of the 
+
+    /** Merge src[lo .. mid] with src[mid+1 .. hi] into dst[lo .. hi] in parallel, leaving src untouched.
+     * Used by the ping-pong recursion of {@link RecursiveMergeSortParallel}, so no copying is needed before the merge.
+     * When called from inside a fork join pool the merge runs in that pool, otherwise in the common pool.
+     * @param grain The largest number of elements merged sequentially by a single task; must be at least 1.
+     * @param measureSpan a flag if the returned value should reflect the span of comparisons rather than the sum.
+     * @return the number of compares performed, or the span if {@code measureSpan}.
      */
-    public static <T extends Comparable<? super T>> int mergeEndTask(
-        T[] a, T[] aux, int i_a, int i_b, int i_o, int length, int mid, int hi) {
-        int compares = 0;
-        int k, l = i_a, r = i_b, end = i_o+length;
-        assert(hi == end-1);                          // Invariant
-        for (k = i_o; k < end; k++) {
-            if      (l > mid)                        a[k] = aux[r++]; 
-            else if (r > hi)                         a[k] = aux[l++]; 
-            else if (aux[r].compareTo(aux[l]) < 0 ) {a[k] = aux[r++]; compares++;}
-            else                                    {a[k] = aux[l++]; compares++;}                            
-        }
-        assert Util.isSorted(a, i_o, end - 1);
-        return compares;
+    public static <T extends Comparable<? super T>> int mergeInto(T[] src, T[] dst, int lo, int mid, int hi, int grain,
+                                                                  boolean measureSpan) {
+        MergeAction<T> task = new MergeAction<>(src, dst, lo, mid, mid+1, hi, lo, grain, false);
+        run(task, currentPool());
+        return (measureSpan) ? task.span : task.compares;
     }
 
-    /** This is a slightly more efficient version of mergeEndTask making use of the fact that it is
-     * guaranteed that neither of the subsequences will index out of bounds */
-    public static <T extends Comparable<? super T>> int mergeTask(
-        T[] a, T[] aux, int i_a, int i_b, int i_o, int length) {
+    /** The pool of the current task, or the common pool when not called from inside a fork join pool. */
+    private static ForkJoinPool currentPool() {
+        return (ForkJoinTask.inForkJoinPool()) ? ForkJoinTask.getPool() : ForkJoinPool.commonPool(); }
+
+    /** Runs the task in the pool, directly in the current thread when it already belongs to the pool. */
+    private static void run(ForkJoinTask<?> task, ForkJoinPool pool) {
+        if (ForkJoinTask.getPool() == pool) task.invoke(); else pool.invoke(task); }
+
+    /** The grain dividing n elements into p parts of about equal size. */
+    public static int grain(int n, int p) { return Math.max(1, (n + p - 1) / p); }
+
+    /** Merges src[l .. lEnd] with src[r .. rEnd] into dst, starting at index k.
+     * While more than {@code grain} elements are left, the median of the larger run is chosen as pivot,
+     * and its position in the other run is found by binary search. The pivot is written directly to its final place,
+     * the part after it is forked as a new task, and this task carries on with the part before it.
+     * Equal elements of the left run go first, exactly as in a sequential merge, so the merge is stable.
+     * Each split costs O(log n) compares and leaves at most 3/4 of the elements on either side,
+     * so the span is O(log^2 n) compares plus a sequential merge of at most {@code grain} elements.
+     * After completion, {@code compares} holds the compares performed by this task and all of its forks,
+     * and {@code span} the compares along the longest chain of dependent searches and merges.
+     * The element moves and running time of the tasks are summed up the same way, see {@link #profile}.
+     * With a {@link Tracer}, the sequential part of each task is recorded into it as a chunk.
+     */
+    public static class MergeAction<T extends Comparable<? super T>> extends RecursiveAction {
+        private final T[] src, dst;
+        private final int l, lEnd, r, rEnd, k, grain;
+        private final boolean gallop;
+        private int offset, offsetMoves;  // Compares and moves on the path of the forking task, before this task was forked
+        private long offsetNanos;         // ... and its running time
+        private MergeAction<T> next;      // The task forked before this one by the same task
+        int compares, span;
+        long moves, moveSpan, nanos, nanoSpan;
+        private Tracer tracer;            // Null unless traced
+        private int depth;
+
+        public MergeAction(T[] src, T[] dst, int l, int lEnd, int r, int rEnd, int k, int grain, boolean gallop) {
+            this.src = src; this.dst = dst; this.l = l; this.lEnd = lEnd; this.r = r; this.rEnd = rEnd; this.k = k;
+            this.grain = grain; this.gallop = gallop;
+        }
+
+        @Override protected void compute() {
+            long start = System.nanoTime();
+            int l = this.l, lEnd = this.lEnd, r = this.r, rEnd = this.rEnd;
+            int path = 0, pivots = 0;
+            MergeAction<T> forked = null;
+            while ((lEnd - l) + (rEnd - r) + 2 > grain) {
+                int m, lo, hi;
+                MergeAction<T> t;
+                if (lEnd - l >= rEnd - r) {       // Pivot is the median of the left run
+                    m = l + (lEnd - l) / 2; lo = r; hi = rEnd + 1;
+                    while (lo < hi) {             // Find the first element of the right run not less than the pivot
+                        int h = (lo + hi) >>> 1; path++;
+                        if (src[h].compareTo(src[m]) < 0) lo = h + 1; else hi = h;
+                    }
+                    int out = k + (m - l) + (lo - r);
+                    dst[out] = src[m];
+                    t = new MergeAction<>(src, dst, m + 1, lEnd, lo, rEnd, out + 1, grain, gallop);
+                    lEnd = m - 1; rEnd = lo - 1;
+                } else {                          // Pivot is the median of the right run
+                    m = r + (rEnd - r) / 2; lo = l; hi = lEnd + 1;
+                    while (lo < hi) {             // Find the first element of the left run greater than the pivot
+                        int h = (lo + hi) >>> 1; path++;
+                        if (src[h].compareTo(src[m]) <= 0) lo = h + 1; else hi = h;
+                    }
+                    int out = k + (lo - l) + (m - r);
+                    dst[out] = src[m];
+                    t = new MergeAction<>(src, dst, lo, lEnd, m + 1, rEnd, out + 1, grain, gallop);
+                    lEnd = lo - 1; rEnd = m - 1;
+                }
+                pivots++;
+                t.offset = path; t.offsetMoves = pivots; t.offsetNanos = System.nanoTime() - start;
+                t.next = forked; forked = t;
+                t.trace(tracer, depth);
+                t.fork();
+            }
+            int leaf = (gallop) ? Merge.gallopInto(src, l, lEnd, r, rEnd, dst, k) : mergeRuns(src, l, lEnd, r, rEnd, dst, k);
+            compares = span = path + leaf;
+            moves    = moveSpan = pivots + (lEnd - l + 1) + (rEnd - r + 1);
+            nanos    = nanoSpan = System.nanoTime() - start;
+            if (tracer != null) tracer.record(Tracer.Kind.CHUNK, start, start + nanos, depth, (int) moves, false);
+            for (MergeAction<T> t = forked; t != null; t = t.next) {
+                t.join();
+                compares += t.compares;
+                span      = Math.max(span, t.offset + t.span);
+                moves    += t.moves;
+                moveSpan  = Math.max(moveSpan, t.offsetMoves + t.moveSpan);
+                nanos    += t.nanos;
+                nanoSpan  = Math.max(nanoSpan, t.offsetNanos + t.nanoSpan);
+            }
+        }
+
+        /** Records the chunks of this merge into the tracer, if not null, at the given depth of a recursion. */
+        public MergeAction<T> trace(Tracer tracer, int depth) { this.tracer = tracer; this.depth = depth; return this; }
+
+        /** The work and span of the merge, after completion. Every element is moved exactly once. */
+        public WorkSpan profile() { return new WorkSpan(compares, span, moves, moveSpan, nanos, nanoSpan); }
+    }
+
+    /** Sequentially merges src[l .. lEnd] with src[r .. rEnd] into dst, starting at index k.
+     * @return the number of compares used for the merge. */
+    private static <T extends Comparable<? super T>> int mergeRuns(T[] src, int l, int lEnd, int r, int rEnd, T[] dst, int k) {
         int compares = 0;
-        int k, l = i_a, r = i_b, end = i_o+length;
-        for (k = i_o; k < end; k++) {
-            if (aux[r].compareTo(aux[l]) < 0 ) {a[k] = aux[r++]; compares++; }
-            else                               {a[k] = aux[l++]; compares++; }                            
+        while (l <= lEnd && r <= rEnd) {
+            compares++;
+            if (src[r].compareTo(src[l]) < 0) dst[k++] = src[r++];
+            else                              dst[k++] = src[l++];
         }
-        assert Util.isSorted(a, i_o, end - 1);
+        if (l <= lEnd) System.arraycopy(src, l, dst, k, lEnd - l + 1);
+        else           System.arraycopy(src, r, dst, k, rEnd - r + 1);
         return compares;
     }
 
@@ -176,4 +290,386 @@ public class MergeParallel {
         Integer[] aux = n.clone();
         merge(n, aux, 2, 4, 8, 3, false);
     }
+
+    // ============================== Primitive specializations ==============================
+    // int[], long[] and double[] overloads mirroring the generic versions above, compare for compare.
+    // double[] uses the total order of Double.compare, matching the boxed Double.compareTo.
+
+    /** Primitive version of {@link #merge(Comparable[], Comparable[], int, int, int, int, ForkJoinPool, boolean)}. */
+    public static int merge(int[] a, int[] aux, int lo, int mid, int hi, int p,
+                            ForkJoinPool pool, boolean measureSpan) {
+        if (p < 1) throw new IllegalArgumentException("p must be > 0");
+        System.arraycopy(a, lo, aux, lo, hi - lo + 1);
+        IntMergeAction task = new IntMergeAction(aux, a, lo, mid, mid+1, hi, lo, grain(hi - lo + 1, p));
+        run(task, pool);
+        return (measureSpan) ? task.span : task.compares;
+    }
+
+    /** Primitive version of {@link #merge(Comparable[], Comparable[], int, int, int, SortContext)}. */
+    public static int merge(int[] a, int[] aux, int lo, int mid, int hi, SortContext ctx) {
+        System.arraycopy(a, lo, aux, lo, hi - lo + 1);
+        IntMergeAction task = new IntMergeAction(aux, a, lo, mid, mid+1, hi, lo, grain(hi - lo + 1, Math.max(1, ctx.p())));
+        run(task, ctx.pool());
+        ctx.record(task.compares, task.span);
+        return task.compares;
+    }
+
+    /** Primitive version of {@link #merge(Comparable[], Comparable[], int, int, int, int)}. */
+    public static int merge(int[] a, int[] aux, int lo, int mid, int hi, int p) {
+        return merge(a, aux, lo, mid, hi, p, false); }
+
+    /** Primitive version of {@link #merge(Comparable[], Comparable[], int, int, int, int, boolean)}. */
+    public static int merge(int[] a, int[] aux, int lo, int mid, int hi, int p, boolean measureSpan) {
+        return merge(a, aux, lo, mid, hi, p, currentPool(), measureSpan); }
+
+    /** Primitive version of {@link #mergeInto(Comparable[], Comparable[], int, int, int, int, boolean)}. */
+    public static int mergeInto(int[] src, int[] dst, int lo, int mid, int hi, int grain, boolean measureSpan) {
+        IntMergeAction task = new IntMergeAction(src, dst, lo, mid, mid+1, hi, lo, grain);
+        run(task, currentPool());
+        return (measureSpan) ? task.span : task.compares;
+    }
+
+    /** Primitive version of {@link MergeAction}. */
+    public static class IntMergeAction extends RecursiveAction {
+        private final int[] src, dst;
+        private final int l, lEnd, r, rEnd, k, grain;
+        private int offset;
+        private IntMergeAction next;
+        int compares, span;
+
+        public IntMergeAction(int[] src, int[] dst, int l, int lEnd, int r, int rEnd, int k, int grain) {
+            this.src = src; this.dst = dst; this.l = l; this.lEnd = lEnd; this.r = r; this.rEnd = rEnd; this.k = k;
+            this.grain = grain;
+        }
+
+        @Override protected void compute() {
+            int l = this.l, lEnd = this.lEnd, r = this.r, rEnd = this.rEnd;
+            int path = 0;
+            IntMergeAction forked = null;
+            while ((lEnd - l) + (rEnd - r) + 2 > grain) {
+                int m, lo, hi;
+                IntMergeAction t;
+                if (lEnd - l >= rEnd - r) {
+                    m = l + (lEnd - l) / 2; lo = r; hi = rEnd + 1;
+                    while (lo < hi) {
+                        int h = (lo + hi) >>> 1; path++;
+                        if (src[h] < src[m]) lo = h + 1; else hi = h;
+                    }
+                    int out = k + (m - l) + (lo - r);
+                    dst[out] = src[m];
+                    t = new IntMergeAction(src, dst, m + 1, lEnd, lo, rEnd, out + 1, grain);
+                    lEnd = m - 1; rEnd = lo - 1;
+                } else {
+                    m = r + (rEnd - r) / 2; lo = l; hi = lEnd + 1;
+                    while (lo < hi) {
+                        int h = (lo + hi) >>> 1; path++;
+                        if (src[h] <= src[m]) lo = h + 1; else hi = h;
+                    }
+                    int out = k + (lo - l) + (m - r);
+                    dst[out] = src[m];
+                    t = new IntMergeAction(src, dst, lo, lEnd, m + 1, rEnd, out + 1, grain);
+                    lEnd = lo - 1; rEnd = m - 1;
+                }
+                t.offset = path; t.next = forked; forked = t;
+                t.fork();
+            }
+            compares = span = path + mergeRuns(src, l, lEnd, r, rEnd, dst, k);
+            for (IntMergeAction t = forked; t != null; t = t.next) {
+                t.join();
+                compares += t.compares;
+                span      = Math.max(span, t.offset + t.span);
+            }
+        }
+    }
+
+    /** Primitive version of {@link #mergeRuns(Comparable[], int, int, int, int, Comparable[], int)}. */
+    private static int mergeRuns(int[] src, int l, int lEnd, int r, int rEnd, int[] dst, int k) {
+        int compares = 0;
+        while (l <= lEnd && r <= rEnd) {
+            compares++;
+            if (src[r] < src[l]) dst[k++] = src[r++];
+            else                              dst[k++] = src[l++];
+        }
+        if (l <= lEnd) System.arraycopy(src, l, dst, k, lEnd - l + 1);
+        else           System.arraycopy(src, r, dst, k, rEnd - r + 1);
+        return compares;
+    }
+
+    /** Primitive version of {@link #twoSequenceSelect(Comparable[], int, int, int, int)}. */
+    public static IntPair twoSequenceSelect(int[] in, int lo, int mid, int hi, int k) {
+        final int l_a = mid - lo + 1;
+        final int l_b = hi - mid;
+        if (k < 0 || k >= l_a + l_b) throw new IllegalArgumentException("k is out of bounds");
+        int j_b, j_a, lo_a = 0, hi_a = Math.min(k, l_a);
+        int cmp = 0;
+
+        while (true) {
+            j_a = lo_a + ((hi_a-lo_a)/2);
+            assert(0 <= j_a && j_a <= k);
+            j_b = k - j_a;
+
+            if (!(j_a == 0 || j_b >= l_b)) {
+                if (j_a > l_a)                                          {hi_a = j_a-1; continue;}
+                else if (in[lo+j_a-1] > in[mid+1+j_b])       {cmp++; hi_a = j_a-1; continue;} }
+
+            if (!(j_b == 0 || j_a >= l_a)) {
+                if (j_b > l_b)                                          {lo_a = j_a+1; continue;}
+                else if (in[mid+1+j_b-1] >= in[lo+j_a])       {cmp++; lo_a = j_a+1; continue;} }
+
+            break;
+        }
+        return new IntPair(j_a, cmp);
+    }
+
+    /** Primitive version of {@link #merge(Comparable[], Comparable[], int, int, int, int, ForkJoinPool, boolean)}. */
+    public static int merge(long[] a, long[] aux, int lo, int mid, int hi, int p,
+                            ForkJoinPool pool, boolean measureSpan) {
+        if (p < 1) throw new IllegalArgumentException("p must be > 0");
+        System.arraycopy(a, lo, aux, lo, hi - lo + 1);
+        LongMergeAction task = new LongMergeAction(aux, a, lo, mid, mid+1, hi, lo, grain(hi - lo + 1, p));
+        run(task, pool);
+        return (measureSpan) ? task.span : task.compares;
+    }
+
+    /** Primitive version of {@link #merge(Comparable[], Comparable[], int, int, int, SortContext)}. */
+    public static int merge(long[] a, long[] aux, int lo, int mid, int hi, SortContext ctx) {
+        System.arraycopy(a, lo, aux, lo, hi - lo + 1);
+        LongMergeAction task = new LongMergeAction(aux, a, lo, mid, mid+1, hi, lo, grain(hi - lo + 1, Math.max(1, ctx.p())));
+        run(task, ctx.pool());
+        ctx.record(task.compares, task.span);
+        return task.compares;
+    }
+
+    /** Primitive version of {@link #merge(Comparable[], Comparable[], int, int, int, int)}. */
+    public static int merge(long[] a, long[] aux, int lo, int mid, int hi, int p) {
+        return merge(a, aux, lo, mid, hi, p, false); }
+
+    /** Primitive version of {@link #merge(Comparable[], Comparable[], int, int, int, int, boolean)}. */
+    public static int merge(long[] a, long[] aux, int lo, int mid, int hi, int p, boolean measureSpan) {
+        return merge(a, aux, lo, mid, hi, p, currentPool(), measureSpan); }
+
+    /** Primitive version of {@link #mergeInto(Comparable[], Comparable[], int, int, int, int, boolean)}. */
+    public static int mergeInto(long[] src, long[] dst, int lo, int mid, int hi, int grain, boolean measureSpan) {
+        LongMergeAction task = new LongMergeAction(src, dst, lo, mid, mid+1, hi, lo, grain);
+        run(task, currentPool());
+        return (measureSpan) ? task.span : task.compares;
+    }
+
+    /** Primitive version of {@link MergeAction}. */
+    public static class LongMergeAction extends RecursiveAction {
+        private final long[] src, dst;
+        private final int l, lEnd, r, rEnd, k, grain;
+        private int offset;
+        private LongMergeAction next;
+        int compares, span;
+
+        public LongMergeAction(long[] src, long[] dst, int l, int lEnd, int r, int rEnd, int k, int grain) {
+            this.src = src; this.dst = dst; this.l = l; this.lEnd = lEnd; this.r = r; this.rEnd = rEnd; this.k = k;
+            this.grain = grain;
+        }
+
+        @Override protected void compute() {
+            int l = this.l, lEnd = this.lEnd, r = this.r, rEnd = this.rEnd;
+            int path = 0;
+            LongMergeAction forked = null;
+            while ((lEnd - l) + (rEnd - r) + 2 > grain) {
+                int m, lo, hi;
+                LongMergeAction t;
+                if (lEnd - l >= rEnd - r) {
+                    m = l + (lEnd - l) / 2; lo = r; hi = rEnd + 1;
+                    while (lo < hi) {
+                        int h = (lo + hi) >>> 1; path++;
+                        if (src[h] < src[m]) lo = h + 1; else hi = h;
+                    }
+                    int out = k + (m - l) + (lo - r);
+                    dst[out] = src[m];
+                    t = new LongMergeAction(src, dst, m + 1, lEnd, lo, rEnd, out + 1, grain);
+                    lEnd = m - 1; rEnd = lo - 1;
+                } else {
+                    m = r + (rEnd - r) / 2; lo = l; hi = lEnd + 1;
+                    while (lo < hi) {
+                        int h = (lo + hi) >>> 1; path++;
+                        if (src[h] <= src[m]) lo = h + 1; else hi = h;
+                    }
+                    int out = k + (lo - l) + (m - r);
+                    dst[out] = src[m];
+                    t = new LongMergeAction(src, dst, lo, lEnd, m + 1, rEnd, out + 1, grain);
+                    lEnd = lo - 1; rEnd = m - 1;
+                }
+                t.offset = path; t.next = forked; forked = t;
+                t.fork();
+            }
+            compares = span = path + mergeRuns(src, l, lEnd, r, rEnd, dst, k);
+            for (LongMergeAction t = forked; t != null; t = t.next) {
+                t.join();
+                compares += t.compares;
+                span      = Math.max(span, t.offset + t.span);
+            }
+        }
+    }
+
+    /** Primitive version of {@link #mergeRuns(Comparable[], int, int, int, int, Comparable[], int)}. */
+    private static int mergeRuns(long[] src, int l, int lEnd, int r, int rEnd, long[] dst, int k) {
+        int compares = 0;
+        while (l <= lEnd && r <= rEnd) {
+            compares++;
+            if (src[r] < src[l]) dst[k++] = src[r++];
+            else                              dst[k++] = src[l++];
+        }
+        if (l <= lEnd) System.arraycopy(src, l, dst, k, lEnd - l + 1);
+        else           System.arraycopy(src, r, dst, k, rEnd - r + 1);
+        return compares;
+    }
+
+    /** Primitive version of {@link #twoSequenceSelect(Comparable[], int, int, int, int)}. */
+    public static IntPair twoSequenceSelect(long[] in, int lo, int mid, int hi, int k) {
+        final int l_a = mid - lo + 1;
+        final int l_b = hi - mid;
+        if (k < 0 || k >= l_a + l_b) throw new IllegalArgumentException("k is out of bounds");
+        int j_b, j_a, lo_a = 0, hi_a = Math.min(k, l_a);
+        int cmp = 0;
+
+        while (true) {
+            j_a = lo_a + ((hi_a-lo_a)/2);
+            assert(0 <= j_a && j_a <= k);
+            j_b = k - j_a;
+
+            if (!(j_a == 0 || j_b >= l_b)) {
+                if (j_a > l_a)                                          {hi_a = j_a-1; continue;}
+                else if (in[lo+j_a-1] > in[mid+1+j_b])       {cmp++; hi_a = j_a-1; continue;} }
+
+            if (!(j_b == 0 || j_a >= l_a)) {
+                if (j_b > l_b)                                          {lo_a = j_a+1; continue;}
+                else if (in[mid+1+j_b-1] >= in[lo+j_a])       {cmp++; lo_a = j_a+1; continue;} }
+
+            break;
+        }
+        return new IntPair(j_a, cmp);
+    }
+
+    /** Primitive version of {@link #merge(Comparable[], Comparable[], int, int, int, int, ForkJoinPool, boolean)}. */
+    public static int merge(double[] a, double[] aux, int lo, int mid, int hi, int p,
+                            ForkJoinPool pool, boolean measureSpan) {
+        if (p < 1) throw new IllegalArgumentException("p must be > 0");
+        System.arraycopy(a, lo, aux, lo, hi - lo + 1);
+        DoubleMergeAction task = new DoubleMergeAction(aux, a, lo, mid, mid+1, hi, lo, grain(hi - lo + 1, p));
+        run(task, pool);
+        return (measureSpan) ? task.span : task.compares;
+    }
+
+    /** Primitive version of {@link #merge(Comparable[], Comparable[], int, int, int, SortContext)}. */
+    public static int merge(double[] a, double[] aux, int lo, int mid, int hi, SortContext ctx) {
+        System.arraycopy(a, lo, aux, lo, hi - lo + 1);
+        DoubleMergeAction task = new DoubleMergeAction(aux, a, lo, mid, mid+1, hi, lo, grain(hi - lo + 1, Math.max(1, ctx.p())));
+        run(task, ctx.pool());
+        ctx.record(task.compares, task.span);
+        return task.compares;
+    }
+
+    /** Primitive version of {@link #merge(Comparable[], Comparable[], int, int, int, int)}. */
+    public static int merge(double[] a, double[] aux, int lo, int mid, int hi, int p) {
+        return merge(a, aux, lo, mid, hi, p, false); }
+
+    /** Primitive version of {@link #merge(Comparable[], Comparable[], int, int, int, int, boolean)}. */
+    public static int merge(double[] a, double[] aux, int lo, int mid, int hi, int p, boolean measureSpan) {
+        return merge(a, aux, lo, mid, hi, p, currentPool(), measureSpan); }
+
+    /** Primitive version of {@link #mergeInto(Comparable[], Comparable[], int, int, int, int, boolean)}. */
+    public static int mergeInto(double[] src, double[] dst, int lo, int mid, int hi, int grain, boolean measureSpan) {
+        DoubleMergeAction task = new DoubleMergeAction(src, dst, lo, mid, mid+1, hi, lo, grain);
+        run(task, currentPool());
+        return (measureSpan) ? task.span : task.compares;
+    }
+
+    /** Primitive version of {@link MergeAction}. */
+    public static class DoubleMergeAction extends RecursiveAction {
+        private final double[] src, dst;
+        private final int l, lEnd, r, rEnd, k, grain;
+        private int offset;
+        private DoubleMergeAction next;
+        int compares, span;
+
+        public DoubleMergeAction(double[] src, double[] dst, int l, int lEnd, int r, int rEnd, int k, int grain) {
+            this.src = src; this.dst = dst; this.l = l; this.lEnd = lEnd; this.r = r; this.rEnd = rEnd; this.k = k;
+            this.grain = grain;
+        }
+
+        @Override protected void compute() {
+            int l = this.l, lEnd = this.lEnd, r = this.r, rEnd = this.rEnd;
+            int path = 0;
+            DoubleMergeAction forked = null;
+            while ((lEnd - l) + (rEnd - r) + 2 > grain) {
+                int m, lo, hi;
+                DoubleMergeAction t;
+                if (lEnd - l >= rEnd - r) {
+                    m = l + (lEnd - l) / 2; lo = r; hi = rEnd + 1;
+                    while (lo < hi) {
+                        int h = (lo + hi) >>> 1; path++;
+                        if (Double.compare(src[h], src[m]) < 0) lo = h + 1; else hi = h;
+                    }
+                    int out = k + (m - l) + (lo - r);
+                    dst[out] = src[m];
+                    t = new DoubleMergeAction(src, dst, m + 1, lEnd, lo, rEnd, out + 1, grain);
+                    lEnd = m - 1; rEnd = lo - 1;
+                } else {
+                    m = r + (rEnd - r) / 2; lo = l; hi = lEnd + 1;
+                    while (lo < hi) {
+                        int h = (lo + hi) >>> 1; path++;
+                        if (Double.compare(src[h], src[m]) <= 0) lo = h + 1; else hi = h;
+                    }
+                    int out = k + (lo - l) + (m - r);
+                    dst[out] = src[m];
+                    t = new DoubleMergeAction(src, dst, lo, lEnd, m + 1, rEnd, out + 1, grain);
+                    lEnd = lo - 1; rEnd = m - 1;
+                }
+                t.offset = path; t.next = forked; forked = t;
+                t.fork();
+            }
+            compares = span = path + mergeRuns(src, l, lEnd, r, rEnd, dst, k);
+            for (DoubleMergeAction t = forked; t != null; t = t.next) {
+                t.join();
+                compares += t.compares;
+                span      = Math.max(span, t.offset + t.span);
+            }
+        }
+    }
+
+    /** Primitive version of {@link #mergeRuns(Comparable[], int, int, int, int, Comparable[], int)}. */
+    private static int mergeRuns(double[] src, int l, int lEnd, int r, int rEnd, double[] dst, int k) {
+        int compares = 0;
+        while (l <= lEnd && r <= rEnd) {
+            compares++;
+            if (Double.compare(src[r], src[l]) < 0) dst[k++] = src[r++];
+            else                              dst[k++] = src[l++];
+        }
+        if (l <= lEnd) System.arraycopy(src, l, dst, k, lEnd - l + 1);
+        else           System.arraycopy(src, r, dst, k, rEnd - r + 1);
+        return compares;
+    }
+
+    /** Primitive version of {@link #twoSequenceSelect(Comparable[], int, int, int, int)}. */
+    public static IntPair twoSequenceSelect(double[] in, int lo, int mid, int hi, int k) {
+        final int l_a = mid - lo + 1;
+        final int l_b = hi - mid;
+        if (k < 0 || k >= l_a + l_b) throw new IllegalArgumentException("k is out of bounds");
+        int j_b, j_a, lo_a = 0, hi_a = Math.min(k, l_a);
+        int cmp = 0;
+
+        while (true) {
+            j_a = lo_a + ((hi_a-lo_a)/2);
+            assert(0 <= j_a && j_a <= k);
+            j_b = k - j_a;
+
+            if (!(j_a == 0 || j_b >= l_b)) {
+                if (j_a > l_a)                                          {hi_a = j_a-1; continue;}
+                else if (Double.compare(in[lo+j_a-1], in[mid+1+j_b]) > 0)       {cmp++; hi_a = j_a-1; continue;} }
+
+            if (!(j_b == 0 || j_a >= l_a)) {
+                if (j_b > l_b)                                          {lo_a = j_a+1; continue;}
+                else if (Double.compare(in[mid+1+j_b-1], in[lo+j_a]) >= 0)       {cmp++; lo_a = j_a+1; continue;} }
+
+            break;
+        }
+        return new IntPair(j_a, cmp);
+    }
 }
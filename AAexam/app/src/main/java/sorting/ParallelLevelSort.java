@@ -0,0 +1,263 @@
+package sorting;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/** A parallel {@link LevelSortAdaptive}: the same runs, the same merges, and the same count of compares.
+ *
+ * The levels of the boundaries between the runs fully determine the merge tree. Between two boundaries of the same
+ * level there is always one of a higher level, so the boundary of the highest level in a range of runs is unique, and
+ * the sequential stack merges the runs on each side of it before merging the two. The tree is thus split at its root
+ * boundary, and the two subtrees, which share no elements, are merged concurrently, recursively so.
+ *
+ * The sort runs in three phases:
+ * <ol>
+ * <li>The array is split into chunks, and each chunk is scanned for runs in parallel, without changing it, as if the
+ *     first run began at the start of the chunk. The chunks are then stitched: walking the array from the left, the
+ *     runs are explored again from where the previous chunk actually left off, until they meet a run the chunk found,
+ *     from where on its runs are the true ones. Short runs skip ahead by {@code c}, so re-exploring is cheap.</li>
+ * <li>Descending runs are reversed, and runs of at most {@code c} elements are padded with insertion sort, in
+ *     parallel, as the runs are disjoint.</li>
+ * <li>The runs are merged along the tree. Subtrees of at most {@code cutoff} elements are merged sequentially, larger
+ *     ones fork their left subtree. The largest merges, while the parallelism {@code p} halved for each level down the
+ *     tree is above 1, are split across tasks by a {@link MergeParallel.MergeAction}.</li>
+ * </ol>
+ * The compares are counted as {@link LevelSortAdaptive} counts them. A parallel merge performs other compares than the
+ * sequential one, so for those the compares of the sequential merge are counted instead, found by a binary search
+ * before merging. The compares the parallel merges actually perform go into the work and span of the context.
+ * Only the {@code COPY} merge mode is supported.
+ */
+public class ParallelLevelSort {
+    private ParallelLevelSort() {}
+
+    /** Sorts in the common pool, with as many parallel tasks for the top merge as it has workers,
+     * see {@link #sort(Comparable[], int, int)}. */
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c) {
+        return sort(a, c, ForkJoinPool.commonPool().getParallelism());
+    }
+
+    /** Sorts in the common pool, with subtrees of at most 8192 elements merged sequentially,
+     * see {@link #sort(Comparable[], int, SortContext)}. */
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c, int p) {
+        return sort(a, c, SortContext.common(1 << 13, p));
+    }
+
+    /** Rearranges the array in ascending order, using the natural order, in the pool of the context.
+     * The compares of the padding and merging are added to the work of the context, and their longest chain to its span.
+     * @param a the array to be sorted
+     * @param c the least length of runs to merge, when enough left; must be at least 1
+     * @param ctx the pool of the sort, the size of the subtrees merged sequentially, and the parallelism of the
+     *            top merges
+     * @return the number of compares {@link LevelSortAdaptive#sort(Comparable[], int)} performs on the same array
+     * @throws IllegalArgumentException if {@code c} is less than 1 */
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c, SortContext ctx) {
+        if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        int n = a.length;
+        if (n <= 1) return 0;
+
+        int chunks = Math.clamp(n / Math.max(ctx.cutoff(), c), 1, 4 * ctx.pool().getParallelism());
+        Runs[] found = new Runs[chunks];
+        ctx.pool().invoke(new ScanTask<>(a, c, chunks, found, 0, chunks));
+        Runs runs = stitch(a, c, chunks, found);
+
+        PadTask<T> pad = new PadTask<>(a, c, runs, 0, runs.count - 1, ctx.cutoff());
+        ctx.pool().invoke(pad);
+
+        int[] levels = new int[runs.count];
+        for (int i = 1; i < runs.count; i++)
+            levels[i] = LevelSortAdaptive.level(runs.start[i-1], runs.end[i-1], runs.start[i], runs.end[i]);
+        MergeTask<T> merge = new MergeTask<>(a, ctx.aux(a), runs, levels, 0, runs.count - 1, ctx.cutoff(), ctx.p());
+        ctx.pool().invoke(merge);
+
+        ctx.record(pad.compares + merge.work, pad.span + merge.span);
+        assert Util.isSorted(a);
+        return (runs.explored - 1) + pad.compares + merge.compares; // The last run is explored with one compare less
+    }
+
+    // ============================== Finding the runs ==============================
+
+    // The runs of the array, in parallel arrays: their first index, the last index of the natural run, which is
+    // negative (~last) if it is strictly decreasing, and their last index after padding
+    private static final class Runs {
+        int[] start = new int[16], natural = new int[16], end = new int[16];
+        int count;
+        long explored; // The summed lengths of the natural runs, i.e. the compares of exploring them
+
+        void add(int s, int nat, int e) {
+            if (count == start.length) {
+                start   = Arrays.copyOf(start, 2 * count);
+                natural = Arrays.copyOf(natural, 2 * count);
+                end     = Arrays.copyOf(end, 2 * count);
+            }
+            start[count] = s; natural[count] = nat; end[count++] = e;
+            explored    += ((nat < 0) ? ~nat : nat) - s + 1;
+        }
+    }
+
+    // The end of the natural run starting at first, as Util.exploreRun finds it but without reversing it,
+    // or ~end if the run is strictly decreasing
+    private static <T extends Comparable<? super T>> int scan(T[] a, int first) {
+        int n = a.length;
+        if (first == n - 1) return first;
+        int last = first + 1;
+        if (a[first].compareTo(a[last]) <= 0) {
+            while (last < n - 1 && a[last].compareTo(a[last + 1]) <= 0) last++;
+            return last;
+        }
+        while (last < n - 1 && a[last].compareTo(a[last + 1]) > 0) last++;
+        return ~last;
+    }
+
+    // Adds the run starting at first, padded to c elements if not longer, and returns its last index
+    private static <T extends Comparable<? super T>> int next(T[] a, int c, int first, Runs runs) {
+        int natural = scan(a, first);
+        int last    = (natural < 0) ? ~natural : natural;
+        if (last - first + 1 <= c) last = Math.min(first + c - 1, a.length - 1);
+        runs.add(first, natural, last);
+        return last;
+    }
+
+    private static int bound(int n, int chunks, int i) { return (int) ((long) n * i / chunks); }
+
+    // Walks the array from the left, taking over the runs found in a chunk from the first one the walk meets
+    private static <T extends Comparable<? super T>> Runs stitch(T[] a, int c, int chunks, Runs[] found) {
+        int n     = a.length;
+        Runs runs = new Runs();
+        int next  = 0;
+        for (int j = 0; j < chunks && next < n; j++) {
+            Runs chunk = found[j];
+            int i      = 0;
+            while (next < bound(n, chunks, j + 1)) {
+                while (i < chunk.count && chunk.start[i] < next) i++;
+                if (i < chunk.count && chunk.start[i] == next) { // In step: the rest of the chunk is right
+                    for (; i < chunk.count; i++) runs.add(chunk.start[i], chunk.natural[i], chunk.end[i]);
+                    next = chunk.end[chunk.count - 1] + 1;
+                    break;
+                }
+                next = next(a, c, next, runs) + 1;
+            }
+        }
+        return runs;
+    }
+
+    // Finds the runs of the chunks [lo, hi), each from its start up to the first run starting in the next chunk
+    private static final class ScanTask<T extends Comparable<? super T>> extends RecursiveAction {
+        private final T[] a;
+        private final int c, chunks, lo, hi;
+        private final Runs[] found;
+
+        ScanTask(T[] a, int c, int chunks, Runs[] found, int lo, int hi) {
+            this.a = a; this.c = c; this.chunks = chunks; this.found = found; this.lo = lo; this.hi = hi;
+        }
+
+        @Override protected void compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new ScanTask<>(a, c, chunks, found, lo, mid), new ScanTask<>(a, c, chunks, found, mid, hi));
+                return;
+            }
+            Runs runs = new Runs();
+            int last  = bound(a.length, chunks, lo + 1);
+            for (int next = bound(a.length, chunks, lo); next < last; ) next = next(a, c, next, runs) + 1;
+            found[lo] = runs;
+        }
+    }
+
+    // Reverses the descending runs of runs[lo .. hi] and pads the short ones with insertion sort, in parallel
+    // until a task holds at most cutoff elements or a single run
+    private static final class PadTask<T extends Comparable<? super T>> extends RecursiveAction {
+        private final T[] a;
+        private final int c, lo, hi, cutoff;
+        private final Runs runs;
+        long compares, span;
+
+        PadTask(T[] a, int c, Runs runs, int lo, int hi, int cutoff) {
+            this.a = a; this.c = c; this.runs = runs; this.lo = lo; this.hi = hi; this.cutoff = cutoff;
+        }
+
+        @Override protected void compute() {
+            if (lo < hi && runs.end[hi] - runs.start[lo] + 1 > cutoff) {
+                int mid = (lo + hi) >>> 1;
+                PadTask<T> left = new PadTask<>(a, c, runs, lo, mid, cutoff), right = new PadTask<>(a, c, runs, mid + 1, hi, cutoff);
+                invokeAll(left, right);
+                compares = left.compares + right.compares;
+                span     = Math.max(left.span, right.span);
+                return;
+            }
+            for (int i = lo; i <= hi; i++) {
+                int first = runs.start[i], natural = runs.natural[i];
+                if (natural < 0) { natural = ~natural; reverse(a, first, natural); }
+                if (natural - first + 1 <= c) compares += InsertionSort.sort(a, first, runs.end[i]);
+            }
+            span = compares;
+        }
+    }
+
+    private static void reverse(Object[] a, int from, int to) {
+        for (; from < to; from++, to--) { Object t = a[from]; a[from] = a[to]; a[to] = t; }
+    }
+
+    // ============================== Merging along the tree ==============================
+
+    // Merges runs[lo .. hi] into one, splitting at the boundary of the highest level.
+    // After completion, compares holds the compares of the sequential merges, work the compares performed, and span
+    // the compares performed along the longest chain of dependent merges
+    private static final class MergeTask<T extends Comparable<? super T>> extends RecursiveAction {
+        private final T[] a, aux;
+        private final Runs runs;
+        private final int[] levels;
+        private final int lo, hi, cutoff, p;
+        long compares, work, span;
+
+        MergeTask(T[] a, T[] aux, Runs runs, int[] levels, int lo, int hi, int cutoff, int p) {
+            this.a = a; this.aux = aux; this.runs = runs; this.levels = levels; this.lo = lo; this.hi = hi;
+            this.cutoff = cutoff; this.p = p;
+        }
+
+        @Override protected void compute() {
+            if (lo == hi) return;
+            int root = lo + 1;
+            for (int i = lo + 2; i <= hi; i++) if (levels[i] > levels[root]) root = i;
+            MergeTask<T> left  = new MergeTask<>(a, aux, runs, levels, lo, root - 1, cutoff, p / 2);
+            MergeTask<T> right = new MergeTask<>(a, aux, runs, levels, root, hi, cutoff, p / 2);
+            int first = runs.start[lo], mid = runs.end[root - 1], last = runs.end[hi];
+            if (last - first + 1 <= cutoff) { left.compute(); right.compute(); }
+            else                            { left.fork(); right.compute(); left.join(); }
+            compares = left.compares + right.compares;
+            work     = left.work + right.work;
+            span     = Math.max(left.span, right.span);
+
+            if (p > 1) {
+                int merge = mergeCompares(a, first, mid, last);
+                System.arraycopy(a, first, aux, first, last - first + 1);
+                MergeParallel.MergeAction<T> action = new MergeParallel.MergeAction<>(
+                    aux, a, first, mid, mid + 1, last, first, MergeParallel.grain(last - first + 1, p), false);
+                action.invoke();
+                compares += merge;
+                work     += action.profile().compares();
+                span     += action.profile().compareSpan();
+            } else {
+                int merge = Merge.merge(a, aux, first, mid, last);
+                compares += merge;
+                work     += merge;
+                span     += merge;
+            }
+        }
+    }
+
+    /** The compares of a sequential {@link Merge#merge} of a[lo .. mid] with a[mid+1 .. hi], without merging:
+     * one for each element written before either run runs out. When the left run runs out first, the elements of
+     * the right run not less than a[mid] are left, else the elements of the left run greater than a[hi].
+     * Found by binary search, with compares that are not counted. */
+    static <T extends Comparable<? super T>> int mergeCompares(T[] a, int lo, int mid, int hi) {
+        int from, to;
+        if (a[hi].compareTo(a[mid]) < 0) { from = lo; to = mid + 1;      // The first left element greater than a[hi]
+            while (from < to) { int h = (from + to) >>> 1; if (a[h].compareTo(a[hi]) <= 0) from = h + 1; else to = h; }
+            return (hi - lo + 1) - (mid - from + 1);
+        }
+        from = mid + 1; to = hi + 1;                                      // The first right element not less than a[mid]
+        while (from < to) { int h = (from + to) >>> 1; if (a[h].compareTo(a[mid]) < 0) from = h + 1; else to = h; }
+        return (hi - lo + 1) - (hi - from + 1);
+    }
+}
@@ -1,45 +1,283 @@
 package sorting;
 
-import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.ForkJoinTask;
-import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RecursiveAction;
 
 public class RecursiveMergeSortParallel {
     private RecursiveMergeSortParallel() { }
-    private static ForkJoinPool ex = new ForkJoinPool();
-    public static void setPool(ForkJoinPool pool) { ex = pool; }
 
     // Sort overloading
 
-    public static <T extends Comparable<? super T>> int sort(T[] a, int c, int p, boolean measureSpan) {
-        return ex.invoke(new MergeSortTask<T>(a, a.clone(), 0, a.length-1, c, p, measureSpan)); }
+    /** Rearranges the array in ascending order, using the natural order, in the pool of the context.
+     * The work and span of the sort are added to the totals of the context.
+     * @param a the array to be sorted
+     * @param ctx the pool, cutoff and parallelism of the sort, and its auxiliary buffer
+     * @return the number of compares performed for the sort */
+    public static <T extends Comparable<? super T>> long sort(T[] a, SortContext ctx) {
+        MergeSortTask<T> task = new MergeSortTask<>(ctx.aux(a), a, 0, a.length-1, ctx.cutoff(), ctx.p());
+        task.tracer = ctx.tracer();
+        ctx.pool().invoke(task);
+        ctx.record(task.profile());
+        return task.work;
+    }
+
+    /** Sorts in the common pool with a context of its own, see {@link #sort(Comparable[], SortContext)}.
+     * @param measureSpan a flag if the returned value should be the span of comparisons rather than the sum. */
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c, int p, boolean measureSpan) {
+        SortContext ctx = SortContext.common(c, p);
+        sort(a, ctx);
+        return (measureSpan) ? ctx.span() : ctx.work(); }
+
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c, int p) {
+        return sort(a, SortContext.common(c, p)); }
+
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c) {
+        return sort(a, SortContext.common(c, 0)); }
+
+    /** Sorts the subarray [lo .. hi] into {@code dst}, using {@code src} as the auxiliary array, like
+     * {@link TopDownMergeSort#sortInto}. The two halves are sorted into {@code src} in parallel, and then merged into
+     * {@code dst} without copying, in parallel by a {@link MergeParallel.MergeAction} as long as {@code p > 1}.
+     * Precondition: src[lo .. hi] and dst[lo .. hi] hold the same elements.
+     * After completion, {@code work} holds the number of compares, and {@code span} the compares along the longest
+     * chain of dependent tasks. The element moves and running time of the tasks are summed up the same way,
+     * see {@link #profile}. With a {@link Tracer}, the task and the work it does are recorded into it. */
+    public static class MergeSortTask<T extends Comparable<? super T>> extends RecursiveAction {
+        private final T[] src, dst;
+        private final int lo, hi, c, mid, p;
+        long work, span;
+        long moves, moveSpan, nanos, nanoSpan;
+        Tracer tracer;                    // Null unless traced
+        private int depth;
+        private Thread forker;            // The thread that forked this task, if traced
+
+        public MergeSortTask(T[] src, T[] dst, int lo, int hi, int c, int p) {
+            this.src = src; this.dst = dst; this.lo = lo; this.hi = hi; this.c = c; this.p = p;
+            mid = lo + (hi - lo) / 2;
+        }
+
+        @Override protected void compute() {
+            long start = System.nanoTime(), begin = start;
+            if (hi - lo < c) {
+                work  = span     = TopDownMergeSort.sortInto(src, dst, lo, hi);
+                moves = moveSpan = sortIntoMoves(hi - lo + 1);
+                nanos = nanoSpan = System.nanoTime() - start;
+                if (tracer != null) {
+                    tracer.record(Tracer.Kind.SORT, start, start + nanos, depth, hi - lo + 1, false);
+                    tracer.record(Tracer.Kind.TASK, begin, System.nanoTime(), depth, hi - lo + 1, stolen());
+                }
+                return;
+            }
+            int nextP = p / 2;
+            MergeSortTask<T> left  = new MergeSortTask<>(dst, src, lo, mid, c, nextP);
+            MergeSortTask<T> right = new MergeSortTask<>(dst, src, mid+1, hi, c, nextP);
+            if (tracer != null) {
+                left.tracer  = right.tracer = tracer;
+                left.depth   = right.depth  = depth + 1;
+                left.forker  = Thread.currentThread();
+            }
+            left.fork();
+            right.invoke();
+            left.join();
+            WorkSpan merge;
+            if (p > 1) {
+                MergeParallel.MergeAction<T> action = new MergeParallel.MergeAction<>(
+                    src, dst, lo, mid, mid+1, hi, lo, MergeParallel.grain(hi - lo + 1, p), false);
+                action.trace(tracer, depth);
+                action.invoke();
+                merge = action.profile();
+            } else {
+                start = System.nanoTime();
+                int compares = Merge.mergeInto(src, dst, lo, mid, hi);
+                long time    = System.nanoTime() - start;
+                merge = new WorkSpan(compares, compares, hi - lo + 1, hi - lo + 1, time, time);
+                if (tracer != null) tracer.record(Tracer.Kind.MERGE, start, start + time, depth, hi - lo + 1, false);
+            }
+
+            work     = left.work + right.work + merge.compares();
+            span     = Math.max(left.span, right.span) + merge.compareSpan();
+            moves    = left.moves + right.moves + merge.moves();
+            moveSpan = Math.max(left.moveSpan, right.moveSpan) + merge.moveSpan();
+            nanos    = left.nanos + right.nanos + merge.nanos();
+            nanoSpan = Math.max(left.nanoSpan, right.nanoSpan) + merge.nanoSpan();
+            if (tracer != null) tracer.record(Tracer.Kind.TASK, begin, System.nanoTime(), depth, hi - lo + 1, stolen());
+        }
+
+        private boolean stolen() { return forker != null && forker != Thread.currentThread(); }
+
+        /** The work and span of the sort, after completion. */
+        public WorkSpan profile() { return new WorkSpan(work, span, moves, moveSpan, nanos, nanoSpan); }
+    }
+
+    /** The elements written by {@link TopDownMergeSort#sortInto} sorting n elements: every merge writes all of its
+     * elements, which solves to {@code n ceil(lg n) - 2^ceil(lg n) + n}. */
+    static long sortIntoMoves(int n) {
+        if (n < 2) return 0;
+        int levels = 32 - Integer.numberOfLeadingZeros(n - 1);
+        return (long) n * levels - (1L << levels) + n;
+    }
+
+    // ============================== Primitive specializations ==============================
+    // int[], long[] and double[] overloads mirroring the generic versions above, compare for compare.
+    // double[] uses the total order of Double.compare, matching the boxed Double.compareTo.
+
+    /** Primitive version of {@link #sort(Comparable[], SortContext)}. */
+    public static long sort(int[] a, SortContext ctx) {
+        IntMergeSortTask task = new IntMergeSortTask(ctx.aux(a), a, 0, a.length-1, ctx.cutoff(), ctx.p());
+        ctx.pool().invoke(task);
+        ctx.record(task.work, task.span);
+        return task.work;
+    }
+
+    /** Primitive version of {@link #sort(Comparable[], int, int, boolean)}. */
+    public static long sort(int[] a, int c, int p, boolean measureSpan) {
+        SortContext ctx = SortContext.common(c, p);
+        sort(a, ctx);
+        return (measureSpan) ? ctx.span() : ctx.work(); }
+
+    /** Primitive version of {@link #sort(Comparable[], int, int)}. */
+    public static long sort(int[] a, int c, int p) {
+        return sort(a, SortContext.common(c, p)); }
+
+    /** Primitive version of {@link #sort(Comparable[], int)}. */
+    public static long sort(int[] a, int c) {
+        return sort(a, SortContext.common(c, 0)); }
+
+    /** Primitive version of {@link MergeSortTask}. */
+    public static class IntMergeSortTask extends RecursiveAction {
+        private final int[] src, dst;
+        private final int lo, hi, c, mid, p;
+        long work, span;
 
-    public static <T extends Comparable<? super T>> int sort(T[] a, int c, int p) {
-        return ex.invoke(new MergeSortTask<T>(a, a.clone(), 0, a.length-1, c, p, false)); }
+        public IntMergeSortTask(int[] src, int[] dst, int lo, int hi, int c, int p) {
+            this.src = src; this.dst = dst; this.lo = lo; this.hi = hi; this.c = c; this.p = p;
+            mid = lo + (hi - lo) / 2;
+        }
 
-    public static <T extends Comparable<? super T>> int sort(T[] a, int c) {
-        return ex.invoke(new MergeSortTask<T>(a, a.clone(), 0, a.length-1, c, 0, false)); }
+        @Override protected void compute() {
+            if (hi - lo < c) { work = span = TopDownMergeSort.sortInto(src, dst, lo, hi); return; }
+            int nextP = p / 2;
+            IntMergeSortTask left  = new IntMergeSortTask(dst, src, lo, mid, c, nextP);
+            IntMergeSortTask right = new IntMergeSortTask(dst, src, mid+1, hi, c, nextP);
+            left.fork();
+            right.invoke();
+            left.join();
+            int mergeWork, mergeSpan;
+            if (p > 1) {
+                MergeParallel.IntMergeAction merge = new MergeParallel.IntMergeAction(
+                    src, dst, lo, mid, mid+1, hi, lo, MergeParallel.grain(hi - lo + 1, p));
+                merge.invoke();
+                mergeWork = merge.compares; mergeSpan = merge.span;
+            } else mergeWork = mergeSpan = Merge.mergeInto(src, dst, lo, mid, hi);
 
-    public static class MergeSortTask<T extends Comparable<? super T>> extends RecursiveTask<Integer> {
-        private final T[] a, aux;
+            work = left.work + right.work + mergeWork;
+            span = Math.max(left.span, right.span) + mergeSpan;
+        }
+    }
+
+    /** Primitive version of {@link #sort(Comparable[], SortContext)}. */
+    public static long sort(long[] a, SortContext ctx) {
+        LongMergeSortTask task = new LongMergeSortTask(ctx.aux(a), a, 0, a.length-1, ctx.cutoff(), ctx.p());
+        ctx.pool().invoke(task);
+        ctx.record(task.work, task.span);
+        return task.work;
+    }
+
+    /** Primitive version of {@link #sort(Comparable[], int, int, boolean)}. */
+    public static long sort(long[] a, int c, int p, boolean measureSpan) {
+        SortContext ctx = SortContext.common(c, p);
+        sort(a, ctx);
+        return (measureSpan) ? ctx.span() : ctx.work(); }
+
+    /** Primitive version of {@link #sort(Comparable[], int, int)}. */
+    public static long sort(long[] a, int c, int p) {
+        return sort(a, SortContext.common(c, p)); }
+
+    /** Primitive version of {@link #sort(Comparable[], int)}. */
+    public static long sort(long[] a, int c) {
+        return sort(a, SortContext.common(c, 0)); }
+
+    /** Primitive version of {@link MergeSortTask}. */
+    public static class LongMergeSortTask extends RecursiveAction {
+        private final long[] src, dst;
         private final int lo, hi, c, mid, p;
-        private final boolean measureSpan;
+        long work, span;
+
+        public LongMergeSortTask(long[] src, long[] dst, int lo, int hi, int c, int p) {
+            this.src = src; this.dst = dst; this.lo = lo; this.hi = hi; this.c = c; this.p = p;
+            mid = lo + (hi - lo) / 2;
+        }
+
+        @Override protected void compute() {
+            if (hi - lo < c) { work = span = TopDownMergeSort.sortInto(src, dst, lo, hi); return; }
+            int nextP = p / 2;
+            LongMergeSortTask left  = new LongMergeSortTask(dst, src, lo, mid, c, nextP);
+            LongMergeSortTask right = new LongMergeSortTask(dst, src, mid+1, hi, c, nextP);
+            left.fork();
+            right.invoke();
+            left.join();
+            int mergeWork, mergeSpan;
+            if (p > 1) {
+                MergeParallel.LongMergeAction merge = new MergeParallel.LongMergeAction(
+                    src, dst, lo, mid, mid+1, hi, lo, MergeParallel.grain(hi - lo + 1, p));
+                merge.invoke();
+                mergeWork = merge.compares; mergeSpan = merge.span;
+            } else mergeWork = mergeSpan = Merge.mergeInto(src, dst, lo, mid, hi);
 
+            work = left.work + right.work + mergeWork;
+            span = Math.max(left.span, right.span) + mergeSpan;
+        }
+    }
+
+    /** Primitive version of {@link #sort(Comparable[], SortContext)}. */
+    public static long sort(double[] a, SortContext ctx) {
+        DoubleMergeSortTask task = new DoubleMergeSortTask(ctx.aux(a), a, 0, a.length-1, ctx.cutoff(), ctx.p());
+        ctx.pool().invoke(task);
+        ctx.record(task.work, task.span);
+        return task.work;
+    }
 
-        public MergeSortTask(T[] a, T[] aux, int lo, int hi, int c, int p, boolean measureSpan) {
-            this.a = a; this.aux = aux; this.lo = lo; this.hi = hi; this.c = c; this.p = p; this.measureSpan = measureSpan;
+    /** Primitive version of {@link #sort(Comparable[], int, int, boolean)}. */
+    public static long sort(double[] a, int c, int p, boolean measureSpan) {
+        SortContext ctx = SortContext.common(c, p);
+        sort(a, ctx);
+        return (measureSpan) ? ctx.span() : ctx.work(); }
+
+    /** Primitive version of {@link #sort(Comparable[], int, int)}. */
+    public static long sort(double[] a, int c, int p) {
+        return sort(a, SortContext.common(c, p)); }
+
+    /** Primitive version of {@link #sort(Comparable[], int)}. */
+    public static long sort(double[] a, int c) {
+        return sort(a, SortContext.common(c, 0)); }
+
+    /** Primitive version of {@link MergeSortTask}. */
+    public static class DoubleMergeSortTask extends RecursiveAction {
+        private final double[] src, dst;
+        private final int lo, hi, c, mid, p;
+        long work, span;
+
+        public DoubleMergeSortTask(double[] src, double[] dst, int lo, int hi, int c, int p) {
+            this.src = src; this.dst = dst; this.lo = lo; this.hi = hi; this.c = c; this.p = p;
             mid = lo + (hi - lo) / 2;
         }
 
-        @Override protected Integer compute() {
-            if (hi - lo < c) return TopDownMergeSort.sort(a, aux, lo, hi);
+        @Override protected void compute() {
+            if (hi - lo < c) { work = span = TopDownMergeSort.sortInto(src, dst, lo, hi); return; }
             int nextP = p / 2;
-            ForkJoinTask<Integer> fork  = new MergeSortTask<T>(a, aux, lo, mid, c, nextP, measureSpan).fork();
-            int r                       = new MergeSortTask<T>(a, aux, mid+1, hi, c, nextP, measureSpan).invoke();
-            int l                       = fork.join();
-            int m = (p > 1) ? MergeParallel.merge(a, aux, lo, mid, hi, p, ex, measureSpan) : Merge.merge(a, aux, lo, mid, hi); 
-            
-            return ((measureSpan) ? Math.max(r, l) : r + l) + m;
+            DoubleMergeSortTask left  = new DoubleMergeSortTask(dst, src, lo, mid, c, nextP);
+            DoubleMergeSortTask right = new DoubleMergeSortTask(dst, src, mid+1, hi, c, nextP);
+            left.fork();
+            right.invoke();
+            left.join();
+            int mergeWork, mergeSpan;
+            if (p > 1) {
+                MergeParallel.DoubleMergeAction merge = new MergeParallel.DoubleMergeAction(
+                    src, dst, lo, mid, mid+1, hi, lo, MergeParallel.grain(hi - lo + 1, p));
+                merge.invoke();
+                mergeWork = merge.compares; mergeSpan = merge.span;
+            } else mergeWork = mergeSpan = Merge.mergeInto(src, dst, lo, mid, hi);
+
+            work = left.work + right.work + mergeWork;
+            span = Math.max(left.span, right.span) + mergeSpan;
         }
     }
 }
@@ -0,0 +1,85 @@
+package sorting;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/** Everything a parallel sort needs besides its input, passed along with each call:
+ * the pool to run in, the grain sizes, a reusable auxiliary buffer, and the work and span of the sorts run so far.
+ * Sorts given different contexts share no mutable state, except the pool when the same pool is passed to both.
+ * A context is not thread safe, so sorts running concurrently should each be given their own.
+ */
+public final class SortContext {
+    private final ForkJoinPool pool;
+    private final int cutoff, p;
+    private final AuxArena arena;
+    private long work, span;
+    private WorkSpan profile = WorkSpan.ZERO;
+    private Tracer tracer;
+
+    /** @param pool the pool the tasks of the sort are run in.
+     * @param cutoff subarrays of at most this size are sorted sequentially; must be at least 1.
+     * @param p the number of parallel tasks to spread the top merge across. It is halved for each level down the
+     *          recursion, and merges are sequential once it falls below 2; must be at least 0.
+     * @throws IllegalArgumentException if {@code cutoff} is less than 1 or {@code p} is negative. */
+    public SortContext(ForkJoinPool pool, int cutoff, int p) { this(pool, cutoff, p, new AuxArena()); }
+
+    // A context borrowing the buffers of the arena, e.g. the one of the calling thread
+    SortContext(ForkJoinPool pool, int cutoff, int p, AuxArena arena) {
+        if (cutoff < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        if (p < 0)      throw new IllegalArgumentException("p must be >= 0");
+        this.pool = pool; this.cutoff = cutoff; this.p = p; this.arena = arena;
+    }
+
+    /** A context running in the common pool, see {@link #SortContext(ForkJoinPool, int, int)}. */
+    public SortContext(int cutoff, int p) { this(ForkJoinPool.commonPool(), cutoff, p); }
+
+    // A context in the common pool for the overloads of the engines without one. It borrows the auxiliary buffer of the
+    // calling thread, unless that thread is a pool worker, which may interleave tasks of other sorts while it waits.
+    static SortContext common(int cutoff, int p) {
+        AuxArena arena = ForkJoinTask.inForkJoinPool() ? new AuxArena() : AuxArena.local();
+        return new SortContext(ForkJoinPool.commonPool(), cutoff, p, arena);
+    }
+
+    public ForkJoinPool pool() { return pool; }
+    public int cutoff()        { return cutoff; }
+    public int p()             { return p; }
+    public Tracer tracer()     { return tracer; }
+
+    /** Records the tasks of the sorts and merges of {@code Comparable} arrays run with this context into the tracer,
+     * or stops recording if it is null. Tracing is off by default.
+     * @return this context */
+    public SortContext trace(Tracer tracer) { this.tracer = tracer; return this; }
+
+    /** The number of compares performed by all sorts run with this context since creation or the last reset. */
+    public long work() { return work; }
+
+    /** The sum of the spans of all sorts run with this context since creation or the last reset,
+     * i.e. the compares along the longest chain of dependent tasks. */
+    public long span() { return span; }
+
+    /** The work and span of all sorts run with this context since creation or the last reset, in compares, moves and
+     * time. Moves and time are only recorded by the sorts and merges of {@code Comparable} arrays;
+     * those of primitive arrays only record compares. */
+    public WorkSpan profile() { return profile; }
+
+    public void reset() { work = 0; span = 0; profile = WorkSpan.ZERO; }
+
+    void record(long work, long span) {
+        this.work += work; this.span += span;
+        profile    = profile.plus(new WorkSpan(work, span, 0, 0, 0, 0));
+    }
+
+    void record(WorkSpan ws) {
+        work   += ws.compares(); span += ws.compareSpan();
+        profile = profile.plus(ws);
+    }
+
+    /** Returns a buffer of at least {@code a.length} elements, with a copy of {@code a} in its first {@code a.length}.
+     * The buffer comes from the {@link AuxArena} of the context, so it is reused between calls with arrays of the same
+     * type, and only reallocated O(log n) times. It keeps references to the elements of the last sort until overwritten. */
+    <T extends Comparable<? super T>> T[] aux(T[] a) { return arena.copyOf(a); }
+
+    int[] aux(int[] a)       { return arena.copyOf(a); }
+    long[] aux(long[] a)     { return arena.copyOf(a); }
+    double[] aux(double[] a) { return arena.copyOf(a); }
+}
@@ -0,0 +1,134 @@
+package sorting;
+
+import java.util.Arrays;
+
+/** An optional sink for where the run-stack sorts spend their effort, given to
+ * {@link LevelSortAdaptive#sort(Comparable[], Comparable[], int, Merge.Mode, SortStats)} or
+ * {@link BinomialSortAdaptive#sort(Comparable[], Comparable[], int, Merge.Mode, SortStats)}.
+ *
+ * Time, compares and element moves are accumulated for each phase:
+ * - EXPLORE: finding the natural runs with {@link Util#exploreRun}, and reversing descending ones.
+ * - PAD: extending runs shorter than the cutoff with {@link InsertionSort}.
+ * - MERGE: merging runs on the stack, also per level. The level of a merge is the level of the boundary between the
+ *   runs for LevelSortAdaptive, and the bit length of the merged length for BinomialSortAdaptive.
+ * The lengths of the natural runs and the sizes of the merges are counted in power-of-two buckets:
+ * bucket k holds the values from 2^k to 2^(k+1) - 1.
+ *
+ * Compares are counted as the sorts count them, so the three phases add up to the returned compares.
+ * Moves are the elements written: those of reversed runs, two per exchange of the insertion sort, estimated as
+ * {@link #pad} describes, and for merges the merged elements, twice unless merging ping-pong, as the runs are first
+ * copied to the auxiliary array, and merging HALF only the shorter run is.
+ * Without stats, the sorts pass null, and only pay for a null check per run and merge.
+ * Stats are not thread safe, and can be reused across sorts to accumulate their totals.
+ */
+public final class SortStats {
+    /** The phases of a run-stack sort. */
+    public enum Phase { EXPLORE, PAD, MERGE }
+
+    private static final int BUCKETS = 32;
+
+    private final long[] nanos = new long[3], compares = new long[3], moves = new long[3];
+    private final long[] levelNanos   = new long[AuxArena.STACK], levelCompares = new long[AuxArena.STACK];
+    private final long[] levelMerges  = new long[AuxArena.STACK];
+    private final long[] runLengths   = new long[BUCKETS], mergeSizes = new long[BUCKETS];
+    private long sorts, runs, runTotal, merges, mergeTotal;
+
+    public SortStats() { }
+
+    public long sorts()                  { return sorts; }
+    public long nanos(Phase p)           { return nanos[p.ordinal()]; }
+    public long compares(Phase p)        { return compares[p.ordinal()]; }
+    public long moves(Phase p)           { return moves[p.ordinal()]; }
+    public long levelNanos(int level)    { return levelNanos[level]; }
+    public long levelCompares(int level) { return levelCompares[level]; }
+    public long levelMerges(int level)   { return levelMerges[level]; }
+
+    /** The number of natural runs found, before padding. */
+    public long runs()                   { return runs; }
+    public double meanRunLength()        { return (runs == 0) ? 0 : runTotal / (double) runs; }
+    public long merges()                 { return merges; }
+    public double meanMergeSize()        { return (merges == 0) ? 0 : mergeTotal / (double) merges; }
+
+    /** The number of natural runs of each power-of-two length class, see {@link SortStats}. */
+    public long[] runLengths()           { return runLengths.clone(); }
+
+    /** The number of merges of each power-of-two size class, see {@link SortStats}. */
+    public long[] mergeSizes()           { return mergeSizes.clone(); }
+
+    public void reset() {
+        for (long[] x : new long[][]{nanos, compares, moves, levelNanos, levelCompares, levelMerges, runLengths, mergeSizes})
+            Arrays.fill(x, 0);
+        sorts = runs = runTotal = merges = mergeTotal = 0;
+    }
+
+    /** A table of the phases, and of the merges per level. */
+    public String summary() {
+        StringBuilder sb = new StringBuilder(String.format("%-10s%14s%16s%16s%n", "phase", "time (ms)", "compares", "moves"));
+        for (Phase p : Phase.values())
+            sb.append(String.format("%-10s%,14.2f%,16d%,16d%n", p, nanos(p) / 1e6, compares(p), moves(p)));
+        sb.append(String.format("%-10s%14s%16s%16s%n", "level", "time (ms)", "compares", "merges"));
+        for (int l = 0; l < AuxArena.STACK; l++) if (levelMerges[l] > 0)
+            sb.append(String.format("%-10d%,14.2f%,16d%,16d%n", l, levelNanos[l] / 1e6, levelCompares[l], levelMerges[l]));
+        return sb.toString();
+    }
+
+    // ============================== Recording, called by the sorts ==============================
+
+    /** Explores the run starting at {@code first} within a[0 .. n-1], see {@link Util#exploreRun}, recording it if
+     * stats are given. */
+    static <T extends Comparable<? super T>> int explore(T[] a, int first, int n, SortStats stats) {
+        if (stats == null) return Util.exploreRun(a, first, n);
+        long start      = System.nanoTime();
+        T head          = a[first];
+        int last        = Util.exploreRun(a, first, n);
+        boolean reverse = a[first] != head; // A reversed run is strictly descending, so it starts with another element
+        int length      = last - first + 1;
+        stats.add(Phase.EXPLORE, System.nanoTime() - start, length, reverse ? length : 0);
+        stats.runs++;
+        stats.runTotal += length;
+        stats.runLengths[bucket(length)]++;
+        return last;
+    }
+
+    /** Sorts a[lo .. hi] with {@link InsertionSort}, recording it if stats are given.
+     * The moves are estimated from the compares, as two per compare beyond one per inserted element: every compare
+     * but the last of an insertion exchanges. An element inserted at lo ends without a failed compare, so the
+     * estimate may be short by two moves for each of those. */
+    static <T extends Comparable<? super T>> long pad(T[] a, int lo, int hi, SortStats stats) {
+        if (stats == null) return InsertionSort.sort(a, lo, hi);
+        long start    = System.nanoTime();
+        long compares = InsertionSort.sort(a, lo, hi);
+        stats.add(Phase.PAD, System.nanoTime() - start, compares, 2L * Math.max(0, compares - (hi - lo)));
+        return compares;
+    }
+
+    /** The time to pass to {@link #merged}, or 0 without stats. */
+    static long start(SortStats stats) { return (stats == null) ? 0 : System.nanoTime(); }
+
+    /** Records a merge of the given size at the given level, begun at {@code start}.
+     * The shorter of the two runs is what a {@code HALF} merge copies. */
+    void merged(long start, int compares, int size, int shorter, int level, Merge.Mode mode) {
+        long time  = System.nanoTime() - start;
+        long moves = (mode == Merge.Mode.PINGPONG) ? size
+                   : (mode == Merge.Mode.HALF)     ? (long) size + shorter
+                   :                                 2L * size;
+        add(Phase.MERGE, time, compares, moves);
+        levelNanos[level]    += time;
+        levelCompares[level] += compares;
+        levelMerges[level]++;
+        merges++;
+        mergeTotal += size;
+        mergeSizes[bucket(size)]++;
+    }
+
+    /** Records the end of a sort of at least two elements, whose last exploration counted one compare too many. */
+    void sorted() { sorts++; compares[Phase.EXPLORE.ordinal()]--; }
+
+    private void add(Phase p, long time, long compares, long moves) {
+        this.nanos[p.ordinal()]    += time;
+        this.compares[p.ordinal()] += compares;
+        this.moves[p.ordinal()]    += moves;
+    }
+
+    private static int bucket(int x) { return 31 - Integer.numberOfLeadingZeros(Math.max(1, x)); }
+}
@@ -3,23 +3,150 @@ package sorting;
 public class TopDownMergeSort {
     private TopDownMergeSort() { }
 
-    public static <T extends Comparable<? super T>> int sort(T[] a, T[] aux, int lo, int hi) {
+    public static <T extends Comparable<? super T>> long sort(T[] a, T[] aux, int lo, int hi) {
+        return sort(a, aux, lo, hi, Merge.Mode.COPY);
+    }
+
+    /** Sorts the subarray [lo .. hi] in place, merging as specified by the mode.
+     * @param mode {@code COPY}, {@code GALLOP} or {@code HALF}; for {@code PINGPONG} use {@link #sortInto}
+     * @return the number of compares performed for the sort */
+    public static <T extends Comparable<? super T>> long sort(T[] a, T[] aux, int lo, int hi, Merge.Mode mode) {
         if (hi <= lo) return 0;
-        int mid           = lo + (hi - lo) / 2;
-        int comparesLeft  = sort(a, aux, lo, mid);
-        int comparesRight = sort(a, aux, mid + 1, hi);
-        int comparesMerge = Merge.merge(a, aux, lo, mid, hi);
+        int mid            = lo + (hi - lo) / 2;
+        long comparesLeft  = sort(a, aux, lo, mid, mode);
+        long comparesRight = sort(a, aux, mid + 1, hi, mode);
+        int comparesMerge  = Merge.merge(a, aux, lo, mid, hi, mode);
         return comparesLeft + comparesRight + comparesMerge;
     }
     
     /** Rearranges the array in ascending order, using the natural order.
      * @param a the array to be sorted
      * @return the number of compares performed for the sort */
-    public static <T extends Comparable<? super T>> int sort(T[] a) {
-        T[] aux = a.clone();
-        int compares = sort(a, aux, 0, a.length-1);
+    public static <T extends Comparable<? super T>> long sort(T[] a) { return sort(a, Merge.Mode.COPY); }
+
+    /** Rearranges the array in ascending order, using the natural order.
+     * @param a the array to be sorted
+     * @param mode how elements are moved between {@code a} and the auxiliary array when merging
+     * @return the number of compares performed for the sort */
+    public static <T extends Comparable<? super T>> long sort(T[] a, Merge.Mode mode) {
+        return sort(a, AuxArena.local().scratch(a, Merge.auxLength(a.length, mode)), mode);
+    }
+
+    /** Rearranges the array in ascending order as {@link #sort(Comparable[], Merge.Mode)}, without allocating.
+     * @param aux auxiliary array of at least {@link Merge#auxLength} elements, provided by the caller instead of allocating one.
+     *            Its contents do not matter, and are overwritten.
+     * @throws IllegalArgumentException if {@code aux} is shorter than {@link Merge#auxLength} */
+    public static <T extends Comparable<? super T>> long sort(T[] a, T[] aux, Merge.Mode mode) {
+        if (aux.length < Merge.auxLength(a.length, mode)) throw new IllegalArgumentException("Auxiliary array must be at least as long as the array, or half as long merging HALF.");
+        if (mode == Merge.Mode.PINGPONG) System.arraycopy(a, 0, aux, 0, a.length);
+        long compares = (mode == Merge.Mode.PINGPONG) ? sortInto(aux, a, 0, a.length-1)
+                                                     : sort(a, aux, 0, a.length-1, mode);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    /** Ping-pong variant: sorts the subarray [lo .. hi] into {@code dst}, using {@code src} as the
+     * auxiliary array. The recursive calls sort each half into {@code src}, which is then merged into {@code dst},
+     * so no merge needs to copy its input first.
+     * Precondition: src[lo .. hi] and dst[lo .. hi] hold the same elements.
+     * @return the number of compares performed for the sort */
+    public static <T extends Comparable<? super T>> long sortInto(T[] src, T[] dst, int lo, int hi) {
+        if (hi <= lo) return 0;
+        int mid            = lo + (hi - lo) / 2;
+        long comparesLeft  = sortInto(dst, src, lo, mid);
+        long comparesRight = sortInto(dst, src, mid + 1, hi);
+        int comparesMerge  = Merge.mergeInto(src, dst, lo, mid, hi);
+        return comparesLeft + comparesRight + comparesMerge;
+    }
+
+    // ============================== Primitive specializations ==============================
+    // int[], long[] and double[] overloads mirroring the generic versions above, compare for compare.
+    // double[] uses the total order of Double.compare, matching the boxed Double.compareTo.
+
+    public static long sort(int[] a, int[] aux, int lo, int hi) {
+        if (hi <= lo) return 0;
+        int mid            = lo + (hi - lo) / 2;
+        long comparesLeft  = sort(a, aux, lo, mid);
+        long comparesRight = sort(a, aux, mid + 1, hi);
+        int comparesMerge  = Merge.merge(a, aux, lo, mid, hi);
+        return comparesLeft + comparesRight + comparesMerge;
+    }
+
+    /** Rearranges the array in ascending order. Primitive version of {@link #sort(Comparable[])}.
+     * @return the number of compares performed for the sort */
+    public static long sort(int[] a) {
+        int[] aux = AuxArena.local().scratch(a);
+        long compares = sort(a, aux, 0, a.length-1);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    /** Primitive version of {@link #sortInto(Comparable[], Comparable[], int, int)}.
+     * @return the number of compares performed for the sort */
+    public static long sortInto(int[] src, int[] dst, int lo, int hi) {
+        if (hi <= lo) return 0;
+        int mid            = lo + (hi - lo) / 2;
+        long comparesLeft  = sortInto(dst, src, lo, mid);
+        long comparesRight = sortInto(dst, src, mid + 1, hi);
+        int comparesMerge  = Merge.mergeInto(src, dst, lo, mid, hi);
+        return comparesLeft + comparesRight + comparesMerge;
+    }
+
+    public static long sort(long[] a, long[] aux, int lo, int hi) {
+        if (hi <= lo) return 0;
+        int mid            = lo + (hi - lo) / 2;
+        long comparesLeft  = sort(a, aux, lo, mid);
+        long comparesRight = sort(a, aux, mid + 1, hi);
+        int comparesMerge  = Merge.merge(a, aux, lo, mid, hi);
+        return comparesLeft + comparesRight + comparesMerge;
+    }
+
+    /** Rearranges the array in ascending order. Primitive version of {@link #sort(Comparable[])}.
+     * @return the number of compares performed for the sort */
+    public static long sort(long[] a) {
+        long[] aux = AuxArena.local().scratch(a);
+        long compares = sort(a, aux, 0, a.length-1);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    /** Primitive version of {@link #sortInto(Comparable[], Comparable[], int, int)}.
+     * @return the number of compares performed for the sort */
+    public static long sortInto(long[] src, long[] dst, int lo, int hi) {
+        if (hi <= lo) return 0;
+        int mid            = lo + (hi - lo) / 2;
+        long comparesLeft  = sortInto(dst, src, lo, mid);
+        long comparesRight = sortInto(dst, src, mid + 1, hi);
+        int comparesMerge  = Merge.mergeInto(src, dst, lo, mid, hi);
+        return comparesLeft + comparesRight + comparesMerge;
+    }
+
+    public static long sort(double[] a, double[] aux, int lo, int hi) {
+        if (hi <= lo) return 0;
+        int mid            = lo + (hi - lo) / 2;
+        long comparesLeft  = sort(a, aux, lo, mid);
+        long comparesRight = sort(a, aux, mid + 1, hi);
+        int comparesMerge  = Merge.merge(a, aux, lo, mid, hi);
+        return comparesLeft + comparesRight + comparesMerge;
+    }
+
+    /** Rearranges the array in ascending order. Primitive version of {@link #sort(Comparable[])}.
+     * @return the number of compares performed for the sort */
+    public static long sort(double[] a) {
+        double[] aux  = AuxArena.local().scratch(a);
+        long compares = sort(a, aux, 0, a.length-1);
         assert Util.isSorted(a);
         return compares;
     }
 
+    /** Primitive version of {@link #sortInto(Comparable[], Comparable[], int, int)}.
+     * @return the number of compares performed for the sort */
+    public static long sortInto(double[] src, double[] dst, int lo, int hi) {
+        if (hi <= lo) return 0;
+        int mid            = lo + (hi - lo) / 2;
+        long comparesLeft  = sortInto(dst, src, lo, mid);
+        long comparesRight = sortInto(dst, src, mid + 1, hi);
+        int comparesMerge  = Merge.mergeInto(src, dst, lo, mid, hi);
+        return comparesLeft + comparesRight + comparesMerge;
+    }
 }
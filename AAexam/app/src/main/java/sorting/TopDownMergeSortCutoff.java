@@ -3,13 +3,24 @@ package sorting;
 public class TopDownMergeSortCutoff {
     private TopDownMergeSortCutoff() {}
 
-    private static <T extends Comparable<? super T>> int sort(T[] a, T[] aux, int lo, int hi, int c) {
+    private static <T extends Comparable<? super T>> long sort(T[] a, T[] aux, int lo, int hi, int c, Merge.Mode mode) {
         if(hi <= lo + c - 1) return InsertionSort.sort(a, lo, hi);
 
-        int mid           = lo + (hi - lo) / 2;
-        int comparesLeft  = sort(a, aux, lo, mid, c);
-        int comparesRight = sort(a, aux, mid + 1, hi, c);
-        int comparesMerge = Merge.merge(a, aux, lo, mid, hi);
+        int mid            = lo + (hi - lo) / 2;
+        long comparesLeft  = sort(a, aux, lo, mid, c, mode);
+        long comparesRight = sort(a, aux, mid + 1, hi, c, mode);
+        int comparesMerge  = Merge.merge(a, aux, lo, mid, hi, mode);
+        return comparesLeft + comparesRight + comparesMerge;
+    }
+
+    // Ping-pong variant: sorts [lo .. hi] into dst using src as auxiliary array, see TopDownMergeSort.sortInto
+    private static <T extends Comparable<? super T>> long sortInto(T[] src, T[] dst, int lo, int hi, int c) {
+        if(hi <= lo + c - 1) return InsertionSort.sort(dst, lo, hi);
+
+        int mid            = lo + (hi - lo) / 2;
+        long comparesLeft  = sortInto(dst, src, lo, mid, c);
+        long comparesRight = sortInto(dst, src, mid + 1, hi, c);
+        int comparesMerge  = Merge.mergeInto(src, dst, lo, mid, hi);
         return comparesLeft + comparesRight + comparesMerge;
     }
     
@@ -19,10 +30,29 @@ public class TopDownMergeSortCutoff {
      * @param c the cutoff value for switching to insertion sort; must be at least 1
      * @return the number of compares performed during the sort
      * @throws IllegalArgumentException if {@code c} is less than 1 */
-    public static <T extends Comparable<? super T>> int sort(T[] a, int c) {
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c) { return sort(a, c, Merge.Mode.COPY); }
+
+    /** Rearranges the array in ascending order, using the natural order.
+     * For subarrays of size {@code c}, switches to insertionsort. 
+     * @param a the array to be sorted
+     * @param c the cutoff value for switching to insertion sort; must be at least 1
+     * @param mode how elements are moved between {@code a} and the auxiliary array when merging
+     * @return the number of compares performed during the sort
+     * @throws IllegalArgumentException if {@code c} is less than 1 */
+    public static <T extends Comparable<? super T>> long sort(T[] a, int c, Merge.Mode mode) {
+        return sort(a, AuxArena.local().scratch(a, Merge.auxLength(a.length, mode)), c, mode);
+    }
+
+    /** Rearranges the array in ascending order as {@link #sort(Comparable[], int, Merge.Mode)}, without allocating.
+     * @param aux auxiliary array of at least {@link Merge#auxLength} elements, provided by the caller instead of allocating one.
+     *            Its contents do not matter, and are overwritten.
+     * @throws IllegalArgumentException if {@code c} is less than 1, or {@code aux} is shorter than {@link Merge#auxLength} */
+    public static <T extends Comparable<? super T>> long sort(T[] a, T[] aux, int c, Merge.Mode mode) {
         if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
-        T[] aux      = a.clone();
-        int compares = sort(a, aux, 0, a.length-1, c);
+        if (aux.length < Merge.auxLength(a.length, mode)) throw new IllegalArgumentException("Auxiliary array must be at least as long as the array, or half as long merging HALF.");
+        if (mode == Merge.Mode.PINGPONG) System.arraycopy(a, 0, aux, 0, a.length);
+        long compares = (mode == Merge.Mode.PINGPONG) ? sortInto(aux, a, 0, a.length-1, c)
+                                                     : sort(a, aux, 0, a.length-1, c, mode);
         assert Util.isSorted(a);
         return compares;
     }
@@ -32,6 +62,81 @@ public class TopDownMergeSortCutoff {
      * (only switches to insertionSort for trivial subarrays of size 1 or less)
      * @param a the array to be sorted
      * @return the number of compares performed for the sort */
-    public static <T extends Comparable<? super T>> int sort(T[] a) { return sort(a, 1); }
+    public static <T extends Comparable<? super T>> long sort(T[] a) { return sort(a, 1); }
+
+    // ============================== Primitive specializations ==============================
+    // int[], long[] and double[] overloads mirroring the generic versions above, compare for compare.
+    // double[] uses the total order of Double.compare, matching the boxed Double.compareTo.
+
+    private static long sort(int[] a, int[] aux, int lo, int hi, int c) {
+        if(hi <= lo + c - 1) return InsertionSort.sort(a, lo, hi);
+
+        int mid            = lo + (hi - lo) / 2;
+        long comparesLeft  = sort(a, aux, lo, mid, c);
+        long comparesRight = sort(a, aux, mid + 1, hi, c);
+        int comparesMerge  = Merge.merge(a, aux, lo, mid, hi);
+        return comparesLeft + comparesRight + comparesMerge;
+    }
+
+    /** Rearranges the array in ascending order, switching to insertionsort for subarrays of size {@code c}.
+     * Primitive version of {@link #sort(Comparable[], int)}.
+     * @throws IllegalArgumentException if {@code c} is less than 1 */
+    public static long sort(int[] a, int c) {
+        if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        int[] aux     = AuxArena.local().scratch(a);
+        long compares = sort(a, aux, 0, a.length-1, c);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    /** Primitive version of {@link #sort(Comparable[])}. */
+    public static long sort(int[] a) { return sort(a, 1); }
+
+    private static long sort(long[] a, long[] aux, int lo, int hi, int c) {
+        if(hi <= lo + c - 1) return InsertionSort.sort(a, lo, hi);
+
+        int mid            = lo + (hi - lo) / 2;
+        long comparesLeft  = sort(a, aux, lo, mid, c);
+        long comparesRight = sort(a, aux, mid + 1, hi, c);
+        int comparesMerge  = Merge.merge(a, aux, lo, mid, hi);
+        return comparesLeft + comparesRight + comparesMerge;
+    }
+
+    /** Rearranges the array in ascending order, switching to insertionsort for subarrays of size {@code c}.
+     * Primitive version of {@link #sort(Comparable[], int)}.
+     * @throws IllegalArgumentException if {@code c} is less than 1 */
+    public static long sort(long[] a, int c) {
+        if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        long[] aux     = AuxArena.local().scratch(a);
+        long compares = sort(a, aux, 0, a.length-1, c);
+        assert Util.isSorted(a);
+        return compares;
+    }
+
+    /** Primitive version of {@link #sort(Comparable[])}. */
+    public static long sort(long[] a) { return sort(a, 1); }
+
+    private static long sort(double[] a, double[] aux, int lo, int hi, int c) {
+        if(hi <= lo + c - 1) return InsertionSort.sort(a, lo, hi);
+
+        int mid            = lo + (hi - lo) / 2;
+        long comparesLeft  = sort(a, aux, lo, mid, c);
+        long comparesRight = sort(a, aux, mid + 1, hi, c);
+        int comparesMerge  = Merge.merge(a, aux, lo, mid, hi);
+        return comparesLeft + comparesRight + comparesMerge;
+    }
+
+    /** Rearranges the array in ascending order, switching to insertionsort for subarrays of size {@code c}.
+     * Primitive version of {@link #sort(Comparable[], int)}.
+     * @throws IllegalArgumentException if {@code c} is less than 1 */
+    public static long sort(double[] a, int c) {
+        if (c < 1) throw new IllegalArgumentException("Cutoff value must be at least 1.");
+        double[] aux     = AuxArena.local().scratch(a);
+        long compares = sort(a, aux, 0, a.length-1, c);
+        assert Util.isSorted(a);
+        return compares;
+    }
 
+    /** Primitive version of {@link #sort(Comparable[])}. */
+    public static long sort(double[] a) { return sort(a, 1); }
 }
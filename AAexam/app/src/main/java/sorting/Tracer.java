@@ -0,0 +1,155 @@
+package sorting;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/** An opt-in timeline of the tasks of the parallel sorts, given to a sort through {@link SortContext#trace}.
+ *
+ * Every {@link RecursiveMergeSortParallel.MergeSortTask} records when it began and ended, on which worker, at which
+ * depth of the recursion, for how many elements, and whether it was stolen from the worker that forked it.
+ * Inside the tasks, the sequential sorts, sequential merges and chunks of parallel merges are recorded the same way.
+ * The tasks only structure the timeline: workers are busy while they run sorts, merges or chunks.
+ *
+ * Each thread records into a ring buffer of its own, allocated once when it first records, so there are no locks
+ * on the hot path. When a ring is full, the oldest events are overwritten and counted as dropped.
+ * The events can be written as Chrome trace event JSON, for chrome://tracing or ui.perfetto.dev, and summarized as
+ * the utilization of each worker. Read them only after the traced sorts have completed.
+ */
+public final class Tracer {
+    /** The kinds of events: the tasks, and the three kinds of work they do. */
+    public enum Kind { TASK, SORT, MERGE, CHUNK }
+
+    /** The share of the traced time a thread spent working, and the number of tasks it ran and stole. */
+    public record Utilization(String thread, long busy, double share, int tasks, int steals) { }
+
+    private final int capacity;
+    private final long origin = System.nanoTime();
+    private final ConcurrentLinkedQueue<Ring> rings = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Ring> local;
+
+    /** A tracer keeping the 65,536 most recent events of each thread. */
+    public Tracer() { this(1 << 16); }
+
+    /** @param capacity the number of events kept for each thread; must be at least 1. */
+    public Tracer(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be at least 1.");
+        this.capacity = capacity;
+        this.local    = ThreadLocal.withInitial(() -> {
+            Ring r = new Ring(Thread.currentThread(), capacity);
+            rings.add(r);
+            return r;
+        });
+    }
+
+    /** Records an event of the current thread, with times from {@link System#nanoTime}. */
+    void record(Kind kind, long begin, long end, int depth, int size, boolean stolen) {
+        local.get().add(kind, begin, end, depth, size, stolen);
+    }
+
+    /** The number of events overwritten because a ring was full. */
+    public long dropped() { return rings.stream().mapToLong(r -> Math.max(0, r.count - capacity)).sum(); }
+
+    /** The number of events kept. */
+    public int events() { return rings.stream().mapToInt(Ring::size).sum(); }
+
+    /** Forgets all events. Not safe while sorts are being traced. */
+    public void clear() { for (Ring r : rings) r.count = 0; }
+
+    /** The utilization of each thread that recorded events, over the time from the first event to the last one. */
+    public List<Utilization> utilization() {
+        long first = Long.MAX_VALUE, last = Long.MIN_VALUE;
+        for (Ring r : rings) for (int i = 0; i < r.size(); i++) {
+            first = Math.min(first, r.begin[i]);
+            last  = Math.max(last, r.end[i]);
+        }
+        List<Utilization> us = new ArrayList<>();
+        for (Ring r : rings) {
+            int tasks = 0, steals = 0, work = 0;
+            long[][] intervals = new long[r.size()][];
+            for (int i = 0; i < r.size(); i++) {
+                if (r.kind[i] == Kind.TASK.ordinal()) { tasks++; if (r.stolen[i]) steals++; }
+                else intervals[work++] = new long[]{r.begin[i], r.end[i]};
+            }
+            long busy = union(Arrays.copyOf(intervals, work));
+            us.add(new Utilization(r.name, busy, (last > first) ? busy / (double) (last - first) : 0, tasks, steals));
+        }
+        us.sort(Comparator.comparing(Utilization::thread));
+        return us;
+    }
+
+    /** A table of the utilization of each thread. */
+    public String summary() {
+        StringBuilder sb = new StringBuilder(String.format("%-32s%14s%8s%8s%8s%n", "thread", "busy (ms)", "share", "tasks", "steals"));
+        for (Utilization u : utilization())
+            sb.append(String.format("%-32s%,14.2f%7.1f%%%8d%8d%n", u.thread(), u.busy() / 1e6, 100 * u.share(), u.tasks(), u.steals()));
+        return sb.toString();
+    }
+
+    /** Writes the events in the Chrome trace event format, as complete events in microseconds, one track per thread.
+     * @throws UncheckedIOException if the file cannot be written. */
+    public void writeJson(Path file) {
+        try (BufferedWriter w = Files.newBufferedWriter(file)) {
+            w.write("{\"displayTimeUnit\":\"ns\",\"traceEvents\":[");
+            boolean first = true;
+            for (Ring r : rings) {
+                w.write(String.format(Locale.ROOT, "%s%n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":%d,\"args\":{\"name\":\"%s\"}}",
+                                      first ? "" : ",", r.id, r.name.replace("\"", "'")));
+                first = false;
+                for (int i = 0; i < r.size(); i++) {
+                    w.write(String.format(Locale.ROOT, ",%n{\"name\":\"%s\",\"cat\":\"sort\",\"ph\":\"X\",\"ts\":%.3f,\"dur\":%.3f,"
+                                          + "\"pid\":1,\"tid\":%d,\"args\":{\"depth\":%d,\"size\":%d,\"stolen\":%b}}",
+                                          Kind.values()[r.kind[i]].name().toLowerCase(), (r.begin[i] - origin) / 1e3,
+                                          (r.end[i] - r.begin[i]) / 1e3, r.id, r.depth[i], r.size[i], r.stolen[i]));
+                }
+            }
+            w.write(String.format("%n]}%n"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // The total length of the union of the intervals
+    private static long union(long[][] intervals) {
+        Arrays.sort(intervals, Comparator.comparingLong(x -> x[0]));
+        long total = 0, from = Long.MIN_VALUE, to = Long.MIN_VALUE;
+        for (long[] x : intervals) {
+            if (x[0] > to) { total += to - from; from = x[0]; to = x[1]; }
+            else to = Math.max(to, x[1]);
+        }
+        return total + (to - from);
+    }
+
+    // The events of one thread, in parallel arrays written only by that thread
+    private static final class Ring {
+        final String name;
+        final long id;
+        final long[] begin, end;
+        final int[] depth, size;
+        final byte[] kind;
+        final boolean[] stolen;
+        long count;
+
+        Ring(Thread t, int capacity) {
+            name  = t.getName(); id = t.threadId();
+            begin = new long[capacity]; end = new long[capacity];
+            depth = new int[capacity]; size = new int[capacity];
+            kind  = new byte[capacity]; stolen = new boolean[capacity];
+        }
+
+        void add(Kind k, long b, long e, int d, int n, boolean s) {
+            int i = (int) (count++ % begin.length);
+            begin[i] = b; end[i] = e; depth[i] = d; size[i] = n; kind[i] = (byte) k.ordinal(); stolen[i] = s;
+        }
+
+        int size() { return (int) Math.min(count, begin.length); }
+    }
+}
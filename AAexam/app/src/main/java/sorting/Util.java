@@ -22,6 +22,13 @@ public class Util {
             if (a[i].compareTo(a[i-1]) < 0 ) return false;
         return true;
     }
+
+    /** Checks that the big array a is sorted. */
+    public static <T extends Comparable<? super T>> boolean isSorted(BigArray<T> a) {
+        for (long i = 1; i < a.length(); i++)
+            if (a.get(i).compareTo(a.get(i-1)) < 0) return false;
+        return true;
+    }
     
     /** Explore a run, by locating the longest weakly increasing
      * or strictly decreasing sequence, starting from index {@code first} in array {@code a},
@@ -36,33 +43,37 @@ public class Util {
      * @param a the array to explore the run in
      * @param first the initial index of the run
      * @return the last index of the run */
-    public static <T extends Comparable<? super T>> int exploreRun(T[] a, int first) {
-        int n = a.length;
-        assert (first >= 0 && first < n);
-        if (n == first + 1) return first; //if first is the last index of a, run starts and ends at first
+    public static <T extends Comparable<? super T>> int exploreRun(T[] a, int first) { return exploreRun(a, first, a.length); }
+
+    /** Explore a run within the first {@code n} elements of {@code a}, as if the array ended there,
+     * see {@link #exploreRun(Comparable[], int)}.
+     * @param n the number of elements of {@code a} the run may extend over; at most {@code a.length} */
+    public static <T extends Comparable<? super T>> int exploreRun(T[] a, int first, int n) {
+        assert (first >= 0 && first < n && n <= a.length);
+        if (n == first + 1) return first; //if first is the last index, run starts and ends at first
         int last = first + 1;            //else define last index of run (starting at first + 1)
 
         //If weakly increasing: find the end of weakly increasing sequence
-        if(a[first].compareTo(a[last]) <= 0) last = findIncreasing(a, last);
+        if(a[first].compareTo(a[last]) <= 0) last = findIncreasing(a, last, n);
         else {                           //If strictly decreasing: find the end of strictly increasing run and reverse
-            last = findDecreasing(a, last);
+            last = findDecreasing(a, last, n);
             reverseSequence(a, first, last);
         }
         return last;
     }
 
-    private static <T extends Comparable<? super T>> int findIncreasing(T[] a, int from) {
+    private static <T extends Comparable<? super T>> int findIncreasing(T[] a, int from, int n) {
         int to = from;
-        while(to < a.length - 1) {
+        while(to < n - 1) {
             if (a[to].compareTo(a[to + 1]) > 0) break;
             to++;
         }
         return to;
     }
 
-    private static <T extends Comparable<? super T>> int findDecreasing(T[] a, int from) {
+    private static <T extends Comparable<? super T>> int findDecreasing(T[] a, int from, int n) {
         int to = from;
-        while(to < a.length-1) {
+        while(to < n - 1) {
             if (a[to].compareTo(a[to + 1]) <= 0) break;
             to++;
         }
@@ -79,6 +90,178 @@ public class Util {
         }
     }
 
+    // ============================== Primitive specializations ==============================
+    // int[], long[] and double[] overloads mirroring the generic versions above, compare for compare.
+    // double[] uses the total order of Double.compare, matching the boxed Double.compareTo.
+
+    /** Checks that array a is sorted. Primitive version of {@link #isSorted(Comparable[])}. */
+    public static boolean isSorted(int[] a) { return isSorted(a, 0, a.length - 1); }
+
+    /** Checks whether the subarray a[lo..hi] is sorted.
+     * Primitive version of {@link #isSorted(Comparable[], int, int)}. */
+    public static boolean isSorted(int[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (a[i] < a[i-1]) return false;
+        return true;
+    }
+
+    /** Explore a run starting from index {@code first}, reversing it if strictly decreasing.
+     * Primitive version of {@link #exploreRun(Comparable[], int)}, with the same compare accounting.
+     * @return the last index of the run */
+    public static int exploreRun(int[] a, int first) {
+        int n = a.length;
+        assert (first >= 0 && first < n);
+        if (n == first + 1) return first;
+        int last = first + 1;
+
+        if(a[first] <= a[last]) last = findIncreasing(a, last);
+        else {
+            last = findDecreasing(a, last);
+            reverseSequence(a, first, last);
+        }
+        return last;
+    }
+
+    private static int findIncreasing(int[] a, int from) {
+        int to = from;
+        while(to < a.length - 1) {
+            if (a[to] > a[to + 1]) break;
+            to++;
+        }
+        return to;
+    }
+
+    private static int findDecreasing(int[] a, int from) {
+        int to = from;
+        while(to < a.length-1) {
+            if (a[to] <= a[to + 1]) break;
+            to++;
+        }
+        return to;
+    }
+
+    private static void reverseSequence(int[] a, int from, int to) {
+        while (from < to) {
+            int temp = a[from];
+            a[from] = a[to];
+            a[to] = temp;
+            from++;
+            to--;
+        }
+    }
+
+    /** Checks that array a is sorted. Primitive version of {@link #isSorted(Comparable[])}. */
+    public static boolean isSorted(long[] a) { return isSorted(a, 0, a.length - 1); }
+
+    /** Checks whether the subarray a[lo..hi] is sorted.
+     * Primitive version of {@link #isSorted(Comparable[], int, int)}. */
+    public static boolean isSorted(long[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (a[i] < a[i-1]) return false;
+        return true;
+    }
+
+    /** Explore a run starting from index {@code first}, reversing it if strictly decreasing.
+     * Primitive version of {@link #exploreRun(Comparable[], int)}, with the same compare accounting.
+     * @return the last index of the run */
+    public static int exploreRun(long[] a, int first) {
+        int n = a.length;
+        assert (first >= 0 && first < n);
+        if (n == first + 1) return first;
+        int last = first + 1;
+
+        if(a[first] <= a[last]) last = findIncreasing(a, last);
+        else {
+            last = findDecreasing(a, last);
+            reverseSequence(a, first, last);
+        }
+        return last;
+    }
+
+    private static int findIncreasing(long[] a, int from) {
+        int to = from;
+        while(to < a.length - 1) {
+            if (a[to] > a[to + 1]) break;
+            to++;
+        }
+        return to;
+    }
+
+    private static int findDecreasing(long[] a, int from) {
+        int to = from;
+        while(to < a.length-1) {
+            if (a[to] <= a[to + 1]) break;
+            to++;
+        }
+        return to;
+    }
+
+    private static void reverseSequence(long[] a, int from, int to) {
+        while (from < to) {
+            long temp = a[from];
+            a[from] = a[to];
+            a[to] = temp;
+            from++;
+            to--;
+        }
+    }
+
+    /** Checks that array a is sorted. Primitive version of {@link #isSorted(Comparable[])}. */
+    public static boolean isSorted(double[] a) { return isSorted(a, 0, a.length - 1); }
+
+    /** Checks whether the subarray a[lo..hi] is sorted.
+     * Primitive version of {@link #isSorted(Comparable[], int, int)}. */
+    public static boolean isSorted(double[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (Double.compare(a[i], a[i-1]) < 0) return false;
+        return true;
+    }
+
+    /** Explore a run starting from index {@code first}, reversing it if strictly decreasing.
+     * Primitive version of {@link #exploreRun(Comparable[], int)}, with the same compare accounting.
+     * @return the last index of the run */
+    public static int exploreRun(double[] a, int first) {
+        int n = a.length;
+        assert (first >= 0 && first < n);
+        if (n == first + 1) return first;
+        int last = first + 1;
+
+        if(Double.compare(a[first], a[last]) <= 0) last = findIncreasing(a, last);
+        else {
+            last = findDecreasing(a, last);
+            reverseSequence(a, first, last);
+        }
+        return last;
+    }
+
+    private static int findIncreasing(double[] a, int from) {
+        int to = from;
+        while(to < a.length - 1) {
+            if (Double.compare(a[to], a[to + 1]) > 0) break;
+            to++;
+        }
+        return to;
+    }
+
+    private static int findDecreasing(double[] a, int from) {
+        int to = from;
+        while(to < a.length-1) {
+            if (Double.compare(a[to], a[to + 1]) <= 0) break;
+            to++;
+        }
+        return to;
+    }
+
+    private static void reverseSequence(double[] a, int from, int to) {
+        while (from < to) {
+            double temp = a[from];
+            a[from] = a[to];
+            a[to] = temp;
+            from++;
+            to--;
+        }
+    }
+
     //--------------------------------------------------------------------------------------------
     //ONLY FOR TESTING COMPARES
     //--------------------------------------------------------------------------------------------
@@ -0,0 +1,42 @@
+package sorting;
+
+/** The work and span of a fork-join computation, in three costs: compares, element moves and nanoseconds.
+ * Work is the total over all tasks, span the total along the longest chain of dependent tasks, the critical path.
+ * The time of a task is its own running time, without the time spent waiting for others, so the work in nanoseconds
+ * is the sequential time of the computation, without the overhead of forking and joining.
+ *
+ * From work W and span S follow the predictions of the speedup on p processors: it is at most
+ * {@code min(p, W/S)} by the work and span laws, and at least {@code W / ((W - S)/p + S)} by Brent's theorem,
+ * under a greedy scheduler and with no other overheads.
+ * @param compares the compares of all tasks
+ * @param compareSpan the compares along the critical path
+ * @param moves the elements written by all tasks
+ * @param moveSpan the elements written along the critical path
+ * @param nanos the running time of all tasks
+ * @param nanoSpan the running time along the critical path
+ */
+public record WorkSpan(long compares, long compareSpan, long moves, long moveSpan, long nanos, long nanoSpan) {
+    public static final WorkSpan ZERO = new WorkSpan(0, 0, 0, 0, 0, 0);
+
+    /** The work and span of two computations run one after the other. */
+    public WorkSpan plus(WorkSpan o) {
+        return new WorkSpan(compares + o.compares, compareSpan + o.compareSpan, moves + o.moves,
+                            moveSpan + o.moveSpan, nanos + o.nanos, nanoSpan + o.nanoSpan);
+    }
+
+    /** The parallelism W/S in time: the largest useful number of processors. */
+    public double parallelism() { return (nanoSpan == 0) ? 1 : nanos / (double) nanoSpan; }
+
+    /** The speedup on p processors guaranteed by Brent's theorem, {@code W / ((W - S)/p + S)}, in time. */
+    public double brentSpeedup(int p) {
+        if (p < 1) throw new IllegalArgumentException("p must be > 0");
+        if (nanos == 0) return 1;
+        return nanos / ((nanos - nanoSpan) / (double) p + nanoSpan);
+    }
+
+    /** The largest possible speedup on p processors by the work and span laws, {@code min(p, W/S)}, in time. */
+    public double maxSpeedup(int p) {
+        if (p < 1) throw new IllegalArgumentException("p must be > 0");
+        return Math.min(p, parallelism());
+    }
+}
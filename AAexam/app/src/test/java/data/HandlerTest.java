@@ -4,13 +4,24 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import static data.Handler.Ext;
 import static data.Handler.Cat;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
 
@@ -111,4 +122,168 @@ public class HandlerTest{
         Integer[] actual = Handler.readData(Handler.streamFile("unittest/test.Integer.out"), Integer::valueOf);
         assertArrayEquals(expected, actual);
     }
+
+    // ===================== Binary format =====================
+
+    @Test void
+    givenIntegers_whenWriteAndReadBinary_thenSameDataAndHeader() throws IOException {
+        Integer[] expected = Handler.randomize(Handler.generate(100_000, i -> i - 50_000));
+        Path file = Files.createTempFile("handler", ".bin");
+        Handler.writeBinary(file, expected, 42, "randomize(range)");
+        assertEquals(new Handler.Header(Handler.Type.INTEGER, 100_000, 42, "randomize(range)"), Handler.readHeader(file));
+        assertEquals(Handler.readHeader(file).size() + 4L * 100_000, Files.size(file));
+        assertArrayEquals(expected, Handler.readIntegers(file));
+        Files.delete(file);
+    }
+
+    @Test void
+    givenTestData_whenWriteBinaryAndMap_thenRecordsLittleEndianWithoutCopy() throws IOException {
+        TestData[] expected = Handler.generate(1_000, i -> new TestData(i, -i / 3));
+        Path file = Files.createTempFile("handler", ".bin");
+        Handler.writeBinary(file, expected, 0, "");
+        assertArrayEquals(expected, Handler.readTestData(file));
+        IntBuffer ints = Handler.mapInts(file);
+        assertEquals(2_000, ints.remaining());
+        assertEquals(999, ints.get(2 * 999));
+        assertEquals(-333, ints.get(2 * 999 + 1));
+        ByteBuffer raw = ByteBuffer.wrap(Files.readAllBytes(file));
+        assertEquals(1, raw.get(Handler.readHeader(file).size() + 8)); // id 1, least significant byte first
+        Files.delete(file);
+    }
+
+    @Test void
+    givenWrongTypeOrNoHeader_whenReadBinary_thenThrow() throws IOException {
+        Path file = Files.createTempFile("handler", ".bin");
+        Handler.writeBinary(file, new int[]{1, 2, 3}, 0, "ints");
+        assertThrows(IllegalArgumentException.class, () -> Handler.readTestData(file));
+        Files.write(file, "1\n2\n3\n".getBytes());
+        assertThrows(IllegalArgumentException.class, () -> Handler.readInts(file));
+        Files.delete(file);
+    }
+
+    @Test void
+    givenCorruptHeader_whenReadHeader_thenIllegalArgument() throws IOException {
+        Path file = Files.createTempFile("handler", ".bin");
+        Handler.writeBinary(file, new int[]{1, 2, 3}, 0, "ints");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[5] = 99;                                 // The type
+        Files.write(file, bytes);
+        assertEquals("Unknown type of data in the binary file.",
+            assertThrows(IllegalArgumentException.class, () -> Handler.readHeader(file)).getMessage());
+        bytes[5] = 0;
+        bytes[6] = bytes[7] = (byte) 0xFF;             // The length of the generator name, -1
+        Files.write(file, bytes);
+        assertEquals("Corrupt generator name in the binary file.",
+            assertThrows(IllegalArgumentException.class, () -> Handler.readHeader(file)).getMessage());
+        bytes[6] = 4; bytes[7] = 0;
+        Files.write(file, Arrays.copyOf(bytes, 26));   // Two bytes of the name of four
+        assertEquals("Truncated binary data file.",
+            assertThrows(IllegalArgumentException.class, () -> Handler.readHeader(file)).getMessage());
+        Files.delete(file);
+    }
+
+    @Test void
+    givenCountBeyondPayload_whenReadBinary_thenIllegalArgument() throws IOException {
+        Path file = Files.createTempFile("handler", ".bin");
+        Handler.writeBinary(file, new int[]{1, 2, 3}, 0, "ints");
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        for (long count : new long[]{4, 1L << 31, Long.MAX_VALUE / 2}) {
+            Files.write(file, bytes.putLong(8, count).array());     // The count of records
+            assertEquals("Truncated binary data file.",
+                assertThrows(IllegalArgumentException.class, () -> Handler.readInts(file)).getMessage());
+        }
+        Files.write(file, bytes.putLong(8, -1).array());
+        assertEquals("Corrupt record count in the binary file.",
+            assertThrows(IllegalArgumentException.class, () -> Handler.mapInts(file)).getMessage());
+        Files.write(file, bytes.putLong(8, 3).array());
+        assertArrayEquals(new int[]{1, 2, 3}, Handler.readInts(file));
+        Files.delete(file);
+    }
+
+    @Test void
+    givenTextFile_whenTextToBinary_thenSameData() throws IOException {
+        TestData[] expected = Handler.readData(Handler.streamFile("unittest/duplicateElemsMedium.TestData.in"), TestData::from);
+        Path file = Files.createTempFile("handler", ".bin");
+        Handler.textToBinary("unittest/duplicateElemsMedium.TestData.in", Handler.Type.TESTDATA, file);
+        assertArrayEquals(expected, Handler.readTestData(file));
+        assertEquals("text:unittest/duplicateElemsMedium.TestData.in", Handler.readHeader(file).generator());
+        Files.delete(file);
+    }
+
+    // ===================== Parallel generation =====================
+
+    @Test void
+    givenSameSeed_whenGenerateInPoolsOfDifferentSize_thenSameOutput() throws Exception {
+        int n = 300_000;
+        Integer[] expected = Handler.generate(n, 7L, (i, r) -> r.nextInt(1000));
+        for (int threads : new int[]{1, 3}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            assertArrayEquals(expected, pool.submit(() -> Handler.generate(n, 7L, (i, r) -> r.nextInt(1000))).get());
+            assertArrayEquals(Handler.randomInts(n, 7L), pool.submit(() -> Handler.randomInts(n, 7L)).get());
+            assertArrayEquals(Handler.shuffle(expected, 3L), pool.submit(() -> Handler.shuffle(expected, 3L)).get());
+            pool.shutdown();
+        }
+        assertFalse(Arrays.equals(expected, Handler.generate(n, 8L, (i, r) -> r.nextInt(1000))));
+    }
+
+    @Test void
+    givenArray_whenShuffle_thenPermutationOfInput() {
+        for (int n : new int[]{0, 1, 2, 1_000, 200_000}) {
+            int[] data     = IntStream.range(0, n).toArray();
+            int[] shuffled = Handler.shuffle(data, 11L);
+            assertTrue(n < 1_000 || !Arrays.equals(data, shuffled));
+            Arrays.sort(shuffled);
+            assertArrayEquals(data, shuffled);
+        }
+    }
+
+    /** Each of the 6 permutations of 3 elements should come up about as often as the others */
+    @Test void
+    givenSmallArray_whenShuffleWithManySeeds_thenPermutationsEquallyLikely() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (long seed = 0; seed < 60_000; seed++)
+            counts.merge(Arrays.toString(Handler.shuffle(new int[]{0, 1, 2}, seed)), 1, Integer::sum);
+        assertEquals(6, counts.size());
+        for (int count : counts.values()) assertTrue(Math.abs(count - 10_000) < 500);
+    }
+
+    @Test void
+    givenSmallArray_whenInPlaceShuffleWithManySeeds_thenPermutationsEquallyLikely() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (long seed = 0; seed < 60_000; seed++) {
+            Integer[] x = {0, 1, 2};
+            Handler.inPlaceShuffle(x, seed);
+            counts.merge(Arrays.toString(x), 1, Integer::sum);
+        }
+        assertEquals(6, counts.size());
+        for (int count : counts.values()) assertTrue(Math.abs(count - 10_000) < 500);
+    }
+
+    @Test void
+    givenSameSeed_whenInPlaceShuffleInPoolsOfDifferentSize_thenSamePermutationOfInput() throws Exception {
+        Integer[] data     = Handler.generate(300_000, i -> i);
+        Integer[] expected = data.clone();
+        Handler.inPlaceShuffle(expected, 9L);
+        assertFalse(Arrays.equals(data, expected));
+        for (int threads : new int[]{1, 3}) {
+            Integer[] x       = data.clone();
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            pool.submit(() -> Handler.inPlaceShuffle(x, 9L)).get();
+            pool.shutdown();
+            assertArrayEquals(expected, x);
+        }
+        Arrays.sort(expected);
+        assertArrayEquals(data, expected);
+    }
+
+    @Test void
+    givenSeed_whenSortedRandomInts_thenSortedInRangeAndSpread() {
+        int n = 500_000, bound = 1_000;
+        int[] x = Handler.sortedRandomInts(n, bound, 5L);
+        assertEquals(n, x.length);
+        for (int i = 1; i < n; i++) assertTrue(x[i - 1] <= x[i]);
+        assertTrue(x[0] >= 0 && x[n - 1] < bound);
+        assertEquals(bound / 2, x[n / 2], 10);                 // The median of uniforms is near the middle
+        assertArrayEquals(x, Handler.sortedRandomInts(n, bound, 5L));
+    }
 }
@@ -0,0 +1,85 @@
+package data;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class PresortednessTest {
+
+    @Test void
+    givenSortedAndReversedArrays_whenMeasure_thenExtremes() {
+        Integer[] sorted   = Handler.generate(1_000, i -> i);
+        Integer[] reversed = Handler.invert(sorted);
+        assertEquals(new Presortedness.Measures(1, 1, 0, 0, 0.0), Presortedness.measure(sorted));
+        Presortedness.Measures m = Presortedness.measure(reversed);
+        assertEquals(1_000, m.runs());
+        assertEquals(1, m.exploredRuns());
+        assertEquals(1_000L * 999 / 2, m.inversions());
+        assertEquals(999, m.maxDisplacement());
+        assertEquals(Math.log(1_000) / Math.log(2), m.runEntropy(), 1e-9);
+    }
+
+    @Test void
+    givenSmallArray_whenMeasure_thenHandCountedValues() {
+        Integer[] a = {3, 1, 2, 5, 4};
+        assertEquals(3, Presortedness.runs(a));                      // 3 | 1 2 5 | 4
+        assertEquals(3, Presortedness.inversions(a));                // (3,1) (3,2) (5,4)
+        assertEquals(2, Presortedness.maxDisplacement(a));           // 3 sits at 0, belongs at 2
+        assertEquals(0, Presortedness.runs(new Integer[0]));
+    }
+
+    @Test void
+    givenLargeRandomArray_whenCountInversions_thenSameAsQuadraticCount() {
+        Integer[] a = Handler.generate(20_000, 3L, (i, r) -> r.nextInt(5_000));
+        long expected = 0;
+        for (int i = 0; i < a.length; i++)
+            for (int j = i + 1; j < a.length; j++) if (a[j] < a[i]) expected++;
+        assertEquals(expected, Presortedness.inversions(a));
+    }
+
+    @Test void
+    givenTargetRuns_whenWithRuns_thenExactlyThatManyRuns() {
+        Integer[] sorted = Handler.generate(10_000, i -> i);
+        for (int runs : new int[]{1, 2, 17, 10_000}) {
+            Integer[] x = Presortedness.withRuns(sorted, runs, 5L);
+            assertEquals(runs, Presortedness.runs(x));
+            Arrays.sort(x);
+            assertArrayEquals(sorted, x);
+        }
+        assertThrows(IllegalArgumentException.class, () -> Presortedness.withRuns(sorted, 0, 5L));
+    }
+
+    @Test void
+    givenTargetInversions_whenWithInversions_thenExactlyThatManyInversions() {
+        Integer[] sorted = Handler.generate(5_000, i -> i);
+        for (long inversions : new long[]{0, 1, 12_345, 3_000_000, 5_000L * 4_999 / 2}) {
+            Integer[] x = Presortedness.withInversions(sorted, inversions, 9L);
+            assertEquals(inversions, Presortedness.inversions(x));
+            Arrays.sort(x);
+            assertArrayEquals(sorted, x);
+        }
+    }
+
+    @Test void
+    givenTargetDisplacement_whenWithMaxDisplacement_thenExactlyThatDisplacement() {
+        Integer[] sorted = Handler.generate(100_000, i -> i);
+        for (int d : new int[]{0, 1, 10, 1_000}) {
+            int actual = Presortedness.maxDisplacement(Presortedness.withMaxDisplacement(sorted, d, 2L));
+            assertEquals(d, actual);
+        }
+    }
+
+    @Test void
+    givenTargetEntropy_whenWithRunEntropy_thenCloseToTarget() {
+        Integer[] sorted = Handler.generate(100_000, i -> i);
+        for (double h : new double[]{0.0, 0.5, 1.0, 3.3, 10.0}) {
+            double actual = Presortedness.runEntropy(Presortedness.withRunEntropy(sorted, h));
+            assertEquals(h, actual, 0.02);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package experiments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import experiments.Forked.Options;
+import experiments.Result.Key;
+
+public class ForkedTest {
+
+    @Test void
+    givenJob_whenRun_thenResultComesFromAnotherJvm() {
+        SingleResult r = (SingleResult) Forked.run(() -> new SingleResult("pid")
+            .put(Key.MEANRESULT, (double) ProcessHandle.current().pid()), Options.heap("64m"));
+        assertEquals("pid", r.getTitle());
+        assertNotEquals((double) ProcessHandle.current().pid(), r.get(Key.MEANRESULT));
+    }
+
+    @Test void
+    givenFactory_whenMeasure_thenOneResultPerParameterPoint() {
+        MultiResult r = (MultiResult) Forked.measure(
+            p -> new Experiment<Integer>(p, x -> x), 0.001, 1, 8, 2.0, "forked", Options.DEFAULT);
+        assertEquals(3, r.result.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1 << i, r.result.get(i).get(Key.PARAMETER));
+            assertEquals(1 << i, r.result.get(i).get(Key.MEANRESULT));
+        }
+    }
+
+    @Test void
+    givenFailingJob_whenRun_thenThrow() {
+        assertThrows(IllegalStateException.class, () -> Forked.run(() -> { throw new RuntimeException("failure"); },
+                                                                   Options.DEFAULT.with("-Xss1m")));
+    }
+
+    @Test void
+    givenCSV_whenParse_thenSameResult() {
+        Result single = new SingleResult("a").put(Key.MEANTIME, 1.5).put(Key.REPETITIONS, 10.0);
+        SingleResult back = (SingleResult) Forked.fromCSV(single.toCSV());
+        assertEquals(single.toCSV(), back.toCSV());
+
+        Result multi = new SingleResult("b").put(Key.PARAMETER, 1.0).add(new SingleResult("b").put(Key.PARAMETER, 2.0));
+        assertInstanceOf(MultiResult.class, Forked.fromCSV(multi.toCSV()));
+        assertEquals(multi.toCSV(), Forked.fromCSV(multi.toCSV()).toCSV());
+        assertEquals(List.of("-Xms1g", "-Xmx1g", "-ea"), Options.heap("1g").with("-ea").jvmArgs());
+    }
+
+    @Test void
+    givenTitleWithCommas_whenParseCSV_thenSameTitleAndValues() {
+        Result single     = new SingleResult("sort, n = 1,000").put(Key.MEANTIME, 1.5).put(Key.REPETITIONS, 10.0);
+        SingleResult back = (SingleResult) Forked.fromCSV(single.toCSV());
+        assertEquals("sort, n = 1,000", back.getTitle());
+        assertEquals(1.5, back.get(Key.MEANTIME));
+        assertEquals(10.0, back.get(Key.REPETITIONS));
+    }
+}
@@ -0,0 +1,59 @@
+package experiments;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+public class HistogramTest {
+
+    @Test void
+    givenSmallValues_whenQuantile_thenExact() {
+        Histogram h = new Histogram();
+        for (int v = 1; v <= 100; v++) h.record(v);
+        assertEquals(50.0, h.quantile(0.5));
+        assertEquals(90.0, h.quantile(0.9));
+        assertEquals(99.0, h.quantile(0.99));
+        assertEquals(1.0, h.quantile(0));
+        assertEquals(100.0, h.quantile(1));
+    }
+
+    @Test void
+    givenLargeValues_whenQuantile_thenWithinBucketError() {
+        Histogram h      = new Histogram();
+        long[] values    = new SplittableRandom(7).longs(100_000, 1, 1L << 40).sorted().toArray();
+        for (long v : values) h.record(v);
+        for (double q : new double[]{0.5, 0.9, 0.99, 0.999}) {
+            long exact = values[(int) Math.ceil(q * values.length) - 1];
+            assertEquals(exact, h.quantile(q), exact / 200.0);
+        }
+        assertEquals(values[values.length - 1], h.max());
+    }
+
+    @Test void
+    givenValues_whenIndex_thenMiddleIsInSameBucket() {
+        for (long v : new long[]{0, 1, 255, 256, 257, 1000, 123_456_789L, Long.MAX_VALUE}) {
+            int i = Histogram.index(v);
+            assertEquals(i, Histogram.index((long) Histogram.middle(i)));
+            assertTrue(i < 64 * Histogram.SUB);
+        }
+    }
+
+    @Test void
+    givenTwoHistograms_whenAdd_thenSameAsOne() {
+        Histogram a = new Histogram(), b = new Histogram(), both = new Histogram();
+        for (long v = 0; v < 10_000; v += 3) { (v % 2 == 0 ? a : b).record(v * v); both.record(v * v); }
+        a.add(b);
+        assertEquals(both.count(), a.count());
+        for (double q : new double[]{0.0, 0.5, 0.99, 1.0}) assertEquals(both.quantile(q), a.quantile(q));
+    }
+
+    @Test void
+    givenNegativeValue_whenRecord_thenThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new Histogram().record(-1));
+        assertEquals(0.0, new Histogram().quantile(0.5));
+    }
+}
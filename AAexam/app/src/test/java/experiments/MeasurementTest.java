@@ -1,9 +1,13 @@
 package experiments;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
@@ -29,6 +33,13 @@ public class MeasurementTest {
         assertTrue(0 < m.averageTime());
     }
 
+    @Test void
+    SRM__givenResultsBeyondInt_whenMeasure_thenAveragedWithoutWrapping() {
+        SingleRunMeasurement big = new SingleRunMeasurement(
+            new Experiment<Integer>(i -> i, i -> 3_000_000_000L + i), 10);
+        assertEquals(3_000_000_004.5, big.averageResult());
+    }
+
     @Test void
     SRM__givenMeasurement_whenAnalyze_generatesCorrectStdDev() {
         assertEquals(3.0276503540974917, r.get(Key.SDEVRESULT));
@@ -44,4 +55,145 @@ public class MeasurementTest {
         assertNotNull(r.get(Key.SDEVTIME));
         assertNotNull(r.get(Key.SDEVTIME));
     }
+
+    @Test void
+    SRM__givenWarmup_whenAnalyze_reportsWarmupAndSameResults() {
+        SingleResult w = new SingleRunMeasurement(
+            new Experiment<Integer>(i -> i, i -> i), 10, new Warmup(3, 1.0, 50, 5.0))
+            .analyze("warm");
+        assertTrue(w.get(Key.WARMUPS) >= 3 && w.get(Key.WARMUPS) <= 50);
+        assertTrue(w.get(Key.WARMUPTIME) > 0);
+        assertEquals(4.5, w.get(Key.MEANRESULT));
+        assertEquals(3.0276503540974917, w.get(Key.SDEVRESULT));
+    }
+
+    @Test void
+    SRM__givenNoWarmup_whenAnalyze_reportsZeroWarmups() {
+        SingleResult w = new SingleRunMeasurement(
+            new Experiment<Integer>(i -> i, i -> i), 10, Warmup.NONE)
+            .analyze("cold");
+        assertEquals(0.0, w.get(Key.WARMUPS));
+        assertEquals(0.0, w.get(Key.WARMUPTIME));
+    }
+
+    @Test void
+    Warmup__givenUnsteadyExperiment_whenRun_stopsAtIterationLimit() {
+        // Every other repetition sleeps, so the running times never agree within 1%
+        Warmup.Done d = new Warmup(4, 0.01, 20, 60.0).run(
+            new Experiment<Integer>(i -> i, i -> { if (i % 2 == 0) sleep(); return i; }));
+        assertEquals(20, d.iterations());
+    }
+
+    @Test void
+    Warmup__givenTimes_whenCv_thenStandardDeviationOverMean() {
+        assertEquals(0.0, Warmup.cv(new long[]{5, 5, 5}));
+        assertEquals(Math.sqrt(2) / 2, Warmup.cv(new long[]{1, 3}), 1e-12);
+    }
+
+    @Test void
+    Sampling__givenObservations_whenDone_stopsWhenPreciseOrOverBudget() {
+        Sampling s = new Sampling(0.01, Sampling.Z95, 10, 1.0);
+        assertFalse(s.done(9, 100, 0, 900));             // Too few, even if constant
+        assertTrue(s.done(10, 100, 0, 1000));            // Constant, so the interval is empty
+        assertFalse(s.done(10, 100, 9 * 100 * 100, 1000)); // sd = mean, far from 1%
+        assertTrue(s.done(10, 100, 9 * 100 * 100, 1_000_000_000L)); // ... but the budget is spent
+    }
+
+    @Test void
+    Sampling__givenInvalidParameters_whenCreate_thenThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new Sampling(0, 1.96, 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Sampling(0.01, 1.96, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Sampling(0.01, 1.96, 10, -1));
+    }
+
+    @Test void
+    SRM__givenSampling_whenMeasure_keepsEveryObservation() {
+        SingleRunMeasurement s = new SingleRunMeasurement(
+            new Experiment<Integer>(i -> i, i -> i), new Sampling(1e-9, Sampling.Z95, 5, 0.01), Warmup.NONE);
+        int n = s.observations();
+        assertTrue(n >= 5);
+        assertEquals((n - 1) / 2.0, s.averageResult());
+        SingleResult sr = s.analyze("sampled");
+        assertEquals(n, sr.get(Key.REPETITIONS));
+        assertEquals((n - 1) / 2.0, sr.get(Key.MEANRESULT), 1e-9);
+    }
+
+    @Test void
+    MRM__givenTimeLimit_whenMeasure_firstRunIsKept() {
+        SingleResult mr = new MultiRunMeasurement(3, new Experiment<Integer>(i -> i, i -> i), 0.01).analyze("multi");
+        assertEquals(3, mr.get(Key.RUNS));
+        assertTrue(mr.get(Key.REPETITIONS) >= 10);
+    }
+
+    @Test void
+    MRM__givenNoRuns_whenMeasureWithTimeLimit_throwsBeforeRunning() {
+        int[] calls = new int[1];
+        assertThrows(IllegalArgumentException.class,
+            () -> new MultiRunMeasurement(0, new Experiment<Integer>(i -> i, i -> ++calls[0]), 0.1));
+        assertEquals(0, calls[0]);
+    }
+
+    @Test void
+    MRM__givenWarmup_whenMeasure_onlyFirstRunWarmedUp() {
+        MultiRunMeasurement mr = new MultiRunMeasurement(
+            4, new Experiment<Integer>(i -> i, i -> i), 10, new Warmup(3, 1.0, 50, 5.0));
+        assertTrue(mr.obs.get(0).warmup().iterations() >= 3);
+        for (int i = 1; i < 4; i++) assertEquals(0, mr.obs.get(i).warmup().iterations());
+        assertEquals(mr.obs.get(0).warmup().iterations(), mr.analyze("multi").get(Key.WARMUPS));
+    }
+
+    @Test void
+    SRM__givenAllocatingExperiment_whenAnalyze_reportsAllocatedBytesAndCpuTime() {
+        SingleResult a = new SingleRunMeasurement(
+            new Experiment<Integer>(i -> i, i -> new long[1 << 16].length), 10, Warmup.NONE)
+            .analyze("alloc");
+        assertTrue(a.get(Key.ALLOCATED) >= 8 << 16);      // At least the array itself
+        assertTrue(a.get(Key.CPUTIME) >= 0);
+        assertTrue(a.get(Key.GCCOUNT) >= 0);
+        assertTrue(a.get(Key.GCTIME) >= 0);
+    }
+
+    @Test void
+    Probe__givenAllocationInOtherThread_whenStop_countsIt() throws InterruptedException {
+        Measurement.Probe p = new Measurement.Probe();
+        long[][] sink       = new long[1][];
+        p.start();
+        Thread t = new Thread(() -> sink[0] = new long[1 << 20]);
+        t.start();
+        t.join();
+        p.stop();
+        assertTrue(p.allocated() >= 8 << 20);      // At least the array of the other thread
+        assertEquals(1 << 20, sink[0].length);
+    }
+
+    @Test void
+    points__givenScaleBelowTwo_whenStepFromOne_advancesWithoutRepeats() {
+        assertEquals(List.of(1, 2, 3, 5, 7), Measurement.points(1, 10, 1.5));
+        assertEquals(List.of(5, 6, 8, 10, 14, 18), Measurement.points(5, 20, 1.3));
+        assertThrows(IllegalArgumentException.class, () -> Measurement.points(1, 10, 1.0));
+    }
+
+    @Test void
+    Probe__givenGarbage_whenStop_countsCollections() {
+        Measurement.Probe p = new Measurement.Probe();
+        p.start();
+        System.gc();
+        p.stop();
+        assertTrue(p.gcCount() >= 1);
+        assertTrue(p.allocated() >= 0);
+    }
+
+    @Test void
+    SRM__givenMeasurement_whenAnalyze_reportsOrderedPercentiles() {
+        assertTrue(r.get(Key.P50) > 0);
+        assertTrue(r.get(Key.P50) <= r.get(Key.P90));
+        assertTrue(r.get(Key.P90) <= r.get(Key.P99));
+        assertTrue(r.get(Key.P99) <= r.get(Key.P999));
+        assertTrue(r.get(Key.P999) <= r.get(Key.MAXTIME));
+        assertEquals(10, m.histogram().count());
+    }
+
+    private static void sleep() {
+        try { Thread.sleep(1); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+    }
 }
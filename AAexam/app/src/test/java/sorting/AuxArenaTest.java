@@ -0,0 +1,148 @@
+package sorting;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+import data.Handler;
+import data.TestData;
+
+public class AuxArenaTest {
+
+    @Test void
+    givenSmallerArray_whenScratch_thenSameBufferReturned() {
+        AuxArena arena = new AuxArena();
+        Integer[] first  = arena.scratch(new Integer[10]);
+        Integer[] second = arena.scratch(new Integer[3]);
+        assertSame(first, second);
+    }
+
+    @Test void
+    givenLargerArrays_whenScratch_thenBufferGrowsGeometrically() {
+        AuxArena arena = new AuxArena();
+        arena.scratch(new long[10]);
+        assertEquals(20, arena.scratch(new long[11]).length);
+        assertEquals(50, arena.scratch(new long[50]).length);
+        assertEquals(100, arena.scratch(new long[51]).length);
+    }
+
+    @Test void
+    givenHalfLength_whenScratch_thenBufferSizedExactly() {
+        AuxArena arena = new AuxArena();
+        arena.scratch(new Integer[10], 5);
+        assertEquals(6, arena.scratch(new Integer[13], 6).length);
+        assertEquals(12, arena.scratch(new Integer[7]).length);
+    }
+
+    @Test void
+    givenArrayOfOtherType_whenScratch_thenNewBufferOfThatType() {
+        AuxArena arena = new AuxArena();
+        Integer[] ints   = arena.scratch(new Integer[10]);
+        String[] strings = arena.scratch(new String[5]);
+        assertEquals(String[].class, strings.getClass());
+        assertNotSame(ints, strings);
+    }
+
+    @Test void
+    givenArray_whenCopyOf_thenPrefixHoldsCopy() {
+        AuxArena arena = new AuxArena();
+        arena.scratch(new double[8]);
+        double[] aux = arena.copyOf(new double[]{3.0, -1.0, 2.5});
+        assertEquals(8, aux.length);
+        assertArrayEquals(new double[]{3.0, -1.0, 2.5}, Arrays.copyOf(aux, 3));
+    }
+
+    @Test void
+    givenReleasedArena_whenScratch_thenFreshBuffer() {
+        AuxArena arena = new AuxArena();
+        int[] before = arena.scratch(new int[100]);
+        arena.release();
+        int[] after  = arena.scratch(new int[10]);
+        assertNotSame(before, after);
+        assertEquals(10, after.length);
+    }
+
+    @Test void
+    givenRepeatedSorts_whenSortWithLocalArena_thenAuxReusedAndSorted() {
+        TestData[] sorted = Handler.generate(1_000, i -> new TestData(i, i / 3));
+        LevelSort.sort(Handler.randomize(sorted), 8);
+        TestData[] aux = AuxArena.local().scratch(sorted);
+        for (int n : new int[]{1_000, 17, 500}) {
+            TestData[] in       = Handler.randomize(Arrays.copyOf(sorted, n));
+            TestData[] expected = in.clone();
+            Arrays.sort(expected);
+            BinomialSortAdaptive.sort(in, 4);
+            assertArrayEquals(expected, in);
+        }
+        assertSame(aux, AuxArena.local().scratch(sorted));
+    }
+
+    @Test void
+    givenCallerScratch_whenSort_thenSameResultAndComparesAsDefault() {
+        TestData[] sorted = Handler.generate(1_000, i -> new TestData(i, i / 3));
+        for (Merge.Mode mode : Merge.Mode.values()) {
+            TestData[] in       = Handler.randomize(sorted, 5);
+            TestData[] expected = in.clone();
+            TestData[] arranged = in.clone();
+            Arrays.sort(expected);
+            long compares       = LevelSortAdaptive.sort(arranged, 8, mode);
+            TestData[] aux      = Handler.generate(1_500, i -> new TestData(-i, -i)); // Stale contents must not matter
+            assertEquals(compares, LevelSortAdaptive.sort(in, aux, 8, mode));
+            assertArrayEquals(expected, in);
+        }
+    }
+
+    @Test void
+    givenHalfCallerScratch_whenSortHalf_thenSortedStably() {
+        TestData[] sorted   = Handler.generate(1_001, i -> new TestData(i, i / 3));
+        TestData[] input    = Handler.randomize(sorted, 9);
+        TestData[] expected = input.clone();
+        Arrays.sort(expected);
+        List<Consumer<TestData[]>> sorts = List.of(
+            a -> TopDownMergeSort.sort(a, new TestData[500], Merge.Mode.HALF),
+            a -> TopDownMergeSortCutoff.sort(a, new TestData[500], 8, Merge.Mode.HALF),
+            a -> BottomUpMergeSort.sort(a, new TestData[500], Merge.Mode.HALF),
+            a -> BottomUpMergeSortCutoff.sort(a, new TestData[500], 8, Merge.Mode.HALF),
+            a -> BinomialSort.sort(a, new TestData[500], 8, Merge.Mode.HALF),
+            a -> BinomialSortAdaptive.sort(a, new TestData[500], 8, Merge.Mode.HALF),
+            a -> LevelSort.sort(a, new TestData[500], 8, Merge.Mode.HALF),
+            a -> LevelSortAdaptive.sort(a, new TestData[500], 8, Merge.Mode.HALF));
+        for (Consumer<TestData[]> sort : sorts) {
+            TestData[] in = input.clone();
+            sort.accept(in);
+            assertArrayEquals(expected, in);
+        }
+    }
+
+    @Test void
+    givenHalfCallerScratch_whenSortOtherMode_thenThrow() {
+        Integer[] in  = {1, 4, 2, 3};
+        Integer[] aux = new Integer[2];
+        assertThrows(IllegalArgumentException.class, () -> LevelSortAdaptive.sort(in, aux, 1, Merge.Mode.COPY));
+        assertThrows(IllegalArgumentException.class, () -> LevelSortAdaptive.sort(in, new Integer[1], 1, Merge.Mode.HALF));
+        LevelSortAdaptive.sort(in, aux, 1, Merge.Mode.HALF);
+        assertArrayEquals(new Integer[]{1, 2, 3, 4}, in);
+    }
+
+    @Test void
+    givenShortCallerScratch_whenSort_thenThrow() {
+        Integer[] in  = {3, 2, 1};
+        Integer[] aux = new Integer[2];
+        assertThrows(IllegalArgumentException.class, () -> TopDownMergeSort.sort(in, aux, Merge.Mode.COPY));
+        assertThrows(IllegalArgumentException.class, () -> TopDownMergeSortCutoff.sort(in, aux, 2, Merge.Mode.COPY));
+        assertThrows(IllegalArgumentException.class, () -> BottomUpMergeSort.sort(in, aux, Merge.Mode.COPY));
+        assertThrows(IllegalArgumentException.class, () -> BottomUpMergeSortCutoff.sort(in, aux, 2, Merge.Mode.COPY));
+        assertThrows(IllegalArgumentException.class, () -> BinomialSort.sort(in, aux, 2, Merge.Mode.COPY));
+        assertThrows(IllegalArgumentException.class, () -> BinomialSortAdaptive.sort(in, aux, 2, Merge.Mode.COPY));
+        assertThrows(IllegalArgumentException.class, () -> LevelSort.sort(in, aux, 2, Merge.Mode.COPY));
+        assertThrows(IllegalArgumentException.class, () -> LevelSortAdaptive.sort(in, aux, 2, Merge.Mode.COPY));
+    }
+}
@@ -0,0 +1,88 @@
+package sorting;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import data.Handler;
+import data.TestData;
+
+public class BigMergeSortTest {
+
+    // A big array of the elements of a, in segments of 2^shift elements
+    private static <T extends Comparable<? super T>> BigArray<T> big(T[] a, int shift) {
+        BigArray<T> b = new BigArray<>(a.length, shift);
+        for (int i = 0; i < a.length; i++) b.set(i, a[i]);
+        return b;
+    }
+
+    @Test void
+    givenManySegments_whenSort_thenSortedAsArraysSort() {
+        Random r = new Random(4711);
+        for (int n : new int[]{0, 1, 15, 16, 17, 100, 1_000, 3_333}) {
+            Integer[] a         = Handler.generate(n, i -> r.nextInt(500));
+            BigArray<Integer> b = big(a, 4);
+            BigMergeSort.sort(b);
+            Arrays.sort(a);
+            assertArrayEquals(a, b.toArray(Integer[]::new));
+            assertTrue(Util.isSorted(b));
+        }
+    }
+
+    @Test void
+    givenEqualKeys_whenSort_thenStable() {
+        // Ids ascending in the input, with scattered values: equal values must keep their ids in order
+        BigArray<TestData> b = big(Handler.generate(2_000, i -> new TestData(i, (i * 37) % 101)), 5);
+        BigMergeSort.sort(b);
+        for (long i = 1; i < b.length(); i++) {
+            if (b.get(i).compareTo(b.get(i - 1)) == 0)
+                assertTrue(b.get(i - 1).id() < b.get(i).id());
+        }
+    }
+
+    @Test void
+    givenOneSegment_whenSort_thenComparesOfTheSegmentSort() {
+        Integer[] a = Handler.randomize(Handler.generate(1_000, i -> i));
+        BigArray<Integer> b = BigArray.of(a.clone());
+        assertEquals(LevelSortAdaptive.sort(a, 16, Merge.Mode.HALF), BigMergeSort.sort(b));
+        assertArrayEquals(a, b.toArray(Integer[]::new));
+    }
+
+    @Test void
+    givenBigArray_whenGetAndSet_thenAcrossSegments() {
+        BigArray<Integer> b = new BigArray<>(100, 3);
+        assertEquals(13, b.segments());
+        for (int i = 0; i < 100; i++) b.set(i, 99 - i);
+        assertEquals(Integer.valueOf(0), b.get(99));
+        assertEquals(8, b.segmentLength());
+        BigArray<Integer> c = b.like();
+        BigArray.copy(b, c, 5, 60);
+        assertSame(b.get(7), c.get(7));
+        assertNull(c.get(61));
+    }
+
+    @Test void
+    givenHalfLengthAux_whenSort_thenSorted() {
+        Integer[] a         = Handler.randomize(Handler.generate(1_001, i -> i % 200));
+        BigArray<Integer> b = big(a, 4);
+        BigMergeSort.sort(b, new BigArray<>(500, 4));
+        Arrays.sort(a);
+        assertArrayEquals(a, b.toArray(Integer[]::new));
+    }
+
+    @Test void
+    givenMismatchedAux_whenSort_thenException() {
+        BigArray<Integer> b = new BigArray<>(100, 3);
+        assertThrows(IllegalArgumentException.class, () -> BigMergeSort.sort(b, new BigArray<>(100, 4)));
+        assertThrows(IllegalArgumentException.class, () -> BigMergeSort.sort(b, new BigArray<>(49, 3)));
+        assertThrows(IllegalArgumentException.class, () -> new BigArray<Integer>(-1));
+    }
+}
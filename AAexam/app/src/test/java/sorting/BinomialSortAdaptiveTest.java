@@ -2,6 +2,7 @@ package sorting;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 //import org.junit.jupiter.api.Disabled;
@@ -12,6 +13,10 @@ import data.TestData;
 
 import static sorting.BinomialSortAdaptive.sort;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
 public class BinomialSortAdaptiveTest {
 
     //-----------------------------------
@@ -99,7 +104,7 @@ public class BinomialSortAdaptiveTest {
     //-----------------------------------
     @Test void givenIdenticalElementsArray_whenSort_thenPreserveStability() {
         TestData[] identicalElementsArray = Handler.generate(10, i -> new TestData(i,0));
-        int compares = sort(identicalElementsArray,4);
+        long compares = sort(identicalElementsArray,4);
         assertArrayEquals(Handler.generate(10, i -> new TestData(i,0)), identicalElementsArray);
         assertEquals(9, compares);
     }
@@ -112,7 +117,7 @@ public class BinomialSortAdaptiveTest {
             Handler.streamFile("unittest/duplicateElems.TestData.in"), TestData::from); 
         TestData[] expected = Handler.readData(
             Handler.streamFile("unittest/duplicateElems.TestData.out"), TestData::from); 
-        int compares = sort(actual,2);
+        long compares = sort(actual,2);
         assertArrayEquals(expected, actual);
         assertEquals(9, compares);
     }
@@ -126,9 +131,89 @@ public class BinomialSortAdaptiveTest {
             Handler.streamFile("unittest/duplicateElemsMedium.TestData.in"), TestData::from); 
         TestData[] expected = Handler.readData(
             Handler.streamFile("unittest/duplicateElemsMedium.TestData.out"), TestData::from); 
-        int compares = sort(actual, 1);
+        long compares = sort(actual, 1);
         assertArrayEquals(expected, actual);
         assertEquals(25, compares);
     }  
 
+    // ====================================
+    // Primitive tests
+    // ====================================
+
+    @Test void
+    givenRandomIntArray_whenSort_thenSortedWithSameComparesAsBoxed() {
+        int[] actual    = new Random(1).ints(1_000, 0, 100).toArray();
+        Integer[] boxed = Arrays.stream(actual).boxed().toArray(Integer[]::new);
+        int[] expected  = actual.clone();
+        Arrays.sort(expected);
+        assertEquals(BinomialSortAdaptive.sort(boxed, 7), BinomialSortAdaptive.sort(actual, 7));
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test void
+    givenRandomLongArray_whenSort_thenSortedWithSameComparesAsBoxed() {
+        long[] actual   = new Random(2).longs(1_000).toArray();
+        Long[] boxed    = Arrays.stream(actual).boxed().toArray(Long[]::new);
+        long[] expected = actual.clone();
+        Arrays.sort(expected);
+        assertEquals(BinomialSortAdaptive.sort(boxed, 7), BinomialSortAdaptive.sort(actual, 7));
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test void
+    givenDoubleArrayWithSpecialValues_whenSort_thenSortedLikeBoxedDoubles() {
+        double[] actual   = {3.5, Double.NaN, -0.0, 0.0, -1.0, Double.NEGATIVE_INFINITY, 0.0, -0.0, 2.0, Double.NaN, 1e-300};
+        Double[] boxed    = Arrays.stream(actual).boxed().toArray(Double[]::new);
+        double[] expected = actual.clone();
+        Arrays.sort(expected);
+        assertEquals(BinomialSortAdaptive.sort(boxed, 7), BinomialSortAdaptive.sort(actual, 7));
+        assertArrayEquals(expected, actual);
+    }
+
+    // ====================================
+    // Ping-pong merge mode
+    // ====================================
+
+    @Test void
+    givenDuplicates_whenSortPingPong_thenSameResultAndComparesAsCopy() {
+        for (int n : new int[]{1, 2, 3, 5, 17, 64, 100, 1_000}) {
+            TestData[] sorted   = Handler.generate(n, i -> new TestData(i, i / 3));
+            for (TestData[] copy : List.of(Handler.randomize(sorted), Handler.randomize(sorted, 5))) {
+                TestData[] pingPong = copy.clone();
+                TestData[] expected = copy.clone();
+                Arrays.sort(expected);
+                assertEquals(BinomialSortAdaptive.sort(copy, 7, Merge.Mode.COPY), BinomialSortAdaptive.sort(pingPong, 7, Merge.Mode.PINGPONG));
+                assertArrayEquals(copy, pingPong);
+                assertArrayEquals(expected, pingPong);
+            }
+        }
+    }
+
+    // ====================================
+    // Galloping merge mode
+    // ====================================
+
+    @Test void
+    givenDuplicates_whenSortGallop_thenSameResultAsCopy() {
+        for (int n : new int[]{1, 2, 3, 5, 17, 64, 100, 1_000}) {
+            TestData[] sorted   = Handler.generate(n, i -> new TestData(i, i / 3));
+            for (TestData[] copy : List.of(Handler.randomize(sorted), Handler.randomize(sorted, 5))) {
+                TestData[] gallop   = copy.clone();
+                TestData[] expected = copy.clone();
+                Arrays.sort(expected);
+                BinomialSortAdaptive.sort(copy, 7, Merge.Mode.COPY);
+                BinomialSortAdaptive.sort(gallop, 7, Merge.Mode.GALLOP);
+                assertArrayEquals(copy, gallop);
+                assertArrayEquals(expected, gallop);
+            }
+        }
+    }
+
+    @Test void
+    givenSortedInput_whenSortGallop_thenNoMoreComparesThanCopy() {
+        for (int n : new int[]{1, 2, 3, 5, 17, 64, 100, 1_000}) {
+            TestData[] sorted = Handler.generate(n, i -> new TestData(i, i / 3));
+            assertTrue(BinomialSortAdaptive.sort(sorted.clone(), 7, Merge.Mode.GALLOP) <= BinomialSortAdaptive.sort(sorted.clone(), 7, Merge.Mode.COPY));
+        }
+    }
 }
@@ -0,0 +1,70 @@
+package sorting;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import data.Handler;
+
+public class BinomialSortPipelinedTest {
+    static final Random r = new Random(99);
+
+    @Test void
+    givenVariousInputs_whenSort_thenSameArrayAndComparesAsSequential() {
+        for (int n : new int[]{0, 1, 2, 5, 100, 10_000, 50_000}) {
+            Integer[][] inputs = {
+                Handler.generate(n, i -> r.nextInt()),
+                Handler.generate(n, i -> i),
+                Handler.generate(n, i -> n - i),
+                Handler.generate(n, i -> i % 100 < 95 ? i : r.nextInt(n)),
+            };
+            for (Integer[] in : inputs) {
+                for (Merge.Mode mode : Merge.Mode.values()) {
+                    for (int ahead : new int[]{1, 64}) {
+                        Integer[] expected = in.clone(), actual = in.clone();
+                        long compares = BinomialSortAdaptive.sort(expected, 8, mode);
+                        assertEquals(compares, BinomialSortPipelined.sort(actual, 8, mode, ahead));
+                        assertArrayEquals(expected, actual);
+                    }
+                }
+            }
+        }
+    }
+
+    // An element that cannot be compared with 13, or with 42 without an error
+    record Fragile(int v) implements Comparable<Fragile> {
+        @Override public int compareTo(Fragile o) {
+            if (v == 13 || o.v == 13) throw new UnsupportedOperationException("13");
+            if (v == 42 || o.v == 42) throw new StackOverflowError("42");
+            return Integer.compare(v, o.v);
+        }
+    }
+
+    @Test void
+    givenFailingCompare_whenSort_thenThrownInCaller() {
+        for (int n : new int[]{1_000, 3 * BinomialSortPipelined.MIN_PIPELINED}) {
+            Fragile[] a = Handler.generate(n, i -> new Fragile(n - i + 100));
+            a[n - 1]    = new Fragile(13);
+            assertThrows(UnsupportedOperationException.class, () -> BinomialSortPipelined.sort(a, 4));
+        }
+    }
+
+    @Test void
+    givenErrorInProducer_whenSort_thenSameErrorInCaller() {
+        int n       = 3 * BinomialSortPipelined.MIN_PIPELINED;
+        Fragile[] a = Handler.generate(n, i -> new Fragile(n - i + 100));
+        a[n - 1]    = new Fragile(42);
+        assertThrows(StackOverflowError.class, () -> BinomialSortPipelined.sort(a, 4));
+    }
+
+    @Test void
+    givenInvalidParameters_whenSort_thenException() {
+        assertThrows(IllegalArgumentException.class, () -> BinomialSortPipelined.sort(new Integer[]{2, 1}, 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> BinomialSortPipelined.sort(new Integer[]{2, 1}, 1, Merge.Mode.COPY, 0));
+    }
+}
@@ -2,8 +2,13 @@ package sorting;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 import data.Handler;
@@ -169,4 +174,84 @@ public class BottomUpMergeSortCutoffTest {
         assertEquals(23, BottomUpMergeSortCutoff.sort(duplicateElementsArray, 3));
     }    
 
+    // ====================================
+    // Primitive tests
+    // ====================================
+
+    @Test void
+    givenRandomIntArray_whenSort_thenSortedWithSameComparesAsBoxed() {
+        int[] actual    = new Random(1).ints(1_000, 0, 100).toArray();
+        Integer[] boxed = Arrays.stream(actual).boxed().toArray(Integer[]::new);
+        int[] expected  = actual.clone();
+        Arrays.sort(expected);
+        assertEquals(BottomUpMergeSortCutoff.sort(boxed, 7), BottomUpMergeSortCutoff.sort(actual, 7));
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test void
+    givenRandomLongArray_whenSort_thenSortedWithSameComparesAsBoxed() {
+        long[] actual   = new Random(2).longs(1_000).toArray();
+        Long[] boxed    = Arrays.stream(actual).boxed().toArray(Long[]::new);
+        long[] expected = actual.clone();
+        Arrays.sort(expected);
+        assertEquals(BottomUpMergeSortCutoff.sort(boxed, 7), BottomUpMergeSortCutoff.sort(actual, 7));
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test void
+    givenDoubleArrayWithSpecialValues_whenSort_thenSortedLikeBoxedDoubles() {
+        double[] actual   = {3.5, Double.NaN, -0.0, 0.0, -1.0, Double.NEGATIVE_INFINITY, 0.0, -0.0, 2.0, Double.NaN, 1e-300};
+        Double[] boxed    = Arrays.stream(actual).boxed().toArray(Double[]::new);
+        double[] expected = actual.clone();
+        Arrays.sort(expected);
+        assertEquals(BottomUpMergeSortCutoff.sort(boxed, 7), BottomUpMergeSortCutoff.sort(actual, 7));
+        assertArrayEquals(expected, actual);
+    }
+
+    // ====================================
+    // Ping-pong merge mode
+    // ====================================
+
+    @Test void
+    givenDuplicates_whenSortPingPong_thenSameResultAndComparesAsCopy() {
+        for (int n : new int[]{1, 2, 3, 5, 17, 64, 100, 1_000}) {
+            TestData[] sorted   = Handler.generate(n, i -> new TestData(i, i / 3));
+            for (TestData[] copy : List.of(Handler.randomize(sorted), Handler.randomize(sorted, 5))) {
+                TestData[] pingPong = copy.clone();
+                TestData[] expected = copy.clone();
+                Arrays.sort(expected);
+                assertEquals(BottomUpMergeSortCutoff.sort(copy, 7, Merge.Mode.COPY), BottomUpMergeSortCutoff.sort(pingPong, 7, Merge.Mode.PINGPONG));
+                assertArrayEquals(copy, pingPong);
+                assertArrayEquals(expected, pingPong);
+            }
+        }
+    }
+
+    // ====================================
+    // Galloping merge mode
+    // ====================================
+
+    @Test void
+    givenDuplicates_whenSortGallop_thenSameResultAsCopy() {
+        for (int n : new int[]{1, 2, 3, 5, 17, 64, 100, 1_000}) {
+            TestData[] sorted   = Handler.generate(n, i -> new TestData(i, i / 3));
+            for (TestData[] copy : List.of(Handler.randomize(sorted), Handler.randomize(sorted, 5))) {
+                TestData[] gallop   = copy.clone();
+                TestData[] expected = copy.clone();
+                Arrays.sort(expected);
+                BottomUpMergeSortCutoff.sort(copy, 7, Merge.Mode.COPY);
+                BottomUpMergeSortCutoff.sort(gallop, 7, Merge.Mode.GALLOP);
+                assertArrayEquals(copy, gallop);
+                assertArrayEquals(expected, gallop);
+            }
+        }
+    }
+
+    @Test void
+    givenSortedInput_whenSortGallop_thenNoMoreComparesThanCopy() {
+        for (int n : new int[]{1, 2, 3, 5, 17, 64, 100, 1_000}) {
+            TestData[] sorted = Handler.generate(n, i -> new TestData(i, i / 3));
+            assertTrue(BottomUpMergeSortCutoff.sort(sorted.clone(), 7, Merge.Mode.GALLOP) <= BottomUpMergeSortCutoff.sort(sorted.clone(), 7, Merge.Mode.COPY));
+        }
+    }
 }
@@ -0,0 +1,69 @@
+package sorting;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import data.Handler;
+import data.TestData;
+
+public class BottomUpMergeSortParallelTest {
+    static final Random r = new Random(1234);
+
+    @Test void
+    givenVariousSizesAndCutoffs_whenSort_thenSorted() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int n : new int[]{0, 1, 2, 7, 64, 1_000, 33_333}) {
+            Integer[] in = Handler.generate(n, i -> r.nextInt(n + 1));
+            Integer[] expected = in.clone();
+            Arrays.sort(expected);
+            for (int c : new int[]{1, 5, 32}) {
+                for (int p : new int[]{0, 2, 16}) {
+                    Integer[] actual = in.clone();
+                    BottomUpMergeSortParallel.sort(actual, new SortContext(pool, c, p));
+                    assertArrayEquals(expected, actual);
+                }
+            }
+        }
+        pool.shutdown();
+    }
+
+    @Test void
+    givenDifferentPools_whenSort_thenSameCompares() {
+        Integer[] in = Handler.randomize(Handler.generate(50_000, i -> i));
+        long one  = BottomUpMergeSortParallel.sort(in.clone(), new SortContext(new ForkJoinPool(1), 16, 8));
+        long many = BottomUpMergeSortParallel.sort(in.clone(), new SortContext(new ForkJoinPool(6), 16, 8));
+        assertEquals(one, many);
+    }
+
+    @Test void
+    givenNoParallelMerges_whenSort_thenComparesOfLevelwiseMerges() {
+        // Sorted input: 3 compares per block of 4, and a merge of two runs takes the length of the left run
+        Integer[] a = Handler.generate(16, i -> i);
+        assertEquals(4 * 3 + 2 * 4 + 8, BottomUpMergeSortParallel.sort(a, new SortContext(new ForkJoinPool(2), 4, 0)));
+        assertTrue(Util.isSorted(a));
+    }
+
+    @Test void
+    givenEqualKeys_whenSort_thenStable() {
+        TestData[] a = Handler.generate(20_000, i -> new TestData(i, (i * 13) % 101));
+        BottomUpMergeSortParallel.sort(a, 8, 4);
+        for (int i = 1; i < a.length; i++)
+            if (a[i].compareTo(a[i - 1]) == 0) assertTrue(a[i - 1].id() < a[i].id());
+    }
+
+    @Test void
+    givenContext_whenSort_thenWorkAndSpanRecorded() {
+        SortContext ctx = new SortContext(new ForkJoinPool(4), 8, 4);
+        long compares   = BottomUpMergeSortParallel.sort(Handler.randomize(Handler.generate(10_000, i -> i)), ctx);
+        assertEquals(compares, ctx.work());
+        assertTrue(ctx.span() < ctx.work());
+        ctx.pool().shutdown();
+    }
+}
@@ -2,6 +2,11 @@ package sorting;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 
 import org.junit.jupiter.api.Test;
@@ -161,6 +166,84 @@ public class BottomUpMergeSortTest {
         assertEquals(25, BottomUpMergeSort.sort(duplicateElementsArray));
     }    
 
+    // ====================================
+    // Primitive tests
+    // ====================================
+
+    @Test void
+    givenRandomIntArray_whenSort_thenSortedWithSameComparesAsBoxed() {
+        int[] actual    = new Random(1).ints(1_000, 0, 100).toArray();
+        Integer[] boxed = Arrays.stream(actual).boxed().toArray(Integer[]::new);
+        int[] expected  = actual.clone();
+        Arrays.sort(expected);
+        assertEquals(BottomUpMergeSort.sort(boxed), BottomUpMergeSort.sort(actual));
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test void
+    givenRandomLongArray_whenSort_thenSortedWithSameComparesAsBoxed() {
+        long[] actual   = new Random(2).longs(1_000).toArray();
+        Long[] boxed    = Arrays.stream(actual).boxed().toArray(Long[]::new);
+        long[] expected = actual.clone();
+        Arrays.sort(expected);
+        assertEquals(BottomUpMergeSort.sort(boxed), BottomUpMergeSort.sort(actual));
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test void
+    givenDoubleArrayWithSpecialValues_whenSort_thenSortedLikeBoxedDoubles() {
+        double[] actual   = {3.5, Double.NaN, -0.0, 0.0, -1.0, Double.NEGATIVE_INFINITY, 0.0, -0.0, 2.0, Double.NaN, 1e-300};
+        Double[] boxed    = Arrays.stream(actual).boxed().toArray(Double[]::new);
+        double[] expected = actual.clone();
+        Arrays.sort(expected);
+        assertEquals(BottomUpMergeSort.sort(boxed), BottomUpMergeSort.sort(actual));
+        assertArrayEquals(expected, actual);
+    }
 
+    // ====================================
+    // Ping-pong merge mode
+    // ====================================
+
+    @Test void
+    givenDuplicates_whenSortPingPong_thenSameResultAndComparesAsCopy() {
+        for (int n : new int[]{1, 2, 3, 5, 17, 64, 100, 1_000}) {
+            TestData[] sorted   = Handler.generate(n, i -> new TestData(i, i / 3));
+            for (TestData[] copy : List.of(Handler.randomize(sorted), Handler.randomize(sorted, 5))) {
+                TestData[] pingPong = copy.clone();
+                TestData[] expected = copy.clone();
+                Arrays.sort(expected);
+                assertEquals(BottomUpMergeSort.sort(copy, Merge.Mode.COPY), BottomUpMergeSort.sort(pingPong, Merge.Mode.PINGPONG));
+                assertArrayEquals(copy, pingPong);
+                assertArrayEquals(expected, pingPong);
+            }
+        }
+    }
 
+    // ====================================
+    // Galloping merge mode
+    // ====================================
+
+    @Test void
+    givenDuplicates_whenSortGallop_thenSameResultAsCopy() {
+        for (int n : new int[]{1, 2, 3, 5, 17, 64, 100, 1_000}) {
+            TestData[] sorted   = Handler.generate(n, i -> new TestData(i, i / 3));
+            for (TestData[] copy : List.of(Handler.randomize(sorted), Handler.randomize(sorted, 5))) {
+                TestData[] gallop   = copy.clone();
+                TestData[] expected = copy.clone();
+                Arrays.sort(expected);
+                BottomUpMergeSort.sort(copy, Merge.Mode.COPY);
+                BottomUpMergeSort.sort(gallop, Merge.Mode.GALLOP);
+                assertArrayEquals(copy, gallop);
+                assertArrayEquals(expected, gallop);
+            }
+        }
+    }
+
+    @Test void
+    givenSortedInput_whenSortGallop_thenNoMoreComparesThanCopy() {
+        for (int n : new int[]{1, 2, 3, 5, 17, 64, 100, 1_000}) {
+            TestData[] sorted = Handler.generate(n, i -> new TestData(i, i / 3));
+            assertTrue(BottomUpMergeSort.sort(sorted.clone(), Merge.Mode.GALLOP) <= BottomUpMergeSort.sort(sorted.clone(), Merge.Mode.COPY));
+        }
+    }
 }
@@ -0,0 +1,81 @@
+package sorting;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import data.Handler;
+import data.TestData;
+
+public class ExternalMergeSortTest {
+
+    // Writes the elements one per line to a file in a fresh directory, which also serves as the temporary directory
+    private static Path write(TestData[] data) throws IOException {
+        Path dir = Files.createTempDirectory("external");
+        Path in  = dir.resolve("in");
+        Files.write(in, Arrays.stream(data).map(TestData::toString).toList());
+        return in;
+    }
+
+    private static TestData[] read(Path file) throws IOException {
+        return Files.readAllLines(file).stream().map(TestData::from).toArray(TestData[]::new);
+    }
+
+    private static void delete(Path in) throws IOException {
+        try (var files = Files.list(in.getParent())) { for (Path p : files.toList()) Files.delete(p); }
+        Files.delete(in.getParent());
+    }
+
+    @Test void
+    givenManyRunsAndSmallFanIn_whenSort_thenSortedStablyInSeveralPasses() throws IOException {
+        TestData[] data     = Handler.randomize(Handler.generate(10_000, i -> new TestData(i, i / 7)));
+        TestData[] expected = data.clone();
+        Arrays.sort(expected);
+        Path in  = write(data);
+        Path out = in.resolveSibling("out");
+        long compares = ExternalMergeSort.sort(in, out, TestData::from,
+            new ExternalMergeSort.Config(333, 4, in.getParent(), 128));
+        assertArrayEquals(expected, read(out));
+        assertTrue(compares > 0);
+        assertEquals(List.of(in, out), Files.list(in.getParent()).sorted().toList()); // Runs are cleaned up
+        delete(in);
+    }
+
+    @Test void
+    givenSingleChunk_whenSort_thenSameComparesAsInMemory() throws IOException {
+        TestData[] data = Handler.randomize(Handler.generate(1_000, i -> new TestData(i, i / 3)));
+        Path in  = write(data);
+        Path out = in.resolveSibling("out");
+        long compares = ExternalMergeSort.sort(in, out, TestData::from,
+            new ExternalMergeSort.Config(1_000, 2, in.getParent(), 1 << 16));
+        assertEquals(LevelSortAdaptive.sort(data, 16, Merge.Mode.HALF), compares);
+        assertArrayEquals(data, read(out));
+        delete(in);
+    }
+
+    @Test void
+    givenEmptyFile_whenSort_thenEmptyOutput() throws IOException {
+        Path in  = write(new TestData[0]);
+        Path out = in.resolveSibling("out");
+        assertEquals(0, ExternalMergeSort.sort(in, out, TestData::from, new ExternalMergeSort.Config(10, 2, in.getParent(), 16)));
+        assertEquals(0, Files.size(out));
+        delete(in);
+    }
+
+    @Test void
+    givenInvalidConfig_whenCreate_thenThrow() {
+        Path tmp = Path.of(System.getProperty("java.io.tmpdir"));
+        assertThrows(IllegalArgumentException.class, () -> new ExternalMergeSort.Config(0, 2, tmp, 16));
+        assertThrows(IllegalArgumentException.class, () -> new ExternalMergeSort.Config(10, 1, tmp, 16));
+        assertThrows(IllegalArgumentException.class, () -> new ExternalMergeSort.Config(10, 2, tmp, 0));
+    }
+}
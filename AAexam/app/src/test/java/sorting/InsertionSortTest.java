@@ -3,6 +3,9 @@ package sorting;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.Arrays;
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 import data.Handler;
@@ -157,4 +160,37 @@ public class InsertionSortTest {
         assertEquals(24, InsertionSort.sort(duplicateElementsArray));
     } 
 
+    // ====================================
+    // Primitive tests
+    // ====================================
+
+    @Test void
+    givenRandomIntArray_whenSort_thenSortedWithSameComparesAsBoxed() {
+        int[] actual    = new Random(1).ints(300, 0, 100).toArray();
+        Integer[] boxed = Arrays.stream(actual).boxed().toArray(Integer[]::new);
+        int[] expected  = actual.clone();
+        Arrays.sort(expected);
+        assertEquals(InsertionSort.sort(boxed), InsertionSort.sort(actual));
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test void
+    givenRandomLongArray_whenSort_thenSortedWithSameComparesAsBoxed() {
+        long[] actual   = new Random(2).longs(300).toArray();
+        Long[] boxed    = Arrays.stream(actual).boxed().toArray(Long[]::new);
+        long[] expected = actual.clone();
+        Arrays.sort(expected);
+        assertEquals(InsertionSort.sort(boxed), InsertionSort.sort(actual));
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test void
+    givenDoubleArrayWithSpecialValues_whenSort_thenSortedLikeBoxedDoubles() {
+        double[] actual   = {3.5, Double.NaN, -0.0, 0.0, -1.0, Double.NEGATIVE_INFINITY, 0.0, -0.0, 2.0, Double.NaN, 1e-300};
+        Double[] boxed    = Arrays.stream(actual).boxed().toArray(Double[]::new);
+        double[] expected = actual.clone();
+        Arrays.sort(expected);
+        assertEquals(InsertionSort.sort(boxed), InsertionSort.sort(actual));
+        assertArrayEquals(expected, actual);
+    }
 }
@@ -0,0 +1,64 @@
+package sorting;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import data.Handler;
+import data.TestData;
+
+public class LazyFunnelSortTest {
+    static final Random r = new Random(31337);
+
+    @Test void
+    givenVariousSizes_whenSort_thenSortedAsArraysSort() {
+        for (int n : new int[]{0, 1, 2, 16, 17, 100, 1_000, 4_097, 100_000, 300_000}) {
+            Integer[] a        = Handler.generate(n, i -> r.nextInt(n + 1));
+            Integer[] expected = a.clone();
+            Arrays.sort(expected);
+            LazyFunnelSort.sort(a);
+            assertArrayEquals(expected, a);
+        }
+    }
+
+    @Test void
+    givenPresortedInputs_whenSort_thenSorted() {
+        Integer[] ascending  = Handler.generate(50_000, i -> i);
+        Integer[] descending = Handler.generate(50_000, i -> -i);
+        LazyFunnelSort.sort(ascending);
+        LazyFunnelSort.sort(descending);
+        assertTrue(Util.isSorted(ascending));
+        assertTrue(Util.isSorted(descending));
+    }
+
+    @Test void
+    givenEqualKeys_whenSort_thenStable() {
+        TestData[] a = Handler.generate(30_000, i -> new TestData(i, (i * 7) % 53));
+        LazyFunnelSort.sort(a);
+        for (int i = 1; i < a.length; i++) {
+            assertTrue(a[i - 1].compareTo(a[i]) <= 0);
+            if (a[i].compareTo(a[i - 1]) == 0) assertTrue(a[i - 1].id() < a[i].id());
+        }
+    }
+
+    @Test void
+    givenSmallArray_whenSort_thenComparesOfInsertionSort() {
+        Integer[] a = Handler.randomize(Handler.generate(LazyFunnelSort.BASE, i -> i));
+        Integer[] b = a.clone();
+        assertEquals(InsertionSort.sort(b), LazyFunnelSort.sort(a));
+    }
+
+    @Test void
+    givenRandomInput_whenSort_thenComparesNearInformationBound() {
+        int n       = 1 << 16;
+        long compares = LazyFunnelSort.sort(Handler.randomize(Handler.generate(n, i -> i)));
+        // Every merge is stable and counts at most one compare per element written, at a few levels of funnels
+        assertTrue(compares >= n * 14, "compares " + compares);
+        assertTrue(compares <= n * 20, "compares " + compares);
+    }
+}
@@ -2,8 +2,13 @@ package sorting;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
 
 import org.junit.jupiter.api.Test;
 
@@ -87,7 +92,7 @@ public class LevelSortAdaptiveTest {
     @Test
     void givenOneRunArray_LevelSortAdaptiveGreaterc_thenReturnNumberOfCompares() {
         Integer[] oneRunArray = new Integer[]{2,1,0,-1};
-        int expectedCompares = oneRunArray.length -1 + InsertionSort.sort(new Integer[]{-1,0,1,2});
+        long expectedCompares = oneRunArray.length -1 + InsertionSort.sort(new Integer[]{-1,0,1,2});
         assertEquals(expectedCompares, LevelSortAdaptive.sort(oneRunArray, 10));
     }
 
@@ -107,7 +112,7 @@ public class LevelSortAdaptiveTest {
     void givenSmallIncreasingRunsArray_whenLevelSortAdaptivec3_thenReturnNumberOfCompares() {
         Integer[] smallIncreasingRunsArray = new Integer[]{0,2,4,3,3,3,0,1,1,0,10};
         int exploringCost = (3 + 3 + 3 + 2) - 1;
-        int expectedCost = LevelSort.sort(smallIncreasingRunsArray.clone(), 3) + exploringCost;
+        long expectedCost = LevelSort.sort(smallIncreasingRunsArray.clone(), 3) + exploringCost;
         assertEquals(expectedCost, LevelSortAdaptive.sort(smallIncreasingRunsArray, 3));
     }
 
@@ -263,4 +268,109 @@ public class LevelSortAdaptiveTest {
     //    TestData::from); 
     //    assertEquals(27, LevelSortAdaptive.sort(duplicateElementsArray, 3));
     //} 
+
+    // ====================================
+    // Primitive tests
+    // ====================================
+
+    @Test void
+    givenRandomIntArray_whenSort_thenSortedWithSameComparesAsBoxed() {
+        int[] actual    = new Random(1).ints(1_000, 0, 100).toArray();
+        Integer[] boxed = Arrays.stream(actual).boxed().toArray(Integer[]::new);
+        int[] expected  = actual.clone();
+        Arrays.sort(expected);
+        assertEquals(LevelSortAdaptive.sort(boxed, 7), LevelSortAdaptive.sort(actual, 7));
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test void
+    givenRandomLongArray_whenSort_thenSortedWithSameComparesAsBoxed() {
+        long[] actual   = new Random(2).longs(1_000).toArray();
+        Long[] boxed    = Arrays.stream(actual).boxed().toArray(Long[]::new);
+        long[] expected = actual.clone();
+        Arrays.sort(expected);
+        assertEquals(LevelSortAdaptive.sort(boxed, 7), LevelSortAdaptive.sort(actual, 7));
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test void
+    givenDoubleArrayWithSpecialValues_whenSort_thenSortedLikeBoxedDoubles() {
+        double[] actual   = {3.5, Double.NaN, -0.0, 0.0, -1.0, Double.NEGATIVE_INFINITY, 0.0, -0.0, 2.0, Double.NaN, 1e-300};
+        Double[] boxed    = Arrays.stream(actual).boxed().toArray(Double[]::new);
+        double[] expected = actual.clone();
+        Arrays.sort(expected);
+        assertEquals(LevelSortAdaptive.sort(boxed, 7), LevelSortAdaptive.sort(actual, 7));
+        assertArrayEquals(expected, actual);
+    }
+
+    // ====================================
+    // Ping-pong merge mode
+    // ====================================
+
+    @Test void
+    givenDuplicates_whenSortPingPong_thenSameResultAndComparesAsCopy() {
+        for (int n : new int[]{1, 2, 3, 5, 17, 64, 100, 1_000}) {
+            TestData[] sorted   = Handler.generate(n, i -> new TestData(i, i / 3));
+            for (TestData[] copy : List.of(Handler.randomize(sorted), Handler.randomize(sorted, 5))) {
+                TestData[] pingPong = copy.clone();
+                TestData[] expected = copy.clone();
+                Arrays.sort(expected);
+                assertEquals(LevelSortAdaptive.sort(copy, 7, Merge.Mode.COPY), LevelSortAdaptive.sort(pingPong, 7, Merge.Mode.PINGPONG));
+                assertArrayEquals(copy, pingPong);
+                assertArrayEquals(expected, pingPong);
+            }
+        }
+    }
+
+    // ====================================
+    // Galloping merge mode
+    // ====================================
+
+    @Test void
+    givenDuplicates_whenSortGallop_thenSameResultAsCopy() {
+        for (int n : new int[]{1, 2, 3, 5, 17, 64, 100, 1_000}) {
+            TestData[] sorted   = Handler.generate(n, i -> new TestData(i, i / 3));
+            for (TestData[] copy : List.of(Handler.randomize(sorted), Handler.randomize(sorted, 5))) {
+                TestData[] gallop   = copy.clone();
+                TestData[] expected = copy.clone();
+                Arrays.sort(expected);
+                LevelSortAdaptive.sort(copy, 7, Merge.Mode.COPY);
+                LevelSortAdaptive.sort(gallop, 7, Merge.Mode.GALLOP);
+                assertArrayEquals(copy, gallop);
+                assertArrayEquals(expected, gallop);
+            }
+        }
+    }
+
+    @Test void
+    givenSortedInput_whenSortGallop_thenNoMoreComparesThanCopy() {
+        for (int n : new int[]{1, 2, 3, 5, 17, 64, 100, 1_000}) {
+            TestData[] sorted = Handler.generate(n, i -> new TestData(i, i / 3));
+            assertTrue(LevelSortAdaptive.sort(sorted.clone(), 7, Merge.Mode.GALLOP) <= LevelSortAdaptive.sort(sorted.clone(), 7, Merge.Mode.COPY));
+        }
+    }
+
+    // ====================================
+    // Sorting a prefix
+    // ====================================
+
+    @Test void
+    givenPartlyFilledArray_whenSortPrefix_thenPrefixSortedWithSameComparesAndTailUntouched() {
+        TestData[] sorted = Handler.generate(1_000, i -> new TestData(i, i / 3));
+        TestData[] array  = Handler.randomize(sorted);
+        int n             = 700;
+        TestData[] prefix = Arrays.copyOf(array, n);
+        TestData[] tail   = Arrays.copyOfRange(array, n, array.length);
+        long expected     = LevelSortAdaptive.sort(prefix, new TestData[n], 7, Merge.Mode.COPY);
+        assertEquals(expected, LevelSortAdaptive.sort(array, n, new TestData[n], 7, Merge.Mode.COPY));
+        assertArrayEquals(prefix, Arrays.copyOf(array, n));
+        assertArrayEquals(tail, Arrays.copyOfRange(array, n, array.length));
+    }
+
+    @Test void
+    givenLengthBeyondArray_whenSortPrefix_thenThrowsException() {
+        Exception e = assertThrows(IllegalArgumentException.class,
+        () -> LevelSortAdaptive.sort(new Integer[]{1,2,3}, 4, new Integer[4], 7, Merge.Mode.COPY));
+        assertEquals("The number of elements to sort must be within the array.", e.getMessage());
+    }
 }
@@ -2,6 +2,10 @@ package sorting;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
 
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -32,7 +36,7 @@ public class MergeParallelTest {
     @Test void givenEvenSubarrays_whenMerge_thenReturnNumberOfCompares() {
         Integer[] a   = new Integer[]{3,4,1,2};
         Integer[] aux = a.clone();
-        assertEquals(3, merge(a, aux, 0, 1, 3, 2));
+        assertEquals(1, merge(a, aux, 0, 1, 3, 2));  // Only the search for the pivot 3 among {1,2}
     }
 
 
@@ -51,7 +55,7 @@ public class MergeParallelTest {
         Integer[] a = new Integer[]{7,2,3,5,4,6,5,4,3,2,1};
         Integer[] aux = a.clone();
         int compares = merge(a, aux, 1, 3, 5, 2);
-        assertEquals(5, compares);
+        assertEquals(4, compares);
     }
 
     //-----------------------------------
@@ -72,6 +76,117 @@ public class MergeParallelTest {
             Handler.streamFile("unittest/duplicateInSubarrays.TestData.in"), TestData::from); 
         TestData[] aux = a.clone();
         int compares = merge(a, aux, 0, 3, 7, 2);
-        assertEquals(7, compares);
+        assertEquals(8, compares);
+    }
+
+    //-----------------------------------
+    //Case: Primitive arrays
+    //-----------------------------------
+    @Test void givenIntSubarrays_whenMerge_thenMergeWithSameComparesAsBoxed() {
+        int[] a         = new int[]{7,2,3,5,4,6,5,4,3,2,1};
+        Integer[] boxed = new Integer[]{7,2,3,5,4,6,5,4,3,2,1};
+        int[] expected  = new int[]{7,2,3,4,5,6,5,4,3,2,1};
+        assertEquals(merge(boxed, boxed.clone(), 1, 3, 5, 2), merge(a, a.clone(), 1, 3, 5, 2));
+        assertArrayEquals(expected, a);
+    }
+
+    @Test void givenLongSubarrays_whenMerge_thenMerge() {
+        long[] a = new long[]{3,4,1,2};
+        merge(a, a.clone(), 0, 1, 3, 2);
+        assertArrayEquals(new long[]{1,2,3,4}, a);
+    }
+
+    @Test void givenDoubleSubarrays_whenMerge_thenMerge() {
+        double[] a = new double[]{-0.0, 2.5, Double.NaN, -1.0, 0.0, 2.5};
+        merge(a, a.clone(), 0, 2, 5, 3);
+        assertArrayEquals(new double[]{-1.0, -0.0, 0.0, 2.5, 2.5, Double.NaN}, a);
+    }
+
+    //-----------------------------------
+    //Case: Galloping chunk merges
+    //-----------------------------------
+    @Test void givenDuplicateElements_whenMergeGallop_thenMergesStably() {
+        TestData[] a = Handler.readData(
+            Handler.streamFile("unittest/duplicateInSubarrays.TestData.in"), TestData::from); 
+        TestData[] expected = Handler.readData(
+            Handler.streamFile("unittest/duplicateInSubarrays.TestData.out"), TestData::from); 
+        merge(a, a.clone(), 0, 3, 7, 2, Merge.Mode.GALLOP);
+        assertArrayEquals(expected, a);
+    }
+
+    @Test void givenRandomRunsWithLongStretches_whenMergeGallop_thenSameResultAsSequentialMerge() {
+        Random random = new Random(42);
+        for (int p : new int[]{1, 2, 3, 8}) {
+            for (int trial = 0; trial < 50; trial++) {
+                int n   = 16 + random.nextInt(300);
+                int mid = random.nextInt(n - 1);
+                int spread = 1 + random.nextInt(50);
+                TestData[] a = Handler.generate(n, i -> new TestData(i, random.nextInt(spread)));
+                Arrays.sort(a, 0, mid + 1);
+                Arrays.sort(a, mid + 1, n);
+                TestData[] expected = a.clone();
+                Merge.merge(expected, new TestData[n], 0, mid, n - 1);
+                merge(a, new TestData[n], 0, mid, n - 1, p, Merge.Mode.GALLOP);
+                assertArrayEquals(expected, a);
+            }
+        }
+    }
+
+    @Test void givenSubarraysAlreadyInOrder_whenMergeGallop_thenFewerComparesThanCopy() {
+        Integer[] a = new Integer[2_000];
+        for (int i = 0; i < a.length; i++) a[i] = i;
+        int gallop = merge(a.clone(), new Integer[2_000], 0, 999, 1_999, 4, Merge.Mode.GALLOP);
+        int copy   = merge(a.clone(), new Integer[2_000], 0, 999, 1_999, 4, Merge.Mode.COPY);
+        assertTrue(gallop < copy);
+    }
+
+    //-----------------------------------
+    //Case: Divide and conquer splitting
+    //-----------------------------------
+    @Test void givenOneTask_whenMerge_thenSameComparesAsSequentialMerge() {
+        Integer[] a = new Integer[]{7,2,3,5,4,6,5,4,3,2,1};
+        int expected = Merge.merge(a.clone(), new Integer[11], 1, 3, 5);
+        assertEquals(expected, merge(a, a.clone(), 1, 3, 5, 1));
+    }
+
+    @Test void givenRandomRunsWithDuplicates_whenMerge_thenSameResultAsSequentialMerge() {
+        Random random = new Random(7);
+        for (int p : new int[]{1, 2, 3, 8, 64}) {
+            for (int trial = 0; trial < 50; trial++) {
+                int n   = 2 + random.nextInt(2_000);
+                int mid = random.nextInt(n - 1);
+                int spread = 1 + random.nextInt(100);
+                TestData[] a = Handler.generate(n, i -> new TestData(i, random.nextInt(spread)));
+                Arrays.sort(a, 0, mid + 1);
+                Arrays.sort(a, mid + 1, n);
+                TestData[] expected = a.clone();
+                Merge.merge(expected, new TestData[n], 0, mid, n - 1);
+                merge(a, new TestData[n], 0, mid, n - 1, p);
+                assertArrayEquals(expected, a);
+            }
+        }
+    }
+
+    @Test void givenManyTasks_whenMergeMeasuringSpan_thenSpanIsPolylogarithmic() {
+        int n = 1 << 16;
+        Integer[] a = Handler.generate(n, i -> (i < n/2) ? 2*i : 2*(i - n/2) + 1);  // Perfectly interleaved runs
+        int work = merge(a.clone(), new Integer[n], 0, n/2 - 1, n - 1, n / 16, false);
+        int span = merge(a,         new Integer[n], 0, n/2 - 1, n - 1, n / 16, true);
+        assertTrue(span < work);
+        assertTrue(span <= 17 * 17 + 16, "span " + span);  // log^2 n for the searches plus one leaf merge
+    }
+
+    @Test void givenIntRuns_whenMergeMeasuringSpan_thenSameAsBoxed() {
+        Random random = new Random(3);
+        int[] a = random.ints(1_000, 0, 50).toArray();
+        Arrays.sort(a, 0, 400);
+        Arrays.sort(a, 400, 1_000);
+        Integer[] boxed = Arrays.stream(a).boxed().toArray(Integer[]::new);
+        assertEquals(merge(boxed.clone(), new Integer[1_000], 0, 399, 999, 8, true),
+                     merge(a.clone(),     new int[1_000],     0, 399, 999, 8, true));
+        assertEquals(merge(boxed, new Integer[1_000], 0, 399, 999, 8), merge(a, new int[1_000], 0, 399, 999, 8));
+        int[] expected = a.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, a);
     }
 }
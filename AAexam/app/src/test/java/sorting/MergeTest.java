@@ -2,6 +2,11 @@ package sorting;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
@@ -64,5 +69,147 @@ public class MergeTest {
         assertEquals(7, Merge.merge(duplicateElementsArray, new TestData[8], 0, 3, 7));
     }
 
+    //-----------------------------------
+    //Case: Primitive arrays
+    //-----------------------------------
+    @Test
+    void givenIntSubarrays_whenMerge_thenMergeWithSameComparesAsBoxed() {
+        int[] a = new int[]{7,2,3,5,4,6,5,4,3,2,1};
+        Integer[] boxed = new Integer[]{7,2,3,5,4,6,5,4,3,2,1};
+        assertEquals(Merge.merge(boxed, new Integer[11], 1, 3, 5), Merge.merge(a, new int[11], 1, 3, 5));
+        assertArrayEquals(new int[]{7,2,3,4,5,6,5,4,3,2,1}, a);
+    }
+
+    @Test
+    void givenLongSubarrays_whenMerge_thenMerge() {
+        long[] a = new long[]{3,4,1,2};
+        assertEquals(2, Merge.merge(a, new long[4], 0, 1, 3));
+        assertArrayEquals(new long[]{1,2,3,4}, a);
+    }
+
+    @Test
+    void givenDoubleSubarraysWithSignedZeros_whenMerge_thenNegativeZeroFirst() {
+        double[] a = new double[]{0.0, Double.NaN, -0.0, 1.0};
+        Merge.merge(a, new double[4], 0, 1, 3);
+        assertArrayEquals(new double[]{-0.0, 0.0, 1.0, Double.NaN}, a);
+    }
+
+    //-----------------------------------
+    //Case: Ping-pong merging between the two buffers
+    //-----------------------------------
+    @Test
+    void givenSubarraysInSource_whenMergeInto_thenMergedInDestinationAndSourceUntouched() {
+        Integer[] src = new Integer[]{7,2,3,5,4,6,5};
+        Integer[] dst = new Integer[7];
+        assertEquals(4, Merge.mergeInto(src, dst, 1, 3, 5));
+        assertArrayEquals(new Integer[]{null,2,3,4,5,6,null}, dst);
+        assertArrayEquals(new Integer[]{7,2,3,5,4,6,5}, src);
+    }
+
+    @Test
+    void givenDuplicateElements_whenMergeInto_thenMergesStably() {
+        TestData[] src = Handler.readData(Handler.streamFile("unittest/duplicateInSubarrays.TestData.in"), 
+        TestData::from); 
+        TestData[] expectedArray = Handler.readData(Handler.streamFile("unittest/duplicateInSubarrays.TestData.out"), 
+        TestData::from); 
+        TestData[] dst = new TestData[8];
+        assertEquals(7, Merge.mergeInto(src, dst, 0, 3, 7));
+        assertArrayEquals(expectedArray, dst);
+    }
+
+    @Test
+    void givenLeftInAuxAndRightInA_whenPingPongMerge_thenMergedIntoA() {
+        Integer[] a   = new Integer[]{0,0,1,2};
+        Integer[] aux = new Integer[]{3,4,0,0};
+        assertEquals(2, Merge.merge(a, aux, 0, 1, 3, true, false));
+        assertArrayEquals(new Integer[]{1,2,3,4}, a);
+    }
+
+    @Test
+    void givenBothRunsInA_whenPingPongMerge_thenMergedIntoAux() {
+        Integer[] a   = new Integer[]{3,4,1,2};
+        Integer[] aux = new Integer[4];
+        assertEquals(2, Merge.merge(a, aux, 0, 1, 3, false, false));
+        assertArrayEquals(new Integer[]{1,2,3,4}, aux);
+    }
+
+    //-----------------------------------
+    //Case: Galloping merge
+    //-----------------------------------
+    @Test
+    void givenUnevenSubarrays_whenGallopMerge_thenMergeWithSearchCompares() {
+        Integer[] a = new Integer[]{1,2,3,10,4,5,6,7};
+        assertEquals(9, Merge.gallopMerge(a, new Integer[8], 0, 3, 7));
+        assertArrayEquals(new Integer[]{1,2,3,4,5,6,7,10}, a);
+    }
+
+    @Test
+    void givenSubarraysAlreadyInOrder_whenGallopMerge_thenOnlySearch() {
+        Integer[] a        = new Integer[2_000];
+        for (int i = 0; i < a.length; i++) a[i] = i;
+        Integer[] expected = a.clone();
+        assertTrue(Merge.gallopMerge(a, new Integer[2_000], 0, 999, 1_999) < 25);
+        assertArrayEquals(expected, a);
+    }
 
+    @Test
+    void givenDuplicateElements_whenGallopMerge_thenMergesStably() {
+        TestData[] a = Handler.readData(Handler.streamFile("unittest/duplicateInSubarrays.TestData.in"), 
+        TestData::from); 
+        TestData[] expectedArray = Handler.readData(Handler.streamFile("unittest/duplicateInSubarrays.TestData.out"), 
+        TestData::from); 
+        Merge.gallopMerge(a, new TestData[8], 0, 3, 7);
+        assertArrayEquals(expectedArray, a);
+    }
+
+    @Test
+    void givenRandomRunsWithLongStretches_whenGallopMerge_thenSameResultAsMerge() {
+        Random random = new Random(42);
+        for (int trial = 0; trial < 200; trial++) {
+            int n   = 2 + random.nextInt(300);
+            int mid = random.nextInt(n - 1);
+            int spread = 1 + random.nextInt(50);          // Few distinct values give long stretches and ties
+            TestData[] a = Handler.generate(n, i -> new TestData(i, random.nextInt(spread)));
+            Arrays.sort(a, 0, mid + 1);
+            Arrays.sort(a, mid + 1, n);
+            TestData[] expected = a.clone();
+            Merge.merge(expected, new TestData[n], 0, mid, n - 1);
+            Merge.gallopMerge(a, new TestData[n], 0, mid, n - 1);
+            assertArrayEquals(expected, a);
+        }
+    }
+
+    //Case: Half buffer merge
+    //-----------------------------------
+    @Test
+    void givenRandomRuns_whenHalfMergeWithShorterRunBuffer_thenSameResultAsMerge() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 200; trial++) {
+            int n   = 2 + random.nextInt(300);
+            int mid = random.nextInt(n - 1);
+            TestData[] a = Handler.generate(n, i -> new TestData(i, random.nextInt(20)));
+            Arrays.sort(a, 0, mid + 1);
+            Arrays.sort(a, mid + 1, n);
+            TestData[] expected = a.clone();
+            int compares = Merge.merge(expected, new TestData[n], 0, mid, n - 1);
+            int half     = Merge.halfMerge(a, new TestData[Math.min(mid + 1, n - 1 - mid)], 0, mid, n - 1);
+            assertArrayEquals(expected, a);
+            if (mid + 1 <= n - 1 - mid) assertEquals(compares, half); // Merged forward
+        }
+    }
+
+    @Test
+    void givenLongerLeftRun_whenMergeWithHalfMode_thenMergedBackwardStably() {
+        TestData[] a        = {new TestData(0, 1), new TestData(1, 2), new TestData(2, 2), new TestData(3, 3),
+                               new TestData(4, 2), new TestData(5, 4)};
+        TestData[] expected = {a[0], a[1], a[2], a[4], a[3], a[5]};
+        Merge.merge(a, new TestData[3], 0, 3, 5, Merge.Mode.HALF);
+        assertArrayEquals(expected, a);
+    }
+
+    @Test
+    void givenPingPongMode_whenMergeWithMode_thenThrow() {
+        Integer[] a = new Integer[]{3,4,1,2};
+        assertThrows(IllegalArgumentException.class, () -> Merge.merge(a, new Integer[4], 0, 1, 3, Merge.Mode.PINGPONG));
+    }
 }
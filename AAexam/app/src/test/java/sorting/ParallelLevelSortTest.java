@@ -0,0 +1,87 @@
+package sorting;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import data.Handler;
+import data.TestData;
+
+public class ParallelLevelSortTest {
+    static final Random r = new Random(2024);
+
+    // Inputs with few, many, long, short, ascending and descending runs
+    static Integer[][] inputs(int n) {
+        return new Integer[][]{
+            Handler.generate(n, i -> r.nextInt()),
+            Handler.generate(n, i -> r.nextInt(10)),
+            Handler.generate(n, i -> i),
+            Handler.generate(n, i -> n - i),
+            Handler.generate(n, i -> i % 37),
+            Handler.generate(n, i -> (i / 50) % 2 == 0 ? i : -i),
+            Handler.generate(n, i -> i % 1_000 < 990 ? i : r.nextInt(n)),
+        };
+    }
+
+    @Test void
+    givenSmallCutoffs_whenSort_thenSameArrayAndComparesAsSequential() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int n : new int[]{2, 3, 17, 1_000, 20_000}) {
+            for (Integer[] a : inputs(n)) {
+                for (int c : new int[]{1, 4, 32}) {
+                    for (int p : new int[]{0, 1, 8}) {
+                        Integer[] expected = a.clone(), actual = a.clone();
+                        long compares = LevelSortAdaptive.sort(expected, c);
+                        assertEquals(compares, ParallelLevelSort.sort(actual, c, new SortContext(pool, 64, p)));
+                        assertArrayEquals(expected, actual);
+                    }
+                }
+            }
+        }
+        pool.shutdown();
+    }
+
+    @Test void
+    givenCommonPool_whenSort_thenSameComparesAsSequential() {
+        Integer[] a = Handler.randomize(Handler.generate(200_000, i -> i));
+        Integer[] b = a.clone();
+        assertEquals(LevelSortAdaptive.sort(b, 16), ParallelLevelSort.sort(a, 16));
+        assertTrue(Util.isSorted(a));
+    }
+
+    @Test void
+    givenEqualKeys_whenSort_thenStable() {
+        TestData[] a = Handler.generate(10_000, i -> new TestData(i, (i * 31) % 97));
+        ParallelLevelSort.sort(a, 8, new SortContext(new ForkJoinPool(3), 100, 4));
+        for (int i = 1; i < a.length; i++)
+            if (a[i].compareTo(a[i - 1]) == 0) assertTrue(a[i - 1].id() < a[i].id());
+    }
+
+    @Test void
+    givenSortedRuns_whenMergeCompares_thenAsSequentialMerge() {
+        for (int t = 0; t < 200; t++) {
+            int n = 2 + r.nextInt(50), mid = r.nextInt(n - 1);
+            Integer[] a = Handler.generate(n, i -> r.nextInt(20));
+            java.util.Arrays.sort(a, 0, mid + 1);
+            java.util.Arrays.sort(a, mid + 1, n);
+            int expected = ParallelLevelSort.mergeCompares(a, 0, mid, n - 1);
+            assertEquals(Merge.merge(a, new Integer[n], 0, mid, n - 1), expected);
+        }
+    }
+
+    @Test void
+    givenParallelSort_whenFinished_thenWorkAndSpanRecorded() {
+        SortContext ctx = new SortContext(new ForkJoinPool(4), 256, 4);
+        ParallelLevelSort.sort(Handler.randomize(Handler.generate(50_000, i -> i)), 8, ctx);
+        assertTrue(ctx.work() > 0);
+        assertTrue(ctx.span() < ctx.work());
+        assertThrows(IllegalArgumentException.class, () -> ParallelLevelSort.sort(new Integer[]{1}, 0, ctx));
+        ctx.pool().shutdown();
+    }
+}
@@ -11,6 +11,7 @@ import static sorting.Util.isSorted;
 import static sorting.RecursiveMergeSortParallel.sort;
 
 import java.util.Arrays;
+import java.util.Random;
 
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.RepeatedTest;
@@ -326,14 +327,70 @@ public class RecursiveMergeSortParallelTest {
     @Test void givenParallelSortSeqMerge_whenMeasureSpan_ReturnSpan() {
         Integer[] a = {4,2,3,1,5,6,7};
         Integer[] aux = a.clone();
-        int span = sort(a, 4, 0, true);
-        int lc = TopDownMergeSort.sort(new Integer[]{4,2,3,1});
-        int rc = TopDownMergeSort.sort(new Integer[]{5,6,7});
+        long span = sort(a, 4, 0, true);
+        long lc = TopDownMergeSort.sort(new Integer[]{4,2,3,1});
+        long rc = TopDownMergeSort.sort(new Integer[]{5,6,7});
         int mc = Merge.merge(a, aux, 0, 3, 6);
-        int expectedcmp = Math.max(lc, rc) + mc;
+        long expectedcmp = Math.max(lc, rc) + mc;
 
         assertEquals(expectedcmp, span);
     }
 
+    // ====================================
+    // Primitive tests
+    // ====================================
+
+    @Test void
+    givenRandomIntArray_whenSort_thenSortedWithSameComparesAsBoxed() {
+        int[] actual    = new Random(1).ints(1_000, 0, 100).toArray();
+        Integer[] boxed = Arrays.stream(actual).boxed().toArray(Integer[]::new);
+        int[] expected  = actual.clone();
+        Arrays.sort(expected);
+        assertEquals(RecursiveMergeSortParallel.sort(boxed, 64, 4), RecursiveMergeSortParallel.sort(actual, 64, 4));
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test void
+    givenRandomLongArray_whenSort_thenSortedWithSameComparesAsBoxed() {
+        long[] actual   = new Random(2).longs(1_000).toArray();
+        Long[] boxed    = Arrays.stream(actual).boxed().toArray(Long[]::new);
+        long[] expected = actual.clone();
+        Arrays.sort(expected);
+        assertEquals(RecursiveMergeSortParallel.sort(boxed, 64, 4), RecursiveMergeSortParallel.sort(actual, 64, 4));
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test void
+    givenDoubleArrayWithSpecialValues_whenSort_thenSortedLikeBoxedDoubles() {
+        double[] actual   = {3.5, Double.NaN, -0.0, 0.0, -1.0, Double.NEGATIVE_INFINITY, 0.0, -0.0, 2.0, Double.NaN, 1e-300};
+        Double[] boxed    = Arrays.stream(actual).boxed().toArray(Double[]::new);
+        double[] expected = actual.clone();
+        Arrays.sort(expected);
+        assertEquals(RecursiveMergeSortParallel.sort(boxed, 64, 4), RecursiveMergeSortParallel.sort(actual, 64, 4));
+        assertArrayEquals(expected, actual);
+    }
+
+    // ====================================
+    // Parallel merging
+    // ====================================
+
+    @Test void
+    givenDuplicates_whenSortWithParallelMerges_thenSortedStably() {
+        for (int p : new int[]{2, 4, 16}) {
+            TestData[] actual   = Handler.randomize(generate(10_000, i -> new TestData(i, i / 7)));
+            TestData[] expected = actual.clone();
+            Arrays.sort(expected);
+            sort(actual, 64, p);
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test void
+    givenParallelMerges_whenMeasureSpan_thenSpanBelowWork() {
+        Integer[] in = Handler.randomize(generate(10_000, i -> i));
+        long work = sort(in.clone(), 64, 8, false);
+        long span = sort(in,         64, 8, true);
+        assertTrue(span < work);
+        assertTrue(isSorted(in));
+    }
 }
-        
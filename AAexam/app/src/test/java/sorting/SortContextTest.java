@@ -0,0 +1,114 @@
+package sorting;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import data.Handler;
+
+public class SortContextTest {
+
+    @Test void
+    givenCutoffBelowOne_whenCreate_thenThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new SortContext(0, 4));
+    }
+
+    @Test void
+    givenNegativeP_whenCreate_thenThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new SortContext(4, -1));
+    }
+
+    @Test void
+    givenSmallerArrays_whenAux_thenBufferReusedWithCopy() {
+        SortContext ctx = new SortContext(4, 2);
+        Integer[] first  = ctx.aux(new Integer[]{3,2,1,0});
+        Integer[] second = ctx.aux(new Integer[]{7,8});
+        assertSame(first, second);
+        assertArrayEquals(new Integer[]{7,8}, Arrays.copyOf(second, 2));
+    }
+
+    @Test void
+    givenLargerArray_whenAux_thenBufferGrowsGeometrically() {
+        SortContext ctx = new SortContext(4, 2);
+        ctx.aux(new int[10]);
+        assertEquals(20, ctx.aux(new int[11]).length);
+        assertEquals(50, ctx.aux(new int[50]).length);
+    }
+
+    @Test void
+    givenSeveralSorts_whenSort_thenWorkAndSpanAccumulateUntilReset() {
+        SortContext ctx = new SortContext(16, 4);
+        Integer[] in    = Handler.randomize(Handler.generate(1_000, i -> i));
+        long first      = RecursiveMergeSortParallel.sort(in.clone(), ctx);
+        long second     = RecursiveMergeSortParallel.sort(in.clone(), ctx);
+        assertEquals(first, second);
+        assertEquals(first + second, ctx.work());
+        assertTrue(ctx.span() < ctx.work());
+        assertEquals(RecursiveMergeSortParallel.sort(in.clone(), 16, 4, true) * 2L, ctx.span());
+        ctx.reset();
+        assertEquals(0, ctx.work());
+        assertEquals(0, ctx.span());
+    }
+
+    @Test void
+    givenSeparateContexts_whenSortConcurrently_thenEachSortedWithItsOwnCounts() throws InterruptedException {
+        Integer[] in     = Handler.randomize(Handler.generate(20_000, i -> i));
+        long expected    = RecursiveMergeSortParallel.sort(in.clone(), 32, 8);
+        Integer[][] outs = new Integer[4][];
+        SortContext[] ctxs = new SortContext[4];
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int i   = t;
+            outs[i] = in.clone();
+            ctxs[i] = new SortContext(new ForkJoinPool(1 + i), 32, 8);
+            threads[i] = new Thread(() -> { for (int r = 0; r < 5; r++) RecursiveMergeSortParallel.sort(outs[i].clone(), ctxs[i]);
+                                            RecursiveMergeSortParallel.sort(outs[i], ctxs[i]); });
+            threads[i].start();
+        }
+        Integer[] sorted = in.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].join();
+            assertArrayEquals(sorted, outs[i]);
+            assertEquals(6L * expected, ctxs[i].work());
+            ctxs[i].pool().shutdown();
+        }
+    }
+
+    @Test void
+    givenParallelSort_whenProfile_thenWorkAndSpanOfComparesMovesAndTime() {
+        int n = 10_000;
+        SortContext ctx = new SortContext(new ForkJoinPool(4), 500, 4);
+        Integer[] a = Handler.randomize(Handler.generate(n, i -> i));
+        RecursiveMergeSortParallel.sort(a, ctx);
+        WorkSpan ws = ctx.profile();
+        assertEquals(ctx.work(), ws.compares());
+        assertEquals(ctx.span(), ws.compareSpan());
+        assertEquals(RecursiveMergeSortParallel.sortIntoMoves(n), ws.moves()); // Each level moves every element once
+        assertTrue(ws.moveSpan() < ws.moves());
+        assertTrue(0 < ws.nanoSpan() && ws.nanoSpan() <= ws.nanos());
+        ctx.reset();
+        assertEquals(WorkSpan.ZERO, ctx.profile());
+        ctx.pool().shutdown();
+    }
+
+    @Test void
+    givenSequentialMerges_whenProfile_thenMovesOfTopDownSort() {
+        for (int n : new int[]{1, 2, 3, 7, 100, 1000}) {
+            SortContext ctx = new SortContext(new ForkJoinPool(2), 8, 0);
+            RecursiveMergeSortParallel.sort(Handler.randomize(Handler.generate(n, i -> i)), ctx);
+            assertEquals(RecursiveMergeSortParallel.sortIntoMoves(n), ctx.profile().moves());
+            ctx.pool().shutdown();
+        }
+        assertEquals(0, RecursiveMergeSortParallel.sortIntoMoves(1));
+        assertEquals(5, RecursiveMergeSortParallel.sortIntoMoves(3));
+        assertEquals(24, RecursiveMergeSortParallel.sortIntoMoves(8));
+    }
+}
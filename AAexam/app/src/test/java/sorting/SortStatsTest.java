@@ -0,0 +1,100 @@
+package sorting;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import data.Handler;
+
+public class SortStatsTest {
+
+    private static long total(SortStats s) {
+        return Arrays.stream(SortStats.Phase.values()).mapToLong(s::compares).sum();
+    }
+
+    @Test void
+    givenLevelSortWithStats_whenSort_thenPhasesAddUpToCompares() {
+        for (Merge.Mode mode : Merge.Mode.values()) {
+            SortStats stats = new SortStats();
+            Integer[] a     = Handler.randomize(Handler.generate(5_000, i -> i));
+            Integer[] b     = a.clone();
+            long compares   = LevelSortAdaptive.sort(a, 8, mode, stats);
+            assertEquals(LevelSortAdaptive.sort(b, 8, mode), compares);
+            assertArrayEquals(b, a);
+            assertEquals(compares, total(stats));
+            assertEquals(1, stats.sorts());
+        }
+    }
+
+    @Test void
+    givenBinomialSortWithStats_whenSort_thenPhasesAddUpToCompares() {
+        for (Merge.Mode mode : Merge.Mode.values()) {
+            SortStats stats = new SortStats();
+            Integer[] a     = Handler.randomize(Handler.generate(5_000, i -> i));
+            Integer[] b     = a.clone();
+            long compares   = BinomialSortAdaptive.sort(a, 8, mode, stats);
+            assertEquals(BinomialSortAdaptive.sort(b, 8, mode), compares);
+            assertArrayEquals(b, a);
+            assertEquals(compares, total(stats));
+        }
+    }
+
+    // An integer counting every compare made on it, also those the sorts do not count
+    private record Counted(int value, long[] count) implements Comparable<Counted> {
+        public int compareTo(Counted o) { count[0]++; return Integer.compare(value, o.value); }
+    }
+
+    @Test void
+    givenStats_whenSort_thenNoMoreComparesThanWithout() {
+        long[] count    = new long[1];
+        Counted[] a     = Handler.generate(3_000, i -> new Counted((i < 1_000) ? -i : i % 700, count));
+        SortStats stats = new SortStats();
+        LevelSortAdaptive.sort(a.clone(), 8, Merge.Mode.COPY);
+        long without    = count[0];
+        count[0]        = 0;
+        LevelSortAdaptive.sort(a, 8, Merge.Mode.COPY, stats);
+        assertEquals(without, count[0]);
+        assertEquals(1_000, stats.moves(SortStats.Phase.EXPLORE)); // The descending run of the first 1,000 is reversed
+    }
+
+    @Test void
+    givenFourAscendingRuns_whenSort_thenRunsAndMergesCounted() {
+        SortStats stats = new SortStats();
+        Integer[] a     = Handler.generate(4_000, i -> i % 1_000);
+        LevelSortAdaptive.sort(a, 8, Merge.Mode.COPY, stats);
+        assertEquals(4, stats.runs());
+        assertEquals(1_000, stats.meanRunLength(), 1e-9);
+        assertEquals(4, stats.runLengths()[9]);       // 512 <= 1000 < 1024
+        assertEquals(3, stats.merges());
+        assertEquals(3, Arrays.stream(stats.mergeSizes()).sum());
+        assertEquals(0, stats.compares(SortStats.Phase.PAD));
+        assertEquals(2 * (2_000 + 2_000 + 4_000), stats.moves(SortStats.Phase.MERGE));
+    }
+
+    @Test void
+    givenFourAscendingRuns_whenSortHalf_thenOnlyShorterRunsCopied() {
+        SortStats stats = new SortStats();
+        Integer[] a     = Handler.generate(4_000, i -> i % 1_000);
+        LevelSortAdaptive.sort(a, 8, Merge.Mode.HALF, stats);
+        assertEquals((2_000 + 1_000) + (2_000 + 1_000) + (4_000 + 2_000), stats.moves(SortStats.Phase.MERGE));
+    }
+
+    @Test void
+    givenReusedStats_whenSortTwiceAndReset_thenAccumulatedAndCleared() {
+        SortStats stats = new SortStats();
+        BinomialSortAdaptive.sort(Handler.randomize(Handler.generate(1_000, i -> i)), 4, Merge.Mode.COPY, stats);
+        long once = stats.merges();
+        BinomialSortAdaptive.sort(Handler.randomize(Handler.generate(1_000, i -> i)), 4, Merge.Mode.COPY, stats);
+        assertEquals(2, stats.sorts());
+        assertTrue(stats.merges() > once);
+        assertTrue(stats.summary().contains("MERGE"));
+        stats.reset();
+        assertEquals(0, stats.sorts());
+        assertEquals(0, total(stats));
+        assertEquals(0, stats.runs());
+    }
+}
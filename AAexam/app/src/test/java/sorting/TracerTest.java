@@ -0,0 +1,81 @@
+package sorting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import data.Handler;
+
+public class TracerTest {
+
+    @Test void
+    givenTracedSort_whenFinished_thenEveryTaskAndItsWorkRecorded() {
+        Tracer tracer   = new Tracer();
+        SortContext ctx = new SortContext(new ForkJoinPool(4), 1_000, 4).trace(tracer);
+        Integer[] a     = Handler.randomize(Handler.generate(8_000, i -> i));
+        RecursiveMergeSortParallel.sort(a, ctx);
+        assertTrue(Util.isSorted(a));
+        // Cutoff 1000 splits 8000 elements into 8 leaves: 15 tasks, 8 sorts, and 7 merges of one chunk or more
+        List<Tracer.Utilization> us = tracer.utilization();
+        assertEquals(15, us.stream().mapToInt(Tracer.Utilization::tasks).sum());
+        assertTrue(tracer.events() >= 15 + 8 + 7);
+        assertEquals(0, tracer.dropped());
+        for (Tracer.Utilization u : us) assertTrue(0 <= u.share() && u.share() <= 1);
+        ctx.pool().shutdown();
+    }
+
+    @Test void
+    givenUntracedContext_whenSort_thenNothingRecorded() {
+        Tracer tracer   = new Tracer();
+        SortContext ctx = new SortContext(new ForkJoinPool(2), 100, 2).trace(tracer).trace(null);
+        RecursiveMergeSortParallel.sort(Handler.randomize(Handler.generate(1_000, i -> i)), ctx);
+        assertEquals(0, tracer.events());
+        ctx.pool().shutdown();
+    }
+
+    @Test void
+    givenSmallRing_whenOverfull_thenOldestDropped() {
+        Tracer tracer = new Tracer(4);
+        for (int i = 0; i < 10; i++) tracer.record(Tracer.Kind.SORT, i, i + 1, 0, 1, false);
+        assertEquals(4, tracer.events());
+        assertEquals(6, tracer.dropped());
+        assertEquals(4, tracer.utilization().getFirst().busy());       // Events 6 .. 9, one nanosecond each
+        assertThrows(IllegalArgumentException.class, () -> new Tracer(0));
+    }
+
+    @Test void
+    givenNestedWork_whenUtilization_thenOverlapCountedOnce() {
+        Tracer tracer = new Tracer();
+        tracer.record(Tracer.Kind.TASK, 0, 100, 0, 10, true);
+        tracer.record(Tracer.Kind.SORT, 10, 40, 1, 5, false);
+        tracer.record(Tracer.Kind.CHUNK, 30, 50, 1, 5, false);
+        Tracer.Utilization u = tracer.utilization().getFirst();
+        assertEquals(40, u.busy());
+        assertEquals(0.4, u.share());
+        assertEquals(1, u.tasks());
+        assertEquals(1, u.steals());
+    }
+
+    @Test void
+    givenEvents_whenWriteJson_thenChromeTraceEvents() throws IOException {
+        Tracer tracer = new Tracer();
+        tracer.record(Tracer.Kind.MERGE, 1_000, 3_000, 2, 64, false);
+        Path file = Files.createTempFile("trace", ".json");
+        tracer.writeJson(file);
+        String json = Files.readString(file);
+        assertTrue(json.startsWith("{\"displayTimeUnit\":\"ns\",\"traceEvents\":["));
+        assertTrue(json.contains("\"name\":\"merge\",\"cat\":\"sort\",\"ph\":\"X\""));
+        assertTrue(json.contains("\"dur\":2.000"));
+        assertTrue(json.contains("\"args\":{\"depth\":2,\"size\":64,\"stolen\":false}"));
+        assertTrue(json.contains("\"ph\":\"M\""));
+        Files.delete(file);
+    }
+}
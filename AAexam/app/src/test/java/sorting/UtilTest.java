@@ -222,4 +222,27 @@ public class UtilTest {
 
     
 
+    // ========================================
+    // Primitive versions
+
+    @Test
+    void givenPrimitiveArrays_whenIsSorted_thenMatchesBoxed() {
+        assertTrue(Util.isSorted(new int[]{1,2,2,3}));
+        assertTrue(!Util.isSorted(new long[]{1,3,2}));
+        assertTrue(Util.isSorted(new double[]{-0.0, 0.0, Double.NaN}));
+        assertTrue(!Util.isSorted(new double[]{0.0, -0.0}));
+    }
+
+    @Test
+    void givenDecreasingIntRun_whenExploreRun_thenReverseAndReturnLastIndex() {
+        int[] a = new int[]{5,4,3,6,1};
+        assertEquals(2, Util.exploreRun(a, 0));
+        assertArrayEquals(new int[]{3,4,5,6,1}, a);
+    }
+
+    @Test
+    void givenIncreasingDoubleRun_whenExploreRun_thenReturnLastIndex() {
+        double[] a = new double[]{-1.0, -0.0, 0.0, 0.0, Double.NaN, 2.0};
+        assertEquals(4, Util.exploreRun(a, 0));
+    }
 }
@@ -0,0 +1,32 @@
+package sorting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class WorkSpanTest {
+
+    @Test void
+    givenWorkAndSpan_whenPredict_thenBrentAndUpperBound() {
+        WorkSpan ws = new WorkSpan(0, 0, 0, 0, 1000, 100);
+        assertEquals(10.0, ws.parallelism());
+        assertEquals(1.0, ws.brentSpeedup(1));
+        assertEquals(1000 / (900 / 4.0 + 100), ws.brentSpeedup(4));
+        assertEquals(4.0, ws.maxSpeedup(4));
+        assertEquals(10.0, ws.maxSpeedup(64));
+    }
+
+    @Test void
+    givenTwoProfiles_whenPlus_thenSummed() {
+        WorkSpan a = new WorkSpan(1, 2, 3, 4, 5, 6);
+        assertEquals(new WorkSpan(2, 4, 6, 8, 10, 12), a.plus(a));
+        assertEquals(a, WorkSpan.ZERO.plus(a));
+    }
+
+    @Test void
+    givenNoProcessors_whenPredict_thenThrow() {
+        assertThrows(IllegalArgumentException.class, () -> WorkSpan.ZERO.brentSpeedup(0));
+        assertEquals(1.0, WorkSpan.ZERO.brentSpeedup(8));
+    }
+}
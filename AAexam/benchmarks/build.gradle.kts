@@ -0,0 +1,38 @@
+/*
+ * JMH benchmarks of the sorting engines and merge kernels of the app project.
+ *
+ * Run all benchmarks with
+ *     ./gradlew :benchmarks:jmh
+ * or a subset with e.g.
+ *     ./gradlew :benchmarks:jmh -Pincludes=MergeKernelBenchmark
+ * Results are written as CSV to benchmarks/build/results/jmh/results.csv,
+ * for comparison with the output of Experiments.measure.
+ */
+
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    jmh(project(":app"))
+}
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh
+    if (project.hasProperty("includes"))
+        includes = listOf(project.property("includes") as String)
+    profilers = listOf("gc", "stack")
+    resultFormat = "CSV"
+    jvmArgsAppend = listOf("-Xms4g", "-Xmx4g")
+}
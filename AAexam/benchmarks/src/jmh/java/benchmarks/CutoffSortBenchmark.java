@@ -0,0 +1,57 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sorting.BinomialSort;
+import sorting.BinomialSortAdaptive;
+import sorting.BottomUpMergeSortCutoff;
+import sorting.LevelSort;
+import sorting.LevelSortAdaptive;
+import sorting.Merge;
+import sorting.TopDownMergeSortCutoff;
+
+/** The sequential engines with a cutoff c, and a merge mode. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CutoffSortBenchmark {
+    @Param({"10000", "1000000"})
+    int n;
+
+    @Param({"1", "8", "32"})
+    int c;
+
+    @Param
+    Distribution distribution;
+
+    @Param({"COPY", "PINGPONG", "GALLOP"})
+    Merge.Mode mode;
+
+    private Integer[] input, a;
+
+    @Setup(Level.Trial)      public void generate() { input = distribution.generate(n); }
+    @Setup(Level.Invocation) public void copy()     { a = input.clone(); }
+
+    @Benchmark public long topDownCutoff()    { return TopDownMergeSortCutoff.sort(a, c, mode); }
+    @Benchmark public long bottomUpCutoff()   { return BottomUpMergeSortCutoff.sort(a, c, mode); }
+    @Benchmark public long binomial()         { return BinomialSort.sort(a, c, mode); }
+    @Benchmark public long binomialAdaptive() { return BinomialSortAdaptive.sort(a, c, mode); }
+    @Benchmark public long level()            { return LevelSort.sort(a, c, mode); }
+    @Benchmark public long levelAdaptive()    { return LevelSortAdaptive.sort(a, c, mode); }
+}
@@ -0,0 +1,32 @@
+package benchmarks;
+
+import data.Handler;
+import data.Presortedness;
+
+/** The input distributions the benchmarks are parameterized over.
+ * Inputs are generated once per trial from a fixed seed, so every fork sorts the same data. */
+public enum Distribution {
+    /** A random permutation of 0 .. n-1 */
+    RANDOM,
+    /** 0 .. n-1 in order */
+    SORTED,
+    /** n-1 .. 0 */
+    REVERSED,
+    /** sqrt(n) ascending runs of random lengths */
+    RUNS,
+    /** Random values among 16 distinct ones */
+    DUPLICATES;
+
+    public static final long SEED = 298092841098572L;
+
+    public Integer[] generate(int n) {
+        Integer[] sorted = Handler.generate(n, i -> i);
+        return switch (this) {
+            case RANDOM     -> Handler.shuffle(sorted, SEED);
+            case SORTED     -> sorted;
+            case REVERSED   -> Handler.invert(sorted);
+            case RUNS       -> Presortedness.withRuns(sorted, Math.max(1, (int) Math.sqrt(n)), SEED);
+            case DUPLICATES -> Handler.generate(n, SEED, (i, r) -> r.nextInt(16));
+        };
+    }
+}
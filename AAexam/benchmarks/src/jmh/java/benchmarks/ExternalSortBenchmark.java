@@ -0,0 +1,61 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sorting.ExternalMergeSort;
+
+/** The external merge sort of a file of n Integers, over the chunk size and fan-in.
+ * Every sort takes at least a second, so each one is a sample of its own. */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ExternalSortBenchmark {
+    @Param({"10000000"})
+    int n;
+
+    @Param({"100000", "1000000"})
+    int chunkSize;
+
+    @Param({"4", "64"})
+    int fanIn;
+
+    private Path dir, in, out;
+
+    @Setup(Level.Trial) public void write() throws IOException {
+        dir = Files.createTempDirectory("external");
+        in  = dir.resolve("in");
+        out = dir.resolve("out");
+        Files.write(in, Arrays.stream(Distribution.RANDOM.generate(n)).map(String::valueOf).toList());
+    }
+
+    @TearDown(Level.Trial) public void delete() throws IOException {
+        Files.deleteIfExists(in);
+        Files.deleteIfExists(out);
+        Files.delete(dir);
+    }
+
+    @Benchmark public long external() throws IOException {
+        return ExternalMergeSort.sort(in, out, Integer::valueOf, new ExternalMergeSort.Config(chunkSize, fanIn, dir, 1 << 16));
+    }
+}
@@ -0,0 +1,40 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sorting.InsertionSort;
+
+/** Insertion sort at the sizes where the engines hand over to it. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class InsertionSortBenchmark {
+    @Param({"8", "16", "32", "64", "256"})
+    int n;
+
+    @Param
+    Distribution distribution;
+
+    private Integer[] input, a;
+
+    @Setup(Level.Trial)      public void generate() { input = distribution.generate(n); }
+    @Setup(Level.Invocation) public void copy()     { a = input.clone(); }
+
+    @Benchmark public long insertion() { return InsertionSort.sort(a); }
+}
@@ -0,0 +1,90 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sorting.Merge;
+import sorting.MergeParallel;
+import sorting.Util;
+
+/** The kernels the engines are built from, in isolation: a single merge of two sorted halves of n elements,
+ * sequential and parallel, the split search of the parallel merge, and a scan for runs. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MergeKernelBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    int n;
+
+    @Param({"RANDOM", "RUNS", "DUPLICATES"})
+    Distribution distribution;
+
+    Integer[] input, halves;
+    int mid;
+
+    @Setup(Level.Trial) public void generate() {
+        input  = distribution.generate(n);
+        halves = input.clone();
+        mid    = (n - 1) / 2;
+        Arrays.sort(halves, 0, mid + 1);
+        Arrays.sort(halves, mid + 1, n);
+    }
+
+    /** A fresh copy of the two sorted halves for each merge */
+    @State(Scope.Thread)
+    public static class Halves {
+        Integer[] a, aux;
+
+        @Setup(Level.Trial)      public void allocate(MergeKernelBenchmark b) { aux = new Integer[b.n]; }
+        @Setup(Level.Invocation) public void copy(MergeKernelBenchmark b)     { a = b.halves.clone(); }
+    }
+
+    /** A fresh copy of the input for each scan, as the scan reverses descending runs */
+    @State(Scope.Thread)
+    public static class Input {
+        Integer[] a;
+
+        @Setup(Level.Invocation) public void copy(MergeKernelBenchmark b) { a = b.input.clone(); }
+    }
+
+    @State(Scope.Thread)
+    public static class SequentialMode {
+        @Param({"COPY", "GALLOP"})
+        Merge.Mode mode;
+    }
+
+    @State(Scope.Thread)
+    public static class Parallelism {
+        @Param({"2", "8"})
+        int p;
+    }
+
+    @Benchmark public int merge(Halves h, SequentialMode m) { return Merge.merge(h.a, h.aux, 0, mid, n - 1, m.mode); }
+    @Benchmark public int mergeParallel(Halves h, Parallelism p) { return MergeParallel.merge(h.a, h.aux, 0, mid, n - 1, p.p); }
+
+    @Benchmark public MergeParallel.IntPair twoSequenceSelect() {
+        return MergeParallel.twoSequenceSelect(halves, 0, mid, n - 1, n / 2);
+    }
+
+    @Benchmark public int exploreRuns(Input in) {
+        int runs = 0;
+        for (int next = 0; next < n; next = Util.exploreRun(in.a, next) + 1) runs++;
+        return runs;
+    }
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sorting.RecursiveMergeSortParallel;
+import sorting.SortContext;
+
+/** The parallel merge sort, over the cutoff c below which it sorts sequentially, and the parallelism p of its merges.
+ * Each trial gets a pool of its own, with as many workers as available processors. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class ParallelSortBenchmark {
+    @Param({"1000000", "16000000"})
+    int n;
+
+    @Param({"1000", "100000"})
+    int c;
+
+    @Param({"0", "2", "8"})
+    int p;
+
+    @Param({"RANDOM", "RUNS"})
+    Distribution distribution;
+
+    private Integer[] input, a;
+    private SortContext ctx;
+
+    @Setup(Level.Trial) public void generate() {
+        input = distribution.generate(n);
+        ctx   = new SortContext(new ForkJoinPool(), c, p);
+    }
+
+    @TearDown(Level.Trial)   public void shutdown() { ctx.pool().shutdown(); }
+    @Setup(Level.Invocation) public void copy()     { a = input.clone(); }
+
+    @Benchmark public long recursiveParallel() { return RecursiveMergeSortParallel.sort(a, ctx); }
+}
@@ -0,0 +1,46 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sorting.BottomUpMergeSort;
+import sorting.TopDownMergeSort;
+
+/** The sequential engines without a cutoff, against {@link Arrays#sort} as a baseline.
+ * Each invocation sorts a fresh copy of the input; the compares are returned so the sort cannot be eliminated. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SortBenchmark {
+    @Param({"10000", "1000000"})
+    int n;
+
+    @Param
+    Distribution distribution;
+
+    private Integer[] input, a;
+
+    @Setup(Level.Trial)      public void generate() { input = distribution.generate(n); }
+    @Setup(Level.Invocation) public void copy()     { a = input.clone(); }
+
+    @Benchmark public long topDown()  { return TopDownMergeSort.sort(a); }
+    @Benchmark public long bottomUp() { return BottomUpMergeSort.sort(a); }
+
+    @Benchmark public Integer[] arraysSort() { Arrays.sort(a); return a; }
+}
@@ -12,3 +12,4 @@ plugins {
 
 rootProject.name = "AAexam"
 include("app")
+include("benchmarks")